@@ -139,7 +139,6 @@ CREATE INDEX IX_oc_service_registration_host_registration ON oc_service_registra
 CREATE TABLE oc_job (
   id BIGINT NOT NULL,
   status INTEGER,
-  payload MEDIUMTEXT,
   date_started DATETIME,
   run_time BIGINT,
   creator TEXT(65535) NOT NULL,
@@ -174,6 +173,22 @@ CREATE INDEX IX_oc_job_dispatchable ON oc_job (dispatchable);
 CREATE INDEX IX_oc_job_operation ON oc_job (operation);
 CREATE INDEX IX_oc_job_statistics ON oc_job (processor_service, status, queue_time, run_time);
 
+CREATE TABLE oc_job_payload (
+  id BIGINT NOT NULL,
+  payload MEDIUMTEXT,
+  PRIMARY KEY (id),
+  CONSTRAINT FK_oc_job_payload_id FOREIGN KEY (id) REFERENCES oc_job (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+CREATE TABLE oc_job_progress (
+  id BIGINT NOT NULL,
+  progress FLOAT NOT NULL DEFAULT 0,
+  date_expected DATETIME DEFAULT NULL,
+  date_updated DATETIME DEFAULT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT FK_oc_job_progress_id FOREIGN KEY (id) REFERENCES oc_job (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
 CREATE TABLE oc_job_argument (
   id BIGINT NOT NULL,
   argument TEXT(2147483647),
@@ -36,3 +36,25 @@ INSERT INTO oc_transcription_service_job (id, mediapackage_id, track_id, job_id,
  (SELECT id, media_package_id, track_id, job_id, date_created, date_completed, status, track_duration, 1 FROM oc_ibm_watson_transcript_job);
 
 DROP TABLE oc_ibm_watson_transcript_job;
+
+-- Store job payloads apart from the job row
+CREATE TABLE oc_job_payload (
+  id BIGINT NOT NULL,
+  payload MEDIUMTEXT,
+  PRIMARY KEY (id),
+  CONSTRAINT FK_oc_job_payload_id FOREIGN KEY (id) REFERENCES oc_job (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+INSERT INTO oc_job_payload (id, payload) SELECT id, payload FROM oc_job;
+
+ALTER TABLE oc_job DROP COLUMN payload;
+
+-- Store the progress reported for running jobs
+CREATE TABLE oc_job_progress (
+  id BIGINT NOT NULL,
+  progress FLOAT NOT NULL DEFAULT 0,
+  date_expected DATETIME DEFAULT NULL,
+  date_updated DATETIME DEFAULT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT FK_oc_job_progress_id FOREIGN KEY (id) REFERENCES oc_job (id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
@@ -40,6 +40,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.FormParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
@@ -142,16 +143,20 @@ public class IndexEndpoint {
 
   @POST
   @Path("recreateIndex")
-  @RestQuery(name = "recreateIndex", description = "Clear and repopulates the Admin UI Index directly from the Services",
-    returnDescription = "OK if repopulation has started", reponses = {
+  @RestQuery(name = "recreateIndex", description = "Repopulates the Admin UI Index directly from the Services. "
+    + "The current index remains available until the repopulated index replaces it.",
+    returnDescription = "OK if repopulation has started", restParameters = {
+      @RestParameter(name = "resume", isRequired = false, defaultValue = "false", description = "Whether to resume an "
+        + "earlier repopulation that did not finish, skipping the services it has already completed",
+        type = RestParameter.Type.BOOLEAN) }, reponses = {
     @RestResponse(description = "OK if repopulation has started", responseCode = HttpServletResponse.SC_OK) })
-  public Response recreateIndex() {
+  public Response recreateIndex(@FormParam("resume") final boolean resume) {
     final SecurityContext securityContext = new SecurityContext(securityService, securityService.getOrganization(),
             securityService.getUser());
     executor.execute(() -> securityContext.runInContext(() -> {
       try {
         logger.info("Starting to repopulate the index");
-        adminUISearchIndex.recreateIndex();
+        adminUISearchIndex.recreateIndex(resume);
       } catch (InterruptedException e) {
         logger.error("Repopulating the index was interrupted", e);
       } catch (CancellationException e) {
@@ -83,8 +83,10 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.servlet.http.HttpServletResponse;
@@ -445,16 +447,26 @@ public class JobEndpoint {
 
     WorkflowInstance[] items = workflowInstances.getItems();
 
+    // Retrieve the submission dates with the workflow instances' main jobs
+    List<Long> instanceIds = new ArrayList<>(items.length);
     for (WorkflowInstance instance : items) {
-      long instanceId = instance.getId();
-      // Retrieve submission date with the workflow instance main job
-      Date created;
-      try {
-        created = serviceRegistry.getJob(instanceId).getDateCreated();
-      } catch (ServiceRegistryException e) {
-        throw new JobEndpointException(String.format("Error when retrieving job %s from the service registry: %s",
-                instanceId, e), e.getCause());
+      instanceIds.add(instance.getId());
+    }
+    Map<Long, Date> submissionDates = new HashMap<>();
+    try {
+      for (Job job : serviceRegistry.getJobs(instanceIds, true)) {
+        submissionDates.put(job.getId(), job.getDateCreated());
       }
+    } catch (ServiceRegistryException e) {
+      throw new JobEndpointException(String.format("Error when retrieving jobs %s from the service registry: %s",
+              instanceIds, e), e.getCause());
+    }
+
+    for (WorkflowInstance instance : items) {
+      long instanceId = instance.getId();
+      if (!submissionDates.containsKey(instanceId))
+        throw new NotFoundException("Job " + instanceId + " not found");
+      Date created = submissionDates.get(instanceId);
 
       final String creatorName = instance.getCreatorName();
 
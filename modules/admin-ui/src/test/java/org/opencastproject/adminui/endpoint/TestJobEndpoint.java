@@ -57,6 +57,7 @@ public class TestJobEndpoint extends JobEndpoint {
   private WorkflowService workflowService;
   private MediaPackageBuilderImpl mpBuilder;
 
+  @SuppressWarnings("unchecked")
   public TestJobEndpoint() throws Exception {
     mpBuilder = new MediaPackageBuilderImpl();
     this.serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
@@ -105,6 +106,13 @@ public class TestJobEndpoint extends JobEndpoint {
 
 
     EasyMock.expect(serviceRegistry.getJob(EasyMock.anyLong())).andReturn(job).anyTimes();
+    EasyMock.expect(serviceRegistry.getJobs(EasyMock.<List<Long>> anyObject(), EasyMock.anyBoolean())).andAnswer(() -> {
+      List<Job> result = new ArrayList<>();
+      for (Long id : (List<Long>) EasyMock.getCurrentArguments()[0]) {
+        result.add(new JobImpl(id));
+      }
+      return result;
+    }).anyTimes();
     EasyMock.expect(workflowService.getWorkflowInstances(EasyMock.anyObject(WorkflowQuery.class)))
             .andReturn(workflowSet).anyTimes();
     EasyMock.expect(workflowService.countWorkflowInstances()).andReturn(workflowSet.size()).anyTimes();
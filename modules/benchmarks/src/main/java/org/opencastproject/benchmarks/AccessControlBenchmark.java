@@ -0,0 +1,127 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.authorization.xacml.XACMLParsingException;
+import org.opencastproject.authorization.xacml.XACMLUtils;
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.security.api.AccessControlEntry;
+import org.opencastproject.security.api.AccessControlList;
+import org.opencastproject.security.api.AccessControlParser;
+import org.opencastproject.security.api.AccessControlParsingException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBException;
+
+/**
+ * Benchmarks the serialization of access control lists, both in the internal formats and as XACML policies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class AccessControlBenchmark {
+
+  // CHECKSTYLE:OFF
+  /** The number of roles with access to the event */
+  @Param({ "2", "50" })
+  public int roles;
+  // CHECKSTYLE:ON
+
+  private MediaPackage mediaPackage;
+
+  private AccessControlList acl;
+
+  private String xml;
+
+  private String json;
+
+  private byte[] xacml;
+
+  @Setup
+  public void setUp() throws Exception {
+    mediaPackage = MediaPackageGenerator.generate(MediaPackageGenerator.Size.SMALL);
+    List<AccessControlEntry> entries = new ArrayList<>();
+    entries.add(new AccessControlEntry("ROLE_ADMIN", "read", true));
+    entries.add(new AccessControlEntry("ROLE_ADMIN", "write", true));
+    for (int i = 0; i < roles; i++) {
+      entries.add(new AccessControlEntry("ROLE_GROUP_COURSE_" + i, "read", true));
+      if (i % 5 == 0)
+        entries.add(new AccessControlEntry("ROLE_GROUP_COURSE_" + i, "write", true));
+    }
+    acl = new AccessControlList(entries);
+    xml = AccessControlParser.toXml(acl);
+    json = AccessControlParser.toJson(acl);
+    xacml = XACMLUtils.getXacml(mediaPackage, acl).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public String toXml() throws IOException {
+    return AccessControlParser.toXml(acl);
+  }
+
+  @Benchmark
+  public AccessControlList parseXml() throws IOException, AccessControlParsingException {
+    return AccessControlParser.parseAcl(xml);
+  }
+
+  @Benchmark
+  public String toJson() throws IOException {
+    return AccessControlParser.toJson(acl);
+  }
+
+  @Benchmark
+  public AccessControlList parseJson() throws IOException, AccessControlParsingException {
+    return AccessControlParser.parseAcl(json);
+  }
+
+  @Benchmark
+  public String toXacml() throws JAXBException {
+    return XACMLUtils.getXacml(mediaPackage, acl);
+  }
+
+  @Benchmark
+  public AccessControlList parseXacml() throws XACMLParsingException {
+    return XACMLUtils.parseXacml(new ByteArrayInputStream(xacml));
+  }
+
+}
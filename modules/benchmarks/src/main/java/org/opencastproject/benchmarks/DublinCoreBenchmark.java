@@ -0,0 +1,103 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.metadata.dublincore.DublinCore;
+import org.opencastproject.metadata.dublincore.DublinCoreCatalog;
+import org.opencastproject.metadata.dublincore.DublinCoreXmlFormat;
+import org.opencastproject.metadata.dublincore.DublinCores;
+import org.opencastproject.metadata.dublincore.OpencastDctermsDublinCore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading and writing episode Dublin Core catalogs, which are parsed by most workflow operations touching
+ * metadata and for every event that is indexed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DublinCoreBenchmark {
+
+  // CHECKSTYLE:OFF
+  /** The number of additional values per multi-valued property, e. g. creators and subjects */
+  @Param({ "1", "20" })
+  public int values;
+  // CHECKSTYLE:ON
+
+  private DublinCoreCatalog catalog;
+
+  private String xml;
+
+  @Setup
+  public void setUp() throws Exception {
+    OpencastDctermsDublinCore.Episode episode = DublinCores.mkOpencastEpisode("b8d5d6cf-8a1a-4b38-a2be-9b4e7b9c1f11");
+    episode.setTitle("Lecture: Introduction to Distributed Systems & Networks");
+    episode.setDescription("An introduction to the basic concepts of distributed systems: communication, "
+            + "replication, consistency and fault tolerance.");
+    episode.setCreated(new Date(1514764800000L));
+    episode.setLicense("CC-BY-SA");
+    episode.setIsPartOf("4f0a9a8b-52c0-4d4c-a1a3-6e2f0b6f7c12");
+    episode.setSpatial("Lecture Hall 1");
+    catalog = episode.getCatalog();
+    catalog.set(DublinCore.PROPERTY_LANGUAGE, "eng");
+    for (int i = 0; i < values; i++) {
+      catalog.add(DublinCore.PROPERTY_CREATOR, "Creator " + i);
+      catalog.add(DublinCore.PROPERTY_CONTRIBUTOR, "Contributor " + i);
+      catalog.add(DublinCore.PROPERTY_SUBJECT, "Subject " + i);
+    }
+    xml = DublinCoreXmlFormat.writeString(catalog);
+  }
+
+  @Benchmark
+  public DublinCoreCatalog read() throws Exception {
+    return DublinCoreXmlFormat.read(xml);
+  }
+
+  @Benchmark
+  public String write() {
+    return DublinCoreXmlFormat.writeString(catalog);
+  }
+
+  @Benchmark
+  public String writeCatalog() throws IOException {
+    return catalog.toXmlString();
+  }
+
+}
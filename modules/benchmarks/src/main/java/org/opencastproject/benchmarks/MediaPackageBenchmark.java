@@ -0,0 +1,108 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.MediaPackageImpl;
+import org.opencastproject.mediapackage.MediaPackageParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+/**
+ * Benchmarks the serialization of media packages.
+ * <p>
+ * Next to the regular code paths, the media package is also marshalled and unmarshalled using plain JAXB, which is the
+ * baseline for the streaming serialization done by {@link MediaPackageParser}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MediaPackageBenchmark {
+
+  // CHECKSTYLE:OFF
+  @Param({ "SMALL", "MEDIUM", "LARGE" })
+  public MediaPackageGenerator.Size size;
+  // CHECKSTYLE:ON
+
+  private MediaPackage mediaPackage;
+
+  private String xml;
+
+  private JAXBContext context;
+
+  @Setup
+  public void setUp() throws Exception {
+    mediaPackage = MediaPackageGenerator.generate(size);
+    xml = MediaPackageParser.getAsXml(mediaPackage);
+    context = JAXBContext.newInstance("org.opencastproject.mediapackage", MediaPackageImpl.class.getClassLoader());
+  }
+
+  @Benchmark
+  public String serialize() {
+    return MediaPackageParser.getAsXml(mediaPackage);
+  }
+
+  @Benchmark
+  public String serializeJaxb() throws JAXBException {
+    Marshaller marshaller = context.createMarshaller();
+    StringWriter writer = new StringWriter();
+    marshaller.marshal(mediaPackage, writer);
+    return writer.toString();
+  }
+
+  @Benchmark
+  public MediaPackage parse() throws MediaPackageException {
+    return MediaPackageParser.getFromXml(xml);
+  }
+
+  @Benchmark
+  public MediaPackage parseJaxb() throws MediaPackageException {
+    return MediaPackageImpl.valueOf(xml);
+  }
+
+  @Benchmark
+  public Object cloneMediaPackage() {
+    return mediaPackage.clone();
+  }
+
+}
@@ -0,0 +1,266 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.Attachment;
+import org.opencastproject.mediapackage.Catalog;
+import org.opencastproject.mediapackage.CatalogImpl;
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageBuilderFactory;
+import org.opencastproject.mediapackage.MediaPackageElementFlavor;
+import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.Publication;
+import org.opencastproject.mediapackage.PublicationImpl;
+import org.opencastproject.mediapackage.Track;
+import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.mediapackage.identifier.IdImpl;
+import org.opencastproject.mediapackage.track.AudioStreamImpl;
+import org.opencastproject.mediapackage.track.ScanType;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.mediapackage.track.VideoStreamImpl;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.util.MimeTypes;
+
+import java.net.URI;
+import java.util.Date;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates media packages resembling those found on production systems: source tracks with their delivery encodings,
+ * metadata catalogs, preview images and publications referencing copies of the distributed elements.
+ * <p>
+ * The generated media packages only depend on the requested size, so that runs on different revisions work on the same
+ * data.
+ */
+public final class MediaPackageGenerator {
+
+  /** Sizes of generated media packages */
+  public enum Size {
+
+    /** A freshly ingested recording */
+    SMALL(2, 1, 2, 0, 0),
+
+    /** A processed and published recording */
+    MEDIUM(2, 3, 4, 12, 2),
+
+    /** A recording with many renditions, segments and publication channels */
+    LARGE(4, 6, 12, 80, 5);
+
+    /** The number of source tracks */
+    private final int sources;
+
+    /** The number of encoded renditions for each source track */
+    private final int renditions;
+
+    /** The number of metadata catalogs */
+    private final int catalogs;
+
+    /** The number of attachments, e. g. segment previews */
+    private final int attachments;
+
+    /** The number of publications */
+    private final int publications;
+
+    Size(int sources, int renditions, int catalogs, int attachments, int publications) {
+      this.sources = sources;
+      this.renditions = renditions;
+      this.catalogs = catalogs;
+      this.attachments = attachments;
+      this.publications = publications;
+    }
+
+  }
+
+  /** The base URL of the generated elements */
+  private static final String BASE_URL = "https://opencast.example.org/files/mediapackage/";
+
+  /** Flavor types of the source tracks */
+  private static final String[] SOURCE_TYPES = { "presenter", "presentation", "presenter2", "presentation2" };
+
+  /** Flavors of the metadata catalogs */
+  private static final String[] CATALOG_FLAVORS = { "dublincore/episode", "dublincore/series", "security/xacml+episode",
+          "security/xacml+series", "mpeg-7/segments", "smil/cutting", "captions/vtt+en", "text/ocr",
+          "dublincore/extended", "timeline/preview", "mpeg-7/text", "captions/dfxp+de" };
+
+  /** Publication channels */
+  private static final String[] CHANNELS = { "engage-player", "api", "oaipmh-default", "internal", "youtube" };
+
+  private MediaPackageGenerator() {
+  }
+
+  /**
+   * Generates a media package.
+   *
+   * @param size
+   *          the size of the media package
+   * @return the media package
+   * @throws MediaPackageException
+   *           if the media package cannot be created
+   */
+  public static MediaPackage generate(Size size) throws MediaPackageException {
+    Random random = new Random(size.ordinal());
+    MediaPackage mediaPackage = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder()
+            .createNew(new IdImpl(uuid(random).toString()));
+    mediaPackage.setTitle("Lecture " + size.ordinal() + ": Introduction to Distributed Systems & Networks");
+    mediaPackage.setSeries(uuid(random).toString());
+    mediaPackage.setSeriesTitle("Distributed Systems <Winter Term>");
+    mediaPackage.setDate(new Date(1514764800000L));
+    mediaPackage.setLicense("CC-BY-SA");
+    mediaPackage.setLanguage("en");
+    mediaPackage.addCreator("Jane Doe");
+    mediaPackage.addCreator("John Roe");
+    mediaPackage.addContributor("Department of Computer Science");
+    mediaPackage.addSubject("Computer Science");
+    mediaPackage.addSubject("Networks");
+
+    long duration = 5400000L;
+    for (int i = 0; i < size.sources; i++) {
+      String type = SOURCE_TYPES[i % SOURCE_TYPES.length];
+      mediaPackage.add(track(random, type + "/source", "video/x-matroska", duration, 1920, 1080, i));
+      for (int j = 0; j < size.renditions; j++) {
+        int height = 1080 / (j + 1);
+        TrackImpl track = track(random, type + "/delivery", "video/mp4", duration, height * 16 / 9, height, j);
+        track.addTag("engage-download");
+        track.addTag("engage-streaming");
+        track.addTag(height + "p-quality");
+        mediaPackage.add(track);
+      }
+    }
+
+    for (int i = 0; i < size.catalogs; i++) {
+      mediaPackage.add(catalog(random, CATALOG_FLAVORS[i % CATALOG_FLAVORS.length]));
+    }
+
+    for (int i = 0; i < size.attachments; i++) {
+      String type = SOURCE_TYPES[i % 2];
+      mediaPackage.add(attachment(random, type + (i < 2 ? "/player+preview" : "/segment+preview"), "image/jpeg"));
+    }
+
+    for (int i = 0; i < size.publications; i++) {
+      String channel = CHANNELS[i % CHANNELS.length];
+      Publication publication = PublicationImpl.publication(uuid(random).toString(), channel,
+              URI.create("https://opencast.example.org/play/" + mediaPackage.getIdentifier()),
+              MimeTypes.parseMimeType("text/html"));
+      for (Track track : mediaPackage.getTracks()) {
+        if (track.getFlavor().getSubtype().equals("delivery")) {
+          TrackImpl copy = (TrackImpl) track.clone();
+          copy.setIdentifier(uuid(random).toString());
+          copy.setURI(URI.create("https://distribution.example.org/" + channel + "/" + track.getIdentifier() + ".mp4"));
+          publication.addTrack(copy);
+        }
+      }
+      for (Attachment attachment : mediaPackage.getAttachments()) {
+        Attachment copy = (Attachment) attachment.clone();
+        copy.setIdentifier(uuid(random).toString());
+        publication.addAttachment(copy);
+      }
+      for (Catalog catalog : mediaPackage.getCatalogs()) {
+        if ("dublincore".equals(catalog.getFlavor().getType())) {
+          Catalog copy = (Catalog) catalog.clone();
+          copy.setIdentifier(uuid(random).toString());
+          publication.addCatalog(copy);
+        }
+      }
+      mediaPackage.add(publication);
+    }
+    return mediaPackage;
+  }
+
+  private static TrackImpl track(Random random, String flavor, String mimeType, long duration, int width, int height,
+          int index) {
+    TrackImpl track = TrackImpl.fromURI(uri(random, "track.mp4"));
+    track.setIdentifier(uuid(random).toString());
+    track.setFlavor(MediaPackageElementFlavor.parseFlavor(flavor));
+    track.setMimeType(MimeTypes.parseMimeType(mimeType));
+    track.setChecksum(checksum(random));
+    track.setSize(random.nextInt(Integer.MAX_VALUE) * 4L);
+    track.setDuration(duration);
+
+    VideoStreamImpl video = new VideoStreamImpl(uuid(random).toString());
+    video.setFormat("H.264 / AVC / MPEG-4 AVC / MPEG-4 part 10");
+    video.setFrameCount(duration * 25 / 1000);
+    video.setBitRate(1000000.0f + index * 250000.0f);
+    video.setFrameRate(25.0f);
+    video.setFrameWidth(width);
+    video.setFrameHeight(height);
+    video.setScanType(ScanType.Progressive);
+    track.addStream(video);
+
+    AudioStreamImpl audio = new AudioStreamImpl(uuid(random).toString());
+    audio.setFormat("AAC (Advanced Audio Coding)");
+    audio.setFrameCount(duration * 44100 / 1024000);
+    audio.setChannels(2);
+    audio.setSamplingRate(44100);
+    audio.setBitRate(128000.0f);
+    audio.setPkLevDb(-1.5f);
+    audio.setRmsLevDb(-21.3f);
+    audio.setRmsPkDb(-9.7f);
+    track.addStream(audio);
+    return track;
+  }
+
+  private static Catalog catalog(Random random, String flavor) {
+    Catalog catalog = CatalogImpl.fromURI(uri(random, "catalog.xml"));
+    catalog.setIdentifier(uuid(random).toString());
+    catalog.setFlavor(MediaPackageElementFlavor.parseFlavor(flavor));
+    catalog.setMimeType(MimeTypes.parseMimeType("text/xml"));
+    catalog.setChecksum(checksum(random));
+    catalog.setSize(random.nextInt(65536));
+    catalog.addTag("archive");
+    catalog.addTag("engage-download");
+    return catalog;
+  }
+
+  private static Attachment attachment(Random random, String flavor, String mimeType) {
+    Attachment attachment = AttachmentImpl.fromURI(uri(random, "image.jpg"));
+    attachment.setIdentifier(uuid(random).toString());
+    attachment.setFlavor(MediaPackageElementFlavor.parseFlavor(flavor));
+    attachment.setMimeType(MimeTypes.parseMimeType(mimeType));
+    attachment.setChecksum(checksum(random));
+    attachment.setSize(random.nextInt(262144));
+    attachment.addTag("engage-download");
+    return attachment;
+  }
+
+  private static URI uri(Random random, String fileName) {
+    return URI.create(BASE_URL + uuid(random) + "/" + fileName);
+  }
+
+  private static Checksum checksum(Random random) {
+    String value = String.format("%016x%016x", random.nextLong(), random.nextLong());
+    return Checksum.create(ChecksumType.DEFAULT_TYPE, value);
+  }
+
+  /**
+   * Creates a random identifier, which, unlike {@link UUID#randomUUID()}, only depends on the given random generator.
+   *
+   * @param random
+   *          the random generator
+   * @return the identifier
+   */
+  static UUID uuid(Random random) {
+    return new UUID(random.nextLong(), random.nextLong());
+  }
+
+}
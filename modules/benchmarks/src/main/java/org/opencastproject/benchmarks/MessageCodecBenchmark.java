@@ -0,0 +1,119 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.message.broker.api.BaseMessage;
+import org.opencastproject.message.broker.api.workflow.WorkflowItem;
+import org.opencastproject.message.broker.impl.CompactMessageCodec;
+import org.opencastproject.security.api.AccessControlEntry;
+import org.opencastproject.security.api.AccessControlList;
+import org.opencastproject.security.api.DefaultOrganization;
+import org.opencastproject.security.api.JaxbOrganization;
+import org.opencastproject.security.api.JaxbRole;
+import org.opencastproject.security.api.JaxbUser;
+import org.opencastproject.workflow.api.WorkflowInstance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks encoding and decoding a workflow update message with Java serialization, as done for JMS object messages,
+ * and with the compact message codec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MessageCodecBenchmark {
+
+  // CHECKSTYLE:OFF
+  @Param({ "SMALL", "LARGE" })
+  public MediaPackageGenerator.Size size;
+  // CHECKSTYLE:ON
+
+  private final CompactMessageCodec codec = new CompactMessageCodec();
+
+  private BaseMessage message;
+
+  private byte[] serialized;
+
+  private byte[] encoded;
+
+  @Setup
+  public void setUp() throws Exception {
+    WorkflowInstance workflow = WorkflowGenerator.generate(10, MediaPackageGenerator.generate(size));
+    AccessControlList acl = new AccessControlList(new AccessControlEntry("ROLE_ADMIN", "write", true),
+            new AccessControlEntry("ROLE_USER", "read", true));
+    JaxbOrganization organization = JaxbOrganization.fromOrganization(new DefaultOrganization());
+    JaxbUser user = new JaxbUser("admin", "password", "Administrator", "admin@localhost", "opencast",
+            organization, Collections.singleton(new JaxbRole("ROLE_ADMIN", organization)));
+    message = new BaseMessage(organization, user, WorkflowItem.updateInstance(workflow, null, acl));
+    serialized = serialize();
+    encoded = encode();
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(message);
+    }
+    return bytes.toByteArray();
+  }
+
+  @Benchmark
+  public Object deserialize() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+      return in.readObject();
+    }
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return codec.encode(message);
+  }
+
+  @Benchmark
+  public Object decode() throws IOException, ClassNotFoundException {
+    return codec.decode(encoded);
+  }
+
+}
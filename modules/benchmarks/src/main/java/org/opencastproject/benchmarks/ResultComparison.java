@@ -0,0 +1,129 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two benchmark runs written by JMH using <code>-rf json</code>.
+ * <p>
+ * For every benchmark found in both runs, the scores and the relative change are printed. Changes are only reported as
+ * significant if the confidence intervals of the two scores do not overlap.
+ * <p>
+ * Usage: <code>java -cp target/benchmarks.jar org.opencastproject.benchmarks.ResultComparison baseline.json
+ * candidate.json</code>
+ */
+public final class ResultComparison {
+
+  private ResultComparison() {
+  }
+
+  /**
+   * @param args
+   *          the result files of the baseline and of the candidate run
+   */
+  public static void main(String[] args) throws IOException, ParseException {
+    if (args.length != 2)
+      throw new IllegalArgumentException("Usage: ResultComparison <baseline.json> <candidate.json>");
+    Map<String, JSONObject> baseline = read(args[0]);
+    Map<String, JSONObject> candidate = read(args[1]);
+
+    PrintWriter out = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true);
+    out.println(String.format("%-70s %22s %22s %9s", "Benchmark", "Baseline", "Candidate", "Change"));
+    for (Map.Entry<String, JSONObject> entry : baseline.entrySet()) {
+      JSONObject after = candidate.get(entry.getKey());
+      if (after == null) {
+        out.println(String.format("%-70s %22s %22s", entry.getKey(), format(entry.getValue()), "-"));
+        continue;
+      }
+      JSONObject before = entry.getValue();
+      double scoreBefore = score(before);
+      double scoreAfter = score(after);
+      double change = (scoreAfter - scoreBefore) / scoreBefore * 100;
+      boolean significant = Math.abs(scoreAfter - scoreBefore) > error(before) + error(after);
+      out.println(String.format("%-70s %22s %22s %+8.1f%%%s", entry.getKey(), format(before), format(after),
+              change, significant ? "" : " (within error)"));
+    }
+    for (Map.Entry<String, JSONObject> entry : candidate.entrySet()) {
+      if (!baseline.containsKey(entry.getKey()))
+        out.println(String.format("%-70s %22s %22s", entry.getKey(), "-", format(entry.getValue())));
+    }
+  }
+
+  /**
+   * Reads the primary metrics of a JMH result file.
+   *
+   * @return the metrics by benchmark name, mode and parameters
+   */
+  private static Map<String, JSONObject> read(String file) throws IOException, ParseException {
+    Map<String, JSONObject> results = new LinkedHashMap<>();
+    try (Reader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+      for (Object result : (JSONArray) new JSONParser().parse(reader)) {
+        JSONObject benchmark = (JSONObject) result;
+        StringBuilder key = new StringBuilder(((String) benchmark.get("benchmark"))
+                .replaceFirst("^org\\.opencastproject\\.benchmarks\\.", ""));
+        key.append(" (").append(benchmark.get("mode"));
+        JSONObject params = (JSONObject) benchmark.get("params");
+        if (params != null) {
+          @SuppressWarnings("unchecked")
+          Map<String, Object> sorted = new TreeMap<>(params);
+          for (Map.Entry<String, Object> param : sorted.entrySet()) {
+            key.append(", ").append(param.getKey()).append('=').append(param.getValue());
+          }
+        }
+        key.append(')');
+        results.put(key.toString(), (JSONObject) benchmark.get("primaryMetric"));
+      }
+    }
+    return results;
+  }
+
+  private static double score(JSONObject metric) {
+    return ((Number) metric.get("score")).doubleValue();
+  }
+
+  private static double error(JSONObject metric) {
+    Object error = metric.get("scoreError");
+    // JMH writes "NaN" if there were not enough iterations to compute the error
+    return error instanceof Number && !Double.isNaN(((Number) error).doubleValue()) ? ((Number) error).doubleValue()
+            : 0.0;
+  }
+
+  private static String format(JSONObject metric) {
+    return String.format("%.3f ± %.3f %s", score(metric), error(metric), metric.get("scoreUnit"));
+  }
+
+}
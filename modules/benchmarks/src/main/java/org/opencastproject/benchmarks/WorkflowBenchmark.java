@@ -0,0 +1,94 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowParser;
+import org.opencastproject.workflow.api.WorkflowParsingException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the serialization of workflow instances, which happens on every workflow update.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class WorkflowBenchmark {
+
+  // CHECKSTYLE:OFF
+  @Param({ "10", "60", "120" })
+  public int operations;
+
+  @Param({ "MEDIUM", "LARGE" })
+  public MediaPackageGenerator.Size size;
+  // CHECKSTYLE:ON
+
+  private WorkflowInstance workflow;
+
+  private String xml;
+
+  private String compressed;
+
+  @Setup
+  public void setUp() throws Exception {
+    workflow = WorkflowGenerator.generate(operations, MediaPackageGenerator.generate(size));
+    xml = WorkflowParser.toXml(workflow);
+    compressed = WorkflowParser.compress(xml);
+  }
+
+  @Benchmark
+  public String serialize() throws WorkflowParsingException {
+    return WorkflowParser.toXml(workflow);
+  }
+
+  @Benchmark
+  public WorkflowInstance parse() throws WorkflowParsingException {
+    return WorkflowParser.parseWorkflowInstance(xml);
+  }
+
+  @Benchmark
+  public String compress() throws WorkflowParsingException {
+    return WorkflowParser.compress(xml);
+  }
+
+  @Benchmark
+  public WorkflowInstance parseCompressed() throws WorkflowParsingException {
+    return WorkflowParser.parseWorkflowInstance(compressed);
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.benchmarks;
+
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.workflow.api.WorkflowDefinitionImpl;
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowInstance.WorkflowState;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+import org.opencastproject.workflow.api.WorkflowOperationDefinitionImpl;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.api.WorkflowOperationInstance.OperationState;
+import org.opencastproject.workflow.api.WorkflowOperationInstanceImpl;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates workflow instances resembling those of the default processing workflows: operations with the usual
+ * configuration keys, half of which have already been run.
+ */
+public final class WorkflowGenerator {
+
+  /** Operations the generated workflows are made of, repeated as often as necessary */
+  private static final String[] OPERATIONS = { "defaults", "inspect", "prepare-av", "tag", "encode", "image",
+          "segment-video", "segmentpreviews", "snapshot", "publish-engage", "publish-configure", "snapshot",
+          "cleanup" };
+
+  private WorkflowGenerator() {
+  }
+
+  /**
+   * Generates a running workflow instance.
+   *
+   * @param operations
+   *          the number of operations
+   * @param mediaPackage
+   *          the media package the workflow is working on
+   * @return the workflow instance
+   */
+  public static WorkflowInstance generate(int operations, MediaPackage mediaPackage) {
+    WorkflowDefinitionImpl definition = new WorkflowDefinitionImpl();
+    definition.setId("schedule-and-upload");
+    definition.setTitle("Process upon upload and schedule");
+    definition.setDescription("A complete encoding run, followed by (optional) publication");
+    for (int i = 0; i < operations; i++) {
+      String name = OPERATIONS[i % OPERATIONS.length];
+      WorkflowOperationDefinitionImpl operation = new WorkflowOperationDefinitionImpl(name,
+              "Running " + name + " (step " + i + ")", "error", true);
+      operation.setExecutionCondition("${publishToEngage} AND NOT ${straightToPublishing}");
+      operation.setConfiguration("source-flavors", "presenter/source,presentation/source");
+      operation.setConfiguration("target-flavor", "*/delivery");
+      operation.setConfiguration("target-tags", "engage-download,engage-streaming,rss,atom");
+      operation.setConfiguration("encoding-profile", "adaptive-1080p.http,adaptive-720p.http,adaptive-480p.http");
+      operation.setConfiguration("check-availability", "true");
+      definition.add(operation);
+    }
+
+    Map<String, String> properties = new HashMap<>();
+    properties.put("publishToEngage", "true");
+    properties.put("publishToOaiPmh", "false");
+    properties.put("straightToPublishing", "false");
+    properties.put("flagForCutting", "false");
+    properties.put("flagForReview", "true");
+
+    WorkflowInstanceImpl workflow = new WorkflowInstanceImpl(definition, mediaPackage, null, null, null, properties);
+    workflow.setId(operations * 1000L);
+    workflow.setState(WorkflowState.RUNNING);
+    List<WorkflowOperationInstance> instances = workflow.getOperations();
+    long start = 1514764800000L;
+    for (int i = 0; i < instances.size() / 2; i++) {
+      WorkflowOperationInstanceImpl operation = (WorkflowOperationInstanceImpl) instances.get(i);
+      operation.setId(workflow.getId() + i + 1);
+      operation.setState(OperationState.SUCCEEDED);
+      operation.setDateStarted(new Date(start + i * 60000L));
+      operation.setDateCompleted(new Date(start + i * 60000L + 45000L));
+      operation.setExecutionHost("https://worker" + (i % 4) + ".example.org");
+    }
+    return workflow;
+  }
+
+}
@@ -41,11 +41,8 @@ import java.util.List;
 
 import javax.persistence.Access;
 import javax.persistence.AccessType;
-import javax.persistence.Basic;
 import javax.persistence.CascadeType;
-import javax.persistence.CollectionTable;
 import javax.persistence.Column;
-import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
@@ -57,7 +54,6 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
-import javax.persistence.OrderColumn;
 import javax.persistence.PostLoad;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
@@ -86,10 +82,24 @@ import javax.persistence.Version;
                 + "j.status in :statuses order by j.dateCreated"),
         @NamedQuery(name = "Job.dispatchable.status.idfilter", query = "SELECT j.id FROM Job j "
                 + "WHERE j.dispatchable = true AND j.status IN :statuses AND j.id IN :jobids ORDER BY j.dateCreated"),
+        @NamedQuery(name = "Job.dispatchable.status.ids", query = "SELECT j FROM Job j "
+                + "WHERE j.dispatchable = true AND j.status IN :statuses AND j.id IN :jobids"),
+        @NamedQuery(name = "Job.dispatchable.status.summary", query = "SELECT j.id, j.status, j.dateCreated, "
+                + "j.creatorServiceRegistration.serviceType, j.organization FROM Job j "
+                + "WHERE j.dispatchable = true AND j.status IN :statuses"),
+        @NamedQuery(name = "Job.ids", query = "SELECT j FROM Job j WHERE j.id IN :jobids"),
+        @NamedQuery(name = "Job.compact.ids", query = "SELECT j.id, j.version, j.status, c.serviceType, j.operation, "
+                + "h.baseUrl, j.dateCreated, j.dateStarted, j.dateCompleted, j.queueTime, j.runTime, j.jobLoad, "
+                + "j.dispatchable, parent.id, root.id FROM Job j LEFT JOIN j.creatorServiceRegistration c "
+                + "LEFT JOIN j.processorServiceRegistration p LEFT JOIN p.hostRegistration h "
+                + "LEFT JOIN j.parentJob parent LEFT JOIN j.rootJob root WHERE j.id IN :jobids"),
+        @NamedQuery(name = "Job.status.ids", query = "SELECT j.id, j.status FROM Job j WHERE j.id IN :jobids"),
+        @NamedQuery(name = "Job.load.running", query = "SELECT j.id, "
+                + "j.processorServiceRegistration.hostRegistration.baseUrl, j.jobLoad, j.status FROM Job j "
+                + "WHERE j.status IN :statuses AND j.processorServiceRegistration IS NOT NULL "
+                + "AND j.creatorServiceRegistration.serviceType <> :workflow_type"),
         @NamedQuery(name = "Job.undispatchable.status", query = "SELECT j FROM Job j where j.dispatchable = false and "
                 + "j.status in :statuses order by j.dateCreated"),
-        @NamedQuery(name = "Job.payload", query = "SELECT j.payload FROM Job j where j.operation = :operation "
-                + "order by j.dateCreated"),
         @NamedQuery(name = "Job.processinghost.status", query = "SELECT j FROM Job j "
                 + "where j.status in :statuses and j.processorServiceRegistration is not null and "
                 + "j.processorServiceRegistration.serviceType = :serviceType and "
@@ -161,11 +171,8 @@ public class JpaJob {
   @Column(name = "operation", length = 65535)
   private String operation;
 
-  @Lob
-  @Column(name = "argument", length = 2147483647)
-  @OrderColumn(name = "argument_index")
-  @ElementCollection(fetch = FetchType.EAGER)
-  @CollectionTable(name = "oc_job_argument", joinColumns = @JoinColumn(name = "id", referencedColumnName = "id"))
+  /** Stored in {@link JpaJobPayload} */
+  @Transient
   private List<String> arguments;
 
   @Column(name = "date_completed")
@@ -190,11 +197,18 @@ public class JpaJob {
   @Column(name = "run_time")
   private Long runTime = 0L;
 
-  @Lob
-  @Basic(fetch = FetchType.LAZY)
-  @Column(name = "payload", length = 16777215)
+  /** Stored in {@link JpaJobPayload} */
+  @Transient
   private String payload;
 
+  /** Whether the payload has been set or loaded */
+  @Transient
+  private boolean payloadLoaded = false;
+
+  /** Whether the arguments have been set or loaded */
+  @Transient
+  private boolean argumentsLoaded = false;
+
   @Column(name = "dispatchable")
   private boolean dispatchable;
 
@@ -253,6 +267,8 @@ public class JpaJob {
     this.operation = operation;
     this.arguments = arguments;
     this.payload = payload;
+    this.payloadLoaded = true;
+    this.argumentsLoaded = true;
     this.dispatchable = dispatchable;
     this.jobLoad = load;
     this.status = Status.INSTANTIATED.ordinal();
@@ -279,13 +295,63 @@ public class JpaJob {
     newJob.creator = job.getCreator();
     newJob.organization = job.getOrganization();
     newJob.jobLoad = job.getJobLoad();
+    // Jobs read without their payload and arguments must not overwrite the stored ones unless they have been set
+    newJob.payloadLoaded = !(job instanceof JobImpl) || ((JobImpl) job).isPayloadLoaded();
+    newJob.argumentsLoaded = !(job instanceof JobImpl) || ((JobImpl) job).isArgumentsLoaded();
     return newJob;
   }
 
+  /**
+   * Returns <code>true</code> if the payload and the arguments of this job are known, either because they have been
+   * set or because they have been loaded using {@link #setContent(JpaJobPayload)}.
+   *
+   * @return whether the payload and the arguments are known
+   */
+  public boolean isContentLoaded() {
+    return payloadLoaded && argumentsLoaded;
+  }
+
+  /**
+   * Returns <code>true</code> if either the payload or the arguments of this job are known.
+   *
+   * @return whether any of payload and arguments is known
+   */
+  public boolean isContentPartiallyLoaded() {
+    return payloadLoaded || argumentsLoaded;
+  }
+
+  /**
+   * Sets the payload and the arguments of this job as loaded from the database. A payload or arguments set on this job
+   * before are kept.
+   *
+   * @param content
+   *          the stored payload and arguments, may be <code>null</code> if nothing has been stored
+   */
+  public void setContent(JpaJobPayload content) {
+    if (!payloadLoaded)
+      this.payload = content != null ? content.getPayload() : null;
+    if (!argumentsLoaded)
+      this.arguments = content != null ? content.getArguments() : null;
+    this.payloadLoaded = true;
+    this.argumentsLoaded = true;
+  }
+
+  /**
+   * Returns the payload and the arguments of this job for storage.
+   *
+   * @return the payload entity
+   */
+  public JpaJobPayload toContent() {
+    return new JpaJobPayload(id, payload, arguments);
+  }
+
   public Job toJob() {
-    return new JobImpl(id, creator, organization, version, jobType, operation, arguments, Status.values()[status],
-            createdHost, processingHost, dateCreated, dateStarted, dateCompleted, queueTime, runTime, payload,
-            parentJobId, rootJobId, dispatchable, uri, jobLoad);
+    JobImpl job = new JobImpl(id, creator, organization, version, jobType, operation, arguments,
+            Status.values()[status], createdHost, processingHost, dateCreated, dateStarted, dateCompleted, queueTime,
+            runTime, payload, parentJobId, rootJobId, dispatchable, uri, jobLoad);
+    job.setPayloadLoaded(payloadLoaded);
+    job.setArgumentsLoaded(argumentsLoaded);
+    return job;
   }
 
   public static Fn<JpaJob, Job> fnToJob() {
@@ -330,6 +396,7 @@ public class JpaJob {
 
   public void setPayload(String payload) {
     this.payload = payload;
+    this.payloadLoaded = true;
   }
 
   public void setStatus(Status status) {
@@ -350,6 +417,7 @@ public class JpaJob {
 
   public void setArguments(List<String> arguments) {
     this.arguments = arguments;
+    this.argumentsLoaded = true;
   }
 
   public void setDateCreated(Date dateCreated) {
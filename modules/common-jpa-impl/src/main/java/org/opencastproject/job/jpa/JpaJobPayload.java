@@ -0,0 +1,93 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.job.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.CollectionTable;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.OrderColumn;
+import javax.persistence.Table;
+
+/**
+ * The payload and arguments of a {@link JpaJob}.
+ * <p>
+ * These are kept apart from the job itself, since they can be large and are not needed for dispatching and load
+ * balancing. They share the identifier of their job.
+ */
+@Entity(name = "JobPayload")
+@Access(AccessType.FIELD)
+@Table(name = "oc_job_payload")
+@NamedQueries({
+        @NamedQuery(name = "JobPayload.ids", query = "SELECT p FROM JobPayload p WHERE p.id IN :jobids"),
+        @NamedQuery(name = "JobPayload.operation", query = "SELECT p.payload FROM JobPayload p, Job j "
+                + "WHERE p.id = j.id AND j.operation = :operation ORDER BY j.dateCreated") })
+public class JpaJobPayload {
+
+  @Id
+  @Column(name = "id")
+  private long id;
+
+  @Lob
+  @Column(name = "payload", length = 16777215)
+  private String payload;
+
+  @Lob
+  @Column(name = "argument", length = 2147483647)
+  @OrderColumn(name = "argument_index")
+  @ElementCollection(fetch = FetchType.EAGER)
+  @CollectionTable(name = "oc_job_argument", joinColumns = @JoinColumn(name = "id", referencedColumnName = "id"))
+  private List<String> arguments;
+
+  public JpaJobPayload() {
+  }
+
+  public JpaJobPayload(long id, String payload, List<String> arguments) {
+    this.id = id;
+    this.payload = payload;
+    this.arguments = arguments == null ? new ArrayList<String>() : new ArrayList<String>(arguments);
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public List<String> getArguments() {
+    return arguments;
+  }
+
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.job.jpa;
+
+import org.opencastproject.job.api.JobProgress;
+
+import java.util.Date;
+
+import javax.persistence.Access;
+import javax.persistence.AccessType;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * The progress last reported for a running {@link JpaJob}.
+ * <p>
+ * Progress reports are kept apart from the job itself, so that they can be written frequently without touching the
+ * job row and its version. They share the identifier of their job.
+ */
+@Entity(name = "JobProgress")
+@Access(AccessType.FIELD)
+@Table(name = "oc_job_progress")
+public class JpaJobProgress {
+
+  @Id
+  @Column(name = "id")
+  private long id;
+
+  @Column(name = "progress")
+  private float progress;
+
+  @Column(name = "date_expected")
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date dateExpectedCompletion;
+
+  @Column(name = "date_updated")
+  @Temporal(TemporalType.TIMESTAMP)
+  private Date dateUpdated;
+
+  public JpaJobProgress() {
+  }
+
+  public JpaJobProgress(JobProgress progress) {
+    this.id = progress.getJobId();
+    this.progress = progress.getProgress();
+    this.dateExpectedCompletion = progress.getDateExpectedCompletion();
+    this.dateUpdated = progress.getDateUpdated();
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public JobProgress toJobProgress() {
+    return new JobProgress(id, progress, dateExpectedCompletion, dateUpdated);
+  }
+
+}
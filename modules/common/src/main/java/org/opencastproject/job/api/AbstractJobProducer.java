@@ -48,6 +48,8 @@ import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.text.DecimalFormat;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
@@ -70,6 +72,9 @@ public abstract class AbstractJobProducer implements JobProducer {
    */
   public static final String ACCEPT_JOB_LOADS_EXCEEDING_PROPERTY = "org.opencastproject.job.load.acceptexceeding";
 
+  /** CPU time in milliseconds consumed by external processes on behalf of the job processed by the current thread */
+  private static final ThreadLocal<long[]> externalCpuTime = ThreadLocal.withInitial(() -> new long[1]);
+
   /** The formatter for load values */
   private static final DecimalFormat df = new DecimalFormat("#.#");
 
@@ -269,6 +274,48 @@ public abstract class AbstractJobProducer implements JobProducer {
    */
   protected abstract String process(Job job) throws Exception;
 
+  /**
+   * Adds CPU time consumed by an external process to the job processed by the current thread. Services running
+   * external processes should report their CPU time, so that it is taken into account when predicting job loads.
+   *
+   * @param cpuTime
+   *          the CPU time in milliseconds
+   */
+  public static void addExternalCpuTime(long cpuTime) {
+    if (cpuTime > 0)
+      externalCpuTime.get()[0] += cpuTime;
+  }
+
+  /**
+   * Records the resources consumed by a successfully processed job, so that the service registry can predict the load
+   * of similar jobs. The CPU time is only meaningful if all external processes run for the job reported theirs via
+   * {@link #addExternalCpuTime(long)}, so this implementation records nothing. Services which account for the CPU time
+   * of their jobs should override this method and pass it on to
+   * {@link ServiceRegistry#recordJobLoad(Job, String, long, long, long)}.
+   *
+   * @param job
+   *          the processed job
+   * @param wallTime
+   *          the time it took to process the job in milliseconds
+   * @param cpuTime
+   *          the CPU time of the processing thread and the external processes in milliseconds or a negative value if
+   *          unknown
+   */
+  protected void recordJobLoad(Job job, long wallTime, long cpuTime) {
+  }
+
+  /**
+   * Returns the CPU time of the current thread.
+   *
+   * @return the CPU time in milliseconds or a negative value if not supported
+   */
+  private static long getThreadCpuTime() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    if (!threads.isCurrentThreadCpuTimeSupported() || !threads.isThreadCpuTimeEnabled())
+      return -1L;
+    return threads.getCurrentThreadCpuTime() / 1000000L;
+  }
+
   /** A utility class to run jobs */
   class JobRunner implements Callable<Void> {
 
@@ -310,9 +357,20 @@ public abstract class AbstractJobProducer implements JobProducer {
       final User user = getUserDirectoryService().loadUser(jobBeforeProcessing.getCreator());
       securityService.setUser(user);
 
+      final long start = System.currentTimeMillis();
+      final long cpuStart = getThreadCpuTime();
+      externalCpuTime.get()[0] = 0L;
       try {
         final String payload = process(jobBeforeProcessing);
+        final long wallTime = System.currentTimeMillis() - start;
+        final long external = externalCpuTime.get()[0];
+        final long cpuTime = cpuStart < 0 ? (external > 0 ? external : -1L) : getThreadCpuTime() - cpuStart + external;
         handleSuccessfulProcessing(payload);
+        try {
+          recordJobLoad(jobBeforeProcessing, wallTime, cpuTime);
+        } catch (Exception e) {
+          logger.debug("Unable to record the load of job {}: {}", jobId, e.getMessage());
+        }
       } catch (Throwable t) {
         handleFailedProcessing(t);
       } finally {
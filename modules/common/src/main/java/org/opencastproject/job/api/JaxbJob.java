@@ -110,6 +110,14 @@ public class JaxbJob {
   @XmlElement(name = "jobLoad")
   private Float jobLoad;
 
+  /** Set to <code>false</code> only, if the job has been read without its payload */
+  @XmlAttribute
+  private Boolean payloadLoaded;
+
+  /** Set to <code>false</code> only, if the job has been read without its arguments */
+  @XmlAttribute
+  private Boolean argumentsLoaded;
+
   /** Default constructor needed by jaxb */
   public JaxbJob() {
   }
@@ -139,12 +147,20 @@ public class JaxbJob {
     this.creator = job.getCreator();
     this.organization = job.getOrganization();
     this.jobLoad = job.getJobLoad();
+    if (job instanceof JobImpl) {
+      this.payloadLoaded = ((JobImpl) job).isPayloadLoaded() ? null : false;
+      this.argumentsLoaded = ((JobImpl) job).isArgumentsLoaded() ? null : false;
+    }
   }
 
   public Job toJob() {
-    return new JobImpl(id, creator, organization, version, jobType, operation, arguments, status, createdHost,
+    JobImpl job = new JobImpl(id, creator, organization, version, jobType, operation, arguments, status, createdHost,
             processingHost, dateCreated, dateStarted, dateCompleted, queueTime, runTime, payload, parentJobId,
             rootJobId, dispatchable, uri, jobLoad);
+    // Jobs read without their payload or arguments must not overwrite the stored ones when sent back
+    job.setPayloadLoaded(payloadLoaded == null || payloadLoaded);
+    job.setArgumentsLoaded(argumentsLoaded == null || argumentsLoaded);
+    return job;
   }
 
   public static Fn<JaxbJob, Job> fnToJob() {
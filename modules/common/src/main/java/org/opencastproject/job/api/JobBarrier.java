@@ -35,8 +35,13 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * This class is a utility implementation that will wait for all given jobs to change their status to either one of:
@@ -45,6 +50,9 @@ import java.util.Map;
  * <li>{@link Job.Status#FAILED}</li>
  * <li>{@link Job.Status#DELETED}</li>
  * </ul>
+ * <p>
+ * The barrier subscribes to the completion of the jobs using {@link ServiceRegistry#subscribeToJobCompletion(long)}
+ * and only falls back to polling the service registry if these subscriptions are not available.
  */
 public final class JobBarrier {
   /** The logging facility */
@@ -56,7 +64,7 @@ public final class JobBarrier {
   /** The service registry used to do the polling */
   private final ServiceRegistry serviceRegistry;
 
-  /** Time in milliseconds between two pools for the job status */
+  /** Time in milliseconds between two polls for the job status if job completion subscriptions are unavailable */
   private final long pollingInterval;
 
   /** The job that's waiting */
@@ -204,13 +212,15 @@ public final class JobBarrier {
     if (jobs.size() == 0)
       return new Result(new HashMap<Job, Status>());
     this.suspendWaiterJob();
-    synchronized (this) {
-      JobStatusUpdater updater = new JobStatusUpdater(timeout);
-      try {
-        updater.start();
-        wait();
-      } catch (InterruptedException e) {
-        logger.debug("Interrupted while waiting for job");
+    if (!waitForCompletion(timeout)) {
+      synchronized (this) {
+        JobStatusUpdater updater = new JobStatusUpdater(timeout);
+        try {
+          updater.start();
+          wait();
+        } catch (InterruptedException e) {
+          logger.debug("Interrupted while waiting for job");
+        }
       }
     }
     if (pollingException != null) {
@@ -222,6 +232,75 @@ public final class JobBarrier {
     return getStatus();
   }
 
+  /**
+   * Waits for the jobs using job completion subscriptions.
+   *
+   * @param timeout
+   *          the maximum amount of time to wait or <code>0</code> to wait as long as it takes
+   * @return <code>false</code> if the subscriptions are unavailable and the caller needs to fall back to polling
+   */
+  private boolean waitForCompletion(long timeout) {
+    final long endTime = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+    final Map<Job, Future<Job>> completions = new LinkedHashMap<Job, Future<Job>>();
+    final Map<Job, Job.Status> finishedJobs = new HashMap<Job, Job.Status>();
+    try {
+      for (final Job job : jobs) {
+        final Future<Job> completion = serviceRegistry.subscribeToJobCompletion(job.getId());
+        if (completion == null) {
+          logger.debug("Service registry does not support job completion subscriptions, polling for job status");
+          return false;
+        }
+        completions.put(job, completion);
+      }
+
+      for (final Map.Entry<Job, Future<Job>> completion : completions.entrySet()) {
+        final Job job = completion.getKey();
+        try {
+          final Job processedJob;
+          if (endTime > 0) {
+            processedJob = completion.getValue().get(Math.max(0, endTime - System.currentTimeMillis()),
+                    TimeUnit.MILLISECONDS);
+          } else {
+            processedJob = completion.getValue().get();
+          }
+          final Job.Status jobStatus = processedJob.getStatus();
+          if (Job.Status.CANCELED.equals(jobStatus)) {
+            logger.warn("Job {} got canceled", job);
+            pollingException = new JobCanceledException(processedJob);
+            break;
+          }
+          job.setStatus(jobStatus);
+          job.setPayload(processedJob.getPayload());
+          finishedJobs.put(job, jobStatus);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof NotFoundException) {
+            logger.warn("Error waiting for job {}: Not found!", job);
+            finishedJobs.put(job, Job.Status.DELETED);
+            pollingException = e.getCause();
+            break;
+          }
+          logger.info("Lost track of the completion of {}, polling for job status: {}", job, e.getCause().getMessage());
+          return false;
+        } catch (TimeoutException e) {
+          pollingException = new InterruptedException("Timeout waiting for job processing");
+          break;
+        } catch (InterruptedException e) {
+          logger.debug("Interrupted while waiting for job");
+          break;
+        }
+      }
+    } catch (ServiceRegistryException e) {
+      logger.info("Unable to subscribe to job completion, polling for job status: {}", e.getMessage());
+      return false;
+    } finally {
+      for (final Future<Job> completion : completions.values()) {
+        completion.cancel(false);
+      }
+    }
+    setStatus(new Result(finishedJobs));
+    return true;
+  }
+
   /**
    * Adds the job to the list of jobs to wait for. An {@link IllegalStateException} is thrown if the barrier has already
    * been asked to wait for jobs by calling {@link #waitForJobs()}.
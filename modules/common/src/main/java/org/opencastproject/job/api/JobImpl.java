@@ -56,6 +56,8 @@ public class JobImpl implements Job {
   private boolean dispatchable = true;
   private URI uri;
   private Float load = 1.0F;
+  private boolean payloadLoaded = true;
+  private boolean argumentsLoaded = true;
 
   public JobImpl() { }
 
@@ -166,8 +168,10 @@ public class JobImpl implements Job {
 
   @Override
   public void setArguments(List<String> arguments) {
-    if (arguments != null)
+    if (arguments != null) {
       this.arguments = unmodifiableList(arguments);
+      this.argumentsLoaded = true;
+    }
   }
 
   @Override
@@ -264,6 +268,7 @@ public class JobImpl implements Job {
   @Override
   public void setPayload(String payload) {
     this.payload = payload;
+    this.payloadLoaded = true;
   }
 
   @Override
@@ -314,6 +319,43 @@ public class JobImpl implements Job {
     this.load = load;
   }
 
+  /**
+   * Returns <code>false</code> if this job has been read without its payload and arguments, in which case these must
+   * not be written back when the job is updated unless they have been set since.
+   *
+   * @return whether payload and arguments are known
+   */
+  public boolean isContentLoaded() {
+    return payloadLoaded && argumentsLoaded;
+  }
+
+  public void setContentLoaded(boolean contentLoaded) {
+    this.payloadLoaded = contentLoaded;
+    this.argumentsLoaded = contentLoaded;
+  }
+
+  /**
+   * @return whether the payload has been loaded or set
+   */
+  public boolean isPayloadLoaded() {
+    return payloadLoaded;
+  }
+
+  public void setPayloadLoaded(boolean payloadLoaded) {
+    this.payloadLoaded = payloadLoaded;
+  }
+
+  /**
+   * @return whether the arguments have been loaded or set
+   */
+  public boolean isArgumentsLoaded() {
+    return argumentsLoaded;
+  }
+
+  public void setArgumentsLoaded(boolean argumentsLoaded) {
+    this.argumentsLoaded = argumentsLoaded;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o)
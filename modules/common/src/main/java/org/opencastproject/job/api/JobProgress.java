@@ -0,0 +1,95 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.job.api;
+
+import java.util.Date;
+
+/**
+ * The progress of a running job as last reported by the service processing it.
+ */
+public final class JobProgress {
+
+  /** The job identifier */
+  private final long jobId;
+
+  /** The share of the work done, between 0 and 1 */
+  private final float progress;
+
+  /** The expected completion date, may be <code>null</code> */
+  private final Date dateExpectedCompletion;
+
+  /** The date the progress has been reported */
+  private final Date dateUpdated;
+
+  /**
+   * Creates a new progress report.
+   *
+   * @param jobId
+   *          the job identifier
+   * @param progress
+   *          the share of the work done, between 0 and 1
+   * @param dateExpectedCompletion
+   *          the expected completion date or <code>null</code> if unknown
+   * @param dateUpdated
+   *          the date the progress has been reported
+   */
+  public JobProgress(long jobId, float progress, Date dateExpectedCompletion, Date dateUpdated) {
+    this.jobId = jobId;
+    this.progress = Math.max(0.0f, Math.min(1.0f, progress));
+    this.dateExpectedCompletion = dateExpectedCompletion;
+    this.dateUpdated = dateUpdated;
+  }
+
+  /**
+   * @return the job identifier
+   */
+  public long getJobId() {
+    return jobId;
+  }
+
+  /**
+   * @return the share of the work done, between 0 and 1
+   */
+  public float getProgress() {
+    return progress;
+  }
+
+  /**
+   * @return the expected completion date or <code>null</code> if unknown
+   */
+  public Date getDateExpectedCompletion() {
+    return dateExpectedCompletion;
+  }
+
+  /**
+   * @return the date the progress has been reported
+   */
+  public Date getDateUpdated() {
+    return dateUpdated;
+  }
+
+  @Override
+  public String toString() {
+    return "JobProgress(" + jobId + ", " + progress + ")";
+  }
+
+}
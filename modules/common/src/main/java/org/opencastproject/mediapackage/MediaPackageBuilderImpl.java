@@ -31,10 +31,12 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.xpath.XPath;
@@ -102,12 +104,31 @@ public class MediaPackageBuilderImpl implements MediaPackageBuilder {
    * @see org.opencastproject.mediapackage.MediaPackageBuilder#loadFromXml(java.io.InputStream)
    */
   public MediaPackage loadFromXml(InputStream is) throws MediaPackageException {
+    try {
+      return loadFromXml(IOUtils.toByteArray(is));
+    } catch (IOException e) {
+      throw new MediaPackageException(e);
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  /**
+   * Reads the media package using the streaming reader. Media packages that the streaming reader does not handle are
+   * read using JAXB.
+   */
+  private MediaPackage loadFromXml(byte[] xml) throws MediaPackageException {
+    MediaPackage mediaPackage = MediaPackageXml.fromXml(new ByteArrayInputStream(xml), serializer);
+    if (mediaPackage != null)
+      return mediaPackage;
+
+    InputStream is = new ByteArrayInputStream(xml);
     if (serializer != null) {
       // FIXME This code runs if *any* serializer is present, regardless of the serializer implementation
       try {
-        Document xml = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(is);
-        rewriteUrls(xml, serializer);
-        return MediaPackageImpl.valueOf(xml);
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(is);
+        rewriteUrls(doc, serializer);
+        return MediaPackageImpl.valueOf(doc);
       } catch (Exception e) {
         throw new MediaPackageException("Error deserializing paths in media package", e);
       }
@@ -137,15 +158,7 @@ public class MediaPackageBuilderImpl implements MediaPackageBuilder {
    */
   @Override
   public MediaPackage loadFromXml(String xml) throws MediaPackageException {
-    InputStream in = null;
-    try {
-      in = IOUtils.toInputStream(xml, "UTF-8");
-      return loadFromXml(in);
-    } catch (IOException e) {
-      throw new MediaPackageException(e);
-    } finally {
-      IOUtils.closeQuietly(in);
-    }
+    return loadFromXml(xml.getBytes(StandardCharsets.UTF_8));
   }
 
   @Override
@@ -1692,6 +1692,47 @@ public final class MediaPackageImpl implements MediaPackage {
     subjects.add(subject);
   }
 
+  /**
+   * Returns the contributors as stored in this media package. Used by the streaming XML serialization, which needs to
+   * tell a missing set from an empty one and has to keep the set implementation that JAXB would use, so the order of
+   * the values does not change between serializing and reading a media package.
+   *
+   * @return the contributors, may be <code>null</code>
+   */
+  Set<String> getContributorSet() {
+    return contributors;
+  }
+
+  void setContributorSet(Set<String> contributors) {
+    this.contributors = contributors;
+  }
+
+  /**
+   * Returns the creators as stored in this media package. See {@link #getContributorSet()}.
+   *
+   * @return the creators, may be <code>null</code>
+   */
+  Set<String> getCreatorSet() {
+    return creators;
+  }
+
+  void setCreatorSet(Set<String> creators) {
+    this.creators = creators;
+  }
+
+  /**
+   * Returns the subjects as stored in this media package. See {@link #getContributorSet()}.
+   *
+   * @return the subjects, may be <code>null</code>
+   */
+  Set<String> getSubjectSet() {
+    return subjects;
+  }
+
+  void setSubjectSet(Set<String> subjects) {
+    this.subjects = subjects;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -24,6 +24,7 @@ package org.opencastproject.mediapackage;
 import static org.opencastproject.util.data.functions.Misc.chuck;
 
 import org.opencastproject.util.DateTimeSupport;
+import org.opencastproject.util.XmlUtil;
 
 import org.apache.commons.lang3.StringUtils;
 import org.codehaus.jettison.mapped.Configuration;
@@ -41,9 +42,6 @@ import java.util.List;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamWriter;
 
@@ -69,6 +67,9 @@ public final class MediaPackageParser {
   public static String getAsXml(MediaPackage mediaPackage) {
     if (mediaPackage == null)
       throw new IllegalArgumentException("Mediapackage must not be null");
+    String xml = MediaPackageXml.toXml(mediaPackage);
+    if (xml != null)
+      return xml;
     try {
       Marshaller marshaller = MediaPackageImpl.context.createMarshaller();
       marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
@@ -129,7 +130,7 @@ public final class MediaPackageParser {
   public static Document getAsXmlDocument(MediaPackage mp) {
     try {
       final Marshaller marshaller = MediaPackageImpl.context.createMarshaller();
-      final Document doc = newDocument();
+      final Document doc = XmlUtil.newDocument();
       marshaller.marshal(mp, doc);
       return doc;
     } catch (JAXBException e) {
@@ -137,17 +138,6 @@ public final class MediaPackageParser {
     }
   }
 
-  /** Create a new DOM document. */
-  private static Document newDocument() {
-    final DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-    docBuilderFactory.setNamespaceAware(true);
-    try {
-      return docBuilderFactory.newDocumentBuilder().newDocument();
-    } catch (ParserConfigurationException e) {
-      return chuck(e);
-    }
-  }
-
   /**
    * Serializes the media package to a {@link org.w3c.dom.Document}.
    * <p>
@@ -165,17 +155,7 @@ public final class MediaPackageParser {
    */
   public static Document getAsXml(MediaPackage mediaPackage, MediaPackageSerializer serializer)
           throws MediaPackageException {
-    DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-    docBuilderFactory.setNamespaceAware(true);
-
-    DocumentBuilder docBuilder = null;
-    try {
-      docBuilder = docBuilderFactory.newDocumentBuilder();
-    } catch (ParserConfigurationException e1) {
-      throw new MediaPackageException(e1);
-    }
-
-    Document doc = docBuilder.newDocument();
+    Document doc = XmlUtil.newDocument();
 
     // Root element "mediapackage"
     Element mpXml = doc.createElement("mediapackage");
@@ -0,0 +1,937 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.mediapackage;
+
+import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.mediapackage.identifier.Id;
+import org.opencastproject.mediapackage.identifier.IdImpl;
+import org.opencastproject.mediapackage.track.AbstractStreamImpl;
+import org.opencastproject.mediapackage.track.AudioStreamImpl;
+import org.opencastproject.mediapackage.track.ScanOrder;
+import org.opencastproject.mediapackage.track.ScanType;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.mediapackage.track.TrackImpl.StreamingProtocol;
+import org.opencastproject.mediapackage.track.VideoStreamImpl;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.util.MimeTypes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming reader and writer for the XML representation of {@link MediaPackageImpl}.
+ * <p>
+ * Both read and write exactly the format of the JAXB binding of the media package classes, including the escaping and
+ * element order of the JAXB reference implementation, so the output is identical to what
+ * {@link MediaPackageParser#getAsXml(MediaPackage)} has always produced. They do not create marshallers or unmarshallers
+ * and never build a DOM, which makes them considerably cheaper for the many serialization round trips a media package
+ * goes through.
+ * <p>
+ * Unknown XML elements are skipped, as JAXB does. Anything else this class does not know how to handle exactly like
+ * JAXB, such as custom element implementations, identifiers JAXB would not validate or malformed values that JAXB would
+ * silently drop, makes the methods return <code>null</code>. Callers then fall back to JAXB, which keeps the behavior
+ * for unusual input unchanged.
+ */
+final class MediaPackageXml {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(MediaPackageXml.class);
+
+  /** The media package namespace */
+  static final String NAMESPACE = "http://mediapackage.opencastproject.org";
+
+  /** The XML declaration as written by JAXB */
+  private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+  /** The shared input factory, which is thread-safe once it has been configured */
+  private static final XMLInputFactory inputFactory;
+
+  static {
+    inputFactory = XMLInputFactory.newInstance();
+    inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+    inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+  }
+
+  private MediaPackageXml() {
+  }
+
+  /**
+   * Serializes the media package.
+   *
+   * @param mediaPackage
+   *          the media package
+   * @return the serialized media package or <code>null</code> if the media package needs to be serialized using JAXB
+   */
+  static String toXml(MediaPackage mediaPackage) {
+    if (mediaPackage == null || mediaPackage.getClass() != MediaPackageImpl.class)
+      return null;
+    try {
+      Output out = new Output();
+      writeMediaPackage(out, (MediaPackageImpl) mediaPackage);
+      return out.toString();
+    } catch (UnsupportedContentException e) {
+      logger.debug("Unable to stream media package {}: {}", mediaPackage, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Reads a media package. The stream is not closed.
+   *
+   * @param xml
+   *          the serialized media package
+   * @param serializer
+   *          the serializer to decode the element URLs with, may be <code>null</code>
+   * @return the media package or <code>null</code> if the media package needs to be read using JAXB
+   */
+  static MediaPackageImpl fromXml(InputStream xml, MediaPackageSerializer serializer) {
+    XMLStreamReader reader = null;
+    try {
+      reader = inputFactory.createXMLStreamReader(xml);
+      reader.nextTag();
+      if (!"mediapackage".equals(elementName(reader)))
+        throw new UnsupportedContentException("Unexpected root element " + reader.getLocalName());
+      MediaPackageImpl mediaPackage = readMediaPackage(reader, serializer);
+      // Make sure the remainder of the document is well-formed
+      while (reader.hasNext()) {
+        reader.next();
+      }
+      return mediaPackage;
+    } catch (XMLStreamException | UnsupportedContentException | URISyntaxException | RuntimeException e) {
+      logger.debug("Unable to stream media package: {}", e.getMessage());
+      return null;
+    } finally {
+      if (reader != null) {
+        try {
+          reader.close();
+        } catch (XMLStreamException e) {
+          logger.debug("Error closing xml stream reader", e);
+        }
+      }
+    }
+  }
+
+  private static void writeMediaPackage(Output out, MediaPackageImpl mediaPackage)
+          throws UnsupportedContentException {
+    out.start("mediapackage");
+    out.attribute("duration", print(mediaPackage.getDuration()));
+    Id id = mediaPackage.getIdentifier();
+    if (id != null && id.getClass() != IdImpl.class)
+      throw new UnsupportedContentException("Unknown identifier implementation " + id.getClass());
+    out.attribute("id", id != null ? id.toString() : null);
+    out.attribute("start", mediaPackage.getStartDateAsString());
+    out.attribute("xmlns", NAMESPACE);
+
+    out.element("title", mediaPackage.getTitle());
+    out.element("series", mediaPackage.getSeries());
+    out.element("seriestitle", mediaPackage.getSeriesTitle());
+    writeStrings(out, "creators", "creator", mediaPackage.getCreatorSet());
+    writeStrings(out, "contributors", "contributor", mediaPackage.getContributorSet());
+    writeStrings(out, "subjects", "subject", mediaPackage.getSubjectSet());
+    out.element("license", mediaPackage.getLicense());
+    out.element("language", mediaPackage.getLanguage());
+
+    writeTracks(out, mediaPackage.getTracks());
+    writeCatalogs(out, mediaPackage.getCatalogs());
+    writeAttachments(out, mediaPackage.getAttachments());
+
+    out.start("publications");
+    for (Publication publication : mediaPackage.getPublications()) {
+      checkClass(publication, PublicationImpl.class);
+      writePublication(out, (PublicationImpl) publication);
+    }
+    out.end("publications");
+
+    out.end("mediapackage");
+  }
+
+  private static void writeStrings(Output out, String wrapper, String name, Collection<String> values)
+          throws UnsupportedContentException {
+    if (values == null)
+      return;
+    out.start(wrapper);
+    for (String value : values) {
+      if (value == null)
+        throw new UnsupportedContentException("Null value in " + wrapper);
+      out.element(name, value);
+    }
+    out.end(wrapper);
+  }
+
+  private static void writeTracks(Output out, Track[] tracks) throws UnsupportedContentException {
+    out.start("media");
+    for (Track track : tracks) {
+      checkClass(track, TrackImpl.class);
+      writeTrack(out, (TrackImpl) track);
+    }
+    out.end("media");
+  }
+
+  private static void writeCatalogs(Output out, Catalog[] catalogs) throws UnsupportedContentException {
+    out.start("metadata");
+    for (Catalog catalog : catalogs) {
+      checkClass(catalog, CatalogImpl.class);
+      writeElementAttributes(out, "catalog", (CatalogImpl) catalog);
+      writeElementContent(out, (CatalogImpl) catalog);
+      out.end("catalog");
+    }
+    out.end("metadata");
+  }
+
+  private static void writeAttachments(Output out, Attachment[] attachments) throws UnsupportedContentException {
+    out.start("attachments");
+    for (Attachment attachment : attachments) {
+      checkClass(attachment, AttachmentImpl.class);
+      writeAttachment(out, (AttachmentImpl) attachment);
+    }
+    out.end("attachments");
+  }
+
+  private static void writeTrack(Output out, TrackImpl track) throws UnsupportedContentException {
+    writeElementAttributes(out, "track", track);
+    StreamingProtocol transport = track.getDeclaredTransport();
+    out.attribute("transport", transport != null ? transport.name() : null);
+    writeElementContent(out, track);
+    out.element("duration", print(track.getDuration()));
+    for (AudioStream stream : track.getAudio()) {
+      checkClass(stream, AudioStreamImpl.class);
+      writeAudioStream(out, (AudioStreamImpl) stream);
+    }
+    for (VideoStream stream : track.getVideo()) {
+      checkClass(stream, VideoStreamImpl.class);
+      writeVideoStream(out, (VideoStreamImpl) stream);
+    }
+    out.element("live", Boolean.toString(track.isLive()));
+    out.end("track");
+  }
+
+  private static void writeAttachment(Output out, AttachmentImpl attachment) throws UnsupportedContentException {
+    writeElementAttributes(out, "attachment", attachment);
+    writeElementContent(out, attachment);
+    Map<String, String> properties = attachment.getProperties();
+    if (!properties.isEmpty()) {
+      out.start("additionalProperties");
+      for (Map.Entry<String, String> property : properties.entrySet()) {
+        out.start("property");
+        out.attribute("key", property.getKey());
+        if (property.getValue() != null)
+          out.text(property.getValue());
+        out.end("property");
+      }
+      out.end("additionalProperties");
+    }
+    out.end("attachment");
+  }
+
+  private static void writePublication(Output out, PublicationImpl publication) throws UnsupportedContentException {
+    writeElementAttributes(out, "publication", publication);
+    out.attribute("channel", publication.getChannel());
+    writeElementContent(out, publication);
+    writeTracks(out, publication.getTracks());
+    writeAttachments(out, publication.getAttachments());
+    writeCatalogs(out, publication.getCatalogs());
+    out.end("publication");
+  }
+
+  /** Writes the start tag and the attributes shared by all media package elements. */
+  private static void writeElementAttributes(Output out, String name, AbstractMediaPackageElement element)
+          throws UnsupportedContentException {
+    out.start(name);
+    out.attribute("id", element.id);
+    out.attribute("type", element.flavor != null ? element.flavor.toString() : null);
+    out.attribute("ref", element.reference != null ? element.reference.toString() : null);
+  }
+
+  /** Writes the child elements shared by all media package elements. */
+  private static void writeElementContent(Output out, AbstractMediaPackageElement element)
+          throws UnsupportedContentException {
+    out.element("mimetype", element.mimeType != null ? element.mimeType.toString() : null);
+    writeStrings(out, "tags", "tag", element.tags);
+    out.element("url", element.uri != null ? element.uri.toString() : null);
+    out.element("size", print(element.size));
+    Checksum checksum = element.checksum;
+    if (checksum != null) {
+      out.start("checksum");
+      out.attribute("type", checksum.getType() != null ? checksum.getType().toString() : null);
+      if (checksum.getValue() != null)
+        out.text(checksum.getValue());
+      out.end("checksum");
+    }
+  }
+
+  private static void writeAudioStream(Output out, AudioStreamImpl stream) throws UnsupportedContentException {
+    writeStreamStart(out, "audio", stream);
+    out.element("bitdepth", print(stream.getBitDepth()));
+    out.element("channels", print(stream.getChannels()));
+    out.element("samplingrate", print(stream.getSamplingRate()));
+    out.element("bitrate", print(stream.getBitRate()));
+    out.element("peakleveldb", print(stream.getPkLevDb()));
+    out.element("rmsleveldb", print(stream.getRmsLevDb()));
+    out.element("rmspeakdb", print(stream.getRmsPkDb()));
+    out.end("audio");
+  }
+
+  private static void writeVideoStream(Output out, VideoStreamImpl stream) throws UnsupportedContentException {
+    writeStreamStart(out, "video", stream);
+    out.element("bitrate", print(stream.getBitRate()));
+    out.element("framerate", print(stream.getFrameRate()));
+    out.element("resolution", stream.getResolution());
+    if (stream.hasScanInformation()) {
+      ScanType scanType = stream.getScanType();
+      ScanOrder scanOrder = stream.getScanOrder();
+      out.start("scantype");
+      out.attribute("type", scanType != null ? scanType.name() : null);
+      out.attribute("order", scanOrder != null ? scanOrder.name() : null);
+      out.end("scantype");
+    }
+    out.end("video");
+  }
+
+  private static void writeStreamStart(Output out, String name, AbstractStreamImpl stream)
+          throws UnsupportedContentException {
+    out.start(name);
+    out.attribute("id", stream.getIdentifier());
+    out.start("device");
+    out.attribute("type", stream.getCaptureDevice());
+    out.attribute("version", stream.getCaptureDeviceVersion());
+    out.attribute("vendor", stream.getCaptureDeviceVendor());
+    out.end("device");
+    out.start("encoder");
+    out.attribute("type", stream.getFormat());
+    out.attribute("version", stream.getFormatVersion());
+    out.attribute("vendor", stream.getEncoderLibraryVendor());
+    out.end("encoder");
+    out.element("framecount", print(stream.getFrameCount()));
+  }
+
+  private static String print(Number value) {
+    return value != null ? value.toString() : null;
+  }
+
+  /** Prints floats the way JAXB does for <code>xs:float</code>. */
+  private static String print(Float value) {
+    if (value == null)
+      return null;
+    if (value.isNaN())
+      return "NaN";
+    if (value == Float.POSITIVE_INFINITY)
+      return "INF";
+    if (value == Float.NEGATIVE_INFINITY)
+      return "-INF";
+    return value.toString();
+  }
+
+  private static void checkClass(Object object, Class<?> type) throws UnsupportedContentException {
+    if (object == null || object.getClass() != type)
+      throw new UnsupportedContentException("Expected " + type.getSimpleName() + " but found " + object);
+  }
+
+  private static MediaPackageImpl readMediaPackage(XMLStreamReader reader, MediaPackageSerializer serializer)
+          throws XMLStreamException, UnsupportedContentException, URISyntaxException {
+    MediaPackageImpl mediaPackage = new MediaPackageImpl();
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String value = reader.getAttributeValue(i);
+      switch (reader.getAttributeLocalName(i)) {
+        case "id":
+          mediaPackage.setIdentifier(new IdImpl(value));
+          break;
+        case "duration":
+          mediaPackage.setDuration(parseLong(value));
+          break;
+        case "start":
+          mediaPackage.setStartDateAsString(value);
+          break;
+        default:
+          break;
+      }
+    }
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      switch (elementName(reader)) {
+        case "title":
+          mediaPackage.setTitle(reader.getElementText());
+          break;
+        case "series":
+          mediaPackage.setSeries(reader.getElementText());
+          break;
+        case "seriestitle":
+          mediaPackage.setSeriesTitle(reader.getElementText());
+          break;
+        case "creators":
+          mediaPackage.setCreatorSet(readStrings(reader, "creator", new HashSet<String>()));
+          break;
+        case "contributors":
+          mediaPackage.setContributorSet(readStrings(reader, "contributor", new HashSet<String>()));
+          break;
+        case "subjects":
+          mediaPackage.setSubjectSet(readStrings(reader, "subject", new HashSet<String>()));
+          break;
+        case "license":
+          mediaPackage.setLicense(reader.getElementText());
+          break;
+        case "language":
+          mediaPackage.setLanguage(reader.getElementText());
+          break;
+        case "media":
+          List<Track> tracks = new ArrayList<>();
+          while (nextElement(reader, "track")) {
+            tracks.add(readTrack(reader, serializer));
+          }
+          mediaPackage.setTracks(tracks.toArray(new Track[tracks.size()]));
+          break;
+        case "metadata":
+          List<Catalog> catalogs = new ArrayList<>();
+          while (nextElement(reader, "catalog")) {
+            catalogs.add(readCatalog(reader, serializer));
+          }
+          mediaPackage.setCatalogs(catalogs.toArray(new Catalog[catalogs.size()]));
+          break;
+        case "attachments":
+          List<Attachment> attachments = new ArrayList<>();
+          while (nextElement(reader, "attachment")) {
+            attachments.add(readAttachment(reader, serializer));
+          }
+          mediaPackage.setAttachments(attachments.toArray(new Attachment[attachments.size()]));
+          break;
+        case "publications":
+          List<Publication> publications = new ArrayList<>();
+          while (nextElement(reader, "publication")) {
+            publications.add(readPublication(reader, serializer));
+          }
+          mediaPackage.setPublications(publications.toArray(new Publication[publications.size()]));
+          break;
+        default:
+          skipElement(reader);
+      }
+    }
+    return mediaPackage;
+  }
+
+  private static <T extends Collection<String>> T readStrings(XMLStreamReader reader, String name, T values)
+          throws XMLStreamException, UnsupportedContentException {
+    while (nextElement(reader, name)) {
+      values.add(reader.getElementText());
+    }
+    return values;
+  }
+
+  private static TrackImpl readTrack(XMLStreamReader reader, MediaPackageSerializer serializer)
+          throws XMLStreamException, UnsupportedContentException, URISyntaxException {
+    TrackImpl track = new TrackImpl();
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String name = reader.getAttributeLocalName(i);
+      String value = reader.getAttributeValue(i);
+      if (!readElementAttribute(track, name, value) && "transport".equals(name))
+        track.setTransport(StreamingProtocol.valueOf(value));
+    }
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String name = elementName(reader);
+      if (readElementContent(reader, track, name, serializer))
+        continue;
+      switch (name) {
+        case "duration":
+          track.setDuration(parseLong(reader.getElementText()));
+          break;
+        case "audio":
+          track.addStream(readAudioStream(reader));
+          break;
+        case "video":
+          track.addStream(readVideoStream(reader));
+          break;
+        case "live":
+          track.setLive(parseBoolean(reader.getElementText()));
+          break;
+        default:
+          skipElement(reader);
+      }
+    }
+    return track;
+  }
+
+  private static CatalogImpl readCatalog(XMLStreamReader reader, MediaPackageSerializer serializer)
+          throws XMLStreamException, UnsupportedContentException, URISyntaxException {
+    CatalogImpl catalog = new CatalogImpl();
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      readElementAttribute(catalog, reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+    }
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (!readElementContent(reader, catalog, elementName(reader), serializer))
+        skipElement(reader);
+    }
+    return catalog;
+  }
+
+  private static AttachmentImpl readAttachment(XMLStreamReader reader, MediaPackageSerializer serializer)
+          throws XMLStreamException, UnsupportedContentException, URISyntaxException {
+    AttachmentImpl attachment = new AttachmentImpl();
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      readElementAttribute(attachment, reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+    }
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String name = elementName(reader);
+      if (readElementContent(reader, attachment, name, serializer))
+        continue;
+      if (!"additionalProperties".equals(name)) {
+        skipElement(reader);
+        continue;
+      }
+      Map<String, String> properties = attachment.getProperties();
+      properties.clear();
+      while (nextElement(reader, "property")) {
+        String key = reader.getAttributeValue(null, "key");
+        properties.put(key, reader.getElementText());
+      }
+    }
+    return attachment;
+  }
+
+  private static PublicationImpl readPublication(XMLStreamReader reader, MediaPackageSerializer serializer)
+          throws XMLStreamException, UnsupportedContentException, URISyntaxException {
+    PublicationImpl publication = new PublicationImpl(null, reader.getAttributeValue(null, "channel"), null, null);
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      readElementAttribute(publication, reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+    }
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String name = elementName(reader);
+      if (readElementContent(reader, publication, name, serializer))
+        continue;
+      switch (name) {
+        case "media":
+          while (nextElement(reader, "track")) {
+            publication.addTrack(checkIdentifier(readTrack(reader, serializer)));
+          }
+          break;
+        case "attachments":
+          while (nextElement(reader, "attachment")) {
+            publication.addAttachment(checkIdentifier(readAttachment(reader, serializer)));
+          }
+          break;
+        case "metadata":
+          while (nextElement(reader, "catalog")) {
+            publication.addCatalog(checkIdentifier(readCatalog(reader, serializer)));
+          }
+          break;
+        default:
+          skipElement(reader);
+      }
+    }
+    return publication;
+  }
+
+  /**
+   * Publications assign identifiers to elements without one, which JAXB does not do.
+   */
+  private static <T extends MediaPackageElement> T checkIdentifier(T element) throws UnsupportedContentException {
+    if (element.getIdentifier() == null)
+      throw new UnsupportedContentException("Publication element without identifier");
+    return element;
+  }
+
+  /**
+   * Reads one of the attributes shared by all media package elements.
+   *
+   * @return <code>true</code> if the attribute has been handled
+   */
+  private static boolean readElementAttribute(AbstractMediaPackageElement element, String name, String value)
+          throws UnsupportedContentException {
+    switch (name) {
+      case "id":
+        element.id = checkWhitespace(value);
+        return true;
+      case "type":
+        element.flavor = MediaPackageElementFlavor.parseFlavor(value);
+        return true;
+      case "ref":
+        element.reference = MediaPackageReferenceImpl.fromString(value);
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Reads one of the child elements shared by all media package elements.
+   *
+   * @return <code>true</code> if the element has been handled
+   */
+  private static boolean readElementContent(XMLStreamReader reader, AbstractMediaPackageElement element, String name,
+          MediaPackageSerializer serializer) throws XMLStreamException, UnsupportedContentException,
+          URISyntaxException {
+    switch (name) {
+      case "mimetype":
+        element.mimeType = MimeTypes.parseMimeType(reader.getElementText());
+        return true;
+      case "tags":
+        element.tags = readStrings(reader, "tag", new TreeSet<String>());
+        return true;
+      case "url":
+        element.uri = readUri(reader.getElementText(), serializer);
+        return true;
+      case "size":
+        element.size = parseLong(reader.getElementText());
+        return true;
+      case "checksum":
+        String type = reader.getAttributeValue(null, "type");
+        String value = reader.getElementText();
+        if (type == null)
+          throw new UnsupportedContentException("Checksum without type");
+        try {
+          element.checksum = Checksum.create(ChecksumType.fromString(type), value);
+        } catch (NoSuchAlgorithmException e) {
+          throw new UnsupportedContentException("Unknown checksum type " + type);
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Parses an element URL. Decoding with a serializer follows the rewriting of the DOM based JAXB path, which trims
+   * the URL and leaves empty URLs alone.
+   */
+  private static URI readUri(String uri, MediaPackageSerializer serializer) throws URISyntaxException {
+    if (serializer == null || uri.isEmpty())
+      return new URI(uri);
+    String trimmed = uri.trim();
+    if (!trimmed.equals(uri))
+      logger.warn("Detected invalid URI. Trying to fix it by removing spaces from beginning/end.");
+    return serializer.decodeURI(new URI(trimmed));
+  }
+
+  private static AudioStreamImpl readAudioStream(XMLStreamReader reader)
+          throws XMLStreamException, UnsupportedContentException {
+    String id = reader.getAttributeValue(null, "id");
+    AudioStreamImpl stream = id != null ? new AudioStreamImpl(checkWhitespace(id)) : new AudioStreamImpl();
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String name = elementName(reader);
+      if (readStreamContent(reader, stream, name))
+        continue;
+      switch (name) {
+        case "bitdepth":
+          stream.setBitDepth(parseInt(reader.getElementText()));
+          break;
+        case "channels":
+          stream.setChannels(parseInt(reader.getElementText()));
+          break;
+        case "samplingrate":
+          stream.setSamplingRate(parseInt(reader.getElementText()));
+          break;
+        case "bitrate":
+          stream.setBitRate(parseFloat(reader.getElementText()));
+          break;
+        case "peakleveldb":
+          stream.setPkLevDb(parseFloat(reader.getElementText()));
+          break;
+        case "rmsleveldb":
+          stream.setRmsLevDb(parseFloat(reader.getElementText()));
+          break;
+        case "rmspeakdb":
+          stream.setRmsPkDb(parseFloat(reader.getElementText()));
+          break;
+        default:
+          skipElement(reader);
+      }
+    }
+    return stream;
+  }
+
+  private static VideoStreamImpl readVideoStream(XMLStreamReader reader)
+          throws XMLStreamException, UnsupportedContentException {
+    String id = reader.getAttributeValue(null, "id");
+    VideoStreamImpl stream = id != null ? new VideoStreamImpl(checkWhitespace(id)) : new VideoStreamImpl();
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      String name = elementName(reader);
+      if (readStreamContent(reader, stream, name))
+        continue;
+      switch (name) {
+        case "bitrate":
+          stream.setBitRate(parseFloat(reader.getElementText()));
+          break;
+        case "framerate":
+          stream.setFrameRate(parseFloat(reader.getElementText()));
+          break;
+        case "resolution":
+          stream.setResolution(reader.getElementText());
+          break;
+        case "scantype":
+          String type = reader.getAttributeValue(null, "type");
+          String order = reader.getAttributeValue(null, "order");
+          reader.getElementText();
+          // JAXB keeps an empty scan type, which the setters cannot express
+          if (type == null && order == null)
+            throw new UnsupportedContentException("Empty scan type");
+          if (type != null)
+            stream.setScanType(ScanType.valueOf(type));
+          if (order != null)
+            stream.setScanOrder(ScanOrder.valueOf(order));
+          break;
+        default:
+          skipElement(reader);
+      }
+    }
+    return stream;
+  }
+
+  /**
+   * Reads one of the child elements shared by audio and video streams.
+   *
+   * @return <code>true</code> if the element has been handled
+   */
+  private static boolean readStreamContent(XMLStreamReader reader, AbstractStreamImpl stream, String name)
+          throws XMLStreamException {
+    switch (name) {
+      case "device":
+        stream.setCaptureDevice(reader.getAttributeValue(null, "type"));
+        stream.setCaptureDeviceVersion(reader.getAttributeValue(null, "version"));
+        stream.setCaptureDeviceVendor(reader.getAttributeValue(null, "vendor"));
+        reader.getElementText();
+        return true;
+      case "encoder":
+        stream.setFormat(reader.getAttributeValue(null, "type"));
+        stream.setFormatVersion(reader.getAttributeValue(null, "version"));
+        stream.setEncoderLibraryVendor(reader.getAttributeValue(null, "vendor"));
+        reader.getElementText();
+        return true;
+      case "framecount":
+        stream.setFrameCount(parseLong(reader.getElementText()));
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Moves to the next child element with the given name, skipping any other child elements like JAXB does.
+   *
+   * @return <code>true</code> if there is a next child element, <code>false</code> if the end of the parent element
+   *         has been reached
+   */
+  private static boolean nextElement(XMLStreamReader reader, String name)
+          throws XMLStreamException, UnsupportedContentException {
+    while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+      if (name.equals(elementName(reader)))
+        return true;
+      skipElement(reader);
+    }
+    return false;
+  }
+
+  /** Skips the current element including all of its content, leaving the reader on its end tag. */
+  private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    for (int depth = 1; depth > 0;) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT)
+        depth++;
+      else if (event == XMLStreamConstants.END_ELEMENT)
+        depth--;
+    }
+  }
+
+  /**
+   * Returns the local name of the current element after making sure that neither the element nor its attributes
+   * use namespaces JAXB would interpret differently, like <code>xsi:type</code> or <code>xsi:nil</code>. Elements
+   * from other namespaces are unknown to JAXB and yield an empty name, so that they are skipped.
+   */
+  private static String elementName(XMLStreamReader reader) throws UnsupportedContentException {
+    if (!NAMESPACE.equals(reader.getNamespaceURI()))
+      return "";
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      String namespace = reader.getAttributeNamespace(i);
+      if (namespace != null && !namespace.isEmpty())
+        throw new UnsupportedContentException("Qualified attribute " + reader.getAttributeName(i));
+    }
+    return reader.getLocalName();
+  }
+
+  /** JAXB collapses whitespace in identifiers, so leave these to JAXB. */
+  private static String checkWhitespace(String id) throws UnsupportedContentException {
+    if (!id.equals(id.trim()))
+      throw new UnsupportedContentException("Identifier '" + id + "' with surrounding whitespace");
+    return id;
+  }
+
+  /*
+   * The value parsers are stricter than the ones used by JAXB, which e. g. ignore surrounding whitespace. Values that
+   * are rejected here are left to JAXB.
+   */
+
+  private static long parseLong(String value) {
+    return Long.parseLong(value);
+  }
+
+  private static int parseInt(String value) {
+    return Integer.parseInt(value);
+  }
+
+  private static boolean parseBoolean(String value) {
+    if ("true".equals(value) || "1".equals(value))
+      return true;
+    if ("false".equals(value) || "0".equals(value))
+      return false;
+    throw new IllegalArgumentException("Invalid boolean '" + value + "'");
+  }
+
+  private static float parseFloat(String value) {
+    switch (value) {
+      case "NaN":
+        return Float.NaN;
+      case "INF":
+        return Float.POSITIVE_INFINITY;
+      case "-INF":
+        return Float.NEGATIVE_INFINITY;
+      default:
+        if (value.isEmpty() || !isNumberBoundary(value.charAt(0)) || !isNumberBoundary(value.charAt(value.length() - 1)))
+          throw new NumberFormatException("Invalid float '" + value + "'");
+        return Float.parseFloat(value);
+    }
+  }
+
+  private static boolean isNumberBoundary(char c) {
+    return (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.';
+  }
+
+  /**
+   * Writes markup the way the JAXB reference implementation does when marshalling to a character stream: elements
+   * without content are collapsed, and only <code>&amp;</code>, <code>&lt;</code>, <code>&gt;</code> and, in
+   * attributes, <code>&quot;</code> are escaped.
+   */
+  private static final class Output {
+
+    private final StringBuilder buf = new StringBuilder(4096).append(XML_DECLARATION);
+
+    /** Whether the last start tag still needs to be closed */
+    private boolean startTagOpen = false;
+
+    void start(String name) {
+      closeStartTag();
+      buf.append('<').append(name);
+      startTagOpen = true;
+    }
+
+    void attribute(String name, String value) throws UnsupportedContentException {
+      if (value == null)
+        return;
+      buf.append(' ').append(name).append("=\"");
+      escape(value, true);
+      buf.append('"');
+    }
+
+    void text(String text) throws UnsupportedContentException {
+      closeStartTag();
+      escape(text, false);
+    }
+
+    void end(String name) {
+      if (startTagOpen) {
+        buf.append("/>");
+        startTagOpen = false;
+      } else {
+        buf.append("</").append(name).append('>');
+      }
+    }
+
+    /** Writes an element with text content, unless the text is <code>null</code>. */
+    void element(String name, String text) throws UnsupportedContentException {
+      if (text == null)
+        return;
+      start(name);
+      text(text);
+      end(name);
+    }
+
+    private void closeStartTag() {
+      if (startTagOpen) {
+        buf.append('>');
+        startTagOpen = false;
+      }
+    }
+
+    private void escape(String value, boolean attribute) throws UnsupportedContentException {
+      int start = 0;
+      for (int i = 0; i < value.length(); i++) {
+        String replacement;
+        switch (value.charAt(i)) {
+          case '&':
+            replacement = "&amp;";
+            break;
+          case '<':
+            replacement = "&lt;";
+            break;
+          case '>':
+            replacement = "&gt;";
+            break;
+          case '"':
+            replacement = attribute ? "&quot;" : null;
+            break;
+          case '\r':
+            // Depending on their version, JAXB implementations either drop or escape carriage returns
+            throw new UnsupportedContentException("Carriage return in '" + value + "'");
+          default:
+            replacement = null;
+            break;
+        }
+        if (replacement != null) {
+          buf.append(value, start, i).append(replacement);
+          start = i + 1;
+        }
+      }
+      buf.append(value, start, value.length());
+    }
+
+    @Override
+    public String toString() {
+      return buf.toString();
+    }
+
+  }
+
+  /** Signals content that needs to be handled by JAXB. */
+  private static final class UnsupportedContentException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    UnsupportedContentException(String message) {
+      super(message, null, false, false);
+    }
+
+  }
+
+}
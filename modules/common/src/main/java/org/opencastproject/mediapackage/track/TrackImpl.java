@@ -263,6 +263,15 @@ public class TrackImpl extends AbstractMediaPackageElement implements Track {
     return transport;
   }
 
+  /**
+   * Returns the transport that has been set explicitly, without falling back to detecting it from the track's URI.
+   *
+   * @return the transport or <code>null</code> if none has been set
+   */
+  public StreamingProtocol getDeclaredTransport() {
+    return transport;
+  }
+
   /**
    * @see java.lang.Object#clone() todo
    */
@@ -277,6 +277,15 @@ public class VideoStreamImpl extends AbstractStreamImpl implements VideoStream {
     return node;
   }
 
+  /**
+   * Returns the resolution as found in the manifest, e. g. <code>640x480</code>.
+   *
+   * @return the resolution
+   */
+  public String getResolution() {
+    return resolution;
+  }
+
   @Override
   public Float getBitRate() {
     return bitRate;
@@ -321,6 +330,16 @@ public class VideoStreamImpl extends AbstractStreamImpl implements VideoStream {
     return scanType != null ? scanType.order : null;
   }
 
+  /**
+   * Returns whether the stream carries scan information. This may be the case even if neither scan type nor scan order
+   * are known, e. g. for manifests listing a scan type that could not be parsed.
+   *
+   * @return whether there is scan information
+   */
+  public boolean hasScanInformation() {
+    return scanType != null;
+  }
+
   // Setter
 
   public void setBitRate(Float bitRate) {
@@ -343,6 +362,16 @@ public class VideoStreamImpl extends AbstractStreamImpl implements VideoStream {
       updateResolution();
   }
 
+  /**
+   * Sets the resolution as found in the manifest, e. g. <code>640x480</code>.
+   *
+   * @param resolution
+   *          the resolution
+   */
+  public void setResolution(String resolution) {
+    this.resolution = resolution;
+  }
+
   private void updateResolution() {
     resolution = frameWidth.toString() + "x" + frameHeight.toString();
   }
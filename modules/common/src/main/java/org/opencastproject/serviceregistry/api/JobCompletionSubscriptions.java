@@ -0,0 +1,182 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.api;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.util.NotFoundException;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the parties waiting for jobs to terminate and notifies them once the service registry learns about
+ * the final state of a job.
+ * <p>
+ * This class is meant to be used by {@link ServiceRegistry} implementations to back
+ * {@link ServiceRegistry#subscribeToJobCompletion(long)}.
+ */
+public class JobCompletionSubscriptions {
+
+  /** The states in which a job will not be processed any further */
+  public static final Set<Status> TERMINAL_STATES = EnumSet.of(Status.FINISHED, Status.FAILED, Status.DELETED,
+          Status.CANCELED);
+
+  /**
+   * The futures of the pending subscriptions by job identifier. The lists are only modified while they are in the map,
+   * using the atomic operations of the map.
+   */
+  private final ConcurrentMap<Long, List<CompletableFuture<Job>>> subscriptions = new ConcurrentHashMap<>();
+
+  /**
+   * Returns <code>true</code> if a job in the given state will not be processed any further.
+   *
+   * @param status
+   *          the job status
+   * @return whether the status is terminal
+   */
+  public static boolean isTerminal(Status status) {
+    return status != null && TERMINAL_STATES.contains(status);
+  }
+
+  /**
+   * Subscribes to the completion of the given job. Each subscriber receives its own future, so cancelling it does not
+   * affect other subscribers. A cancelled future is no longer tracked.
+   *
+   * @param jobId
+   *          the job identifier
+   * @return the future that is completed with the job once it reached a terminal state
+   */
+  public CompletableFuture<Job> subscribe(long jobId) {
+    CompletableFuture<Job> completion = new CompletableFuture<>();
+    subscriptions.compute(jobId, (id, completions) -> {
+      List<CompletableFuture<Job>> result = completions == null ? new ArrayList<>() : completions;
+      result.add(completion);
+      return result;
+    });
+    completion.whenComplete((job, failure) -> {
+      // Futures completed by this class have already been removed
+      if (failure != null)
+        unsubscribe(jobId, completion);
+    });
+    return completion;
+  }
+
+  /**
+   * Removes a subscription, and the job entry along with its last subscription.
+   *
+   * @param jobId
+   *          the job identifier
+   * @param completion
+   *          the future of the subscription
+   */
+  private void unsubscribe(long jobId, CompletableFuture<Job> completion) {
+    subscriptions.computeIfPresent(jobId, (id, completions) -> {
+      completions.remove(completion);
+      return completions.isEmpty() ? null : completions;
+    });
+  }
+
+  /**
+   * Returns <code>true</code> if anybody is waiting for the given job.
+   *
+   * @param jobId
+   *          the job identifier
+   * @return whether there are subscribers
+   */
+  public boolean isSubscribed(long jobId) {
+    return subscriptions.containsKey(jobId);
+  }
+
+  /**
+   * Returns the identifiers of all jobs with pending subscriptions.
+   *
+   * @return the job identifiers
+   */
+  public List<Long> getSubscribedJobIds() {
+    return new ArrayList<>(subscriptions.keySet());
+  }
+
+  /**
+   * Notifies the subscribers of the given job if it reached a terminal state.
+   *
+   * @param job
+   *          the job
+   * @return <code>true</code> if subscribers have been notified
+   */
+  public boolean jobUpdated(Job job) {
+    if (!isTerminal(job.getStatus()))
+      return false;
+    List<CompletableFuture<Job>> completions = subscriptions.remove(job.getId());
+    if (completions == null)
+      return false;
+    boolean notified = false;
+    for (CompletableFuture<Job> completion : completions) {
+      notified |= completion.complete(job);
+    }
+    return notified;
+  }
+
+  /**
+   * Notifies the subscribers of the given job that it has been removed from the service registry.
+   *
+   * @param jobId
+   *          the job identifier
+   */
+  public void jobRemoved(long jobId) {
+    fail(subscriptions.remove(jobId), new NotFoundException("Job " + jobId + " has been removed"));
+  }
+
+  /**
+   * Fails all pending subscriptions, e. g. because the service registry is shutting down. Subscribers are expected to
+   * fall back to polling the job status.
+   *
+   * @param reason
+   *          the reason why subscriptions can no longer be served
+   */
+  public void failAll(String reason) {
+    for (Long jobId : getSubscribedJobIds()) {
+      fail(subscriptions.remove(jobId), new ServiceRegistryException(reason));
+    }
+  }
+
+  private static void fail(List<CompletableFuture<Job>> completions, Exception failure) {
+    if (completions == null)
+      return;
+    for (CompletableFuture<Job> completion : completions) {
+      completion.completeExceptionally(failure);
+    }
+  }
+
+  /**
+   * @return the number of jobs with pending subscriptions
+   */
+  public int size() {
+    return subscriptions.size();
+  }
+
+}
@@ -0,0 +1,260 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running statistics of the resources consumed by the jobs processed on this node, used to predict the load of future
+ * jobs of the same kind.
+ * <p>
+ * Jobs are grouped by job type, operation, encoding profile and input duration. The statistics are kept in memory only
+ * and start over whenever the node is restarted. Averages are arithmetic for the first samples of a group and become
+ * exponentially weighted later on, so that the statistics follow changes of the hardware or of the configuration.
+ */
+public class JobLoadStatistics {
+
+  /** The number of samples required before a prediction is made */
+  public static final int MIN_SAMPLES = 5;
+
+  /** The upper bounds of the input duration groups in milliseconds */
+  private static final long[] DURATION_BOUNDS = { TimeUnit.MINUTES.toMillis(5), TimeUnit.MINUTES.toMillis(30),
+          TimeUnit.HOURS.toMillis(2) };
+
+  /** The names of the input duration groups */
+  private static final String[] DURATION_GROUPS = { "<5m", "<30m", "<2h", ">=2h" };
+
+  /** The name of the group of jobs with an unknown input duration */
+  static final String DURATION_UNKNOWN = "unknown";
+
+  /** The name of the group containing jobs of any input duration */
+  static final String DURATION_ANY = "any";
+
+  /** The minimum weight of a new sample */
+  private static final double MIN_WEIGHT = 0.05;
+
+  /** The statistics by group */
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Records the resources consumed by a job.
+   *
+   * @param jobType
+   *          the job type
+   * @param operation
+   *          the job operation
+   * @param profile
+   *          the encoding profile or <code>null</code> if not applicable
+   * @param inputDuration
+   *          the duration of the processed media in milliseconds, or a negative value if unknown
+   * @param predictedLoad
+   *          the load the job has been created with
+   * @param wallTime
+   *          the time it took to process the job in milliseconds
+   * @param cpuTime
+   *          the CPU time consumed while processing the job in milliseconds
+   */
+  public void record(String jobType, String operation, String profile, long inputDuration, float predictedLoad,
+          long wallTime, long cpuTime) {
+    if (wallTime <= 0 || cpuTime < 0)
+      return;
+    final float actualLoad = (float) cpuTime / wallTime;
+    for (String duration : new String[] { getDurationGroup(inputDuration), DURATION_ANY }) {
+      entries.computeIfAbsent(key(jobType, operation, profile, duration),
+              k -> new Entry(jobType, operation, profile, duration))
+              .add(predictedLoad, actualLoad, wallTime, cpuTime);
+    }
+  }
+
+  /**
+   * Predicts the load of a job from the loads of previous jobs of the same kind. If there are enough samples of jobs
+   * with a similar input duration, the prediction is based on these jobs only.
+   *
+   * @param jobType
+   *          the job type
+   * @param operation
+   *          the job operation
+   * @param profile
+   *          the encoding profile or <code>null</code> if not applicable
+   * @param inputDuration
+   *          the duration of the media to process in milliseconds, or a negative value if unknown
+   * @return the predicted load or <code>null</code> if there are not enough samples yet
+   */
+  public Float predictLoad(String jobType, String operation, String profile, long inputDuration) {
+    for (String duration : new String[] { getDurationGroup(inputDuration), DURATION_ANY }) {
+      Entry entry = entries.get(key(jobType, operation, profile, duration));
+      if (entry != null) {
+        Entry snapshot = entry.copy();
+        if (snapshot.getCount() >= MIN_SAMPLES)
+          return snapshot.getActualLoad();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns a snapshot of the statistics of all groups.
+   *
+   * @return the statistics
+   */
+  public List<Entry> getEntries() {
+    List<Entry> result = new ArrayList<>(entries.size());
+    for (Entry entry : entries.values()) {
+      result.add(entry.copy());
+    }
+    return result;
+  }
+
+  /** Removes all statistics. */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * Returns the name of the input duration group a job belongs to.
+   *
+   * @param inputDuration
+   *          the input duration in milliseconds or a negative value if unknown
+   * @return the group name
+   */
+  static String getDurationGroup(long inputDuration) {
+    if (inputDuration < 0)
+      return DURATION_UNKNOWN;
+    for (int i = 0; i < DURATION_BOUNDS.length; i++) {
+      if (inputDuration < DURATION_BOUNDS[i])
+        return DURATION_GROUPS[i];
+    }
+    return DURATION_GROUPS[DURATION_GROUPS.length - 1];
+  }
+
+  private static String key(String jobType, String operation, String profile, String duration) {
+    return jobType + '\n' + operation + '\n' + profile + '\n' + duration;
+  }
+
+  /** The statistics of a group of jobs */
+  public static final class Entry {
+
+    private final String jobType;
+
+    private final String operation;
+
+    private final String profile;
+
+    private final String duration;
+
+    private long count = 0;
+
+    private double predictedLoad = 0;
+
+    private double actualLoad = 0;
+
+    private double loadError = 0;
+
+    private double wallTime = 0;
+
+    private double cpuTime = 0;
+
+    Entry(String jobType, String operation, String profile, String duration) {
+      this.jobType = jobType;
+      this.operation = operation;
+      this.profile = profile;
+      this.duration = duration;
+    }
+
+    synchronized void add(float predicted, float actual, long wall, long cpu) {
+      count++;
+      final double weight = Math.max(1.0 / count, MIN_WEIGHT);
+      predictedLoad += weight * (predicted - predictedLoad);
+      actualLoad += weight * (actual - actualLoad);
+      loadError += weight * (Math.abs(predicted - actual) - loadError);
+      wallTime += weight * (wall - wallTime);
+      cpuTime += weight * (cpu - cpuTime);
+    }
+
+    synchronized Entry copy() {
+      Entry copy = new Entry(jobType, operation, profile, duration);
+      copy.count = count;
+      copy.predictedLoad = predictedLoad;
+      copy.actualLoad = actualLoad;
+      copy.loadError = loadError;
+      copy.wallTime = wallTime;
+      copy.cpuTime = cpuTime;
+      return copy;
+    }
+
+    /** @return the job type */
+    public String getJobType() {
+      return jobType;
+    }
+
+    /** @return the job operation */
+    public String getOperation() {
+      return operation;
+    }
+
+    /** @return the encoding profile, may be <code>null</code> */
+    public String getProfile() {
+      return profile;
+    }
+
+    /** @return the name of the input duration group */
+    public String getDuration() {
+      return duration;
+    }
+
+    /** @return the number of recorded jobs */
+    public long getCount() {
+      return count;
+    }
+
+    /** @return the average load the jobs have been created with */
+    public float getPredictedLoad() {
+      return (float) predictedLoad;
+    }
+
+    /** @return the average load the jobs actually caused, i.e. the CPU time divided by the wall time */
+    public float getActualLoad() {
+      return (float) actualLoad;
+    }
+
+    /** @return the average absolute difference between the predicted and the actual load */
+    public float getLoadError() {
+      return (float) loadError;
+    }
+
+    /** @return the average wall time in milliseconds */
+    public long getWallTime() {
+      return Math.round(wallTime);
+    }
+
+    /** @return the average CPU time in milliseconds */
+    public long getCpuTime() {
+      return Math.round(cpuTime);
+    }
+
+  }
+
+}
@@ -23,10 +23,13 @@ package org.opencastproject.serviceregistry.api;
 
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.serviceregistry.api.SystemLoad.NodeLoad;
 import org.opencastproject.util.NotFoundException;
 
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /** Manages clustered services and the {@link Job}s they may create to enable asynchronous job handling. */
 public interface ServiceRegistry {
@@ -447,6 +450,90 @@ public interface ServiceRegistry {
    */
   Job getJob(long id) throws NotFoundException, ServiceRegistryException;
 
+  /**
+   * Gets the jobs with the given identifiers in a single request. Identifiers of jobs that do not exist are ignored.
+   * <p>
+   * The compact representation of a job is meant for monitoring the progress of many jobs. It contains the job's
+   * identity, status, processing host, timestamps and load, but neither its creator, arguments nor payload.
+   *
+   * @param ids
+   *          the job identifiers
+   * @param compact
+   *          whether to return the compact representation of the jobs
+   * @return the jobs, in the order of the given identifiers
+   * @throws ServiceRegistryException
+   *           if there is a problem accessing the service registry
+   */
+  List<Job> getJobs(List<Long> ids, boolean compact) throws ServiceRegistryException;
+
+  /**
+   * Subscribes to the completion of a job. The returned future is completed with the job as soon as it reaches one of
+   * the states {@link Status#FINISHED}, {@link Status#FAILED}, {@link Status#DELETED} or {@link Status#CANCELED}, or
+   * right away if the job is in one of these states already.
+   * <p>
+   * The future is completed exceptionally with a {@link NotFoundException} if the job is removed from the registry and
+   * with a {@link ServiceRegistryException} if the registry is no longer able to track the job, in which case callers
+   * should fall back to polling {@link #getJob(long)}.
+   *
+   * @param id
+   *          the job id
+   * @return the future job in its terminal state
+   * @throws ServiceRegistryException
+   *           if subscribing to the job fails
+   */
+  CompletableFuture<Job> subscribeToJobCompletion(long id) throws ServiceRegistryException;
+
+  /**
+   * Records the progress of a running job. Since every report is stored, services should report progress at a bounded
+   * rate only.
+   *
+   * @param id
+   *          the job id
+   * @param progress
+   *          the share of the work done, between 0 and 1
+   * @param expectedCompletion
+   *          the expected completion date or <code>null</code> if unknown
+   * @throws ServiceRegistryException
+   *           if there is a problem accessing the service registry
+   */
+  void updateJobProgress(long id, float progress, Date expectedCompletion) throws ServiceRegistryException;
+
+  /**
+   * Returns the progress last reported for a job.
+   *
+   * @param id
+   *          the job id
+   * @return the progress
+   * @throws NotFoundException
+   *           if no progress has been reported for the job
+   * @throws ServiceRegistryException
+   *           if there is a problem accessing the service registry
+   */
+  JobProgress getJobProgress(long id) throws NotFoundException, ServiceRegistryException;
+
+  /**
+   * Records the resources a job consumed on this node, so that the load of similar jobs can be predicted.
+   *
+   * @param job
+   *          the processed job
+   * @param profile
+   *          the encoding profile used by the job or <code>null</code> if not applicable
+   * @param inputDuration
+   *          the duration of the processed media in milliseconds, or a negative value if unknown
+   * @param wallTime
+   *          the time it took to process the job in milliseconds
+   * @param cpuTime
+   *          the CPU time consumed while processing the job in milliseconds
+   */
+  void recordJobLoad(Job job, String profile, long inputDuration, long wallTime, long cpuTime);
+
+  /**
+   * Returns the statistics of the resources consumed by the jobs processed on this node.
+   *
+   * @return the job load statistics
+   */
+  JobLoadStatistics getJobLoadStatistics();
+
   /**
    * Deletes the given jobs from the service registry
    *
@@ -531,7 +618,8 @@ public interface ServiceRegistry {
   int getJobCount(String operation) throws ServiceRegistryException;
 
   /**
-   * Get the list of active jobs.
+   * Get the list of active jobs. For performance reasons, the returned jobs do not carry their payload and arguments.
+   * Use {@link #getJob(long)} to load a complete job.
    *
    * @return list of active jobs
    * @throws ServiceRegistryException if there is a problem accessing the service registry
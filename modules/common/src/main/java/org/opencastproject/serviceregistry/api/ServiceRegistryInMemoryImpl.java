@@ -27,6 +27,7 @@ import org.opencastproject.job.api.Job.Status;
 import org.opencastproject.job.api.JobImpl;
 import org.opencastproject.job.api.JobParser;
 import org.opencastproject.job.api.JobProducer;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.SecurityService;
@@ -52,6 +53,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -88,6 +91,15 @@ public class ServiceRegistryInMemoryImpl implements ServiceRegistry {
   /** The job identifier */
   protected AtomicLong idCounter = new AtomicLong();
 
+  /** The parties waiting for jobs to complete */
+  protected final JobCompletionSubscriptions jobSubscriptions = new JobCompletionSubscriptions();
+
+  /** The progress reported for the jobs */
+  protected final Map<Long, JobProgress> jobProgress = new ConcurrentHashMap<>();
+
+  /** The resources consumed by the processed jobs */
+  protected final JobLoadStatistics jobLoadStatistics = new JobLoadStatistics();
+
   /** Holds the current running job */
   protected Job currentJob = null;
 
@@ -489,6 +501,8 @@ public class ServiceRegistryInMemoryImpl implements ServiceRegistry {
 
       jobs.remove(id);
     }
+    jobProgress.remove(id);
+    jobSubscriptions.jobRemoved(id);
   }
 
   @Override
@@ -584,6 +598,8 @@ public class ServiceRegistryInMemoryImpl implements ServiceRegistry {
         throw new IllegalStateException("Error serializing job", e);
       }
     }
+    if (jobSubscriptions.isSubscribed(updatedJob.getId()))
+      jobSubscriptions.jobUpdated(getJob(updatedJob.getId()));
     return updatedJob;
   }
 
@@ -650,6 +666,93 @@ public class ServiceRegistryInMemoryImpl implements ServiceRegistry {
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobs(java.util.List, boolean)
+   */
+  @Override
+  public List<Job> getJobs(List<Long> ids, boolean compact) throws ServiceRegistryException {
+    List<Job> result = new ArrayList<Job>(ids.size());
+    for (long id : ids) {
+      Job job;
+      try {
+        job = getJob(id);
+      } catch (NotFoundException e) {
+        continue;
+      }
+      if (compact) {
+        job = new JobImpl(job.getId(), null, null, job.getVersion(), job.getJobType(), job.getOperation(), null,
+                job.getStatus(), null, job.getProcessingHost(), job.getDateCreated(), job.getDateStarted(),
+                job.getDateCompleted(), job.getQueueTime(), job.getRunTime(), null, job.getParentJobId(),
+                job.getRootJobId(), job.isDispatchable(), job.getUri(), job.getJobLoad());
+      }
+      result.add(job);
+    }
+    return result;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#subscribeToJobCompletion(long)
+   */
+  @Override
+  public CompletableFuture<Job> subscribeToJobCompletion(long id) throws ServiceRegistryException {
+    CompletableFuture<Job> completion = jobSubscriptions.subscribe(id);
+    // The job may have been completed or removed before we subscribed
+    try {
+      jobSubscriptions.jobUpdated(getJob(id));
+    } catch (NotFoundException e) {
+      jobSubscriptions.jobRemoved(id);
+    }
+    return completion;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#updateJobProgress(long, float, Date)
+   */
+  @Override
+  public void updateJobProgress(long id, float progress, Date expectedCompletion) throws ServiceRegistryException {
+    jobProgress.put(id, new JobProgress(id, progress, expectedCompletion, new Date()));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobProgress(long)
+   */
+  @Override
+  public JobProgress getJobProgress(long id) throws NotFoundException, ServiceRegistryException {
+    JobProgress progress = jobProgress.get(id);
+    if (progress == null)
+      throw new NotFoundException("No progress has been reported for job " + id);
+    return progress;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#recordJobLoad(Job, String, long, long, long)
+   */
+  @Override
+  public void recordJobLoad(Job job, String profile, long inputDuration, long wallTime, long cpuTime) {
+    float load = job.getJobLoad() != null ? job.getJobLoad() : 0.0f;
+    jobLoadStatistics.record(job.getJobType(), job.getOperation(), profile, inputDuration, load, wallTime, cpuTime);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobLoadStatistics()
+   */
+  @Override
+  public JobLoadStatistics getJobLoadStatistics() {
+    return jobLoadStatistics;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -981,6 +1084,7 @@ public class ServiceRegistryInMemoryImpl implements ServiceRegistry {
             } catch (IOException e) {
               throw new IllegalStateException("Error unmarshaling job", e);
             }
+            jobSubscriptions.jobUpdated(job);
             securityService.setUser(null);
             securityService.setOrganization(null);
           }
@@ -992,6 +1096,7 @@ public class ServiceRegistryInMemoryImpl implements ServiceRegistry {
   /** Shuts down this service registry, logging all jobs and their statuses. */
   public void deactivate() {
     dispatcher.shutdownNow();
+    jobSubscriptions.failAll("Service registry has been deactivated");
     Map<Status, AtomicInteger> counts = new HashMap<Job.Status, AtomicInteger>();
     synchronized (jobs) {
       for (String serializedJob : jobs.values()) {
@@ -67,6 +67,40 @@ public final class LoadUtil {
     return loadValue;
   }
 
+  /**
+   * Returns the load of a job as predicted from the loads of previous jobs of the same kind processed on this node, or
+   * the configured load if there are not enough previous jobs yet.
+   *
+   * @param registry
+   *          the service registry keeping the job load statistics
+   * @param jobType
+   *          the job type
+   * @param operation
+   *          the job operation
+   * @param profile
+   *          the encoding profile or <code>null</code> if not applicable
+   * @param inputDuration
+   *          the duration of the media to process in milliseconds, may be <code>null</code> if unknown
+   * @param configuredLoad
+   *          the configured load of the job
+   * @return the predicted load
+   */
+  public static float getPredictedLoadValue(ServiceRegistry registry, String jobType, String operation, String profile,
+          Long inputDuration, float configuredLoad) {
+    Float predicted = registry.getJobLoadStatistics().predictLoad(jobType, operation, profile,
+            inputDuration == null ? -1L : inputDuration);
+    if (predicted == null) {
+      logger.debug("Not enough samples to predict the load of {} {} {}, using configured load of {}", jobType,
+              operation, StringUtils.defaultString(profile), configuredLoad);
+      return configuredLoad;
+    }
+    // Round up to a tenth to keep loads readable and to rather under- than oversubscribe nodes
+    float load = (float) Math.ceil(predicted * 10.0f) / 10.0f;
+    logger.debug("Predicted load of {} {} {} is {} (configured load is {})", jobType, operation,
+            StringUtils.defaultString(profile), load, configuredLoad);
+    return load;
+  }
+
   public static void checkJobFitsCluster(float load, String loadType, List<HostRegistration> hosts) {
     boolean processable = false;
     if (hosts != null) {
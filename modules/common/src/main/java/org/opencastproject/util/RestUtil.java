@@ -43,14 +43,21 @@ import org.opencastproject.util.data.Tuple;
 import org.apache.commons.lang3.StringUtils;
 import org.osgi.service.component.ComponentContext;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.regex.Pattern;
 
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 /** Utility functions for REST endpoints. */
 public final class RestUtil {
@@ -115,6 +122,10 @@ public final class RestUtil {
 
   /**
    * create a partial file response
+   * <p>
+   * Only a single byte range is supported. If the range header cannot be parsed, the whole file is returned. The
+   * requested part of the file is written to the client using {@link FileChannel#transferTo}, so it is not copied
+   * through the Java heap by the file system layer.
    *
    * @param f
    *          the requested file
@@ -131,36 +142,98 @@ public final class RestUtil {
   public static Response.ResponseBuilder partialFileResponse(File f, String contentType, Option<String> fileName,
           String rangeHeader) throws IOException {
 
-    String rangeValue = rangeHeader.trim().substring("bytes=".length());
-    long fileLength = f.length();
-    long start;
-    long end;
-    if (rangeValue.startsWith("-")) {
-      end = fileLength - 1;
-      start = fileLength - 1 - Long.parseLong(rangeValue.substring("-".length()));
-    } else {
-      String[] range = rangeValue.split("-");
-      start = Long.parseLong(range[0]);
-      end = range.length > 1 ? Long.parseLong(range[1]) : fileLength - 1;
-    }
-    if (end > fileLength - 1) {
-      end = fileLength - 1;
+    final long fileLength = f.length();
+    final long[] range = parseRange(rangeHeader, fileLength);
+    if (range == null)
+      return fileResponse(f, contentType, fileName).header("Accept-Ranges", "bytes");
+
+    final long start = range[0];
+    final long end = range[1];
+    if (start > end) {
+      return Response.status(416).header("Accept-Ranges", "bytes").header("Content-Range", "bytes */" + fileLength);
     }
 
     // send partial response status code
     Response.ResponseBuilder response = Response.status(206);
+    long contentLength = end - start + 1;
+    response.header("Accept-Ranges", "bytes");
+    response.header("Content-Length", contentLength + "");
+    response.header("Content-Range", "bytes " + start + "-" + end + "/" + fileLength);
+    response.header("Content-Type", contentType);
+    for (String fn : fileName)
+      response.header("Content-Disposition", "attachment; filename=" + fn);
+    response.entity(new FileRangeOutput(f, start, contentLength));
+    return response;
+  }
+
+  /**
+   * Parses a single byte range of a range header.
+   *
+   * @param rangeHeader
+   *          the range header, e.g. <code>bytes=0-499</code>, <code>bytes=500-</code> or <code>bytes=-500</code>
+   * @param fileLength
+   *          the length of the requested file
+   * @return the first and the last byte position, where the first is greater than the last if the range cannot be
+   *         satisfied, or <code>null</code> if the header is not a valid single byte range
+   */
+  static long[] parseRange(String rangeHeader, long fileLength) {
+    final String value = StringUtils.trimToEmpty(rangeHeader);
+    if (!value.startsWith("bytes=") || value.contains(","))
+      return null;
+    final String rangeValue = value.substring("bytes=".length()).trim();
+    final int dash = rangeValue.indexOf('-');
+    if (dash < 0)
+      return null;
+    try {
+      final String first = rangeValue.substring(0, dash).trim();
+      final String last = rangeValue.substring(dash + 1).trim();
+      if (first.isEmpty()) {
+        // the last n bytes of the file
+        final long suffix = Long.parseLong(last);
+        if (suffix < 0)
+          return null;
+        return new long[] { Math.max(0, fileLength - suffix), fileLength - 1 };
+      }
+      final long start = Long.parseLong(first);
+      final long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+      if (start < 0 || end < start)
+        return null;
+      return new long[] { start, Math.min(end, fileLength - 1) };
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /** Writes a part of a file to the response, letting the operating system copy the data. */
+  private static final class FileRangeOutput implements StreamingOutput {
+
+    private final File file;
 
-    if (start <= end) {
-      long contentLength = end - start + 1;
-      response.header("Accept-Ranges", "bytes");
-      response.header("Connection", "Close");
-      response.header("Content-Length", contentLength + "");
-      response.header("Content-Range", "bytes " + start + "-" + end + "/" + fileLength);
-      response.header("Content-Type", contentType);
-      response.entity(new ChunkedFileInputStream(f, start, end));
+    private final long offset;
+
+    private final long length;
+
+    FileRangeOutput(File file, long offset, long length) {
+      this.file = file;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+      try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        final WritableByteChannel target = Channels.newChannel(output);
+        long position = offset;
+        final long end = offset + length;
+        while (position < end) {
+          final long transferred = channel.transferTo(position, end - position, target);
+          if (transferred <= 0)
+            throw new EOFException("Unexpected end of " + file + " at " + position);
+          position += transferred;
+        }
+      }
     }
 
-    return response;
   }
 
   /**
@@ -22,6 +22,7 @@
 package org.opencastproject.job.api;
 
 import static org.easymock.EasyMock.createNiceMock;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.opencastproject.util.data.Collections.toArray;
 import static org.opencastproject.util.data.Monadics.mlist;
@@ -37,6 +38,10 @@ import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class JobBarrierTest {
 
@@ -56,6 +61,43 @@ public class JobBarrierTest {
     }
   }
 
+  @Test
+  public void testWaitForJobsUsingSubscriptions() throws Exception {
+    final Map<Long, CompletableFuture<Job>> completions = new HashMap<Long, CompletableFuture<Job>>();
+    for (long i = 1; i <= 3; i++) {
+      completions.put(i, new CompletableFuture<Job>());
+    }
+    final ServiceRegistry sr = createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(sr.subscribeToJobCompletion(EasyMock.anyLong())).andAnswer(() -> {
+      final long jobId = (Long) (EasyMock.getCurrentArguments()[0]);
+      return completions.get(jobId);
+    }).anyTimes();
+    // Polling must not be necessary
+    EasyMock.expect(sr.getJob(EasyMock.anyLong())).andThrow(new IllegalStateException()).anyTimes();
+    EasyMock.replay(sr);
+
+    // Complete the jobs from another thread
+    final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    try {
+      for (final Map.Entry<Long, CompletableFuture<Job>> completion : completions.entrySet()) {
+        executor.schedule(() -> {
+          final JobImpl job = new JobImpl(completion.getKey());
+          job.setStatus(completion.getKey() == 2L ? Job.Status.FAILED : Job.Status.FINISHED);
+          job.setPayload("payload-" + completion.getKey());
+          completion.getValue().complete(job);
+        }, 10L * completion.getKey(), TimeUnit.MILLISECONDS);
+      }
+
+      final Job[] jobs = new Job[] { new JobImpl(1L), new JobImpl(2L), new JobImpl(3L) };
+      final JobBarrier.Result res = new JobBarrier(null, sr, jobs).waitForJobs();
+      assertEquals(3, res.getStatus().size());
+      assertEquals(Job.Status.FAILED, res.getStatus().get(jobs[1]));
+      assertEquals("payload-3", jobs[2].getPayload());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private void runWaitForJobsTest(Function<Long, TestJob> jobCreator) throws Exception {
     // create a bunch of jobs
     final Map<Long, TestJob> jobs = new HashMap<Long, TestJob>();
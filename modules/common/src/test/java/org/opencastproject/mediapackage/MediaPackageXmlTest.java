@@ -0,0 +1,102 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.mediapackage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.bind.Marshaller;
+
+public class MediaPackageXmlTest {
+
+  private static final String[] MANIFESTS = { "/manifest.xml", "/manifest-simple.xml", "/manifest-insane.xml",
+          "/source-manifest.xml", "/target-manifest.xml" };
+
+  @Test
+  public void testWriteMatchesJaxb() throws Exception {
+    for (String manifest : MANIFESTS) {
+      MediaPackageImpl mediaPackage = load(manifest);
+      assertEquals(manifest, marshal(mediaPackage), MediaPackageXml.toXml(mediaPackage));
+    }
+  }
+
+  @Test
+  public void testReadMatchesJaxb() throws Exception {
+    MediaPackageImpl expected = load("/manifest-simple.xml");
+    byte[] xml = marshal(expected).getBytes(StandardCharsets.UTF_8);
+    MediaPackageImpl mediaPackage = MediaPackageXml.fromXml(new ByteArrayInputStream(xml), null);
+    assertNotNull(mediaPackage);
+    assertEquals(marshal(expected), marshal(mediaPackage));
+  }
+
+  @Test
+  public void testReadSkipsUnknownElements() throws Exception {
+    String xml = "<mediapackage xmlns=\"http://mediapackage.opencastproject.org\" id=\"mp\">"
+            + "<title>Title</title><unknown><title>Other</title></unknown>"
+            + "<media><track id=\"track\"><scanType/><url>http://localhost/track.mp4</url></track><other/></media>"
+            + "</mediapackage>";
+    MediaPackageImpl mediaPackage = MediaPackageXml.fromXml(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    assertNotNull(mediaPackage);
+    assertEquals("Title", mediaPackage.getTitle());
+    assertEquals(1, mediaPackage.getTracks().length);
+    assertEquals("http://localhost/track.mp4", mediaPackage.getTracks()[0].getURI().toString());
+  }
+
+  @Test
+  public void testUnsupportedContentIsLeftToJaxb() throws Exception {
+    MediaPackageImpl mediaPackage = load("/manifest-simple.xml");
+    mediaPackage.setTitle("Line\r\nbreak");
+    assertNull(MediaPackageXml.toXml(mediaPackage));
+    assertEquals(marshal(mediaPackage), MediaPackageParser.getAsXml(mediaPackage));
+
+    String xml = "<publication xmlns=\"http://mediapackage.opencastproject.org\" id=\"p\"/>";
+    assertNull(MediaPackageXml.fromXml(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null));
+  }
+
+  private MediaPackageImpl load(String manifest) throws Exception {
+    InputStream is = null;
+    try {
+      is = getClass().getResourceAsStream(manifest);
+      return MediaPackageImpl.valueOf(is);
+    } finally {
+      IOUtils.closeQuietly(is);
+    }
+  }
+
+  private static String marshal(MediaPackage mediaPackage) throws Exception {
+    Marshaller marshaller = MediaPackageImpl.context.createMarshaller();
+    StringWriter writer = new StringWriter();
+    marshaller.marshal(mediaPackage, writer);
+    return writer.toString();
+  }
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.job.api.JobImpl;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+public class JobCompletionSubscriptionsTest {
+
+  private final JobCompletionSubscriptions subscriptions = new JobCompletionSubscriptions();
+
+  private static Job job(long id, Status status) {
+    JobImpl job = new JobImpl(id);
+    job.setStatus(status);
+    return job;
+  }
+
+  @Test
+  public void testCompletion() throws Exception {
+    CompletableFuture<Job> first = subscriptions.subscribe(1L);
+    CompletableFuture<Job> second = subscriptions.subscribe(1L);
+    assertEquals(1, subscriptions.size());
+
+    assertFalse(subscriptions.jobUpdated(job(1L, Status.RUNNING)));
+    assertFalse(first.isDone());
+
+    Job finished = job(1L, Status.FINISHED);
+    assertTrue(subscriptions.jobUpdated(finished));
+    assertSame(finished, first.get());
+    assertSame(finished, second.get());
+    assertFalse(subscriptions.isSubscribed(1L));
+  }
+
+  @Test
+  public void testCancelledSubscriptionIsRemoved() throws Exception {
+    CompletableFuture<Job> first = subscriptions.subscribe(1L);
+    CompletableFuture<Job> second = subscriptions.subscribe(1L);
+
+    // Other subscribers of the job are still served
+    first.cancel(false);
+    assertTrue(subscriptions.isSubscribed(1L));
+    Job finished = job(1L, Status.FAILED);
+    assertTrue(subscriptions.jobUpdated(finished));
+    assertSame(finished, second.get());
+
+    // The last subscriber removes the job entry
+    CompletableFuture<Job> third = subscriptions.subscribe(2L);
+    third.cancel(false);
+    assertFalse(subscriptions.isSubscribed(2L));
+    assertEquals(0, subscriptions.size());
+  }
+
+  @Test
+  public void testFailedSubscriptionIsRemoved() throws Exception {
+    subscriptions.subscribe(1L).completeExceptionally(new IllegalStateException());
+    assertFalse(subscriptions.isSubscribed(1L));
+
+    CompletableFuture<Job> removed = subscriptions.subscribe(2L);
+    subscriptions.jobRemoved(2L);
+    assertTrue(removed.isCompletedExceptionally());
+    assertEquals(0, subscriptions.size());
+  }
+
+}
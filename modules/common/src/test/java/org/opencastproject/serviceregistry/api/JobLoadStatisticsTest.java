@@ -0,0 +1,84 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class JobLoadStatisticsTest {
+
+  private static final long SHORT = TimeUnit.MINUTES.toMillis(2);
+  private static final long LONG = TimeUnit.HOURS.toMillis(3);
+
+  @Test
+  public void testDurationGroups() {
+    assertEquals(JobLoadStatistics.DURATION_UNKNOWN, JobLoadStatistics.getDurationGroup(-1L));
+    assertEquals("<5m", JobLoadStatistics.getDurationGroup(0L));
+    assertEquals("<30m", JobLoadStatistics.getDurationGroup(TimeUnit.MINUTES.toMillis(5)));
+    assertEquals("<2h", JobLoadStatistics.getDurationGroup(TimeUnit.MINUTES.toMillis(90)));
+    assertEquals(">=2h", JobLoadStatistics.getDurationGroup(LONG));
+  }
+
+  @Test
+  public void testPrediction() {
+    JobLoadStatistics statistics = new JobLoadStatistics();
+    for (int i = 0; i < JobLoadStatistics.MIN_SAMPLES - 1; i++) {
+      statistics.record("composer", "Encode", "mp4", SHORT, 2.0f, 10000L, 15000L);
+    }
+    assertNull(statistics.predictLoad("composer", "Encode", "mp4", SHORT));
+
+    statistics.record("composer", "Encode", "mp4", SHORT, 2.0f, 10000L, 15000L);
+    assertEquals(1.5f, statistics.predictLoad("composer", "Encode", "mp4", SHORT), 0.001f);
+
+    // Without enough samples of similar duration, all durations are taken into account
+    statistics.record("composer", "Encode", "mp4", LONG, 2.0f, 10000L, 45000L);
+    assertEquals(1.5f, statistics.predictLoad("composer", "Encode", "mp4", SHORT), 0.001f);
+    assertEquals(2.0f, statistics.predictLoad("composer", "Encode", "mp4", LONG), 0.001f);
+
+    // Other profiles are independent
+    assertNull(statistics.predictLoad("composer", "Encode", "webm", SHORT));
+  }
+
+  @Test
+  public void testEntries() {
+    JobLoadStatistics statistics = new JobLoadStatistics();
+    statistics.record("composer", "Encode", "mp4", SHORT, 2.0f, 10000L, 10000L);
+    statistics.record("composer", "Encode", "mp4", SHORT, 2.0f, 20000L, 60000L);
+    // Invalid samples are ignored
+    statistics.record("composer", "Encode", "mp4", SHORT, 2.0f, 0L, 60000L);
+
+    assertEquals(2, statistics.getEntries().size());
+    for (JobLoadStatistics.Entry entry : statistics.getEntries()) {
+      assertEquals(2, entry.getCount());
+      assertEquals(2.0f, entry.getPredictedLoad(), 0.001f);
+      assertEquals(2.0f, entry.getActualLoad(), 0.001f);
+      assertEquals(1.0f, entry.getLoadError(), 0.001f);
+      assertEquals(15000L, entry.getWallTime());
+      assertEquals(35000L, entry.getCpuTime());
+    }
+  }
+
+}
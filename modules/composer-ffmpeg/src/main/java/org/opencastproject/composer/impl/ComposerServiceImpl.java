@@ -34,6 +34,7 @@ import org.opencastproject.composer.api.EncoderException;
 import org.opencastproject.composer.api.EncodingProfile;
 import org.opencastproject.composer.api.LaidOutElement;
 import org.opencastproject.composer.api.VideoClip;
+import org.opencastproject.composer.impl.jmx.EncoderStatistics;
 import org.opencastproject.composer.layout.Dimension;
 import org.opencastproject.composer.layout.Layout;
 import org.opencastproject.composer.layout.Serializer;
@@ -43,16 +44,19 @@ import org.opencastproject.job.api.AbstractJobProducer;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.JobBarrier;
 import org.opencastproject.mediapackage.Attachment;
+import org.opencastproject.mediapackage.AudioStream;
 import org.opencastproject.mediapackage.MediaPackageElement;
 import org.opencastproject.mediapackage.MediaPackageElementBuilder;
 import org.opencastproject.mediapackage.MediaPackageElementBuilderFactory;
 import org.opencastproject.mediapackage.MediaPackageElementFlavor;
 import org.opencastproject.mediapackage.MediaPackageElementParser;
 import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.Stream;
 import org.opencastproject.mediapackage.Track;
 import org.opencastproject.mediapackage.VideoStream;
 import org.opencastproject.mediapackage.identifier.IdBuilder;
 import org.opencastproject.mediapackage.identifier.IdBuilderFactory;
+import org.opencastproject.mediapackage.track.TrackImpl;
 import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.UserDirectoryService;
@@ -75,6 +79,7 @@ import org.opencastproject.util.UnknownFileTypeException;
 import org.opencastproject.util.data.Collections;
 import org.opencastproject.util.data.Option;
 import org.opencastproject.util.data.Tuple;
+import org.opencastproject.util.jmx.JmxUtil;
 import org.opencastproject.workspace.api.Workspace;
 
 import com.google.gson.Gson;
@@ -82,6 +87,7 @@ import com.google.gson.Gson;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.osgi.service.cm.ConfigurationException;
@@ -114,6 +120,8 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 
+import javax.management.ObjectInstance;
+
 /** FFMPEG based implementation of the composer service api. */
 public class ComposerServiceImpl extends AbstractJobProducer implements ComposerService, ManagedService {
   /**
@@ -151,6 +159,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   private static final int PROCESS_SMIL_FAILED = 19;
   private static final int MULTI_ENCODE_FAILED = 20;
   private static final int NO_STREAMS = 23;
+  private static final int SEGMENTED_ENCODE_FAILED = 24;
 
   /** The logging instance */
   private static final Logger logger = LoggerFactory.getLogger(ComposerServiceImpl.class);
@@ -181,20 +190,64 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   /** The default factor used to multiply the sum of encoding profiles load job for ProcessSmil */
   public static final float DEFAULT_PROCESS_SMIL_JOB_LOAD_FACTOR = 0.5f;
   public static final float DEFAULT_MULTI_ENCODE_JOB_LOAD_FACTOR = 0.5f;
+  /** The default job load of a segmented encoding, which only splits and joins the track without re-encoding it */
+  public static final float DEFAULT_SEGMENTED_ENCODE_JOB_LOAD = 0.5f;
 
   public static final String JOB_LOAD_MAX_MULTIPLE_PROFILES = "job.load.max.multiple.profiles";
   public static final String JOB_LOAD_FACTOR_PROCESS_SMIL = "job.load.factor.process.smil";
+  public static final String JOB_LOAD_FACTOR_MULTI_ENCODE = "job.load.factor.multiencode";
+  public static final String JOB_LOAD_SEGMENTED_ENCODE = "job.load.segmented.encode";
+
+  /** Configuration whether to predict the load of encoding jobs from the loads of previous jobs */
+  public static final String JOB_LOAD_ADAPTIVE = "job.load.adaptive";
+
+  /** Configuration whether to record the loads of encoding jobs, implied by {@link #JOB_LOAD_ADAPTIVE} */
+  public static final String JOB_LOAD_STATISTICS = "job.load.statistics";
+
+  /** Configuration of the time image extractions wait for further requests to extract images together with */
+  public static final String IMAGE_EXTRACTION_BATCH_WINDOW = "image.extraction.batch.window";
+
+  /** Configuration of the minimum time between two updates of the progress of a running encoding job in seconds */
+  public static final String JOB_PROGRESS_UPDATE_INTERVAL = "job.progress.update.interval";
+
+  /** The default minimum time between two updates of the progress of a running encoding job in seconds */
+  public static final long DEFAULT_JOB_PROGRESS_UPDATE_INTERVAL = 10L;
+
+  /** The encoding profile used to join the separately encoded segments of a segmented encoding */
+  static final String SEGMENT_CONCAT_PROFILE = "concat-samecodec.work";
+
+  /** Segmented encodings are done in a single pass if the segments would become shorter than this (ms) */
+  static final long MIN_SEGMENT_DURATION = 30000L;
+
+  /** The tolerated difference between the duration of a segmented encoding and the source per segment (ms) */
+  static final long SEGMENT_DURATION_TOLERANCE = 250L;
 
   private float maxMultipleProfilesJobLoad = DEFAULT_JOB_LOAD_MAX_MULTIPLE_PROFILES;
   private float processSmilJobLoadFactor = DEFAULT_PROCESS_SMIL_JOB_LOAD_FACTOR;
   private float multiEncodeJobLoadFactor = DEFAULT_MULTI_ENCODE_JOB_LOAD_FACTOR;
+  private float segmentedEncodeJobLoad = DEFAULT_SEGMENTED_ENCODE_JOB_LOAD;
+  private boolean adaptiveJobLoad = false;
+  private boolean jobLoadStatistics = false;
+
+  /** Combines image extractions from the same track which are running concurrently on this node */
+  private ImageExtractionBatcher imageBatcher = new ImageExtractionBatcher(0);
+
+  /** The minimum time between two updates of the progress of a running encoding job in milliseconds */
+  private long progressUpdateInterval = DEFAULT_JOB_PROGRESS_UPDATE_INTERVAL * 1000L;
+
+  /** The encoder throughput by encoding profile */
+  private final EncoderStatistics encoderStatistics = new EncoderStatistics();
+
+  /** The JMX registration of the encoder statistics */
+  private ObjectInstance encoderStatisticsBean;
 
   /** default transition */
   private int transitionDuration = (int) (DEFAULT_PROCESS_SMIL_CLIP_TRANSITION_DURATION * 1000);
 
   /** List of available operations on jobs */
   enum Operation {
-    Encode, Image, ImageConversion, Mux, Trim, Composite, Concat, ImageToVideo, ParallelEncode, Demux, ProcessSmil, MultiEncode
+    Encode, Image, ImageConversion, Mux, Trim, Composite, Concat, ImageToVideo, ParallelEncode, Demux, ProcessSmil, MultiEncode,
+    SegmentedEncode
   }
 
   /** tracked encoder engines */
@@ -247,6 +300,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     ffmpegBinary = StringUtils.defaultString(cc.getBundleContext().getProperty(CONFIG_FFMPEG_PATH),
             FFMPEG_BINARY_DEFAULT);
     logger.debug("ffmpeg binary: {}", ffmpegBinary);
+    encoderStatisticsBean = JmxUtil.registerMXBean(encoderStatistics, "EncoderStatistics");
     logger.info("Activating composer service");
   }
 
@@ -259,6 +313,8 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
       engine.close();
     }
     logger.debug("Closed encoder engine factory");
+    if (encoderStatisticsBean != null)
+      JmxUtil.unregisterMXBean(encoderStatisticsBean);
   }
 
   /**
@@ -271,8 +327,9 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   public Job encode(Track sourceTrack, String profileId) throws EncoderException, MediaPackageException {
     try {
       final EncodingProfile profile = profileScanner.getProfile(profileId);
+      final float load = getJobLoad(Operation.Encode, profileId, sourceTrack, profile.getJobLoad());
       return serviceRegistry.createJob(JOB_TYPE, Operation.Encode.toString(),
-              Arrays.asList(profileId, MediaPackageElementParser.getAsXml(sourceTrack)), profile.getJobLoad());
+              Arrays.asList(profileId, MediaPackageElementParser.getAsXml(sourceTrack)), load);
     } catch (ServiceRegistryException e) {
       throw new EncoderException("Unable to create a job", e);
     }
@@ -364,8 +421,14 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
     logger.info("Encoding {} into {} using profile {}", StringUtils.join(trackMsg, ", "), targetTrackId, profileId);
 
+    long duration = -1;
+    for (Track track : tracks.values()) {
+      if (track.getDuration() != null)
+        duration = Math.max(duration, track.getDuration());
+    }
+
     // Do the work
-    final EncoderEngine encoder = getEncoderEngine();
+    final EncoderEngine encoder = getEncoderEngine(job, profileId, duration);
     List<File> output;
     try {
       output = encoder.process(files, profile, null);
@@ -428,7 +491,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
 
     // Create the engine
     final EncodingProfile profile = getProfile(profileId);
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    final EncoderEngine encoderEngine = getEncoderEngine(job, profileId, mediaTrack.getDuration());
 
     // conditional settings based on frame height
     final int height = Arrays.stream(mediaTrack.getStreams())
@@ -499,14 +562,214 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   public Job parallelEncode(Track sourceTrack, String profileId) throws EncoderException, MediaPackageException {
     try {
       final EncodingProfile profile = profileScanner.getProfile(profileId);
-      logger.info("Starting parallel encode with profile {} with job load {}", profileId, df.format(profile.getJobLoad()));
+      final float load = getJobLoad(Operation.ParallelEncode, profileId, sourceTrack, profile.getJobLoad());
+      logger.info("Starting parallel encode with profile {} with job load {}", profileId, df.format(load));
       return serviceRegistry.createJob(JOB_TYPE, Operation.ParallelEncode.toString(),
-              Arrays.asList(profileId, MediaPackageElementParser.getAsXml(sourceTrack)), profile.getJobLoad());
+              Arrays.asList(profileId, MediaPackageElementParser.getAsXml(sourceTrack)), load);
     } catch (ServiceRegistryException e) {
       throw new EncoderException("Unable to create a job", e);
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.composer.api.ComposerService#segmentedEncode(org.opencastproject.mediapackage.Track,
+   *      java.lang.String, int)
+   */
+  @Override
+  public Job segmentedEncode(Track sourceTrack, String profileId, int segments)
+          throws EncoderException, MediaPackageException {
+    if (segments < 1)
+      throw new IllegalArgumentException("The number of segments must be positive");
+    try {
+      logger.info("Starting segmented encode of track {} into {} segments with profile {}",
+              sourceTrack.getIdentifier(), segments, profileId);
+      return serviceRegistry.createJob(JOB_TYPE, Operation.SegmentedEncode.toString(),
+              Arrays.asList(profileId, MediaPackageElementParser.getAsXml(sourceTrack), Integer.toString(segments)),
+              segmentedEncodeJobLoad);
+    } catch (ServiceRegistryException e) {
+      throw new EncoderException("Unable to create a job", e);
+    }
+  }
+
+  /**
+   * Encodes a track by splitting it on keyframes into segments, encoding each segment in a job of its own and joining
+   * the encoded segments without re-encoding them. The segment jobs are dispatched like any other encoding job and may
+   * therefore run in parallel on different nodes. Tracks which are too short to be split are encoded in a single pass.
+   *
+   * @param job
+   *          Job in which context the encoding is done
+   * @param track
+   *          Source track
+   * @param profileId
+   *          the encoding profile
+   * @param segments
+   *          the number of segments to split the track into
+   * @return the encoded track or none if the operation does not return a track
+   * @throws EncoderException
+   *           if encoding fails
+   */
+  protected Option<Track> segmentedEncode(final Job job, Track track, String profileId, int segments)
+          throws EncoderException, MediaPackageException {
+    getProfile(job, profileId);
+    final Long duration = track.getDuration();
+    if (segments < 2 || duration == null || duration < segments * MIN_SEGMENT_DURATION) {
+      logger.info("Encoding track {} in a single pass since it cannot be split into {} segments",
+              track.getIdentifier(), segments);
+      return encode(job, Collections.map(tuple("video", track)), profileId);
+    }
+
+    final File source = loadTrackIntoWorkspace(job, "source", track, false);
+    final File segmentDir = new File(workspace.rootDirectory(), "segments_" + job.getId());
+    List<URI> segmentURIs = new ArrayList<>();
+    List<Track> encodedSegments = new ArrayList<>();
+    try {
+      // Split the track on keyframes without re-encoding it
+      List<File> segmentFiles = splitOnKeyframes(job, source, duration / segments, segmentDir);
+      segmentURIs = putToCollection(job, segmentFiles, "source segment");
+      logger.info("Split track {} into {} segments", track.getIdentifier(), segmentURIs.size());
+
+      // Encode the segments in jobs of their own
+      List<Job> encodingJobs = new ArrayList<>(segmentURIs.size());
+      for (URI segmentURI : segmentURIs) {
+        TrackImpl segment = TrackImpl.fromURI(segmentURI);
+        segment.setIdentifier(idBuilder.createNew().toString());
+        encodingJobs.add(encode(segment, profileId));
+      }
+      JobBarrier barrier = new JobBarrier(job, serviceRegistry, encodingJobs.toArray(new Job[encodingJobs.size()]));
+      if (!barrier.waitForJobs().isSuccess()) {
+        incident().recordFailure(job, SEGMENTED_ENCODE_FAILED,
+                Collections.map(tuple("track", track.getURI().toString()),
+                        tuple("reason", "Encoding a segment using profile " + profileId + " failed")));
+        throw new EncoderException("Encoding of at least one segment of track " + track.getIdentifier() + " failed");
+      }
+      for (Job encodingJob : encodingJobs) {
+        if (StringUtils.isBlank(encodingJob.getPayload()))
+          throw new EncoderException(format("Profile %s does not support segmented encoding", profileId));
+        encodedSegments.add((Track) MediaPackageElementParser.getFromXml(encodingJob.getPayload()));
+      }
+
+      // Join the encoded segments
+      Option<Track> encoded = encodedSegments.size() == 1 ? some(encodedSegments.get(0))
+              : concat(job, encodedSegments, SEGMENT_CONCAT_PROFILE, null, -1.0f, true);
+      if (encoded.isNone())
+        throw new EncoderException("Joining the encoded segments of track " + track.getIdentifier() + " failed");
+
+      Track result = encoded.get();
+      validateSegmentedEncoding(job, track, encodedSegments, result);
+      return some(result);
+    } finally {
+      segmentURIs.forEach(this::cleanupWorkspace);
+      if (encodedSegments.size() > 1)
+        encodedSegments.forEach(segment -> cleanupWorkspace(segment.getURI()));
+      FileSupport.deleteQuietly(segmentDir, true);
+    }
+  }
+
+  /**
+   * Splits a media file into segments of about the given duration without re-encoding it. Since the track is cut on
+   * keyframes only, segments may be longer and fewer than requested.
+   *
+   * @param job
+   *          Job in which context the split is done
+   * @param source
+   *          the media file
+   * @param segmentDuration
+   *          the target duration of a segment in milliseconds
+   * @param segmentDir
+   *          the directory to write the segments to
+   * @return the segment files in playback order
+   * @throws EncoderException
+   *           if splitting fails
+   */
+  List<File> splitOnKeyframes(Job job, File source, long segmentDuration, File segmentDir) throws EncoderException {
+    if (!segmentDir.isDirectory() && !segmentDir.mkdirs())
+      throw new EncoderException("Unable to create segment directory " + segmentDir);
+
+    DecimalFormatSymbols ffmpegFormat = new DecimalFormatSymbols();
+    ffmpegFormat.setDecimalSeparator('.');
+    String segmentTime = new DecimalFormat("0.000", ffmpegFormat).format(segmentDuration / 1000.0);
+    String segmentPattern = new File(segmentDir,
+            "segment-%05d." + FilenameUtils.getExtension(source.getName())).getAbsolutePath();
+    List<String> command = Arrays.asList("-nostdin", "-nostats", "-i", source.getAbsolutePath(),
+            "-map", "0:v?", "-map", "0:a?", "-c", "copy", "-f", "segment", "-segment_time", segmentTime,
+            "-reset_timestamps", "1", segmentPattern);
+
+    final EncoderEngine encoderEngine = getEncoderEngine();
+    try {
+      encoderEngine.process(command);
+    } catch (EncoderException e) {
+      incident().recordFailure(job, SEGMENTED_ENCODE_FAILED, e,
+              Collections.map(tuple("track", source.getAbsolutePath()), tuple("reason", "Splitting the track failed")),
+              detailsFor(e, encoderEngine));
+      throw e;
+    } finally {
+      activeEncoder.remove(encoderEngine);
+    }
+
+    // The segment muxer does not report its output files
+    File[] segmentFiles = segmentDir.listFiles();
+    if (segmentFiles == null || segmentFiles.length == 0)
+      throw new EncoderException("Splitting " + source + " did not produce any segments");
+    Arrays.sort(segmentFiles);
+    return Arrays.asList(segmentFiles);
+  }
+
+  /**
+   * Makes sure that a segmented encoding is equivalent to encoding the source in a single pass: All segments have to
+   * be encoded with the same stream layout, which must match the joined result, and the duration of the result must
+   * match the duration of the source.
+   *
+   * @throws EncoderException
+   *           if the encoding is not valid
+   */
+  private void validateSegmentedEncoding(Job job, Track source, List<Track> encodedSegments, Track result)
+          throws EncoderException {
+    String layout = getStreamLayout(result);
+    String error = null;
+    for (Track segment : encodedSegments) {
+      if (!layout.equals(getStreamLayout(segment))) {
+        error = format("Segment %s has stream layout %s instead of %s", segment.getURI(), getStreamLayout(segment),
+                layout);
+        break;
+      }
+    }
+    long tolerance = Math.max(1000L, encodedSegments.size() * SEGMENT_DURATION_TOLERANCE);
+    if (error == null && source.getDuration() != null && (result.getDuration() == null
+            || Math.abs(result.getDuration() - source.getDuration()) > tolerance)) {
+      error = format("Duration %s of the encoded track does not match duration %s of the source",
+              result.getDuration(), source.getDuration());
+    }
+    if (error != null) {
+      incident().recordFailure(job, SEGMENTED_ENCODE_FAILED,
+              Collections.map(tuple("track", source.getURI().toString()), tuple("reason", error)));
+      cleanupWorkspace(result.getURI());
+      throw new EncoderException(error);
+    }
+  }
+
+  /**
+   * Describes the codecs and dimensions of the streams of a track.
+   *
+   * @param track
+   *          the track
+   * @return the stream layout
+   */
+  static String getStreamLayout(Track track) {
+    List<String> streams = new ArrayList<>();
+    for (Stream stream : track.getStreams()) {
+      if (stream instanceof VideoStream) {
+        VideoStream video = (VideoStream) stream;
+        streams.add(format("video:%s:%sx%s", video.getFormat(), video.getFrameWidth(), video.getFrameHeight()));
+      } else if (stream instanceof AudioStream) {
+        AudioStream audio = (AudioStream) stream;
+        streams.add(format("audio:%s:%s:%s", audio.getFormat(), audio.getChannels(), audio.getSamplingRate()));
+      }
+    }
+    return StringUtils.join(streams, ",");
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -855,8 +1118,13 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
       trackFiles.add(i++, loadTrackIntoWorkspace(job, "concat", track, false));
     }
 
+    long duration = 0;
+    for (Track track : tracks) {
+      duration = track.getDuration() != null && duration >= 0 ? duration + track.getDuration() : -1;
+    }
+
     // Create the engine
-    final EncoderEngine encoderEngine = getEncoderEngine();
+    final EncoderEngine encoderEngine = getEncoderEngine(job, profileId, duration);
 
     if (onlyAudio) {
       logger.info("Concatenating audio tracks {} into {}", trackFiles, targetTrackId);
@@ -1107,7 +1375,8 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     // Do the work
     List<File> encodingOutput;
     try {
-      encodingOutput = encoderEngine.extract(videoFile, profile, properties, times);
+      encodingOutput = imageBatcher.extract(sourceTrack.getURI() + " " + profileId, videoFile, profile, properties,
+              encoderEngine::extract, times);
       // check for validity of output
       if (encodingOutput == null || encodingOutput.isEmpty()) {
         logger.error("Image extraction from video {} with profile {} failed: no images were produced",
@@ -1351,6 +1620,12 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
           firstTrack = (Track) MediaPackageElementParser.getFromXml(arguments.get(1));
           serialized = MediaPackageElementParser.getArrayAsXml(parallelEncode(job, firstTrack, encodingProfile));
           break;
+        case SegmentedEncode:
+          firstTrack = (Track) MediaPackageElementParser.getFromXml(arguments.get(1));
+          int segments = Integer.parseInt(arguments.get(2));
+          serialized = segmentedEncode(job, firstTrack, encodingProfile, segments).map(
+                  MediaPackageElementParser.getAsXml()).getOrElse("");
+          break;
         case Image:
           firstTrack = (Track) MediaPackageElementParser.getFromXml(arguments.get(1));
           List<Attachment> resultingElements;
@@ -1560,12 +1835,86 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
   }
 
+  /**
+   * Returns the load of a new encoding job. If adaptive job loads are enabled, the load is predicted from the loads of
+   * previous jobs with the same operation and encoding profile on this node.
+   *
+   * @param operation
+   *          the job operation
+   * @param profileId
+   *          the encoding profile, or the comma separated profiles of a multi encoding
+   * @param sourceTrack
+   *          the track to encode
+   * @param configuredLoad
+   *          the configured load
+   * @return the job load
+   */
+  private float getJobLoad(Operation operation, String profileId, Track sourceTrack, float configuredLoad) {
+    if (!adaptiveJobLoad)
+      return configuredLoad;
+    return LoadUtil.getPredictedLoadValue(serviceRegistry, JOB_TYPE, operation.toString(), profileId,
+            sourceTrack.getDuration(), configuredLoad);
+  }
+
+  /**
+   * Records encoding jobs along with their encoding profile and the duration of the source track, so that their load
+   * can be predicted. Nothing is recorded unless job load statistics are enabled.
+   *
+   * @see org.opencastproject.job.api.AbstractJobProducer#recordJobLoad(Job, long, long)
+   */
+  @Override
+  protected void recordJobLoad(Job job, long wallTime, long cpuTime) {
+    if (!jobLoadStatistics || cpuTime < 0)
+      return;
+    String profileId = null;
+    Long duration = null;
+    try {
+      final List<String> arguments = job.getArguments();
+      switch (Operation.valueOf(job.getOperation())) {
+        case Encode:
+        case ParallelEncode:
+          profileId = arguments.get(0);
+          duration = ((Track) MediaPackageElementParser.getFromXml(arguments.get(1))).getDuration();
+          break;
+        case MultiEncode:
+          profileId = StringUtils.join(arguments.subList(1, arguments.size()), ",");
+          duration = ((Track) MediaPackageElementParser.getFromXml(arguments.get(0))).getDuration();
+          break;
+        default:
+          break;
+      }
+    } catch (Exception e) {
+      logger.debug("Unable to determine the profile and duration of job {}: {}", job.getId(), e.getMessage());
+    }
+    serviceRegistry.recordJobLoad(job, profileId, duration == null ? -1L : duration, wallTime, cpuTime);
+  }
+
   private EncoderEngine getEncoderEngine() {
     EncoderEngine engine = new EncoderEngine(ffmpegBinary);
+    engine.setBenchmark(jobLoadStatistics);
     activeEncoder.add(engine);
     return engine;
   }
 
+  /**
+   * Creates an encoder engine which reports the progress of the encoding to the service registry and to the encoder
+   * statistics.
+   *
+   * @param job
+   *          the job in which context the encoding is done
+   * @param profileId
+   *          the encoding profile
+   * @param duration
+   *          the duration of the media to encode in milliseconds, may be <code>null</code> or negative if unknown
+   * @return the encoder engine
+   */
+  private EncoderEngine getEncoderEngine(Job job, String profileId, Long duration) {
+    EncoderEngine engine = getEncoderEngine();
+    engine.setProgressListener(new JobProgressReporter(serviceRegistry, job.getId(), profileId,
+            duration == null ? -1L : duration, progressUpdateInterval, encoderStatistics));
+    return engine;
+  }
+
   private EncodingProfile getProfile(Job job, String profileId) throws EncoderException {
     final EncodingProfile profile = profileScanner.getProfile(profileId);
     if (profile == null) {
@@ -2014,6 +2363,22 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     if (processSmilJobLoadFactor == 0) {
       processSmilJobLoadFactor = DEFAULT_PROCESS_SMIL_JOB_LOAD_FACTOR;
     }
+    multiEncodeJobLoadFactor = LoadUtil.getConfiguredLoadValue(properties, JOB_LOAD_FACTOR_MULTI_ENCODE,
+            DEFAULT_MULTI_ENCODE_JOB_LOAD_FACTOR, serviceRegistry);
+    segmentedEncodeJobLoad = LoadUtil.getConfiguredLoadValue(properties, JOB_LOAD_SEGMENTED_ENCODE,
+            DEFAULT_SEGMENTED_ENCODE_JOB_LOAD, serviceRegistry);
+    adaptiveJobLoad = BooleanUtils.toBoolean(StringUtils.trimToNull((String) properties.get(JOB_LOAD_ADAPTIVE)));
+    logger.debug("Adaptive job loads {}", adaptiveJobLoad ? "enabled" : "disabled");
+    jobLoadStatistics = adaptiveJobLoad
+            || BooleanUtils.toBoolean(StringUtils.trimToNull((String) properties.get(JOB_LOAD_STATISTICS)));
+    logger.debug("Job load statistics {}", jobLoadStatistics ? "enabled" : "disabled");
+    String batchWindowValue = (String) properties.get(IMAGE_EXTRACTION_BATCH_WINDOW);
+    long batchWindow = NumberUtils.toLong(StringUtils.trimToNull(batchWindowValue), 0L);
+    imageBatcher = new ImageExtractionBatcher(batchWindow);
+    logger.debug("Image extraction batch window set to {}ms", batchWindow);
+    String progressIntervalValue = StringUtils.trimToNull((String) properties.get(JOB_PROGRESS_UPDATE_INTERVAL));
+    progressUpdateInterval = 1000L * NumberUtils.toLong(progressIntervalValue, DEFAULT_JOB_PROGRESS_UPDATE_INTERVAL);
+    logger.debug("Job progress update interval set to {}ms", progressUpdateInterval);
     transitionDuration = 1000 * (int) LoadUtil.getConfiguredLoadValue(properties, PROCESS_SMIL_CLIP_TRANSITION_DURATION,
             DEFAULT_PROCESS_SMIL_CLIP_TRANSITION_DURATION, serviceRegistry);
   }
@@ -2260,8 +2625,9 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   @Override
   public Job multiEncode(Track sourceTrack, List<String> profileIds) throws EncoderException, MediaPackageException {
     try {
-      // Job Load is based on number of encoding profiles
-      float load = calculateJobLoadForMultipleProfiles(profileIds, multiEncodeJobLoadFactor);
+      // Job Load is based on number of encoding profiles, sharing the decoding of the source track
+      float load = getJobLoad(Operation.MultiEncode, StringUtils.join(profileIds, ","), sourceTrack,
+              calculateJobLoadForMultiEncode(profileIds));
       ArrayList<String> args = new ArrayList<>();
       args.add(MediaPackageElementParser.getAsXml(sourceTrack));
       args.addAll(profileIds);
@@ -2307,7 +2673,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
       }
       logger.info("Encoding source track {} using profiles '{}'", track.getIdentifier(), profileIds);
       // Do the work
-      EncoderEngine encoderEngine = getEncoderEngine();
+      EncoderEngine encoderEngine = getEncoderEngine(job, StringUtils.join(profileIds, ","), track.getDuration());
       try {
         outputs = encoderEngine.multiTrimConcat(Arrays.asList(videoFile), null, profiles, 0, track.hasVideo(),
                 track.hasAudio());
@@ -2330,6 +2696,23 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
   }
 
+  private float calculateJobLoadForMultiEncode(List<String> profileIds) throws EncoderException {
+    // All outputs are produced from a single decoding pass. The most expensive profile is accounted for in full while
+    // the remaining profiles only add their encoding share, expressed by the adjustment factor.
+    float sum = 0.0f;
+    float max = 0.0f;
+    for (String profileId : profileIds) {
+      EncodingProfile profile = profileScanner.getProfile(profileId);
+      if (profile == null) {
+        throw new EncoderException("Encoding profile not found: " + profileId);
+      }
+      sum += profile.getJobLoad();
+      max = Math.max(max, profile.getJobLoad());
+    }
+    float load = max + (sum - max) * multiEncodeJobLoadFactor;
+    return Math.min(load, Math.max(max, maxMultipleProfilesJobLoad));
+  }
+
   private float calculateJobLoadForMultipleProfiles(List<String> profileIds, float adjustmentFactor)
           throws EncoderException {
     // Job load is calculated based on the encoding profiles. They are summed up and multiplied by a factor.
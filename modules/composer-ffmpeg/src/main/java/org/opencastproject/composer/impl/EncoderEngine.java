@@ -25,6 +25,7 @@ package org.opencastproject.composer.impl;
 import org.opencastproject.composer.api.EncoderException;
 import org.opencastproject.composer.api.EncodingProfile;
 import org.opencastproject.composer.api.VideoClip;
+import org.opencastproject.job.api.AbstractJobProducer;
 import org.opencastproject.mediapackage.identifier.IdBuilder;
 import org.opencastproject.mediapackage.identifier.IdBuilderFactory;
 import org.opencastproject.util.IoSupport;
@@ -34,6 +35,7 @@ import org.opencastproject.util.data.Tuple;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.codehaus.plexus.util.cli.CommandLineUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -73,14 +75,42 @@ public class EncoderEngine implements AutoCloseable {
   /** If true STDERR and STDOUT of the spawned process will be mixed so that both can be read via STDIN */
   private static final boolean REDIRECT_ERROR_STREAM = true;
 
+  /** The maximum number of images extracted by a single process, which opens and decodes the source for each image */
+  static final int MAX_IMAGES_PER_PROCESS = 20;
+
   private static Logger logger = LoggerFactory.getLogger(EncoderEngine.class);
   /** the encoder binary */
   private String binary = "ffmpeg";
   /** Set of processes to clean up */
   private Set<Process> processes = new HashSet<>();
+  /** Receives the progress of the encoding processes, may be <code>null</code> */
+  private ProgressListener progressListener = null;
+
+  /** Whether the encoder reports the resources it used, which are added to the CPU time of the current job */
+  private boolean benchmark = false;
 
   private final Pattern outputPattern = Pattern.compile("Output .* to '(.*)':");
 
+  /**
+   * Commands of encoding profiles extracting an image by seeking the input. Several images can be extracted with such
+   * a profile in a single process by seeking several inputs. The first group holds the output options, the second
+   * group the output file.
+   */
+  private static final Pattern SEEKING_IMAGE_COMMAND = Pattern.compile(
+          "^-ss #\\{time\\} -i #\\{in\\.video\\.path\\} (.*?) ?(\\S*#\\{out\\.name\\}\\S*)$");
+
+  /** Key-value lines written by the encoder when asked to report its progress */
+  private static final Pattern PROGRESS_LINE = Pattern.compile(
+          "^(frame|fps|stream_\\d+_\\d+_q|bitrate|total_size|out_time_us|out_time_ms|out_time|dup_frames|drop_frames"
+          + "|speed|progress)=(.*)$");
+
+  /** The summary of the resources used by the encoder, printed when started with <code>-benchmark</code> */
+  private static final Pattern BENCHMARK_LINE = Pattern.compile("^bench: utime=([\\d.]+)s stime=([\\d.]+)s");
+
+  /** Output options which prevent extracting several images with a profile in a single process */
+  private static final Pattern NON_BATCHABLE_OPTIONS = Pattern.compile(
+          "(^|\\s)-(i|map|filter_complex|lavfi)\\s|#\\{time\\}");
+
   /**
    * Creates a new abstract encoder engine with or without support for multiple job submission.
    */
@@ -88,6 +118,27 @@ public class EncoderEngine implements AutoCloseable {
     this.binary = binary;
   }
 
+  /**
+   * Sets the listener which is informed about the progress of the encoding processes started by this engine. The
+   * encoder is only asked to report its progress if a listener is set.
+   *
+   * @param listener
+   *          the progress listener or <code>null</code>
+   */
+  void setProgressListener(ProgressListener listener) {
+    this.progressListener = listener;
+  }
+
+  /**
+   * Sets whether the encoder is started with <code>-benchmark</code> to report the CPU time it used to the current job.
+   *
+   * @param benchmark
+   *          whether to report the CPU time of the encoder
+   */
+  void setBenchmark(boolean benchmark) {
+    this.benchmark = benchmark;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -119,6 +170,21 @@ public class EncoderEngine implements AutoCloseable {
   List<File> extract(File mediaSource, EncodingProfile format, Map<String, String> properties, double... times)
           throws EncoderException {
 
+    // Seek and decode the source once per image, but within as few processes as possible
+    if (times.length > 1 && supportsBatchExtraction(format, properties)) {
+      List<File> extractedImages = new ArrayList<>(times.length);
+      try {
+        for (int i = 0; i < times.length; i += MAX_IMAGES_PER_PROCESS) {
+          extractedImages.addAll(extractInOneProcess(mediaSource, format, properties,
+                  Arrays.copyOfRange(times, i, Math.min(times.length, i + MAX_IMAGES_PER_PROCESS))));
+        }
+      } catch (EncoderException e) {
+        cleanup(extractedImages);
+        throw e;
+      }
+      return extractedImages;
+    }
+
     List<File> extractedImages = new LinkedList<>();
     try {
       // Extract one image if no times are specified
@@ -150,6 +216,105 @@ public class EncoderEngine implements AutoCloseable {
     return extractedImages;
   }
 
+  /**
+   * Returns <code>true</code> if several images can be extracted using the given encoding profile in a single process.
+   * This is the case if the profile extracts a single image from a single input, seeking the input to the requested
+   * time.
+   *
+   * @param format
+   *          the encoding profile
+   * @param properties
+   *          the encoding properties, may be <code>null</code>
+   * @return whether images can be extracted in a single process
+   */
+  static boolean supportsBatchExtraction(EncodingProfile format, Map<String, String> properties) {
+    String commandline = format.getExtension(CMD_SUFFIX);
+    if (commandline == null || (properties != null && properties.containsKey("time")))
+      return false;
+    if (properties != null) {
+      for (String key : properties.keySet()) {
+        if (key.startsWith(CMD_SUFFIX + '.'))
+          return false;
+      }
+    }
+    Matcher matcher = SEEKING_IMAGE_COMMAND.matcher(StringUtils.normalizeSpace(commandline));
+    return matcher.matches() && !NON_BATCHABLE_OPTIONS.matcher(matcher.group(1)).find();
+  }
+
+  /**
+   * Extracts several images from a video file in one encoder process. The process opens the source once per image and
+   * seeks each input to one of the given times, which avoids starting and initializing an encoder process for every
+   * single image. Since every input holds its own decoder, callers should pass at most
+   * {@link #MAX_IMAGES_PER_PROCESS} times.
+   *
+   * @param mediaSource
+   *          File to extract images from
+   * @param format
+   *          Encoding profile to use for extraction, which must {@link #supportsBatchExtraction support} this
+   * @param properties
+   * @param times
+   *          Times at which to extract the images
+   * @return List of image files in the order of the given times
+   * @throws EncoderException
+   *           Something went wrong during image extraction
+   */
+  List<File> extractInOneProcess(File mediaSource, EncodingProfile format, Map<String, String> properties,
+          double... times) throws EncoderException {
+    Matcher matcher = SEEKING_IMAGE_COMMAND.matcher(StringUtils.normalizeSpace(format.getExtension(CMD_SUFFIX)));
+    if (!matcher.matches())
+      throw new EncoderException("Profile " + format.getIdentifier() + " does not support batch extraction");
+    String[] outputOptions;
+    try {
+      outputOptions = CommandLineUtils.translateCommandline(matcher.group(1));
+    } catch (Exception e) {
+      throw new EncoderException("Could not parse encoding profile command line", e);
+    }
+
+    DecimalFormatSymbols ffmpegFormat = new DecimalFormatSymbols();
+    ffmpegFormat.setDecimalSeparator('.');
+    DecimalFormat df = new DecimalFormat("0.00000", ffmpegFormat);
+
+    Map<String, String> params = createParameters(Collections.map(Tuple.tuple("video", mediaSource)), format,
+            properties);
+    List<String> command = new ArrayList<>();
+    command.add("-nostdin");
+    command.add("-nostats");
+    for (double time : times) {
+      command.add("-ss");
+      command.add(df.format(time));
+      command.add("-i");
+      command.add(params.get("in.video.path"));
+    }
+    List<File> extractedImages = new ArrayList<>(times.length);
+    for (int i = 0; i < times.length; i++) {
+      params.put("out.name", FilenameUtils.getBaseName(mediaSource.getName()) + "_" + UUID.randomUUID().toString());
+      command.add("-map");
+      command.add(i + ":v:0");
+      for (String option : outputOptions) {
+        String result = processParameters(option, params);
+        if (StringUtils.isNotBlank(result))
+          command.add(result);
+      }
+      File output = new File(processParameters(matcher.group(2), params));
+      command.add(output.getAbsolutePath());
+      extractedImages.add(output);
+    }
+
+    try {
+      process(command);
+    } catch (EncoderException e) {
+      cleanup(extractedImages);
+      throw e;
+    }
+    for (File image : extractedImages) {
+      if (!image.isFile()) {
+        cleanup(extractedImages);
+        throw new EncoderException("Image extraction did not create " + image);
+      }
+    }
+    return extractedImages;
+  }
+
   /**
    * Executes the command line encoder with the given set of files and properties and using the provided encoding
    * profile.
@@ -166,40 +331,7 @@ public class EncoderEngine implements AutoCloseable {
    */
   List<File> process(Map<String, File> source, EncodingProfile profile, Map<String, String> properties)
           throws EncoderException {
-    // Fist, update the parameters
-    Map<String, String> params = new HashMap<>();
-    if (properties != null)
-      params.putAll(properties);
-    // build command
-    if (source.isEmpty()) {
-      throw new IllegalArgumentException("At least one track must be specified.");
-    }
-    // Set encoding parameters
-    for (Map.Entry<String, File> f: source.entrySet()) {
-      final String input = FilenameUtils.normalize(f.getValue().getAbsolutePath());
-      final String pre = "in." + f.getKey();
-      params.put(pre + ".path", input);
-      params.put(pre + ".name", FilenameUtils.getBaseName(input));
-      params.put(pre + ".suffix", FilenameUtils.getExtension(input));
-      params.put(pre + ".filename", FilenameUtils.getName(input));
-      params.put(pre + ".mimetype", MimetypesFileTypeMap.getDefaultFileTypeMap().getContentType(input));
-    }
-    final File parentFile = source.getOrDefault("video", source.get("audio"));
-
-    final String outDir = parentFile.getAbsoluteFile().getParent();
-    final String outFileName = FilenameUtils.getBaseName(parentFile.getName())
-            + "_" + UUID.randomUUID().toString();
-    params.put("out.dir", outDir);
-    params.put("out.name", outFileName);
-    if (profile.getSuffix() != null) {
-      final String outSuffix = processParameters(profile.getSuffix(), params);
-      params.put("out.suffix", outSuffix);
-    }
-
-    for (String tag : profile.getTags()) {
-      final String suffix = processParameters(profile.getSuffix(tag), params);
-      params.put("out.suffix." + tag, suffix);
-    }
+    final Map<String, String> params = createParameters(source, profile, properties);
 
     // create encoder process.
     final List<String> command = buildCommand(profile, params);
@@ -216,9 +348,11 @@ public class EncoderEngine implements AutoCloseable {
 
       // tell encoder listeners about output
       in = new BufferedReader(new InputStreamReader(encoderProcess.getInputStream()));
+      ProgressParser progress = new ProgressParser(progressListener);
       String line;
       while ((line = in.readLine()) != null) {
-        handleEncoderOutput(outFiles, line);
+        if (!progress.parse(line))
+          handleEncoderOutput(outFiles, line);
       }
 
       // wait until the task is finished
@@ -246,6 +380,55 @@ public class EncoderEngine implements AutoCloseable {
     }
   }
 
+  /**
+   * Creates the parameters used to fill in the command line of an encoding profile.
+   *
+   * @param source
+   *          the source files for encoding
+   * @param profile
+   *          the encoding profile
+   * @param properties
+   *          the encoding properties, may be <code>null</code>
+   * @return the parameters
+   */
+  private Map<String, String> createParameters(Map<String, File> source, EncodingProfile profile,
+          Map<String, String> properties) {
+    Map<String, String> params = new HashMap<>();
+    if (properties != null)
+      params.putAll(properties);
+    // build command
+    if (source.isEmpty()) {
+      throw new IllegalArgumentException("At least one track must be specified.");
+    }
+    // Set encoding parameters
+    for (Map.Entry<String, File> f: source.entrySet()) {
+      final String input = FilenameUtils.normalize(f.getValue().getAbsolutePath());
+      final String pre = "in." + f.getKey();
+      params.put(pre + ".path", input);
+      params.put(pre + ".name", FilenameUtils.getBaseName(input));
+      params.put(pre + ".suffix", FilenameUtils.getExtension(input));
+      params.put(pre + ".filename", FilenameUtils.getName(input));
+      params.put(pre + ".mimetype", MimetypesFileTypeMap.getDefaultFileTypeMap().getContentType(input));
+    }
+    final File parentFile = source.getOrDefault("video", source.get("audio"));
+
+    final String outDir = parentFile.getAbsoluteFile().getParent();
+    final String outFileName = FilenameUtils.getBaseName(parentFile.getName())
+            + "_" + UUID.randomUUID().toString();
+    params.put("out.dir", outDir);
+    params.put("out.name", outFileName);
+    if (profile.getSuffix() != null) {
+      final String outSuffix = processParameters(profile.getSuffix(), params);
+      params.put("out.suffix", outSuffix);
+    }
+
+    for (String tag : profile.getTags()) {
+      final String suffix = processParameters(profile.getSuffix(tag), params);
+      params.put("out.suffix." + tag, suffix);
+    }
+    return params;
+  }
+
   /*
    * Runs the raw command string thru the encoder. The string commandopts is ffmpeg specific, it just needs the binary.
    * The calling function is responsible in doing all the appropriate substitutions using the encoding profiles,
@@ -273,6 +456,12 @@ public class EncoderEngine implements AutoCloseable {
     try {
       List<String> command = new ArrayList<>();
       command.add(binary);
+      if (benchmark)
+        command.add("-benchmark");
+      if (progressListener != null) {
+        command.add("-progress");
+        command.add("pipe:1");
+      }
       command.addAll(commandopts);
       logger.info("Executing encoding command: {}", StringUtils.join(command, " "));
 
@@ -281,9 +470,11 @@ public class EncoderEngine implements AutoCloseable {
       encoderProcess = pbuilder.start();
       // tell encoder listeners about output
       in = new BufferedReader(new InputStreamReader(encoderProcess.getInputStream()));
+      ProgressParser progress = new ProgressParser(progressListener);
       String line;
       while ((line = in.readLine()) != null) {
-        handleEncoderOutput(outFiles, line); // get names of output files
+        if (!progress.parse(line))
+          handleEncoderOutput(outFiles, line); // get names of output files
       }
       // wait until the task is finished
       encoderProcess.waitFor();
@@ -342,6 +533,12 @@ public class EncoderEngine implements AutoCloseable {
     command.add(binary);
     command.add("-nostdin");
     command.add("-nostats");
+    if (benchmark)
+      command.add("-benchmark");
+    if (progressListener != null) {
+      command.add("-progress");
+      command.add("pipe:1");
+    }
 
     String commandline = profile.getExtension(CMD_SUFFIX);
 
@@ -429,6 +626,15 @@ public class EncoderEngine implements AutoCloseable {
     if ("".equals(message))
       return;
 
+    // Account the CPU time of the encoder to the job being processed
+    Matcher benchmark = BENCHMARK_LINE.matcher(message);
+    if (benchmark.find()) {
+      logger.debug(message);
+      double cpuTime = NumberUtils.toDouble(benchmark.group(1)) + NumberUtils.toDouble(benchmark.group(2));
+      AbstractJobProducer.addExternalCpuTime(Math.round(cpuTime * 1000));
+      return;
+    }
+
     // Others go to trace logging
     if (StringUtils.startsWithAny(message.toLowerCase(),
           "ffmpeg version", "configuration", "lib", "size=", "frame=", "built with")) {
@@ -451,7 +657,7 @@ public class EncoderEngine implements AutoCloseable {
 
     // Some to debug
     } else if (StringUtils.startsWithAny(message.toLowerCase(),
-          "artist", "compatible_brands", "copyright", "creation_time", "description", "duration",
+          "artist", "bench:", "compatible_brands", "copyright", "creation_time", "description", "duration",
             "encoder", "handler_name", "input #", "last message repeated", "major_brand", "metadata", "minor_version",
             "output #", "program", "side data:", "stream #", "stream mapping", "title", "video:", "[libx264 @ ")) {
       logger.debug(message);
@@ -462,6 +668,85 @@ public class EncoderEngine implements AutoCloseable {
     }
   }
 
+  /**
+   * Receives the progress reported by the encoder.
+   */
+  interface ProgressListener {
+
+    /**
+     * Called whenever the encoder reports its progress, which happens about twice a second.
+     *
+     * @param outTime
+     *          the media time encoded so far in milliseconds
+     * @param fps
+     *          the number of frames encoded per second or a negative value if unknown
+     * @param speed
+     *          the encoding speed relative to the playback speed or a negative value if unknown
+     */
+    void progress(long outTime, float fps, float speed);
+
+  }
+
+  /**
+   * Collects the key-value lines the encoder writes when started with <code>-progress</code> and passes each completed
+   * block to a listener.
+   */
+  static final class ProgressParser {
+
+    private final ProgressListener listener;
+
+    private long outTime = 0;
+
+    private float fps = -1;
+
+    private float speed = -1;
+
+    ProgressParser(ProgressListener listener) {
+      this.listener = listener;
+    }
+
+    /**
+     * Parses a line of encoder output.
+     *
+     * @param line
+     *          the output line
+     * @return whether the line has been a progress line which needs no further handling
+     */
+    boolean parse(String line) {
+      if (listener == null)
+        return false;
+      Matcher matcher = PROGRESS_LINE.matcher(line.trim());
+      if (!matcher.matches())
+        return false;
+      final String value = matcher.group(2).trim();
+      switch (matcher.group(1)) {
+        case "out_time_us":
+        case "out_time_ms":
+          // Despite its name, out_time_ms is given in microseconds as well
+          if (NumberUtils.isDigits(value))
+            outTime = Long.parseLong(value) / 1000L;
+          break;
+        case "fps":
+          fps = NumberUtils.toFloat(value, -1);
+          break;
+        case "speed":
+          speed = NumberUtils.toFloat(StringUtils.removeEnd(value, "x"), -1);
+          break;
+        case "progress":
+          try {
+            listener.progress(outTime, fps, speed);
+          } catch (Exception e) {
+            logger.warn("Progress listener failed: {}", e.getMessage());
+          }
+          break;
+        default:
+          break;
+      }
+      return true;
+    }
+
+  }
+
   /**
    * Rewrite multiple profiles to ffmpeg complex filter filtergraph chains - inputs are passed in as options, eq: [0aa]
    * and [0vv] Any filters in the encoding profiles are moved into a clause in the complex filter chain for each output
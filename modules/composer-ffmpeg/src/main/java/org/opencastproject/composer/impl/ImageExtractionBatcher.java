@@ -0,0 +1,223 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import org.opencastproject.composer.api.EncoderException;
+import org.opencastproject.composer.api.EncodingProfile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collects image extraction requests for the same source track and encoding profile which arrive within a short time
+ * window and runs them in a single encoder process.
+ * <p>
+ * The first request of a batch waits for the window to pass or for the batch to fill up and then extracts the images of
+ * all requests of the batch. The other requests wait for this extraction to finish and receive their share of the
+ * images. If the extraction of a batch fails, each request extracts its own images, so that a request asking for a
+ * time the media does not have does not fail the other requests.
+ */
+class ImageExtractionBatcher {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(ImageExtractionBatcher.class);
+
+  /** Extracts images from a media file */
+  interface Extractor {
+    List<File> extract(File source, EncodingProfile profile, Map<String, String> properties, double... times)
+            throws EncoderException;
+  }
+
+  /** The maximum number of images extracted in one batch */
+  static final int MAX_BATCH_SIZE = 100;
+
+  /** The time to wait for further requests in milliseconds */
+  private final long window;
+
+  /** The batches waiting for further requests by source track and encoding profile */
+  private final Map<String, Batch> pending = new HashMap<>();
+
+  /**
+   * Creates a new batcher.
+   *
+   * @param window
+   *          the time to wait for further requests in milliseconds, 0 to disable batching
+   */
+  ImageExtractionBatcher(long window) {
+    this.window = window;
+  }
+
+  /**
+   * Extracts images, possibly together with images requested by other threads.
+   *
+   * @param key
+   *          identifies the source track and encoding profile
+   * @param source
+   *          the media file to extract the images from
+   * @param profile
+   *          the encoding profile
+   * @param properties
+   *          the encoding properties
+   * @param extractor
+   *          the extractor to use if this request starts a batch
+   * @param times
+   *          the times at which to extract the images
+   * @return the images in the order of the given times
+   * @throws EncoderException
+   *           if the extraction fails
+   */
+  List<File> extract(String key, File source, EncodingProfile profile, Map<String, String> properties,
+          Extractor extractor, double... times) throws EncoderException {
+    if (window <= 0 || properties != null || times.length == 0
+            || !EncoderEngine.supportsBatchExtraction(profile, null)) {
+      return extractor.extract(source, profile, properties, times);
+    }
+
+    final Batch batch;
+    final int offset;
+    final boolean first;
+    synchronized (pending) {
+      Batch existing = pending.get(key);
+      first = existing == null;
+      batch = first ? new Batch() : existing;
+      offset = batch.add(times);
+      if (first)
+        pending.put(key, batch);
+      if (batch.size() >= MAX_BATCH_SIZE) {
+        // Let the first request start the extraction right away
+        pending.remove(key);
+        pending.notifyAll();
+      }
+    }
+
+    if (first) {
+      awaitWindow(key, batch);
+      double[] batchTimes = batch.getTimes();
+      logger.debug("Extracting {} images from {} in one batch", batchTimes.length, source);
+      try {
+        batch.result.complete(extractor.extract(source, profile, null, batchTimes));
+      } catch (Throwable t) {
+        // Never leave the other requests of the batch waiting
+        batch.result.completeExceptionally(t);
+      }
+    }
+
+    try {
+      List<File> images = batch.result.get();
+      return new ArrayList<>(images.subList(offset, offset + times.length));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new EncoderException("Interrupted while waiting for image extraction", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof Error)
+        throw (Error) e.getCause();
+      if (batch.getRequests() > 1) {
+        logger.debug("Extraction of batch failed, extracting images from {} on their own", source, e.getCause());
+        return extractor.extract(source, profile, null, times);
+      }
+      if (e.getCause() instanceof EncoderException)
+        throw (EncoderException) e.getCause();
+      throw new EncoderException("Image extraction failed", e.getCause());
+    }
+  }
+
+  /**
+   * Waits until the time window of a batch has passed or the batch is full, and stops accepting requests for it.
+   *
+   * @param key
+   *          identifies the source track and encoding profile
+   * @param batch
+   *          the batch
+   */
+  private void awaitWindow(String key, Batch batch) {
+    final long deadline = System.currentTimeMillis() + window;
+    synchronized (pending) {
+      try {
+        long remaining = window;
+        while (pending.get(key) == batch && remaining > 0) {
+          pending.wait(remaining);
+          remaining = deadline - System.currentTimeMillis();
+        }
+      } catch (InterruptedException e) {
+        // Extract the images requested so far right away
+        Thread.currentThread().interrupt();
+      }
+      pending.remove(key, batch);
+    }
+  }
+
+  /** Image extraction requests which are processed together */
+  private static final class Batch {
+
+    /** The requested times */
+    private final List<Double> times = new ArrayList<>();
+
+    /** The number of requests */
+    private int requests = 0;
+
+    /** The extracted images */
+    private final CompletableFuture<List<File>> result = new CompletableFuture<>();
+
+    /**
+     * Adds the given times to the batch. Must be called while holding the lock on the pending batches.
+     *
+     * @return the index of the first of the given times within the batch
+     */
+    int add(double... requested) {
+      requests++;
+      int offset = times.size();
+      for (double time : requested) {
+        times.add(time);
+      }
+      return offset;
+    }
+
+    /** Returns the number of requested times. Must be called while holding the lock on the pending batches. */
+    int size() {
+      return times.size();
+    }
+
+    /** Returns the number of requests. Must be called once the batch no longer accepts requests. */
+    int getRequests() {
+      return requests;
+    }
+
+    /** Returns the times of all requests. Must be called once the batch no longer accepts requests. */
+    double[] getTimes() {
+      double[] all = new double[times.size()];
+      for (int i = 0; i < all.length; i++) {
+        all[i] = times.get(i);
+      }
+      return all;
+    }
+
+  }
+
+}
@@ -0,0 +1,106 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import org.opencastproject.composer.impl.jmx.EncoderStatistics;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Date;
+
+/**
+ * Passes the progress reported by the encoder on to the service registry and to the encoder statistics.
+ * <p>
+ * Updates of the job progress are sent at most once per interval, and not before the encoding has been running for
+ * one interval, so that short encodings do not cause any additional load on the service registry.
+ */
+class JobProgressReporter implements EncoderEngine.ProgressListener {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(JobProgressReporter.class);
+
+  private final ServiceRegistry serviceRegistry;
+
+  private final long jobId;
+
+  private final String profileId;
+
+  /** The duration of the media being encoded in milliseconds */
+  private final long duration;
+
+  /** The minimum time between two progress updates in milliseconds */
+  private final long interval;
+
+  private final EncoderStatistics statistics;
+
+  /** The time of the last progress update */
+  private long lastUpdate;
+
+  /**
+   * Creates a new progress reporter.
+   *
+   * @param serviceRegistry
+   *          the service registry to report the job progress to
+   * @param jobId
+   *          the identifier of the encoding job
+   * @param profileId
+   *          the encoding profile
+   * @param duration
+   *          the duration of the media being encoded in milliseconds, progress is not reported if unknown
+   * @param interval
+   *          the minimum time between two progress updates in milliseconds, progress is not reported if not positive
+   * @param statistics
+   *          the encoder statistics, may be <code>null</code>
+   */
+  JobProgressReporter(ServiceRegistry serviceRegistry, long jobId, String profileId, long duration, long interval,
+          EncoderStatistics statistics) {
+    this.serviceRegistry = serviceRegistry;
+    this.jobId = jobId;
+    this.profileId = profileId;
+    this.duration = duration;
+    this.interval = interval;
+    this.statistics = statistics;
+    this.lastUpdate = System.currentTimeMillis();
+  }
+
+  @Override
+  public void progress(long outTime, float fps, float speed) {
+    if (statistics != null)
+      statistics.record(profileId, fps, speed);
+
+    final long now = System.currentTimeMillis();
+    if (serviceRegistry == null || duration <= 0 || interval <= 0 || now - lastUpdate < interval)
+      return;
+    lastUpdate = now;
+
+    final long remaining = Math.max(0, duration - outTime);
+    final Date expected = speed > 0 ? new Date(now + (long) (remaining / speed)) : null;
+    try {
+      serviceRegistry.updateJobProgress(jobId, (float) outTime / duration, expected);
+    } catch (Exception e) {
+      logger.warn("Unable to update the progress of job {}: {}", jobId, e.getMessage());
+    }
+  }
+
+}
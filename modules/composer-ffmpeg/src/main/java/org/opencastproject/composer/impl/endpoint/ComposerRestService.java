@@ -255,6 +255,53 @@ public class ComposerRestService extends AbstractJobProducerEndpoint {
     return Response.ok().entity(new JaxbJob(job)).build();
   }
 
+  /**
+   * Encodes a track by splitting it into segments which are encoded in separate jobs.
+   *
+   * @param sourceTrackAsXml
+   *          The source track
+   * @param profileId
+   *          The profile to use in encoding this track
+   * @param segments
+   *          The number of segments to split the track into
+   * @return A response containing the job for this encoding job in the response body.
+   * @throws Exception
+   */
+  @POST
+  @Path("segmentedencode")
+  @Produces(MediaType.TEXT_XML)
+  @RestQuery(name = "segmentedencode", description = "Starts an encoding process which splits the track on keyframes into segments, encodes the segments in separate jobs and joins the results",
+    restParameters = {
+      @RestParameter(description = "The track containing the stream", isRequired = true, name = "sourceTrack", type = Type.TEXT, defaultValue = VIDEO_TRACK_DEFAULT),
+      @RestParameter(description = "The encoding profile to use", isRequired = true, name = "profileId", type = Type.STRING, defaultValue = "mp4-medium.http"),
+      @RestParameter(description = "The number of segments", isRequired = true, name = "segments", type = Type.INTEGER, defaultValue = "4")
+    }, reponses = {
+      @RestResponse(description = "Results in an xml document containing the job for the encoding task", responseCode = HttpServletResponse.SC_OK),
+      @RestResponse(description = "If required parameters aren't set or if sourceTrack isn't from the type Track", responseCode = HttpServletResponse.SC_BAD_REQUEST)
+    }, returnDescription = "")
+  public Response segmentedEncode(@FormParam("sourceTrack") String sourceTrackAsXml,
+          @FormParam("profileId") String profileId, @FormParam("segments") int segments) throws Exception {
+    // Ensure that the POST parameters are present
+    if (StringUtils.isBlank(sourceTrackAsXml) || StringUtils.isBlank(profileId))
+      return Response.status(Response.Status.BAD_REQUEST).entity("sourceTrack and profileId must not be null").build();
+    if (segments < 1)
+      return Response.status(Response.Status.BAD_REQUEST).entity("segments must be a positive number").build();
+
+    // Deserialize the track
+    MediaPackageElement sourceTrack = MediaPackageElementParser.getFromXml(sourceTrackAsXml);
+    if (!Track.TYPE.equals(sourceTrack.getElementType()))
+      return Response.status(Response.Status.BAD_REQUEST).entity("sourceTrack element must be of type track").build();
+
+    try {
+      // Asynchronously encode the specified track
+      Job job = composerService.segmentedEncode((Track) sourceTrack, profileId, segments);
+      return Response.ok().entity(new JaxbJob(job)).build();
+    } catch (EncoderException e) {
+      logger.warn("Unable to encode the track: {}", e.getMessage());
+      return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+    }
+  }
+
   /**
    * Trims a track to a new length.
    *
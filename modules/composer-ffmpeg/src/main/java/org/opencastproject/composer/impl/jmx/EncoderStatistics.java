@@ -0,0 +1,117 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl.jmx;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps exponentially weighted averages of the encoder throughput reported while encoding.
+ */
+public class EncoderStatistics implements EncoderStatisticsMXBean {
+
+  /** The weight of a new sample in the averages */
+  private static final double ALPHA = 0.1;
+
+  /** The throughput by encoding profile */
+  private final ConcurrentMap<String, Throughput> profiles = new ConcurrentHashMap<>();
+
+  /**
+   * Records a progress report of the encoder.
+   *
+   * @param profileId
+   *          the encoding profile
+   * @param fps
+   *          the number of frames encoded per second, negative if unknown
+   * @param speed
+   *          the encoding speed relative to the playback speed, negative if unknown
+   */
+  public void record(String profileId, double fps, double speed) {
+    if (profileId == null)
+      return;
+    profiles.computeIfAbsent(profileId, id -> new Throughput()).add(fps, speed);
+  }
+
+  /**
+   * @see org.opencastproject.composer.impl.jmx.EncoderStatisticsMXBean#getFramesPerSecond()
+   */
+  @Override
+  public Map<String, Double> getFramesPerSecond() {
+    Map<String, Double> result = new HashMap<>();
+    for (Map.Entry<String, Throughput> profile : profiles.entrySet()) {
+      synchronized (profile.getValue()) {
+        result.put(profile.getKey(), profile.getValue().fps);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @see org.opencastproject.composer.impl.jmx.EncoderStatisticsMXBean#getSpeed()
+   */
+  @Override
+  public Map<String, Double> getSpeed() {
+    Map<String, Double> result = new HashMap<>();
+    for (Map.Entry<String, Throughput> profile : profiles.entrySet()) {
+      synchronized (profile.getValue()) {
+        result.put(profile.getKey(), profile.getValue().speed);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @see org.opencastproject.composer.impl.jmx.EncoderStatisticsMXBean#getReports()
+   */
+  @Override
+  public Map<String, Long> getReports() {
+    Map<String, Long> result = new HashMap<>();
+    for (Map.Entry<String, Throughput> profile : profiles.entrySet()) {
+      synchronized (profile.getValue()) {
+        result.put(profile.getKey(), profile.getValue().reports);
+      }
+    }
+    return result;
+  }
+
+  /** The averaged throughput of a single encoding profile */
+  private static final class Throughput {
+
+    private double fps = 0;
+
+    private double speed = 0;
+
+    private long reports = 0;
+
+    synchronized void add(double sampleFps, double sampleSpeed) {
+      if (sampleFps >= 0)
+        fps = reports == 0 ? sampleFps : fps + ALPHA * (sampleFps - fps);
+      if (sampleSpeed >= 0)
+        speed = reports == 0 ? sampleSpeed : speed + ALPHA * (sampleSpeed - speed);
+      reports++;
+    }
+
+  }
+
+}
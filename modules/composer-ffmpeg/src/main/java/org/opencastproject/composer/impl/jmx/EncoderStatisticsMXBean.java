@@ -0,0 +1,52 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl.jmx;
+
+import java.util.Map;
+
+/**
+ * JMX Bean interface exposing the throughput of the encoder by encoding profile.
+ */
+public interface EncoderStatisticsMXBean {
+
+  /**
+   * Gets the recent average number of frames encoded per second, by encoding profile
+   *
+   * @return the frame rates
+   */
+  Map<String, Double> getFramesPerSecond();
+
+  /**
+   * Gets the recent average encoding speed relative to the playback speed, by encoding profile
+   *
+   * @return the speeds
+   */
+  Map<String, Double> getSpeed();
+
+  /**
+   * Gets the number of progress reports received from the encoder, by encoding profile
+   *
+   * @return the number of reports
+   */
+  Map<String, Long> getReports();
+
+}
@@ -23,6 +23,7 @@ package org.opencastproject.composer.impl;
 
 import static org.easymock.EasyMock.capture;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -80,6 +81,7 @@ import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.UUID;
 
 import javax.imageio.ImageIO;
 
@@ -284,6 +286,77 @@ public class ComposerServiceTest {
     assertEquals(3, MediaPackageElementParser.getArrayFromXml(job.getPayload()).size());
   }
 
+  @Test
+  public void testImageExtractionInOneProcess() throws Exception {
+    assertTrue(EncoderEngine.supportsBatchExtraction(profileScanner.getProfile("preview.batch"), null));
+    assertFalse(EncoderEngine.supportsBatchExtraction(profileScanner.getProfile("player-preview.http"), null));
+
+    EncoderEngine engine = new EncoderEngine(FFMPEG_BINARY);
+    List<File> images = engine.extract(sourceVideoOnly, profileScanner.getProfile("preview.batch"), null, 0.2, 1.0,
+            1.5);
+    try {
+      assertEquals(3, images.size());
+      assertEquals(3, new HashSet<>(images).size());
+      for (File image : images) {
+        assertTrue(image.length() > 0);
+      }
+    } finally {
+      images.forEach(FileUtils::deleteQuietly);
+    }
+  }
+
+  @Test
+  public void testImageExtractionInSeveralProcesses() throws Exception {
+    double[] times = new double[EncoderEngine.MAX_IMAGES_PER_PROCESS + 1];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = i * 0.05;
+    }
+
+    EncoderEngine engine = new EncoderEngine(FFMPEG_BINARY);
+    List<File> images = engine.extract(sourceVideoOnly, profileScanner.getProfile("preview.batch"), null, times);
+    try {
+      assertEquals(times.length, images.size());
+      assertEquals(times.length, new HashSet<>(images).size());
+      for (File image : images) {
+        assertTrue(image.length() > 0);
+      }
+    } finally {
+      images.forEach(FileUtils::deleteQuietly);
+    }
+  }
+
+  @Test
+  public void testSegmentedEncodeOfShortTrack() throws Exception {
+    assertTrue(sourceVideoOnly.isFile());
+
+    // Need different media files
+    Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(workspace.get(EasyMock.anyObject(), EasyMock.anyBoolean())).andReturn(sourceVideoOnly).anyTimes();
+    EasyMock.expect(workspace.putInCollection(EasyMock.anyString(), EasyMock.anyString(), EasyMock.anyObject()))
+            .andReturn(sourceVideoOnly.toURI()).anyTimes();
+    composerService.setWorkspace(workspace);
+    EasyMock.replay(workspace);
+
+    // The track is too short to be split and is encoded in a single pass
+    Job job = composerService.segmentedEncode(sourceVideoTrack, "av.work", 4);
+    assertEquals(inspectedTrack.getURI(), MediaPackageElementParser.getFromXml(job.getPayload()).getURI());
+  }
+
+  @Test
+  public void testSplitOnKeyframes() throws Exception {
+    File segmentDir = new File(testDir, "segments-" + UUID.randomUUID());
+    try {
+      List<File> segments = composerService.splitOnKeyframes(new JobImpl(0), sourceVideoOnly, 500L, segmentDir);
+      assertFalse(segments.isEmpty());
+      for (File segment : segments) {
+        assertTrue(segment.length() > 0);
+      }
+      assertEquals(segments.size(), segmentDir.list().length);
+    } finally {
+      FileUtils.deleteQuietly(segmentDir);
+    }
+  }
+
   @Test
   public void testTrim() throws Exception {
     assertTrue(sourceVideoOnly.isFile());
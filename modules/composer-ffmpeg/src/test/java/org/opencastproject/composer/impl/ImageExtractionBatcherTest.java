@@ -0,0 +1,183 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.opencastproject.composer.api.EncoderException;
+import org.opencastproject.composer.api.EncodingProfileImpl;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the {@link ImageExtractionBatcher}.
+ */
+public class ImageExtractionBatcherTest {
+
+  private static final String COMMAND = "-ss #{time} -i #{in.video.path} -frames:v 1 #{out.dir}/#{out.name}.jpg";
+
+  private final AtomicInteger extractions = new AtomicInteger();
+
+  /** Pretends to extract images named after the requested times */
+  private final ImageExtractionBatcher.Extractor extractor = (source, profile, properties, times) -> {
+    extractions.incrementAndGet();
+    List<File> images = new ArrayList<>();
+    for (double time : times) {
+      images.add(new File(Double.toString(time)));
+    }
+    return images;
+  };
+
+  private EncodingProfileImpl createProfile(String command) {
+    EncodingProfileImpl profile = new EncodingProfileImpl("image", "image", null);
+    profile.addExtension(EncoderEngine.CMD_SUFFIX, command);
+    return profile;
+  }
+
+  @Test
+  public void testConcurrentRequestsAreBatched() throws Exception {
+    final ImageExtractionBatcher batcher = new ImageExtractionBatcher(500);
+    final EncodingProfileImpl profile = createProfile(COMMAND);
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Future<List<File>>> results = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        final double time = i;
+        results.add(executor.submit(() -> batcher.extract("track", new File("source"), profile, null, extractor,
+                time, time + 0.5)));
+      }
+      for (int i = 0; i < 3; i++) {
+        assertEquals(Arrays.asList(new File(Double.toString(i)), new File(Double.toString(i + 0.5))),
+                results.get(i).get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, extractions.get());
+  }
+
+  @Test
+  public void testFailedBatchFallsBackToSingleRequests() throws Exception {
+    final ImageExtractionBatcher batcher = new ImageExtractionBatcher(500);
+    final EncodingProfileImpl profile = createProfile(COMMAND);
+    // Fails for times beyond the end of the media
+    final ImageExtractionBatcher.Extractor failing = (source, prof, properties, times) -> {
+      for (double time : times) {
+        if (time > 10)
+          throw new EncoderException("No frame at " + time);
+      }
+      return extractor.extract(source, prof, properties, times);
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Future<List<File>>> results = new ArrayList<>();
+      for (final double time : new double[] { 1.0, 99.0, 2.0 }) {
+        results.add(executor.submit(() -> batcher.extract("track", new File("source"), profile, null, failing, time)));
+      }
+      assertEquals(Collections.singletonList(new File("1.0")), results.get(0).get());
+      assertEquals(Collections.singletonList(new File("2.0")), results.get(2).get());
+      try {
+        results.get(1).get();
+        fail("Extraction at an invalid time did not fail");
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof EncoderException);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(2, extractions.get());
+  }
+
+  @Test
+  public void testErrorsDoNotBlockTheBatch() throws Exception {
+    final ImageExtractionBatcher batcher = new ImageExtractionBatcher(500);
+    final EncodingProfileImpl profile = createProfile(COMMAND);
+    final ImageExtractionBatcher.Extractor broken = (source, prof, properties, times) -> {
+      throw new AssertionError("Broken extractor");
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<List<File>>> results = new ArrayList<>();
+      for (int i = 0; i < 2; i++) {
+        final double time = i;
+        results.add(executor.submit(() -> batcher.extract("track", new File("source"), profile, null, broken, time)));
+      }
+      for (Future<List<File>> result : results) {
+        try {
+          result.get(10, TimeUnit.SECONDS);
+          fail("Broken extractor did not fail");
+        } catch (ExecutionException e) {
+          assertTrue(e.getCause() instanceof AssertionError);
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFullBatchIsExtractedRightAway() throws Exception {
+    ImageExtractionBatcher batcher = new ImageExtractionBatcher(60000);
+    EncodingProfileImpl profile = createProfile(COMMAND);
+    double[] times = new double[ImageExtractionBatcher.MAX_BATCH_SIZE];
+    for (int i = 0; i < times.length; i++) {
+      times[i] = i;
+    }
+    long start = System.currentTimeMillis();
+    assertEquals(times.length, batcher.extract("track", new File("source"), profile, null, extractor, times).size());
+    assertTrue(System.currentTimeMillis() - start < 30000);
+    assertEquals(1, extractions.get());
+  }
+
+  @Test
+  public void testRequestsForDifferentTracksAreNotBatched() throws Exception {
+    ImageExtractionBatcher batcher = new ImageExtractionBatcher(10);
+    EncodingProfileImpl profile = createProfile(COMMAND);
+    batcher.extract("track-1", new File("source"), profile, null, extractor, 1.0);
+    batcher.extract("track-2", new File("source"), profile, null, extractor, 1.0);
+    assertEquals(2, extractions.get());
+  }
+
+  @Test
+  public void testUnsupportedProfilesAreNotBatched() throws Exception {
+    ImageExtractionBatcher batcher = new ImageExtractionBatcher(60000);
+    EncodingProfileImpl profile = createProfile("-i #{in.video.path} -ss #{time} -frames:v 1 #{out.dir}/#{out.name}.jpg");
+    assertEquals(Collections.singletonList(new File("1.0")),
+            batcher.extract("track", new File("source"), profile, null, extractor, 1.0));
+    assertEquals(1, extractions.get());
+  }
+
+}
@@ -0,0 +1,103 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.composer.impl.jmx.EncoderStatistics;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Tests the parsing of the progress reported by the encoder and the {@link JobProgressReporter}.
+ */
+public class JobProgressReporterTest {
+
+  @Test
+  public void testProgressParser() {
+    final List<float[]> reports = new ArrayList<>();
+    EncoderEngine.ProgressParser parser = new EncoderEngine.ProgressParser(
+            (outTime, fps, speed) -> reports.add(new float[] { outTime, fps, speed }));
+
+    assertFalse(parser.parse("Output #0, mp4, to '/tmp/out.mp4':"));
+    assertTrue(parser.parse("frame=250"));
+    assertTrue(parser.parse("fps=49.87"));
+    assertTrue(parser.parse("stream_0_0_q=28.0"));
+    assertTrue(parser.parse("out_time_us=10000000"));
+    assertTrue(parser.parse("out_time_ms=10000000"));
+    assertTrue(parser.parse("out_time=00:00:10.000000"));
+    assertTrue(parser.parse("speed=1.99x"));
+    assertTrue(parser.parse("progress=continue"));
+    assertTrue(parser.parse("speed=N/A"));
+    assertTrue(parser.parse("progress=end"));
+
+    assertEquals(2, reports.size());
+    assertEquals(10000f, reports.get(0)[0], 0.001f);
+    assertEquals(49.87f, reports.get(0)[1], 0.001f);
+    assertEquals(1.99f, reports.get(0)[2], 0.001f);
+    assertEquals(-1f, reports.get(1)[2], 0.001f);
+  }
+
+  @Test
+  public void testProgressParserWithoutListener() {
+    EncoderEngine.ProgressParser parser = new EncoderEngine.ProgressParser(null);
+    assertFalse(parser.parse("progress=continue"));
+  }
+
+  @Test
+  public void testReporter() throws Exception {
+    Capture<Float> progress = Capture.newInstance();
+    Capture<Date> expected = Capture.newInstance();
+    ServiceRegistry serviceRegistry = EasyMock.createMock(ServiceRegistry.class);
+    serviceRegistry.updateJobProgress(EasyMock.eq(1L), EasyMock.captureFloat(progress), EasyMock.capture(expected));
+    EasyMock.expectLastCall().once();
+    EasyMock.replay(serviceRegistry);
+
+    EncoderStatistics statistics = new EncoderStatistics();
+    JobProgressReporter reporter = new JobProgressReporter(serviceRegistry, 1L, "profile", 60000L, 50L, statistics);
+    // Too early for an update
+    reporter.progress(10000L, 25f, 2f);
+    Thread.sleep(60L);
+    long before = System.currentTimeMillis();
+    reporter.progress(30000L, 25f, 2f);
+    // Again too early
+    reporter.progress(40000L, 25f, 2f);
+
+    EasyMock.verify(serviceRegistry);
+    assertEquals(0.5f, progress.getValue(), 0.001f);
+    // 30 seconds remaining at twice the playback speed
+    long eta = expected.getValue().getTime() - before;
+    assertTrue(eta >= 15000L && eta < 16000L);
+    assertEquals(3L, (long) statistics.getReports().get("profile"));
+    assertEquals(25.0, statistics.getFramesPerSecond().get("profile"), 0.001);
+  }
+
+}
@@ -299,6 +299,23 @@ public interface ComposerService {
    */
   Job parallelEncode(Track sourceTrack, String profileId) throws EncoderException, MediaPackageException;
 
+  /**
+   * Encode one track by splitting it on keyframes into the given number of segments, encoding the segments in separate
+   * jobs which may be dispatched to different nodes and joining the encoded segments without re-encoding them.
+   *
+   * @param sourceTrack
+   *          The source track
+   * @param profileId
+   *          The profile to use for encoding
+   * @param segments
+   *          The number of segments to split the track into
+   * @return The receipt for this encoding job. The job's payload contains the encoded track.
+   * @throws EncoderException
+   * @throws MediaPackageException
+   */
+  Job segmentedEncode(Track sourceTrack, String profileId, int segments) throws EncoderException,
+          MediaPackageException;
+
   /**
    * Demux a multi-track source into 2 media as defined by the encoding profile, the results are flavored and tagged
    * positionally. eg: One ffmpeg operation to produce presenter/work and presentation/work
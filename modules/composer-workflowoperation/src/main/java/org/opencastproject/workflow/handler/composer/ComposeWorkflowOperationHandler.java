@@ -50,6 +50,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -218,6 +219,30 @@ public class ComposeWorkflowOperationHandler extends AbstractWorkflowOperationHa
     String processOnlyOneConfig = StringUtils.trimToNull(operation.getConfiguration("process-first-match-only"));
     boolean processOnlyOne = processOnlyOneConfig != null && Boolean.parseBoolean(processOnlyOneConfig);
 
+    // Encode a track with several profiles in a single pass where possible, if requested
+    String coalesceConfig = StringUtils.trimToNull(
+            operation.getConfiguration(EncodingProfileCoalescer.COALESCE_ENCODINGS));
+    boolean coalesce = coalesceConfig != null && Boolean.parseBoolean(coalesceConfig);
+
+    // Split long tracks into segments which can be encoded on several nodes
+    int segments = 1;
+    String segmentsConfig = StringUtils.trimToNull(operation.getConfiguration("segments"));
+    if (segmentsConfig != null) {
+      try {
+        segments = Integer.parseInt(segmentsConfig);
+      } catch (NumberFormatException e) {
+        throw new WorkflowOperationException("Number of segments '" + segmentsConfig + "' is malformed");
+      }
+      if (segments < 1)
+        throw new WorkflowOperationException("Number of segments must be positive");
+    }
+
+    // Segmented encodings cannot be combined into a single pass
+    if (coalesce && segments > 1) {
+      logger.info("Not coalescing encodings since tracks are encoded in {} segments", segments);
+      coalesce = false;
+    }
+
     // Encode all tracks found
     long totalTimeInQueue = 0;
     Map<Job, JobInformation> encodingJobs = new HashMap<Job, JobInformation>();
@@ -232,7 +257,8 @@ public class ComposeWorkflowOperationHandler extends AbstractWorkflowOperationHa
         continue;
       }
 
-      // Encode the track with all profiles
+      // Find the profiles to encode the track with
+      List<EncodingProfile> trackProfiles = new ArrayList<EncodingProfile>();
       for (EncodingProfile profile : profiles) {
 
         // Check if the track supports the output type of the profile
@@ -245,14 +271,34 @@ public class ComposeWorkflowOperationHandler extends AbstractWorkflowOperationHa
           continue;
         }
 
-        logger.info("Encoding track {} using encoding profile '{}'", track, profile);
-
-        // Start encoding and wait for the result
-        encodingJobs.put(composerService.encode(track, profile.getIdentifier()), new JobInformation(track, profile));
+        trackProfiles.add(profile);
 
         if (processOnlyOne)
           break;
       }
+
+      // Decode the track only once for all profiles that allow it
+      List<EncodingProfile> combinedProfiles = coalesce ? EncodingProfileCoalescer.select(track, trackProfiles)
+              : Collections.<EncodingProfile> emptyList();
+      if (!combinedProfiles.isEmpty()) {
+        List<String> profileIds = new ArrayList<String>();
+        for (EncodingProfile profile : combinedProfiles) {
+          profileIds.add(profile.getIdentifier());
+          trackProfiles.remove(profile);
+        }
+        logger.info("Encoding track {} using encoding profiles {} in a single pass", track, profileIds);
+        encodingJobs.put(composerService.multiEncode(track, profileIds),
+                new JobInformation(track, combinedProfiles));
+      }
+
+      for (EncodingProfile profile : trackProfiles) {
+        logger.info("Encoding track {} using encoding profile '{}'", track, profile);
+
+        // Start encoding and wait for the result
+        Job encodingJob = segments > 1 ? composerService.segmentedEncode(track, profile.getIdentifier(), segments)
+                : composerService.encode(track, profile.getIdentifier());
+        encodingJobs.put(encodingJob, new JobInformation(track, Collections.singletonList(profile)));
+      }
     }
 
     if (encodingJobs.isEmpty()) {
@@ -274,31 +320,42 @@ public class ComposeWorkflowOperationHandler extends AbstractWorkflowOperationHa
       totalTimeInQueue += job.getQueueTime();
       // it is allowed for compose jobs to return an empty payload. See the EncodeEngine interface
       if (job.getPayload().length() > 0) {
-        Track composedTrack = (Track) MediaPackageElementParser.getFromXml(job.getPayload());
-
-        // Adjust the target tags
-        for (String tag : targetTags) {
-          logger.trace("Tagging composed track with '{}'", tag);
-          composedTrack.addTag(tag);
+        List<EncodingProfile> jobProfiles = entry.getValue().getProfiles();
+        List<Track> composedTracks;
+        if (jobProfiles.size() > 1) {
+          composedTracks = (List<Track>) MediaPackageElementParser.getArrayFromXml(job.getPayload());
+          if (composedTracks.size() != jobProfiles.size())
+            throw new WorkflowOperationException("Encoded " + composedTracks.size() + " tracks with "
+                    + jobProfiles.size() + " encoding profiles");
+        } else {
+          composedTracks = Collections.singletonList((Track) MediaPackageElementParser.getFromXml(job.getPayload()));
         }
 
-        // Adjust the target flavor. Make sure to account for partial updates
-        if (targetFlavor != null) {
-          String flavorType = targetFlavor.getType();
-          String flavorSubtype = targetFlavor.getSubtype();
-          if ("*".equals(flavorType))
-            flavorType = track.getFlavor().getType();
-          if ("*".equals(flavorSubtype))
-            flavorSubtype = track.getFlavor().getSubtype();
-          composedTrack.setFlavor(new MediaPackageElementFlavor(flavorType, flavorSubtype));
-          logger.debug("Composed track has flavor '{}'", composedTrack.getFlavor());
+        for (Track composedTrack : composedTracks) {
+          // Adjust the target tags
+          for (String tag : targetTags) {
+            logger.trace("Tagging composed track with '{}'", tag);
+            composedTrack.addTag(tag);
+          }
+
+          // Adjust the target flavor. Make sure to account for partial updates
+          if (targetFlavor != null) {
+            String flavorType = targetFlavor.getType();
+            String flavorSubtype = targetFlavor.getSubtype();
+            if ("*".equals(flavorType))
+              flavorType = track.getFlavor().getType();
+            if ("*".equals(flavorSubtype))
+              flavorSubtype = track.getFlavor().getSubtype();
+            composedTrack.setFlavor(new MediaPackageElementFlavor(flavorType, flavorSubtype));
+            logger.debug("Composed track has flavor '{}'", composedTrack.getFlavor());
+          }
+
+          // store new tracks to mediaPackage
+          mediaPackage.addDerived(composedTrack, track);
+          String fileName = getFileNameFromElements(track, composedTrack);
+          composedTrack.setURI(workspace.moveTo(composedTrack.getURI(), mediaPackage.getIdentifier().toString(),
+                                                composedTrack.getIdentifier(), fileName));
         }
-
-        // store new tracks to mediaPackage
-        mediaPackage.addDerived(composedTrack, track);
-        String fileName = getFileNameFromElements(track, composedTrack);
-        composedTrack.setURI(workspace.moveTo(composedTrack.getURI(), mediaPackage.getIdentifier().toString(),
-                                              composedTrack.getIdentifier(), fileName));
       }
     }
 
@@ -313,11 +370,11 @@ public class ComposeWorkflowOperationHandler extends AbstractWorkflowOperationHa
   private static final class JobInformation {
 
     private Track track = null;
-    private EncodingProfile profile = null;
+    private List<EncodingProfile> profiles = null;
 
-    JobInformation(Track track, EncodingProfile profile) {
+    JobInformation(Track track, List<EncodingProfile> profiles) {
       this.track = track;
-      this.profile = profile;
+      this.profiles = profiles;
     }
 
     /**
@@ -330,12 +387,12 @@ public class ComposeWorkflowOperationHandler extends AbstractWorkflowOperationHa
     }
 
     /**
-     * Returns the profile.
+     * Returns the profiles the track is encoded with.
      *
-     * @return the profile
+     * @return the profiles
      */
-    public EncodingProfile getProfile() {
-      return profile;
+    public List<EncodingProfile> getProfiles() {
+      return profiles;
     }
 
   }
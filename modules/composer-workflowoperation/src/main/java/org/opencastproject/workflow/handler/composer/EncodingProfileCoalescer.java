@@ -0,0 +1,142 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workflow.handler.composer;
+
+import org.opencastproject.composer.api.EncodingProfile;
+import org.opencastproject.composer.api.EncodingProfile.MediaType;
+import org.opencastproject.mediapackage.Track;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which encodings of the same source track can be run as a single multi output encoding, so the source is
+ * decoded only once.
+ * <p>
+ * A profile qualifies if its FFmpeg command reads nothing but the source track, writes a single output file and uses
+ * only simple audio and video filters. Everything else, e.g. profiles that seek, copy streams, pick streams or use
+ * additional inputs, is encoded on its own.
+ */
+final class EncodingProfileCoalescer {
+
+  /** The configuration key of the operations to enable coalescing */
+  static final String COALESCE_ENCODINGS = "coalesce-encodings";
+
+  /** The profile extension holding the FFmpeg command */
+  private static final String FFMPEG_COMMAND = "ffmpeg.command";
+
+  /** The only input a profile may read */
+  private static final String SOURCE_INPUT = "#{in.video.path}";
+
+  /** The placeholder of the output file */
+  private static final String OUTPUT = "#{out.dir}/#{out.name}#{out.suffix}";
+
+  /** Placeholders in profile commands */
+  private static final Pattern PLACEHOLDER = Pattern.compile("#\\{([^}]*)\\}");
+
+  /** Placeholders a qualifying profile may use */
+  private static final List<String> SUPPORTED_PLACEHOLDERS = Arrays.asList("in.video.path", "out.dir", "out.name",
+          "out.suffix");
+
+  /** Options which a multi output encoding cannot reproduce */
+  private static final List<String> UNSUPPORTED_OPTIONS = Arrays.asList("-filter_complex", "-lavfi", "-map", "-vn",
+          "-an", "-ss", "-t", "-to", "-frames:v", "-vframes", "-loop", "-f image2");
+
+  private EncodingProfileCoalescer() {
+  }
+
+  /**
+   * Returns whether encodings with the given profile can be combined with others into a single encoding.
+   *
+   * @param profile
+   *          the encoding profile
+   * @return <code>true</code> if the profile can be part of a multi output encoding
+   */
+  static boolean isCoalescable(EncodingProfile profile) {
+    if (!MediaType.Visual.equals(profile.getOutputType()) && !MediaType.AudioVisual.equals(profile.getOutputType()))
+      return false;
+
+    // Conditional commands depend on the source, so they are resolved by the encoder only
+    Map<String, String> extensions = profile.getExtensions();
+    if (extensions != null) {
+      for (String key : extensions.keySet()) {
+        if (key.startsWith(FFMPEG_COMMAND) && !FFMPEG_COMMAND.equals(key))
+          return false;
+      }
+    }
+
+    String command = StringUtils.normalizeSpace(profile.getExtension(FFMPEG_COMMAND));
+    if (StringUtils.isBlank(command))
+      return false;
+    String[] options = command.split(" ");
+
+    // The source must be the first and only input and the output must be the last argument and occur only once
+    if (options.length < 3 || !"-i".equals(options[0]) || !SOURCE_INPUT.equals(StringUtils.removeStart(options[1], "/"))
+            || StringUtils.countMatches(command, " -i ") > 0 || !OUTPUT.equals(options[options.length - 1])
+            || StringUtils.countMatches(command, "#{out.name}") != 1)
+      return false;
+
+    Matcher matcher = PLACEHOLDER.matcher(command);
+    while (matcher.find()) {
+      if (!SUPPORTED_PLACEHOLDERS.contains(matcher.group(1)))
+        return false;
+    }
+
+    for (int i = 2; i < options.length - 1; i++) {
+      String option = options[i];
+      if (UNSUPPORTED_OPTIONS.contains(option) || UNSUPPORTED_OPTIONS.contains(option + " " + options[i + 1]))
+        return false;
+      // Streams cannot be copied once they went through the split filter
+      if ((option.startsWith("-c") || option.endsWith("codec")) && "copy".equals(options[i + 1]))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Selects the profiles whose encodings of the given track should be combined into a single encoding.
+   *
+   * @param track
+   *          the source track
+   * @param profiles
+   *          the profiles the track is going to be encoded with
+   * @return the profiles to combine, which is an empty list if there are less than two of them
+   */
+  static List<EncodingProfile> select(Track track, List<EncodingProfile> profiles) {
+    if (!track.hasVideo())
+      return Collections.emptyList();
+    List<EncodingProfile> selected = new ArrayList<>();
+    for (EncodingProfile profile : profiles) {
+      if (isCoalescable(profile) && !selected.contains(profile))
+        selected.add(profile);
+    }
+    return selected.size() > 1 ? selected : Collections.<EncodingProfile> emptyList();
+  }
+
+}
@@ -148,6 +148,37 @@ public class ComposeWorkflowOperationHandlerTest {
     Assert.assertEquals(SOURCE_TRACK_ID, trackEncoded.getReference().getIdentifier());
   }
 
+  @Test
+  public void testComposeSegmentedTrack() throws Exception {
+    // set up mock profile
+    profile = EasyMock.createNiceMock(EncodingProfile.class);
+    EasyMock.expect(profile.getIdentifier()).andReturn(PROFILE_ID).anyTimes();
+    EasyMock.expect(profile.getApplicableMediaType()).andReturn(MediaType.Stream).anyTimes();
+    EasyMock.expect(profile.getOutputType()).andReturn(MediaType.AudioVisual).anyTimes();
+    EasyMock.replay(profile);
+
+    // set up mock composer service
+    composerService = EasyMock.createNiceMock(ComposerService.class);
+    EasyMock.expect(composerService.getProfile(PROFILE_ID)).andReturn(profile);
+    EasyMock.expect(composerService.segmentedEncode((Track) EasyMock.anyObject(), EasyMock.eq(PROFILE_ID),
+            EasyMock.eq(4))).andReturn(job).once();
+    EasyMock.replay(composerService);
+    operationHandler.setComposerService(composerService);
+
+    // operation configuration
+    Map<String, String> configurations = new HashMap<String, String>();
+    configurations.put("source-flavors", "presentation/source");
+    configurations.put("target-flavor", "presenter/delivery");
+    configurations.put("encoding-profiles", PROFILE_ID);
+    configurations.put("segments", "4");
+
+    // run the operation handler
+    WorkflowOperationResult result = getWorkflowOperationResult(mp, configurations);
+
+    EasyMock.verify(composerService);
+    Assert.assertEquals("presenter/delivery", result.getMediaPackage().getTrack(ENCODED_TRACK_ID).getFlavor().toString());
+  }
+
   @Test
   public void testComposeMissingData() throws Exception {
     // set up mock profile
@@ -0,0 +1,109 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workflow.handler.composer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.composer.api.EncodingProfile;
+import org.opencastproject.composer.api.EncodingProfile.MediaType;
+import org.opencastproject.composer.api.EncodingProfileImpl;
+import org.opencastproject.mediapackage.Track;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class EncodingProfileCoalescerTest {
+
+  private static EncodingProfile profile(String id, MediaType output, String command) {
+    EncodingProfileImpl profile = new EncodingProfileImpl(id, id, null);
+    profile.setOutputType(output);
+    profile.addExtension("ffmpeg.command", command);
+    return profile;
+  }
+
+  private static final String HD = "-i #{in.video.path} -c:v libx264 -filter:v yadif,scale=-2:720 -crf 23 "
+          + "-c:a aac -ab 128k #{out.dir}/#{out.name}#{out.suffix}";
+
+  private static final String LOW = "-i #{in.video.path} -c:v libx264 -filter:v yadif,scale=-2:288 -crf 28 "
+          + "-c:a aac -ab 64k #{out.dir}/#{out.name}#{out.suffix}";
+
+  @Test
+  public void testCoalescableProfiles() {
+    assertTrue(EncodingProfileCoalescer.isCoalescable(profile("hd", MediaType.AudioVisual, HD)));
+    assertTrue(EncodingProfileCoalescer.isCoalescable(profile("low", MediaType.Visual, LOW)));
+  }
+
+  @Test
+  public void testIncompatibleProfiles() {
+    // audio only output
+    assertFalse(EncodingProfileCoalescer.isCoalescable(profile("mp3", MediaType.Audio,
+            "-i #{in.video.path} -ar 44100 -ab 128k -vn -f mp3 #{out.dir}/#{out.name}#{out.suffix}")));
+    // images
+    assertFalse(EncodingProfileCoalescer.isCoalescable(profile("cover", MediaType.Image,
+            "-i #{in.video.path} -frames:v 1 #{out.dir}/#{out.name}#{out.suffix}")));
+    // seeking
+    assertFalse(EncodingProfileCoalescer.isCoalescable(profile("slides", MediaType.Visual,
+            "-ss #{time} -i #{in.video.path} -r 1 #{out.dir}/#{out.name}#{out.suffix}")));
+    // additional input
+    assertFalse(EncodingProfileCoalescer.isCoalescable(profile("watermark", MediaType.Visual,
+            "-i #{in.video.path} -i #{in.watermark.path} -c:v libx264 #{out.dir}/#{out.name}#{out.suffix}")));
+    // stream copy
+    assertFalse(EncodingProfileCoalescer.isCoalescable(profile("copy", MediaType.AudioVisual,
+            "-i #{in.video.path} -c:v libx264 -c:a copy #{out.dir}/#{out.name}#{out.suffix}")));
+    // complex filters
+    assertFalse(EncodingProfileCoalescer.isCoalescable(profile("complex", MediaType.Visual,
+            "-i #{in.video.path} -filter_complex [0:v]split[a][b] #{out.dir}/#{out.name}#{out.suffix}")));
+    // several outputs
+    assertFalse(EncodingProfileCoalescer.isCoalescable(profile("parallel", MediaType.Visual,
+            "-i #{in.video.path} -c:v libx264 #{out.dir}/#{out.name}-low#{out.suffix} "
+                    + "-c:v libx264 #{out.dir}/#{out.name}#{out.suffix}")));
+    // conditional commands
+    EncodingProfileImpl conditional = (EncodingProfileImpl) profile("conditional", MediaType.Visual, HD);
+    conditional.addExtension("ffmpeg.command.if-height-geq-1080", HD);
+    assertFalse(EncodingProfileCoalescer.isCoalescable(conditional));
+  }
+
+  @Test
+  public void testSelect() {
+    Track video = EasyMock.createNiceMock(Track.class);
+    EasyMock.expect(video.hasVideo()).andReturn(true).anyTimes();
+    Track audio = EasyMock.createNiceMock(Track.class);
+    EasyMock.expect(audio.hasVideo()).andReturn(false).anyTimes();
+    EasyMock.replay(video, audio);
+
+    EncodingProfile hd = profile("hd", MediaType.AudioVisual, HD);
+    EncodingProfile low = profile("low", MediaType.AudioVisual, LOW);
+    EncodingProfile mp3 = profile("mp3", MediaType.Audio, "-i #{in.video.path} -vn #{out.dir}/#{out.name}#{out.suffix}");
+
+    assertEquals(Arrays.asList(hd, low), EncodingProfileCoalescer.select(video, Arrays.asList(hd, mp3, low)));
+    // nothing to combine a single profile with
+    List<EncodingProfile> single = EncodingProfileCoalescer.select(video, Arrays.asList(hd, mp3));
+    assertTrue(single.isEmpty());
+    assertTrue(EncodingProfileCoalescer.select(audio, Arrays.asList(hd, low)).isEmpty());
+  }
+
+}
@@ -66,6 +66,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.FormParam;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
@@ -271,15 +272,20 @@ public class BaseEndpoint {
 
   @POST
   @Path("recreateIndex")
-  @RestQuery(name = "recreateIndex", description = "Repopulates the External Index directly from the Services", returnDescription = "OK if repopulation has started", reponses = {
+  @RestQuery(name = "recreateIndex", description = "Repopulates the External Index directly from the Services. "
+          + "The current index remains available until the repopulated index replaces it.",
+          returnDescription = "OK if repopulation has started", restParameters = {
+          @RestParameter(name = "resume", isRequired = false, defaultValue = "false", description = "Whether to resume "
+                  + "an earlier repopulation that did not finish, skipping the services it has already completed",
+                  type = RestParameter.Type.BOOLEAN) }, reponses = {
           @RestResponse(description = "OK if repopulation has started", responseCode = HttpServletResponse.SC_OK) })
-  public Response recreateIndex() {
+  public Response recreateIndex(@FormParam("resume") final boolean resume) {
     final SecurityContext securityContext = new SecurityContext(securityService, securityService.getOrganization(),
             securityService.getUser());
     executor.execute(() -> securityContext.runInContext(() -> {
       try {
         logger.info("Starting to repopulate the external index");
-        externalIndex.recreateIndex();
+        externalIndex.recreateIndex(resume);
         logger.info("Finished repopulating the external index");
       } catch (InterruptedException e) {
         logger.error("Repopulating the external index was interrupted", e);
@@ -140,7 +140,7 @@ public class BaseEndpointTest {
     assertEquals("v1.3.0", json.get("default"));
   }
 
-  /** Test case for {@link BaseEndpoint#recreateIndex()} */
+  /** Test case for {@link BaseEndpoint#recreateIndex(boolean)} */
   @Test
   public void testRecreateIndex() throws Exception {
     given().log().all().expect().statusCode(SC_OK).when().post(env.host("/recreateIndex"));
@@ -64,12 +64,8 @@ import org.opencastproject.util.data.Option;
 import com.entwinemedia.fn.Fn;
 
 import org.apache.commons.lang3.StringUtils;
-import org.elasticsearch.action.DocWriteResponse;
-import org.elasticsearch.action.delete.DeleteRequestBuilder;
-import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
 import org.elasticsearch.action.search.SearchResponse;
-import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHitField;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
@@ -82,7 +78,11 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -95,6 +95,17 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
 
   private static final Logger logger = LoggerFactory.getLogger(AbstractSearchIndex.class);
 
+  /**
+   * The services providing data for the index, in the order in which they are recreated. Services of the same stage do
+   * not depend on each other's data and are recreated concurrently.
+   */
+  private static final List<List<IndexRecreateObject.Service>> RECREATE_STAGES = Arrays.asList(
+          Arrays.asList(IndexRecreateObject.Service.Groups, IndexRecreateObject.Service.Acl,
+                  IndexRecreateObject.Service.Themes),
+          Collections.singletonList(IndexRecreateObject.Service.Series),
+          Arrays.asList(IndexRecreateObject.Service.Scheduler, IndexRecreateObject.Service.Workflow,
+                  IndexRecreateObject.Service.AssetManager, IndexRecreateObject.Service.Comments));
+
   /** The message sender */
   private MessageSender messageSender;
 
@@ -127,22 +138,59 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
    * @throws ExecutionException
    *           Thrown if there is a problem executing the process.
    * @throws IOException
-   *           Thrown if the index cannot be cleared.
+   *           Thrown if the index cannot be created.
    * @throws IndexServiceException
    *           Thrown if there was a problem adding some of the data back into the index.
+   * @see #recreateIndex(boolean)
    */
   public synchronized void recreateIndex()
           throws InterruptedException, CancellationException, ExecutionException, IOException, IndexServiceException {
-    // Clear index first
-    clear();
-    recreateService(IndexRecreateObject.Service.Groups);
-    recreateService(IndexRecreateObject.Service.Acl);
-    recreateService(IndexRecreateObject.Service.Themes);
-    recreateService(IndexRecreateObject.Service.Series);
-    recreateService(IndexRecreateObject.Service.Scheduler);
-    recreateService(IndexRecreateObject.Service.Workflow);
-    recreateService(IndexRecreateObject.Service.AssetManager);
-    recreateService(IndexRecreateObject.Service.Comments);
+    recreateIndex(false);
+  }
+
+  /**
+   * Recreate the index from all of the services that provide data. The data is written to a new index which replaces
+   * the current one once all services are done, so the current index remains available while it is being recreated.
+   * Every service that is done is recorded, which allows to resume a recreation that failed.
+   *
+   * @param resume
+   *          whether to resume an unfinished recreation, skipping the services it has already completed
+   * @throws InterruptedException
+   *           Thrown if the process is interupted.
+   * @throws CancellationException
+   *           Thrown if listeing to messages has been canceled.
+   * @throws ExecutionException
+   *           Thrown if there is a problem executing the process.
+   * @throws IOException
+   *           Thrown if the index cannot be created.
+   * @throws IndexServiceException
+   *           Thrown if there was a problem adding some of the data back into the index.
+   */
+  public synchronized void recreateIndex(boolean resume)
+          throws InterruptedException, CancellationException, ExecutionException, IOException, IndexServiceException {
+    Set<String> completed;
+    try {
+      completed = startRebuild(resume);
+    } catch (SearchIndexException e) {
+      throw new IndexServiceException(format("Unable to start recreating index '%s'", getIndexName()), e);
+    }
+
+    for (List<IndexRecreateObject.Service> stage : RECREATE_STAGES) {
+      List<IndexRecreateObject.Service> services = new ArrayList<>();
+      for (IndexRecreateObject.Service service : stage) {
+        if (completed.contains(service.name()))
+          logger.info("Skipping service '{}' which has already been recreated", service);
+        else
+          services.add(service);
+      }
+      recreateServices(services, true);
+    }
+
+    try {
+      finishRebuild();
+    } catch (SearchIndexException e) {
+      throw new IndexServiceException(format("Unable to replace index '%s' with its recreation", getIndexName()), e);
+    }
   }
 
   /**
@@ -199,18 +247,48 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
    */
   private void recreateService(IndexRecreateObject.Service service)
           throws IndexServiceException, InterruptedException, CancellationException, ExecutionException {
-    logger.info("Starting to recreate index for service '{}'", service);
-    messageSender.sendObjectMessage(IndexProducer.RECEIVER_QUEUE + "." + service, MessageSender.DestinationType.Queue,
-            IndexRecreateObject.start(getIndexName(), service));
-    boolean done = false;
+    recreateServices(Collections.singletonList(service), false);
+  }
+
+  /**
+   * Ask for data to be rebuilt from several services at once and wait for all of them to finish.
+   *
+   * @param services
+   *          The {@link IndexRecreateObject.Service}s representing the services to start re-sending the data from.
+   * @param checkpoint
+   *          Whether to record every finished service as a completed step of the current index rebuild.
+   * @throws IndexServiceException
+   *           Thrown if there is a problem re-sending the data from the service.
+   * @throws InterruptedException
+   *           Thrown if the process of re-sending the data is interupted.
+   * @throws CancellationException
+   *           Thrown if listening to messages has been canceled.
+   * @throws ExecutionException
+   *           Thrown if the process of re-sending the data has an error.
+   */
+  private void recreateServices(List<IndexRecreateObject.Service> services, boolean checkpoint)
+          throws IndexServiceException, InterruptedException, CancellationException, ExecutionException {
+    if (services.isEmpty())
+      return;
+    Set<IndexRecreateObject.Service> pending = EnumSet.copyOf(services);
+    for (IndexRecreateObject.Service service : services) {
+      logger.info("Starting to recreate index for service '{}'", service);
+      messageSender.sendObjectMessage(IndexProducer.RECEIVER_QUEUE + "." + service,
+              MessageSender.DestinationType.Queue, IndexRecreateObject.start(getIndexName(), service));
+    }
     // TODO Add a timeout for services that are not going to respond.
-    while (!done) {
+    while (!pending.isEmpty()) {
       FutureTask<Serializable> future = messageReceiver.receiveSerializable(IndexProducer.RESPONSE_QUEUE,
               MessageSender.DestinationType.Queue);
       executor.execute(future);
       BaseMessage message = (BaseMessage) future.get();
       if (message.getObject() instanceof IndexRecreateObject) {
         IndexRecreateObject indexRecreateObject = (IndexRecreateObject) message.getObject();
+        if (!pending.contains(indexRecreateObject.getService())) {
+          logger.debug("Ignoring message for service '{}' which is not being recreated",
+                  indexRecreateObject.getService());
+          continue;
+        }
         switch (indexRecreateObject.getStatus()) {
           case Update:
             logger.info("Updating service: '{}' with {}/{} finished, {}% complete.", indexRecreateObject.getService(),
@@ -220,8 +298,16 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
             }
             break;
           case End:
-            done = true;
+            pending.remove(indexRecreateObject.getService());
             logger.info("Finished re-creating data for service '{}'", indexRecreateObject.getService());
+            if (checkpoint) {
+              try {
+                completeRebuildStep(indexRecreateObject.getService().name());
+              } catch (SearchIndexException e) {
+                throw new IndexServiceException(format("Unable to record that service '%s' has been recreated",
+                        indexRecreateObject.getService()), e);
+              }
+            }
             break;
           case Error:
             logger.error("Error updating service '{}' with {}/{} finished.",
@@ -266,7 +352,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
     ElasticsearchDocument doc = new ElasticsearchDocument(inputDocument.getIdentifier(),
             inputDocument.getDocumentType(), resourceMetadata);
     try {
-      update(doc);
+      write(doc);
     } catch (Throwable t) {
       throw new SearchIndexException("Cannot write resource " + event + " to index", t);
     }
@@ -297,7 +383,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
     ElasticsearchDocument doc = new ElasticsearchDocument(inputDocument.getIdentifier(),
             inputDocument.getDocumentType(), resourceMetadata);
     try {
-      update(doc);
+      write(doc);
     } catch (Throwable t) {
       throw new SearchIndexException("Cannot write resource " + group + " to index", t);
     }
@@ -326,7 +412,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
     ElasticsearchDocument doc = new ElasticsearchDocument(inputDocument.getIdentifier(),
             inputDocument.getDocumentType(), resourceMetadata);
     try {
-      update(doc);
+      write(doc);
     } catch (Throwable t) {
       throw new SearchIndexException("Cannot write resource " + series + " to index", t);
     }
@@ -357,7 +443,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
     ElasticsearchDocument doc = new ElasticsearchDocument(inputDocument.getIdentifier(),
             inputDocument.getDocumentType(), resourceMetadata);
     try {
-      update(doc);
+      write(doc);
     } catch (Throwable t) {
       throw new SearchIndexException("Cannot write resource " + theme + " to index", t);
     }
@@ -366,16 +452,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
   @Override
   public boolean delete(String documentType, String uid) throws SearchIndexException {
     logger.debug("Removing element with id '{}' from searching index '{}'", uid, getIndexName());
-
-    DeleteRequestBuilder deleteRequest = getSearchClient().prepareDelete(getIndexName(), documentType, uid);
-    deleteRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-    DeleteResponse delete = deleteRequest.execute().actionGet();
-    if (delete.getResult() == DocWriteResponse.Result.NOT_FOUND) {
-      logger.trace("Document {} to delete was not found on index '{}'", uid, getIndexName());
-      return false;
-    }
-
-    return true;
+    return super.delete(documentType, uid);
   }
 
   /**
@@ -492,6 +569,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
    */
   public SearchResult<Event> getByQuery(EventSearchQuery query) throws SearchIndexException {
     logger.debug("Searching index using event query '{}'", query);
+    awaitWrites(Event.DOCUMENT_TYPE, query.getOrganization(), query.getIdentifier());
     // Create the request builder
     SearchRequestBuilder requestBuilder = getSearchRequestBuilder(query, new EventQueryBuilder(query));
 
@@ -522,6 +600,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
   public SearchResult<Group> getByQuery(GroupSearchQuery query) throws SearchIndexException {
 
     logger.debug("Searching index using group query '{}'", query);
+    awaitWrites(Group.DOCUMENT_TYPE, query.getOrganization(), query.getIdentifier());
 
     // Create the request builder
     SearchRequestBuilder requestBuilder = getSearchRequestBuilder(query, new GroupQueryBuilder(query));
@@ -552,6 +631,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
    */
   public SearchResult<Series> getByQuery(SeriesSearchQuery query) throws SearchIndexException {
     logger.debug("Searching index using series query '{}'", query);
+    awaitWrites(Series.DOCUMENT_TYPE, query.getOrganization(), query.getIdentifier());
     // Create the request builder
     SearchRequestBuilder requestBuilder = getSearchRequestBuilder(query, new SeriesQueryBuilder(query));
     try {
@@ -580,6 +660,7 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
    */
   public SearchResult<Theme> getByQuery(ThemeSearchQuery query) throws SearchIndexException {
     logger.debug("Searching index using theme query '{}'", query);
+    awaitWrites(Theme.DOCUMENT_TYPE, query.getOrganization(), query.getIdentifiers());
     // Create the request builder
     SearchRequestBuilder requestBuilder = getSearchRequestBuilder(query, new ThemeQueryBuilder(query));
 
@@ -599,6 +680,38 @@ public abstract class AbstractSearchIndex extends AbstractElasticsearchIndex {
     }
   }
 
+  /**
+   * Waits for queued writes of the documents that a query may return, so that updates based on the query result build
+   * on all earlier updates. Queries without identifiers wait for all queued writes of the document type.
+   *
+   * @param documentType
+   *          the document type
+   * @param organization
+   *          the organization of the documents
+   * @param identifiers
+   *          the identifiers of the documents
+   */
+  private void awaitWrites(String documentType, String organization, Object[] identifiers) {
+    if (organization == null || identifiers.length == 0) {
+      // The query may return any document of the type. A stale copy read here could be written back by the caller and
+      // replace a newer queued update.
+      try {
+        awaitWrites(documentType);
+      } catch (SearchIndexException e) {
+        logger.debug("Queued updates of {} documents have failed", documentType);
+      }
+      return;
+    }
+    for (Object identifier : identifiers) {
+      try {
+        awaitWrite(documentType, identifier.toString().concat(organization));
+      } catch (SearchIndexException e) {
+        // The failure has already been reported when writing, the index still holds the previous version
+        logger.debug("Queued update of {} '{}' has failed", documentType, identifier);
+      }
+    }
+  }
+
   /**
    * Returns all the known terms for a field (aka facets).
    *
@@ -23,6 +23,7 @@ package org.opencastproject.index.service.message;
 
 import org.opencastproject.index.IndexProducer;
 import org.opencastproject.index.service.impl.index.AbstractSearchIndex;
+import org.opencastproject.index.service.message.jmx.MessageReceiverStatistics;
 import org.opencastproject.message.broker.api.BaseMessage;
 import org.opencastproject.message.broker.api.MessageReceiver;
 import org.opencastproject.message.broker.api.MessageSender;
@@ -32,25 +33,57 @@ import org.opencastproject.message.broker.api.index.IndexRecreateObject.Status;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.util.OsgiUtil;
 import org.opencastproject.util.data.Effect2;
+import org.opencastproject.util.jmx.JmxUtil;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+import javax.management.ObjectInstance;
 
 public abstract class BaseMessageReceiverImpl<T extends Serializable> {
 
+  /**
+   * Bundle context property defining the number of threads processing the messages of each receiver. Messages about
+   * the same media package, series or other entity are always processed by the same thread, in the order they have
+   * been received.
+   */
+  public static final String CONSUMERS_KEY = "org.opencastproject.index.message.consumers";
+
+  /** The default number of threads processing the messages of each receiver */
+  public static final int DEFAULT_CONSUMERS = 1;
+
+  /** The number of received messages per thread that may wait to be processed */
+  private static final int PENDING_MESSAGES_PER_CONSUMER = 100;
+
   private static final String DESTINATION_ID_KEY = "destinationId";
   private static final Logger logger = LoggerFactory.getLogger(BaseMessageReceiverImpl.class);
   private final ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor();
 
+  /** The threads processing the messages, each one responsible for a partition of the entities */
+  private ExecutorService[] consumers;
+
+  /** Limits the number of received messages waiting to be processed */
+  private Semaphore pendingMessages;
+
+  private MessageReceiverStatistics statistics;
+  private ObjectInstance statisticsBean;
+
   private SecurityService securityService;
   private MessageSender messageSender;
   private MessageReceiver messageReceiver;
@@ -68,6 +101,16 @@ public abstract class BaseMessageReceiverImpl<T extends Serializable> {
     logger.info("Activating {}", this.getClass().getName());
     destinationId = OsgiUtil.getComponentContextProperty(cc, DESTINATION_ID_KEY);
     logger.info("The {} for this message receiver is '{}'", DESTINATION_ID_KEY, destinationId);
+    int consumerCount = Math.max(1, NumberUtils.toInt(
+            StringUtils.trimToNull(cc.getBundleContext().getProperty(CONSUMERS_KEY)), DEFAULT_CONSUMERS));
+    logger.info("Processing messages for '{}' with {} threads", destinationId, consumerCount);
+    consumers = new ExecutorService[consumerCount];
+    for (int i = 0; i < consumerCount; i++) {
+      consumers[i] = Executors.newSingleThreadExecutor();
+    }
+    pendingMessages = new Semaphore(consumerCount * PENDING_MESSAGES_PER_CONSUMER);
+    statistics = new MessageReceiverStatistics(consumerCount);
+    statisticsBean = JmxUtil.registerMXBean(statistics, "MessageReceiverStatistics-" + destinationId);
     messageWatcher = new MessageWatcher(lockService);
     singleThreadExecutor.execute(messageWatcher);
   }
@@ -78,6 +121,13 @@ public abstract class BaseMessageReceiverImpl<T extends Serializable> {
       messageWatcher.stopListening();
 
     singleThreadExecutor.shutdown();
+    if (consumers != null) {
+      for (ExecutorService consumer : consumers) {
+        consumer.shutdown();
+      }
+    }
+    if (statisticsBean != null)
+      JmxUtil.unregisterMXBean(statisticsBean);
   }
 
   protected abstract void execute(T messageContent);
@@ -128,15 +178,18 @@ public abstract class BaseMessageReceiverImpl<T extends Serializable> {
           if (baseMessage == null) {
             continue;
           }
-          securityService.setOrganization(baseMessage.getOrganization());
-          securityService.setUser(baseMessage.getUser());
           if (baseMessage.getObject() instanceof IndexRecreateObject) {
             IndexRecreateObject obj = (IndexRecreateObject) baseMessage.getObject();
-            if (Status.End.equals(obj.getStatus()))
+            if (Status.End.equals(obj.getStatus())) {
+              // All messages sent before the end of the index recreation have to be processed first
+              awaitConsumers();
+              securityService.setOrganization(baseMessage.getOrganization());
+              securityService.setUser(baseMessage.getUser());
               messageSender.sendObjectMessage(IndexProducer.RESPONSE_QUEUE, MessageSender.DestinationType.Queue,
                       IndexRecreateObject.end(obj.getIndexName(), obj.getService()));
+            }
           } else {
-            lockService.synchronize(baseMessage.getId().get(), execute.curry(baseMessage.getObject()).toFn());
+            dispatch(baseMessage);
           }
         } catch (InterruptedException e) {
           logger.error("Problem while getting {} message events {}", clazzName, ExceptionUtils.getStackTrace(e));
@@ -153,6 +206,64 @@ public abstract class BaseMessageReceiverImpl<T extends Serializable> {
       }
       logger.info("Stopping listening for {} Messages", clazzName);
     }
+
+    /**
+     * Hands the message to the thread responsible for the entity it is about.
+     */
+    private void dispatch(final BaseMessage baseMessage) throws InterruptedException {
+      final long received = System.currentTimeMillis();
+      int partition = 0;
+      if (baseMessage.getId().isSome())
+        partition = Math.floorMod(baseMessage.getId().get().hashCode(), consumers.length);
+      pendingMessages.acquire();
+      statistics.received();
+      try {
+        consumers[partition].execute(() -> {
+          try {
+            process(baseMessage, received);
+          } finally {
+            pendingMessages.release();
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // The receiver is being deactivated
+        pendingMessages.release();
+        statistics.rejected();
+        logger.warn("Dropping {} message about {} since the receiver is shutting down", clazzName,
+                baseMessage.getId().getOr("unknown"));
+      }
+    }
+
+    private void process(BaseMessage baseMessage, long received) {
+      long sent = baseMessage.getCreationTime() > 0 ? baseMessage.getCreationTime() : received;
+      long lag = Math.max(0, System.currentTimeMillis() - sent);
+      boolean successful = false;
+      try {
+        securityService.setOrganization(baseMessage.getOrganization());
+        securityService.setUser(baseMessage.getUser());
+        lockService.synchronize(baseMessage.getId().get(), execute.curry(baseMessage.getObject()).toFn());
+        successful = true;
+      } catch (Throwable t) {
+        logger.error("Problem while processing {} message events {}", clazzName, ExceptionUtils.getStackTrace(t));
+      } finally {
+        statistics.processed(lag, successful);
+        securityService.setOrganization(null);
+        securityService.setUser(null);
+      }
+    }
+
+    /**
+     * Waits until all messages that have been dispatched so far have been processed.
+     */
+    private void awaitConsumers() throws InterruptedException, ExecutionException {
+      List<Future<?>> barriers = new ArrayList<>(consumers.length);
+      for (ExecutorService consumer : consumers) {
+        barriers.add(consumer.submit(() -> { }));
+      }
+      for (Future<?> barrier : barriers) {
+        barrier.get();
+      }
+    }
   }
 
   private final Effect2<Serializable, String> execute = new Effect2<Serializable, String>() {
@@ -21,6 +21,7 @@
 
 package org.opencastproject.index.service.message;
 
+import static org.opencastproject.index.service.impl.index.event.EventIndexUtils.getEvent;
 import static org.opencastproject.index.service.impl.index.event.EventIndexUtils.getOrCreateEvent;
 import static org.opencastproject.index.service.impl.index.event.EventIndexUtils.updateEvent;
 
@@ -54,6 +55,9 @@ public class WorkflowMessageReceiverImpl extends BaseMessageReceiverImpl<Workflo
       case UpdateInstance:
         updateWorkflowInstance(workflowItem);
         break;
+      case UpdateInstanceState:
+        updateWorkflowInstanceState(workflowItem);
+        break;
       case DeleteInstance:
         deleteWorkflowInstance(workflowItem);
         break;
@@ -113,4 +117,29 @@ public class WorkflowMessageReceiverImpl extends BaseMessageReceiverImpl<Workflo
     }
   }
 
+  private void updateWorkflowInstanceState(WorkflowItem workflowItem) {
+    final String organization = getSecurityService().getOrganization().getId();
+    final User user = getSecurityService().getUser();
+    final String eventId = workflowItem.getId();
+    logger.debug("Received Update Workflow instance state {} for event {}", workflowItem.getState(), eventId);
+
+    try {
+      // The event has been created by a full update of the workflow instance before
+      Event event = getEvent(eventId, organization, user, getSearchIndex());
+      if (event == null) {
+        logger.warn("Recording event {} not found, ignoring update of workflow instance state", eventId);
+        return;
+      }
+      event.setCreator(user.getName());
+      event.setWorkflowId(workflowItem.getWorkflowInstanceId());
+      event.setWorkflowDefinitionId(workflowItem.getWorkflowDefinitionId());
+      event.setWorkflowState(workflowItem.getState());
+
+      getSearchIndex().addOrUpdate(event);
+      logger.debug("Workflow instance {} state updated in the search index", eventId);
+    } catch (SearchIndexException e) {
+      logger.error("Error retrieving the recording event from the search index", e);
+    }
+  }
+
 }
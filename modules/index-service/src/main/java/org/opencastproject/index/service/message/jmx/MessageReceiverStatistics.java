@@ -0,0 +1,124 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.index.service.message.jmx;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics about the messages processed by a message receiver of the index service, i. e. how many messages are
+ * waiting to be processed, how many have been processed or failed, and how long after being sent they were processed.
+ */
+public class MessageReceiverStatistics implements MessageReceiverStatisticsMXBean {
+
+  private final int consumers;
+  private final AtomicInteger pending = new AtomicInteger();
+  private final AtomicLong processed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong lag = new AtomicLong();
+  private final AtomicLong totalLag = new AtomicLong();
+  private final AtomicLong maxLag = new AtomicLong();
+
+  public MessageReceiverStatistics(int consumers) {
+    this.consumers = consumers;
+  }
+
+  /**
+   * @see org.opencastproject.index.service.message.jmx.MessageReceiverStatisticsMXBean#getConsumers()
+   */
+  @Override
+  public int getConsumers() {
+    return consumers;
+  }
+
+  /**
+   * @see org.opencastproject.index.service.message.jmx.MessageReceiverStatisticsMXBean#getPendingMessages()
+   */
+  @Override
+  public int getPendingMessages() {
+    return pending.get();
+  }
+
+  /**
+   * @see org.opencastproject.index.service.message.jmx.MessageReceiverStatisticsMXBean#getProcessedMessages()
+   */
+  @Override
+  public long getProcessedMessages() {
+    return processed.get();
+  }
+
+  /**
+   * @see org.opencastproject.index.service.message.jmx.MessageReceiverStatisticsMXBean#getFailedMessages()
+   */
+  @Override
+  public long getFailedMessages() {
+    return failed.get();
+  }
+
+  /**
+   * @see org.opencastproject.index.service.message.jmx.MessageReceiverStatisticsMXBean#getLag()
+   */
+  @Override
+  public long getLag() {
+    return lag.get();
+  }
+
+  /**
+   * @see org.opencastproject.index.service.message.jmx.MessageReceiverStatisticsMXBean#getAverageLag()
+   */
+  @Override
+  public long getAverageLag() {
+    long count = processed.get() + failed.get();
+    return count == 0 ? 0L : totalLag.get() / count;
+  }
+
+  /**
+   * @see org.opencastproject.index.service.message.jmx.MessageReceiverStatisticsMXBean#getMaxLag()
+   */
+  @Override
+  public long getMaxLag() {
+    return maxLag.get();
+  }
+
+  public void received() {
+    pending.incrementAndGet();
+  }
+
+  /**
+   * Records a received message which will not be processed, e. g. because the receiver is shutting down.
+   */
+  public void rejected() {
+    pending.decrementAndGet();
+  }
+
+  public void processed(long lag, boolean successful) {
+    pending.decrementAndGet();
+    if (successful)
+      processed.incrementAndGet();
+    else
+      failed.incrementAndGet();
+    this.lag.set(lag);
+    totalLag.addAndGet(lag);
+    maxLag.accumulateAndGet(lag, Math::max);
+  }
+
+}
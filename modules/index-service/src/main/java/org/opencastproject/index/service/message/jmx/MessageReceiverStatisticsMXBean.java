@@ -0,0 +1,78 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.index.service.message.jmx;
+
+/**
+ * JMX Bean interface exposing statistics about the messages processed by an index message receiver.
+ */
+public interface MessageReceiverStatisticsMXBean {
+
+  /**
+   * Gets the number of threads processing messages
+   *
+   * @return the number of threads
+   */
+  int getConsumers();
+
+  /**
+   * Gets the number of received messages that have not been processed yet
+   *
+   * @return the number of messages
+   */
+  int getPendingMessages();
+
+  /**
+   * Gets the number of processed messages
+   *
+   * @return the number of messages
+   */
+  long getProcessedMessages();
+
+  /**
+   * Gets the number of messages that could not be processed
+   *
+   * @return the number of messages
+   */
+  long getFailedMessages();
+
+  /**
+   * Gets the time in milliseconds between sending the most recently processed message and processing it
+   *
+   * @return the lag
+   */
+  long getLag();
+
+  /**
+   * Gets the average time in milliseconds between sending a message and processing it
+   *
+   * @return the average lag
+   */
+  long getAverageLag();
+
+  /**
+   * Gets the longest time in milliseconds between sending a message and processing it
+   *
+   * @return the maximum lag
+   */
+  long getMaxLag();
+
+}
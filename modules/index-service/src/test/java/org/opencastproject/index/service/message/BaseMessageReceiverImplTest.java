@@ -0,0 +1,231 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.index.service.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.message.broker.api.BaseMessage;
+import org.opencastproject.message.broker.api.MessageItem;
+import org.opencastproject.message.broker.api.MessageReceiver;
+import org.opencastproject.message.broker.api.MessageSender;
+import org.opencastproject.message.broker.api.MessageSender.DestinationType;
+import org.opencastproject.message.broker.api.index.IndexRecreateObject;
+import org.opencastproject.security.api.DefaultOrganization;
+import org.opencastproject.security.api.JaxbRole;
+import org.opencastproject.security.api.JaxbUser;
+import org.opencastproject.security.api.User;
+
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class BaseMessageReceiverImplTest {
+
+  private static final DefaultOrganization ORGANIZATION = new DefaultOrganization();
+
+  private static final User USER = new JaxbUser("creator", "password", "Creator", null, "test", ORGANIZATION,
+          new HashSet<JaxbRole>());
+
+  /** The messages to be received */
+  private final BlockingQueue<Serializable> messages = new LinkedBlockingQueue<>();
+
+  /** What has happened, in order */
+  private final List<String> events = Collections.synchronizedList(new ArrayList<>());
+
+  /** Latches blocking the processing of items, by item */
+  private final Map<String, CountDownLatch> blocked = new ConcurrentHashMap<>();
+
+  private final CountDownLatch endSent = new CountDownLatch(1);
+
+  private TestReceiver receiver;
+
+  @After
+  public void tearDown() {
+    for (CountDownLatch latch : blocked.values()) {
+      latch.countDown();
+    }
+    if (receiver != null)
+      receiver.deactivate(null);
+  }
+
+  private void activate(int consumers) {
+    BundleContext bundleContext = EasyMock.createNiceMock(BundleContext.class);
+    EasyMock.expect(bundleContext.getProperty(BaseMessageReceiverImpl.CONSUMERS_KEY))
+            .andReturn(Integer.toString(consumers)).anyTimes();
+    Hashtable<String, Object> properties = new Hashtable<>();
+    properties.put("destinationId", "test-" + System.nanoTime());
+    ComponentContext cc = EasyMock.createNiceMock(ComponentContext.class);
+    EasyMock.expect(cc.getBundleContext()).andReturn(bundleContext).anyTimes();
+    EasyMock.expect(cc.getProperties()).andReturn(properties).anyTimes();
+
+    MessageReceiver messageReceiver = EasyMock.createNiceMock(MessageReceiver.class);
+    EasyMock.expect(messageReceiver.receiveSerializable(EasyMock.anyString(), EasyMock.anyObject(DestinationType.class)))
+            .andAnswer(() -> new FutureTask<>(messages::take)).anyTimes();
+    MessageSender messageSender = EasyMock.createNiceMock(MessageSender.class);
+    messageSender.sendObjectMessage(EasyMock.anyString(), EasyMock.anyObject(DestinationType.class),
+            EasyMock.anyObject(Serializable.class));
+    EasyMock.expectLastCall().andAnswer(() -> {
+      events.add("end");
+      endSent.countDown();
+      return null;
+    }).anyTimes();
+    EasyMock.replay(bundleContext, cc, messageReceiver, messageSender);
+
+    receiver = new TestReceiver();
+    receiver.setSecurityService(TestSearchIndex.createSecurityService(ORGANIZATION));
+    receiver.setMessageReceiverLockService(new MessageReceiverLockService());
+    receiver.setMessageReceiver(messageReceiver);
+    receiver.setMessageSender(messageSender);
+    receiver.activate(cc);
+  }
+
+  private void send(String id, int sequence) {
+    messages.add(new BaseMessage(ORGANIZATION, USER, new Item(id, sequence)));
+  }
+
+  private CountDownLatch block(String id, int sequence) {
+    CountDownLatch latch = new CountDownLatch(1);
+    blocked.put(id + sequence, latch);
+    return latch;
+  }
+
+  private void awaitEvents(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10000;
+    while (events.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(count, events.size());
+  }
+
+  @Test
+  public void testMessagesAboutTheSameEntityAreProcessedInOrder() throws Exception {
+    activate(4);
+    for (int i = 0; i < 50; i++) {
+      send("a", i);
+      send("b" + i, 0);
+    }
+    awaitEvents(100);
+
+    List<String> processedA = new ArrayList<>();
+    synchronized (events) {
+      for (String event : events) {
+        if (event.startsWith("a:"))
+          processedA.add(event);
+      }
+    }
+    for (int i = 0; i < 50; i++) {
+      assertEquals("a:" + i, processedA.get(i));
+    }
+  }
+
+  @Test
+  public void testMessagesAboutDifferentEntitiesAreProcessedInParallel() throws Exception {
+    activate(2);
+    // "a" and "b" are processed by different threads
+    CountDownLatch blockedA = block("a", 0);
+    send("a", 0);
+    send("b", 0);
+    awaitEvents(1);
+    assertEquals("b:0", events.get(0));
+
+    blockedA.countDown();
+    awaitEvents(2);
+  }
+
+  @Test
+  public void testEndIsAcknowledgedAfterEarlierMessages() throws Exception {
+    activate(2);
+    CountDownLatch blockedA = block("a", 0);
+    send("a", 0);
+    messages.add(new BaseMessage(ORGANIZATION, USER,
+            IndexRecreateObject.end("index", IndexRecreateObject.Service.Groups)));
+
+    assertFalse(endSent.await(200, TimeUnit.MILLISECONDS));
+    blockedA.countDown();
+    assertTrue(endSent.await(10, TimeUnit.SECONDS));
+    assertEquals(2, events.size());
+    assertEquals("a:0", events.get(0));
+    assertEquals("end", events.get(1));
+  }
+
+  /** A message about an entity */
+  private static final class Item implements MessageItem {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+
+    private final int sequence;
+
+    Item(String id, int sequence) {
+      this.id = id;
+      this.sequence = sequence;
+    }
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+  }
+
+  /** Records the processed items, optionally blocking until released */
+  private final class TestReceiver extends BaseMessageReceiverImpl<Item> {
+
+    TestReceiver() {
+      super(DestinationType.Queue);
+    }
+
+    @Override
+    protected void execute(Item item) {
+      CountDownLatch latch = blocked.get(item.id + item.sequence);
+      if (latch != null) {
+        try {
+          latch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      events.add(item.id + ":" + item.sequence);
+    }
+
+  }
+
+}
@@ -0,0 +1,76 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.index.service.message;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.opencastproject.index.service.impl.index.event.Event;
+import org.opencastproject.mediapackage.MediaPackageBuilderFactory;
+import org.opencastproject.message.broker.api.workflow.WorkflowItem;
+import org.opencastproject.security.api.DefaultOrganization;
+import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.workflow.api.WorkflowInstance.WorkflowState;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkflowMessageReceiverImplTest {
+
+  private WorkflowMessageReceiverImpl workflow;
+  private final TestSearchIndex index = new TestSearchIndex();
+
+  @Before
+  public void setUp() throws Exception {
+    SecurityService securityService = TestSearchIndex.createSecurityService(new DefaultOrganization());
+    workflow = new WorkflowMessageReceiverImpl();
+    workflow.setSecurityService(securityService);
+    workflow.setSearchIndex(index);
+  }
+
+  @Test
+  public void testUpdateState() throws Exception {
+    WorkflowInstanceImpl instance = new WorkflowInstanceImpl();
+    instance.setId(42L);
+    instance.setTemplate("fast");
+    instance.setState(WorkflowState.SUCCEEDED);
+    instance.setMediaPackage(MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().createNew());
+
+    Event event = new Event(instance.getMediaPackage().getIdentifier().compact(),
+            DefaultOrganization.DEFAULT_ORGANIZATION_ID);
+    event.setTitle("Title");
+    event.setAccessPolicy("{}");
+    event.setWorkflowState(WorkflowState.RUNNING);
+    index.setInitialEvent(event);
+
+    workflow.execute(WorkflowItem.updateInstanceState(instance));
+    event = index.getEventResult();
+    assertNotNull(event);
+    assertEquals(WorkflowState.SUCCEEDED.toString(), event.getWorkflowState());
+    assertEquals(42L, event.getWorkflowId().longValue());
+    assertEquals("fast", event.getWorkflowDefinitionId());
+    assertEquals("Unchanged fields are expected to be kept", "Title", event.getTitle());
+    assertEquals("Unchanged fields are expected to be kept", "{}", event.getAccessPolicy());
+  }
+
+}
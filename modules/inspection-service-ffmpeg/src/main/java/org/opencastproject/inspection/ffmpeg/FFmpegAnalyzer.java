@@ -64,8 +64,28 @@ public class FFmpegAnalyzer implements MediaAnalyzer {
   /** Whether the calculation of the frames is accurate or not */
   private boolean accurateFrameCount;
 
+  /** Whether accurate frame counts are determined by decoding the streams instead of counting their packets */
+  private boolean decodeFrames;
+
   public FFmpegAnalyzer(boolean accurateFrameCount) {
+    this(accurateFrameCount, false);
+  }
+
+  /**
+   * Creates a new analyzer.
+   * <p>
+   * Accurate frame counts are determined by reading all packets of the streams, which does not require decoding them.
+   * For the rare formats storing more than one frame per packet, <code>decodeFrames</code> makes ffprobe decode the
+   * whole media instead.
+   *
+   * @param accurateFrameCount
+   *          whether the frames should be counted instead of relying on the container metadata
+   * @param decodeFrames
+   *          whether the frames should be counted by decoding the streams
+   */
+  public FFmpegAnalyzer(boolean accurateFrameCount, boolean decodeFrames) {
     this.accurateFrameCount = accurateFrameCount;
+    this.decodeFrames = decodeFrames;
     // instantiated using MediaAnalyzerFactory via newInstance()
     this.binary = FFPROBE_BINARY_DEFAULT;
   }
@@ -92,7 +112,7 @@ public class FFmpegAnalyzer implements MediaAnalyzer {
     command.add("-show_format");
     command.add("-show_streams");
     if (accurateFrameCount)
-      command.add("-count_frames");
+      command.add(decodeFrames ? "-count_frames" : "-count_packets");
     command.add("-of");
     command.add("json");
     command.add(media.getAbsolutePath().replaceAll(" ", "\\ "));
@@ -225,17 +245,7 @@ public class FFmpegAnalyzer implements MediaAnalyzer {
           }
 
           /* Frame Count */
-          obj = stream.get("nb_read_frames");
-          if (obj != null) {
-            aMetadata.setFrames(Long.parseLong((String) obj));
-          } else {
-
-            /* alternate JSON element if accurate frame count is not requested from ffmpeg */
-            obj = stream.get("nb_frames");
-            if (obj != null) {
-              aMetadata.setFrames(Long.parseLong((String) obj));
-            }
-          }
+          aMetadata.setFrames(getFrameCount(stream));
 
           /* Add video stream metadata to overall metadata */
           metadata.getAudioStreamMetadata().add(aMetadata);
@@ -301,17 +311,7 @@ public class FFmpegAnalyzer implements MediaAnalyzer {
           }
 
           /* Frame Count */
-          obj = stream.get("nb_read_frames");
-          if (obj != null) {
-            vMetadata.setFrames(Long.parseLong((String) obj));
-          } else {
-
-            /* alternate JSON element if accurate frame count is not requested from ffmpeg */
-            obj = stream.get("nb_frames");
-            if (obj != null) {
-              vMetadata.setFrames(Long.parseLong((String) obj));
-            }
-          }
+          vMetadata.setFrames(getFrameCount(stream));
 
           /* Add video stream metadata to overall metadata */
           metadata.getVideoStreamMetadata().add(vMetadata);
@@ -341,6 +341,23 @@ public class FFmpegAnalyzer implements MediaAnalyzer {
     }
   }
 
+  /**
+   * Returns the number of frames of a stream. Counted packets or frames are preferred over the number of frames stored
+   * in the container, which is not present or not reliable for every format.
+   *
+   * @param stream
+   *          the stream as returned by ffprobe
+   * @return the number of frames or <code>null</code> if unknown
+   */
+  private Long getFrameCount(JSONObject stream) {
+    for (String key : new String[] { "nb_read_packets", "nb_read_frames", "nb_frames" }) {
+      Object obj = stream.get(key);
+      if (obj != null)
+        return Long.parseLong((String) obj);
+    }
+    return null;
+  }
+
   private float parseFloat(String val) {
     if (val.contains("/")) {
       String[] v = val.split("/");
@@ -37,6 +37,9 @@ import org.opencastproject.serviceregistry.api.ServiceRegistryException;
 import org.opencastproject.util.LoadUtil;
 import org.opencastproject.workspace.api.Workspace;
 
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.osgi.service.component.ComponentContext;
@@ -64,6 +67,12 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
   /** The key to look for in the service configuration file to override the {@link DEFAULT_ENRICH_JOB_LOAD} */
   public static final String ENRICH_JOB_LOAD_KEY = "job.load.enrich";
 
+  /** The key to look for in the service configuration file to decode media when counting frames accurately */
+  public static final String ACCURATE_FRAME_COUNT_DECODE_KEY = "accurate.frame.count.decode";
+
+  /** The key to look for in the service configuration file to override {@link MediaInspector#DEFAULT_CACHE_SIZE} */
+  public static final String CACHE_SIZE_KEY = "cache.size";
+
   /** The load introduced on the system by creating an inspect job */
   private float inspectJobLoad = DEFAULT_INSPECT_JOB_LOAD;
 
@@ -85,6 +94,9 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
 
   private volatile MediaInspector inspector;
 
+  /** The path to the ffprobe binary */
+  private String ffprobeBinary = FFmpegAnalyzer.FFPROBE_BINARY_DEFAULT;
+
   /** Creates a new media inspection service instance. */
   public MediaInspectionServiceImpl() {
     super(JOB_TYPE);
@@ -95,7 +107,6 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
     super.activate(cc);
     /* Configure analyzer */
     final String path = cc.getBundleContext().getProperty(FFmpegAnalyzer.FFPROBE_BINARY_CONFIG);
-    final String ffprobeBinary;
     if (path == null) {
       logger.debug("DEFAULT " + FFmpegAnalyzer.FFPROBE_BINARY_CONFIG + ": " + FFmpegAnalyzer.FFPROBE_BINARY_DEFAULT);
       ffprobeBinary = FFmpegAnalyzer.FFPROBE_BINARY_DEFAULT;
@@ -116,6 +127,14 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
             serviceRegistry);
     enrichJobLoad = LoadUtil.getConfiguredLoadValue(properties, ENRICH_JOB_LOAD_KEY, DEFAULT_ENRICH_JOB_LOAD,
             serviceRegistry);
+
+    boolean decodeFrames = BooleanUtils.toBoolean(StringUtils.trimToNull((String) properties.get(
+            ACCURATE_FRAME_COUNT_DECODE_KEY)));
+    int cacheSize = NumberUtils.toInt(StringUtils.trimToNull((String) properties.get(CACHE_SIZE_KEY)),
+            MediaInspector.DEFAULT_CACHE_SIZE);
+    logger.debug("Counting frames by {}, caching {} inspection results", decodeFrames ? "decoding" : "reading packets",
+            cacheSize);
+    inspector = new MediaInspector(workspace, ffprobeBinary, decodeFrames, cacheSize);
   }
 
   /**
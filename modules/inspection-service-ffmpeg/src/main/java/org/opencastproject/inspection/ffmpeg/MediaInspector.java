@@ -30,13 +30,16 @@ import org.opencastproject.inspection.ffmpeg.api.MediaAnalyzer;
 import org.opencastproject.inspection.ffmpeg.api.MediaAnalyzerException;
 import org.opencastproject.inspection.ffmpeg.api.MediaContainerMetadata;
 import org.opencastproject.inspection.ffmpeg.api.VideoStreamMetadata;
+import org.opencastproject.mediapackage.AudioStream;
 import org.opencastproject.mediapackage.MediaPackageElement;
 import org.opencastproject.mediapackage.MediaPackageElementBuilder;
 import org.opencastproject.mediapackage.MediaPackageElementBuilderFactory;
 import org.opencastproject.mediapackage.MediaPackageElementFlavor;
 import org.opencastproject.mediapackage.Stream;
 import org.opencastproject.mediapackage.Track;
+import org.opencastproject.mediapackage.TrackSupport;
 import org.opencastproject.mediapackage.UnsupportedElementException;
+import org.opencastproject.mediapackage.VideoStream;
 import org.opencastproject.mediapackage.track.AudioStreamImpl;
 import org.opencastproject.mediapackage.track.TrackImpl;
 import org.opencastproject.mediapackage.track.VideoStreamImpl;
@@ -49,6 +52,9 @@ import org.opencastproject.util.UnknownFileTypeException;
 import org.opencastproject.util.data.Tuple;
 import org.opencastproject.workspace.api.Workspace;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.BooleanUtils;
 import org.slf4j.Logger;
@@ -71,12 +77,39 @@ public class MediaInspector {
 
   private static final Logger logger = LoggerFactory.getLogger(MediaInspector.class);
 
+  /** The default number of analysis results to keep in memory */
+  public static final int DEFAULT_CACHE_SIZE = 1000;
+
   private final Workspace workspace;
   private final String ffprobePath;
 
+  /** Whether accurate frame counts are determined by decoding the streams instead of counting their packets */
+  private final boolean decodeFrames;
+
+  /** Analysis results by file checksum or path and modification time, file size and frame counting mode */
+  private final Cache<String, MediaContainerMetadata> metadataCache;
+
   public MediaInspector(Workspace workspace, String ffprobePath) {
+    this(workspace, ffprobePath, false, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Creates a new media inspector.
+   *
+   * @param workspace
+   *          the workspace
+   * @param ffprobePath
+   *          the path to the ffprobe binary
+   * @param decodeFrames
+   *          whether accurate frame counts are determined by decoding the streams instead of counting their packets
+   * @param cacheSize
+   *          the number of analysis results to keep in memory, 0 disables the cache
+   */
+  public MediaInspector(Workspace workspace, String ffprobePath, boolean decodeFrames, int cacheSize) {
     this.workspace = workspace;
     this.ffprobePath = ffprobePath;
+    this.decodeFrames = decodeFrames;
+    this.metadataCache = CacheBuilder.newBuilder().maximumSize(Math.max(0, cacheSize)).build();
   }
 
   /**
@@ -109,7 +142,14 @@ public class MediaInspector {
         throw new MediaInspectionException("Can not inspect files without a filename extension");
       }
 
-      MediaContainerMetadata metadata = getFileMetadata(file, getAccurateFrameCount(options));
+      Checksum checksum;
+      try {
+        checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, file);
+      } catch (IOException e) {
+        throw new MediaInspectionException("Unable to read " + file, e);
+      }
+
+      MediaContainerMetadata metadata = getFileMetadata(file, checksum.toString(), getAccurateFrameCount(options));
       if (metadata == null) {
         throw new MediaInspectionException("Media analyzer returned no metadata from " + file);
       } else {
@@ -128,11 +168,7 @@ public class MediaInspector {
           track.setDuration(metadata.getDuration());
 
         // Checksum
-        try {
-          track.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, file));
-        } catch (IOException e) {
-          throw new MediaInspectionException("Unable to read " + file, e);
-        }
+        track.setChecksum(checksum);
 
         // Mimetype
         MimeType mimeType = MimeTypes.fromString(file.getPath());
@@ -220,7 +256,16 @@ public class MediaInspector {
         throw new MediaInspectionException("Can not inspect files without a filename extension");
       }
 
-      MediaContainerMetadata metadata = getFileMetadata(file, getAccurateFrameCount(options));
+      // The metadata of a track is only a function of its content, so there is nothing to do for unchanged files
+      boolean accurateFrameCount = getAccurateFrameCount(options);
+      if (!override && isInspected(originalTrack, file.length(), accurateFrameCount)) {
+        logger.debug("Track {} has already been inspected and did not change since", originalTrack);
+        return originalTrack;
+      }
+
+      // Checksumming the whole file is as expensive as the analysis, so the file's identity is used instead
+      String cacheKey = file.getAbsolutePath() + "/" + file.lastModified();
+      MediaContainerMetadata metadata = getFileMetadata(file, cacheKey, accurateFrameCount);
       if (metadata == null) {
         throw new MediaInspectionException("Unable to acquire media metadata for " + originalTrackUrl);
       } else {
@@ -356,24 +401,71 @@ public class MediaInspector {
   }
 
   /**
-   * Asks the media analyzer to extract the file's metadata.
+   * Returns <code>true</code> if the track already carries the metadata an inspection of the given file would add. As
+   * with the checksum, which is kept unless enrichment is forced, the track is trusted to describe its file as long as
+   * the file's size did not change.
+   *
+   * @param track
+   *          the track
+   * @param size
+   *          the size of the track's file
+   * @param accurateFrameCount
+   *          whether accurate frame counts are requested
+   * @return whether the track has already been inspected
+   */
+  private boolean isInspected(Track track, long size, boolean accurateFrameCount) {
+    if (track.getChecksum() == null || track.getDuration() == null || track.getMimeType() == null)
+      return false;
+    if (track.getSize() != size)
+      return false;
+    Stream[] streams = track.getStreams();
+    if (streams.length == 0)
+      return false;
+    if (accurateFrameCount) {
+      for (Stream stream : TrackSupport.byType(streams, AudioStream.class)) {
+        if (stream.getFrameCount() == null)
+          return false;
+      }
+      for (Stream stream : TrackSupport.byType(streams, VideoStream.class)) {
+        if (stream.getFrameCount() == null)
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Asks the media analyzer to extract the file's metadata. Results are cached by the given key and the file's size, so
+   * a file is only analyzed once as long as it keeps its key.
    *
    * @param file
    *          the file
+   * @param key
+   *          the file's checksum or another key which changes with the file's content
    * @return the file container metadata
    * @throws MediaInspectionException
    *           if metadata extraction fails
    */
-  private MediaContainerMetadata getFileMetadata(File file, boolean accurateFrameCount) throws MediaInspectionException {
+  private MediaContainerMetadata getFileMetadata(File file, String key, boolean accurateFrameCount)
+          throws MediaInspectionException {
     if (file == null)
       throw new IllegalArgumentException("file to analyze cannot be null");
+    String cacheKey = key + "/" + file.length() + "/" + accurateFrameCount;
+    MediaContainerMetadata metadata = metadataCache.getIfPresent(cacheKey);
+    if (metadata != null) {
+      logger.debug("Using cached media metadata for {}", file);
+      return metadata;
+    }
     try {
-      MediaAnalyzer analyzer = new FFmpegAnalyzer(accurateFrameCount);
+      MediaAnalyzer analyzer = new FFmpegAnalyzer(accurateFrameCount, decodeFrames);
       analyzer.setConfig(map(Tuple.<String, Object> tuple(FFmpegAnalyzer.FFPROBE_BINARY_CONFIG, ffprobePath)));
-      return analyzer.analyze(file);
+      metadata = analyzer.analyze(file);
     } catch (MediaAnalyzerException e) {
       throw new MediaInspectionException(e);
     }
+    if (metadata != null)
+      metadataCache.put(cacheKey, metadata);
+    return metadata;
   }
 
   /**
@@ -25,17 +25,22 @@ import static junit.framework.Assert.assertNotNull;
 import static junit.framework.Assert.assertNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.opencastproject.util.MimeType.mimeType;
 import static org.opencastproject.util.data.Option.none;
 import static org.opencastproject.util.data.Option.some;
 import static org.opencastproject.util.data.functions.Misc.chuck;
 
+import org.opencastproject.inspection.api.MediaInspectionException;
 import org.opencastproject.inspection.api.util.Options;
 import org.opencastproject.mediapackage.AudioStream;
 import org.opencastproject.mediapackage.Track;
 import org.opencastproject.mediapackage.TrackSupport;
 import org.opencastproject.mediapackage.VideoStream;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.mediapackage.track.VideoStreamImpl;
 import org.opencastproject.util.Checksum;
 import org.opencastproject.util.ChecksumType;
 import org.opencastproject.util.IoSupport;
@@ -215,4 +220,36 @@ public class MediaInspectionServiceImplTest {
       assertNull(newTrack.getDuration());
     }
   }
+
+  @Test
+  public void testEnrichmentOfUnchangedTrack() throws Exception {
+    final URI trackUri = getResource("/test.mp4");
+    Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(workspace.get(trackUri)).andReturn(new File(trackUri)).anyTimes();
+    EasyMock.replay(workspace);
+    // An unusable ffprobe makes sure the file is not analyzed again
+    MediaInspector mi = new MediaInspector(workspace, "/nonexistent/ffprobe");
+
+    TrackImpl track = new TrackImpl();
+    track.setURI(trackUri);
+    track.setChecksum(Checksum.create(ChecksumType.fromString("md5"), "cc72b7a4f1a68b84fba6f0fb895da395"));
+    track.setMimeType(mimeType("video", "mp4"));
+    track.setDuration(1000L);
+    track.setSize(new File(trackUri).length());
+    VideoStreamImpl video = new VideoStreamImpl("video-1");
+    video.setFrameCount(25L);
+    track.addStream(video);
+
+    assertSame(track, mi.enrich(track, false, Options.NO_OPTION));
+    assertEquals(Long.valueOf(1000L), track.getDuration());
+
+    // A track of a different size does not describe the file
+    track.setSize(track.getSize() + 1);
+    try {
+      mi.enrich(track, false, Options.NO_OPTION);
+      fail("Enriching a changed track did not analyze the file");
+    } catch (MediaInspectionException e) {
+      // expected, as there is no ffprobe to analyze the file with
+    }
+  }
 }
@@ -0,0 +1,86 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.mediaanalysis.api;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.Track;
+
+import java.util.Map;
+
+/**
+ * Runs several analyses of a track in a single decoding pass. The job payload is the list of media package elements
+ * created by the analyses. The flavor subtype of each element is the name of the analysis that created it.
+ */
+public interface MediaAnalysisService {
+
+  /** Job type */
+  String JOB_TYPE = "org.opencastproject.mediaanalysis";
+
+  /** Analysis creating a waveform image attachment, like the waveform service */
+  String WAVEFORM = "waveform";
+
+  /** Analysis creating a timeline previews image attachment, like the timeline previews service */
+  String TIMELINE_PREVIEWS = "timelinepreviews";
+
+  /** Analysis creating a smil catalog with the non silent segments, like the silence detection service */
+  String SILENCE = "silence";
+
+  /** Analysis creating an mpeg-7 segments catalog, like the video segmenter service */
+  String SEGMENTS = "segments";
+
+  /** Width of the waveform image in pixels per minute */
+  String WAVEFORM_PIXELS_PER_MINUTE = "waveform.pixels-per-minute";
+
+  /** Minimum width of the waveform image */
+  String WAVEFORM_MIN_WIDTH = "waveform.min-width";
+
+  /** Maximum width of the waveform image */
+  String WAVEFORM_MAX_WIDTH = "waveform.max-width";
+
+  /** Height of the waveform image */
+  String WAVEFORM_HEIGHT = "waveform.height";
+
+  /** Color of the waveform image */
+  String WAVEFORM_COLOR = "waveform.color";
+
+  /** Number of timeline preview images */
+  String TIMELINE_PREVIEWS_IMAGE_COUNT = "timelinepreviews.image-count";
+
+  /**
+   * Takes the given track and returns the job that will run the requested analyses on it. An analysis is requested by
+   * setting the property with its name to <code>true</code>. Analyses which do not apply to the track, e. g. the
+   * waveform of a track without audio, are skipped.
+   *
+   * @param sourceTrack
+   *          the track to analyze
+   * @param properties
+   *          the requested analyses and their parameters
+   * @return a job that will run the analyses
+   * @throws MediaPackageException
+   *           if the serialization of the given track fails
+   * @throws MediaAnalysisException
+   *           if the job can't be created for any reason
+   */
+  Job analyze(Track sourceTrack, Map<String, String> properties) throws MediaPackageException, MediaAnalysisException;
+
+}
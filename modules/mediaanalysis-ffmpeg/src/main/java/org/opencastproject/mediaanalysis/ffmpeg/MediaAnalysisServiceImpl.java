@@ -0,0 +1,736 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.mediaanalysis.ffmpeg;
+
+import org.opencastproject.job.api.AbstractJobProducer;
+import org.opencastproject.job.api.Job;
+import org.opencastproject.mediaanalysis.api.MediaAnalysisException;
+import org.opencastproject.mediaanalysis.api.MediaAnalysisService;
+import org.opencastproject.mediapackage.Attachment;
+import org.opencastproject.mediapackage.Catalog;
+import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.mediapackage.MediaPackageElementBuilder;
+import org.opencastproject.mediapackage.MediaPackageElementBuilderFactory;
+import org.opencastproject.mediapackage.MediaPackageElementFlavor;
+import org.opencastproject.mediapackage.MediaPackageElementParser;
+import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.MediaPackageReferenceImpl;
+import org.opencastproject.mediapackage.Track;
+import org.opencastproject.mediapackage.identifier.IdBuilderFactory;
+import org.opencastproject.metadata.mpeg7.Mpeg7Catalog;
+import org.opencastproject.metadata.mpeg7.Mpeg7CatalogService;
+import org.opencastproject.security.api.OrganizationDirectoryService;
+import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.security.api.UserDirectoryService;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.serviceregistry.api.ServiceRegistryException;
+import org.opencastproject.silencedetection.api.SilenceDetectionFailedException;
+import org.opencastproject.silencedetection.api.SilenceDetectionService;
+import org.opencastproject.silencedetection.impl.SilenceDetectionServiceImpl;
+import org.opencastproject.smil.entity.api.Smil;
+import org.opencastproject.util.IoSupport;
+import org.opencastproject.util.LoadUtil;
+import org.opencastproject.util.MimeTypes;
+import org.opencastproject.util.NotFoundException;
+import org.opencastproject.videosegmenter.api.VideoSegmenterService;
+import org.opencastproject.videosegmenter.ffmpeg.SceneScores;
+import org.opencastproject.videosegmenter.ffmpeg.VideoSegmenterServiceImpl;
+import org.opencastproject.workspace.api.Workspace;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.osgi.service.cm.ConfigurationException;
+import org.osgi.service.cm.ManagedService;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Media analysis service running the waveform extraction, the timeline previews generation, the silence detection and
+ * the scene change detection of a track within a single FFmpeg process. The decoded streams are split in the filter
+ * graph and fed to all requested analyses, so the track is downloaded and decoded only once.
+ * <p>
+ * The silence detection and the video segmentation are interpreted by the local silence detection and video segmenter
+ * services, which makes sure their results and configuration are the same as if these services ran on their own.
+ */
+public class MediaAnalysisServiceImpl extends AbstractJobProducer implements MediaAnalysisService, ManagedService {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(MediaAnalysisServiceImpl.class);
+
+  /** Resulting collection in the working file repository */
+  public static final String COLLECTION_ID = "mediaanalysis";
+
+  /** The key to look for in the service configuration file to override the DEFAULT_MEDIAANALYSIS_JOB_LOAD */
+  public static final String MEDIAANALYSIS_JOB_LOAD_KEY = "job.load.mediaanalysis";
+
+  /** The default job load of a media analysis job */
+  public static final float DEFAULT_MEDIAANALYSIS_JOB_LOAD = 0.5f;
+
+  /** The key to look for in the service configuration file to override the DEFAULT_FFMPEG_BINARY */
+  public static final String FFMPEG_BINARY_CONFIG_KEY = "org.opencastproject.composer.ffmpeg.path";
+
+  /** The default path to the ffmpeg binary */
+  public static final String DEFAULT_FFMPEG_BINARY = "ffmpeg";
+
+  /** The key to look for in the service configuration file to override the DEFAULT_WAVEFORM_SCALE */
+  public static final String WAVEFORM_SCALE_CONFIG_KEY = "waveform.scale";
+
+  /** The default waveform image scale algorithm */
+  public static final String DEFAULT_WAVEFORM_SCALE = "lin";
+
+  /** The key to look for in the service configuration file to override the DEFAULT_WAVEFORM_SPLIT_CHANNELS */
+  public static final String WAVEFORM_SPLIT_CHANNELS_CONFIG_KEY = "waveform.split.channels";
+
+  /** The default value if the waveforms per audio channel should be rendered next to each other */
+  public static final boolean DEFAULT_WAVEFORM_SPLIT_CHANNELS = false;
+
+  /** The key to look for in the service configuration file to override the DEFAULT_WAVEFORM_COLOR */
+  public static final String WAVEFORM_COLOR_CONFIG_KEY = "waveform.color";
+
+  /** The default colors of the waveform image per audio channel */
+  public static final String DEFAULT_WAVEFORM_COLOR = "black";
+
+  /** The key to look for in the service configuration file to define a filter prepended to the showwavespic filter */
+  public static final String WAVEFORM_FILTER_PRE_CONFIG_KEY = "waveform.filter.pre";
+
+  /** The key to look for in the service configuration file to define a filter appended to the showwavespic filter */
+  public static final String WAVEFORM_FILTER_POST_CONFIG_KEY = "waveform.filter.post";
+
+  /** The default width of the waveform image in pixels per minute */
+  public static final int DEFAULT_WAVEFORM_PIXELS_PER_MINUTE = 200;
+
+  /** The default minimum width of the waveform image */
+  public static final int DEFAULT_WAVEFORM_MIN_WIDTH = 5000;
+
+  /** The default maximum width of the waveform image */
+  public static final int DEFAULT_WAVEFORM_MAX_WIDTH = 20000;
+
+  /** The default height of the waveform image */
+  public static final int DEFAULT_WAVEFORM_HEIGHT = 500;
+
+  /** The key to look for in the service configuration file to override the DEFAULT_TIMELINEPREVIEWS_RESOLUTION_X */
+  public static final String TIMELINEPREVIEWS_RESOLUTION_X_CONFIG_KEY = "timelinepreviews.resolutionX";
+
+  /** The default horizontal resolution of a single timeline preview image */
+  public static final int DEFAULT_TIMELINEPREVIEWS_RESOLUTION_X = 160;
+
+  /** The key to look for in the service configuration file to override the DEFAULT_TIMELINEPREVIEWS_RESOLUTION_Y */
+  public static final String TIMELINEPREVIEWS_RESOLUTION_Y_CONFIG_KEY = "timelinepreviews.resolutionY";
+
+  /** The default vertical resolution of a single timeline preview image, -1 keeps the aspect ratio */
+  public static final int DEFAULT_TIMELINEPREVIEWS_RESOLUTION_Y = -1;
+
+  /** The default number of timeline preview images */
+  public static final int DEFAULT_TIMELINEPREVIEWS_IMAGE_COUNT = 10;
+
+  /** Prefix of the log lines written by the FFmpeg silence detection filter */
+  private static final String SILENCEDETECT_PREFIX = "[silencedetect ";
+
+  /** List of available operations on jobs */
+  enum Operation {
+    Analyze
+  };
+
+  /** Path to the executable */
+  private String binary = DEFAULT_FFMPEG_BINARY;
+
+  /** The media analysis job load */
+  private float mediaAnalysisJobLoad = DEFAULT_MEDIAANALYSIS_JOB_LOAD;
+
+  /** The waveform image scale algorithm */
+  private String waveformScale = DEFAULT_WAVEFORM_SCALE;
+
+  /** Whether the waveforms per audio channel should be rendered next to each other */
+  private boolean waveformSplitChannels = DEFAULT_WAVEFORM_SPLIT_CHANNELS;
+
+  /** The waveform colors per audio channel */
+  private String[] waveformColor = { DEFAULT_WAVEFORM_COLOR };
+
+  /** Filter to be prepended to the showwavespic filter, may be <code>null</code> */
+  private String waveformFilterPre = null;
+
+  /** Filter to be appended to the showwavespic filter, may be <code>null</code> */
+  private String waveformFilterPost = null;
+
+  /** The horizontal resolution of a single timeline preview image */
+  private int timelinePreviewsResolutionX = DEFAULT_TIMELINEPREVIEWS_RESOLUTION_X;
+
+  /** The vertical resolution of a single timeline preview image */
+  private int timelinePreviewsResolutionY = DEFAULT_TIMELINEPREVIEWS_RESOLUTION_Y;
+
+  /** Reference to the service registry */
+  private ServiceRegistry serviceRegistry = null;
+
+  /** The workspace to use when retrieving remote media files */
+  private Workspace workspace = null;
+
+  /** The security service */
+  private SecurityService securityService = null;
+
+  /** The user directory service */
+  private UserDirectoryService userDirectoryService = null;
+
+  /** The organization directory service */
+  private OrganizationDirectoryService organizationDirectoryService = null;
+
+  /** The mpeg-7 service */
+  private Mpeg7CatalogService mpeg7CatalogService = null;
+
+  /** The local video segmenter creating the segments from the scene change scores */
+  private VideoSegmenterServiceImpl videoSegmenter = null;
+
+  /** The local silence detection service creating the smil from the silence detection output */
+  private SilenceDetectionServiceImpl silenceDetection = null;
+
+  public MediaAnalysisServiceImpl() {
+    super(JOB_TYPE);
+  }
+
+  @Override
+  public void activate(ComponentContext cc) {
+    super.activate(cc);
+    logger.info("Activate ffmpeg media analysis service");
+    final String path = cc.getBundleContext().getProperty(FFMPEG_BINARY_CONFIG_KEY);
+    binary = (path == null ? DEFAULT_FFMPEG_BINARY : path);
+    logger.debug("ffmpeg binary set to {}", binary);
+  }
+
+  @Override
+  public void updated(Dictionary<String, ?> properties) throws ConfigurationException {
+    if (properties == null) {
+      return;
+    }
+    logger.debug("Configuring the media analysis service");
+    mediaAnalysisJobLoad = LoadUtil.getConfiguredLoadValue(properties, MEDIAANALYSIS_JOB_LOAD_KEY,
+            DEFAULT_MEDIAANALYSIS_JOB_LOAD, serviceRegistry);
+
+    String scale = StringUtils.trimToNull((String) properties.get(WAVEFORM_SCALE_CONFIG_KEY));
+    if (scale != null && !"lin".equals(scale) && !"log".equals(scale)) {
+      logger.warn("Waveform scale configuration value '{}' is not in set of predefined values (lin, log). "
+              + "The media analysis job may fail.", scale);
+    }
+    waveformScale = scale == null ? DEFAULT_WAVEFORM_SCALE : scale;
+
+    waveformSplitChannels = BooleanUtils.toBooleanDefaultIfNull(
+            BooleanUtils.toBooleanObject((String) properties.get(WAVEFORM_SPLIT_CHANNELS_CONFIG_KEY)),
+            DEFAULT_WAVEFORM_SPLIT_CHANNELS);
+
+    String color = StringUtils.trimToNull((String) properties.get(WAVEFORM_COLOR_CONFIG_KEY));
+    waveformColor = color == null ? new String[] { DEFAULT_WAVEFORM_COLOR } : StringUtils.split(color, ", |:;");
+    waveformFilterPre = StringUtils.trimToNull((String) properties.get(WAVEFORM_FILTER_PRE_CONFIG_KEY));
+    waveformFilterPost = StringUtils.trimToNull((String) properties.get(WAVEFORM_FILTER_POST_CONFIG_KEY));
+
+    timelinePreviewsResolutionX = NumberUtils.toInt(
+            StringUtils.trimToNull((String) properties.get(TIMELINEPREVIEWS_RESOLUTION_X_CONFIG_KEY)),
+            DEFAULT_TIMELINEPREVIEWS_RESOLUTION_X);
+    timelinePreviewsResolutionY = NumberUtils.toInt(
+            StringUtils.trimToNull((String) properties.get(TIMELINEPREVIEWS_RESOLUTION_Y_CONFIG_KEY)),
+            DEFAULT_TIMELINEPREVIEWS_RESOLUTION_Y);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.mediaanalysis.api.MediaAnalysisService#analyze(org.opencastproject.mediapackage.Track,
+   *      java.util.Map)
+   */
+  @Override
+  public Job analyze(Track sourceTrack, Map<String, String> properties)
+          throws MediaPackageException, MediaAnalysisException {
+    if (sourceTrack == null)
+      throw new IllegalArgumentException("Source track cannot be null");
+    try {
+      return serviceRegistry.createJob(JOB_TYPE, Operation.Analyze.toString(),
+              Arrays.asList(MediaPackageElementParser.getAsXml(sourceTrack), getPropertiesAsString(properties)),
+              mediaAnalysisJobLoad);
+    } catch (ServiceRegistryException e) {
+      throw new MediaAnalysisException("Unable to create media analysis job", e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.job.api.AbstractJobProducer#process(org.opencastproject.job.api.Job)
+   */
+  @Override
+  protected String process(Job job) throws Exception {
+    Operation op = null;
+    String operation = job.getOperation();
+    List<String> arguments = job.getArguments();
+    try {
+      op = Operation.valueOf(operation);
+      switch (op) {
+        case Analyze:
+          Track track = (Track) MediaPackageElementParser.getFromXml(arguments.get(0));
+          Map<String, String> properties = parseProperties(arguments.get(1));
+          List<MediaPackageElement> elements = analyze(job, track, properties);
+          return MediaPackageElementParser.getArrayAsXml(elements);
+        default:
+          throw new ServiceRegistryException("This service can't handle operations of type '" + op + "'");
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new ServiceRegistryException("This argument list for operation '" + op + "' does not meet expectations", e);
+    } catch (MediaPackageException | MediaAnalysisException e) {
+      throw new ServiceRegistryException("Error handling operation '" + op + "'", e);
+    }
+  }
+
+  /**
+   * Runs the requested analyses on the given track.
+   *
+   * @param job
+   *          the media analysis job
+   * @param track
+   *          the track to analyze
+   * @param properties
+   *          the requested analyses and their parameters
+   * @return the elements created by the analyses
+   * @throws MediaAnalysisException
+   *           if the analysis fails
+   */
+  protected List<MediaPackageElement> analyze(Job job, Track track, Map<String, String> properties)
+          throws MediaAnalysisException {
+    Analyses analyses = new Analyses(track, properties);
+    if (analyses.isEmpty()) {
+      logger.info("No analysis applies to track {}", track.getIdentifier());
+      return new ArrayList<>();
+    }
+    if (track.getDuration() == null || track.getDuration() <= 0)
+      throw new MediaAnalysisException("Track " + track.getIdentifier() + " does not have a duration");
+
+    File mediaFile;
+    try {
+      mediaFile = workspace.get(track.getURI());
+    } catch (NotFoundException e) {
+      throw new MediaAnalysisException("Error finding the media file in the workspace", e);
+    } catch (IOException e) {
+      throw new MediaAnalysisException("Error reading the media file in the workspace", e);
+    }
+
+    String basePath = FilenameUtils.removeExtension(mediaFile.getAbsolutePath()) + '_' + UUID.randomUUID();
+    File waveformFile = new File(basePath + "-waveform.png");
+    File timelinePreviewsFile = new File(basePath + "-timelinepreviews.png");
+    String silenceFilter = null;
+    if (analyses.silence) {
+      try {
+        silenceFilter = silenceDetection.getSilenceDetectionFilter();
+      } catch (SilenceDetectionFailedException e) {
+        throw new MediaAnalysisException("Invalid silence detection configuration", e);
+      }
+    }
+
+    List<String> command = createCommand(mediaFile, track, analyses, properties, silenceFilter,
+            waveformFile, timelinePreviewsFile);
+    logger.info("Analyzing track {} ({}) using command: {}", track.getIdentifier(), analyses,
+            StringUtils.join(command, " "));
+
+    List<String> silenceOutput = new LinkedList<>();
+    SceneScores sceneScores = new SceneScores();
+    try {
+      run(command, silenceOutput, sceneScores);
+
+      List<MediaPackageElement> elements = new ArrayList<>();
+      if (analyses.waveform)
+        elements.add(createAttachment(track, waveformFile, WAVEFORM));
+      if (analyses.timelinePreviews) {
+        Attachment timelinePreviews = createAttachment(track, timelinePreviewsFile, TIMELINE_PREVIEWS);
+        int imageCount = getImageCount(properties);
+        int tiles = (int) Math.ceil(Math.sqrt(imageCount));
+        timelinePreviews.setMimeType(MimeTypes.PNG);
+        timelinePreviews.referTo(track);
+        timelinePreviews.getProperties().put("imageSizeX", String.valueOf(tiles));
+        timelinePreviews.getProperties().put("imageSizeY", String.valueOf(tiles));
+        timelinePreviews.getProperties().put("resolutionX", String.valueOf(timelinePreviewsResolutionX));
+        timelinePreviews.getProperties().put("resolutionY", String.valueOf(timelinePreviewsResolutionY));
+        timelinePreviews.getProperties().put("imageCount", String.valueOf(imageCount));
+        elements.add(timelinePreviews);
+      }
+      if (analyses.silence) {
+        Smil smil = silenceDetection.generateSmil(track, silenceOutput);
+        Catalog catalog = createCatalog(track, IOUtils.toInputStream(smil.toXML(), "UTF-8"),
+                job.getId() + "-silence.smil", SILENCE);
+        catalog.setIdentifier(smil.getId());
+        elements.add(catalog);
+      }
+      if (analyses.segments) {
+        Mpeg7Catalog mpeg7 = videoSegmenter.segment(track, sceneScores);
+        Catalog catalog = createCatalog(track, mpeg7CatalogService.serialize(mpeg7), job.getId() + "-segments.xml",
+                SEGMENTS);
+        elements.add(catalog);
+      }
+      logger.info("Finished media analysis of track {}", track.getIdentifier());
+      return elements;
+    } catch (MediaAnalysisException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new MediaAnalysisException("Media analysis of track " + track.getIdentifier() + " failed", e);
+    } finally {
+      FileUtils.deleteQuietly(waveformFile);
+      FileUtils.deleteQuietly(timelinePreviewsFile);
+    }
+  }
+
+  /**
+   * Creates the FFmpeg command decoding the track once and running all requested analyses.
+   *
+   * @param mediaFile
+   *          the media file of the track
+   * @param track
+   *          the track to analyze
+   * @param analyses
+   *          the analyses to run
+   * @param properties
+   *          the parameters of the analyses
+   * @param silenceFilter
+   *          the silence detection filter, if silence detection is requested
+   * @param waveformFile
+   *          the file to write the waveform image to
+   * @param timelinePreviewsFile
+   *          the file to write the timeline previews image to
+   * @return the command
+   */
+  List<String> createCommand(File mediaFile, Track track, Analyses analyses, Map<String, String> properties,
+          String silenceFilter, File waveformFile, File timelinePreviewsFile) {
+    StringBuilder graph = new StringBuilder();
+    List<String> outputs = new ArrayList<>();
+
+    // Audio analyses
+    String waveformInput = "[0:a:0]";
+    String silenceInput = "[0:a:0]";
+    if (analyses.waveform && analyses.silence) {
+      graph.append("[0:a:0]asplit=2[waveformin][silencein];");
+      waveformInput = "[waveformin]";
+      silenceInput = "[silencein]";
+    }
+    if (analyses.waveform) {
+      graph.append(waveformInput).append(createWaveformFilter(track, properties)).append("[waveform];");
+      outputs.addAll(Arrays.asList("-map", "[waveform]", "-frames:v", "1", waveformFile.getAbsolutePath()));
+    }
+    if (analyses.silence) {
+      graph.append(silenceInput).append(silenceFilter).append("[silence];");
+      outputs.addAll(Arrays.asList("-map", "[silence]", "-f", "null", "-"));
+    }
+
+    // Video analyses
+    String timelinePreviewsInput = "[0:v:0]";
+    String scenesInput = "[0:v:0]";
+    if (analyses.timelinePreviews && analyses.segments) {
+      graph.append("[0:v:0]split=2[timelinepreviewsin][scenesin];");
+      timelinePreviewsInput = "[timelinepreviewsin]";
+      scenesInput = "[scenesin]";
+    }
+    if (analyses.timelinePreviews) {
+      graph.append(timelinePreviewsInput).append(createTimelinePreviewsFilter(track, properties))
+              .append("[timelinepreviews];");
+      outputs.addAll(Arrays.asList("-map", "[timelinepreviews]", "-frames:v", "1",
+              timelinePreviewsFile.getAbsolutePath()));
+    }
+    if (analyses.segments) {
+      graph.append(scenesInput).append(SceneScores.getFilter()).append("[scenes];");
+      outputs.addAll(Arrays.asList("-map", "[scenes]", "-f", "null", "-"));
+    }
+    graph.setLength(graph.length() - 1);
+
+    List<String> command = new ArrayList<>(Arrays.asList(binary, "-nostats", "-nostdin", "-hide_banner", "-y",
+            "-i", mediaFile.getAbsolutePath(), "-filter_complex", graph.toString()));
+    command.addAll(outputs);
+    return command;
+  }
+
+  /**
+   * Creates the showwavespic filter for the waveform image, surrounded by the configured pre and post filters like the
+   * waveform service does.
+   */
+  private String createWaveformFilter(Track track, Map<String, String> properties) {
+    int pixelsPerMinute = getInt(properties, WAVEFORM_PIXELS_PER_MINUTE, DEFAULT_WAVEFORM_PIXELS_PER_MINUTE);
+    int minWidth = getInt(properties, WAVEFORM_MIN_WIDTH, DEFAULT_WAVEFORM_MIN_WIDTH);
+    int maxWidth = getInt(properties, WAVEFORM_MAX_WIDTH, DEFAULT_WAVEFORM_MAX_WIDTH);
+    int height = getInt(properties, WAVEFORM_HEIGHT, DEFAULT_WAVEFORM_HEIGHT);
+    // Colors set by the operation override the configured ones
+    String color = StringUtils.join(waveformColor, "|");
+    if (StringUtils.isNotBlank(properties.get(WAVEFORM_COLOR)))
+      color = StringUtils.join(StringUtils.split(properties.get(WAVEFORM_COLOR), "|"), "|");
+
+    int width = minWidth;
+    int trackDurationMinutes = (int) TimeUnit.MILLISECONDS.toMinutes(track.getDuration());
+    if (pixelsPerMinute > 0 && trackDurationMinutes > 0) {
+      width = Math.min(maxWidth, Math.max(minWidth, trackDurationMinutes * pixelsPerMinute));
+    }
+    StringBuilder filter = new StringBuilder();
+    if (waveformFilterPre != null)
+      filter.append(waveformFilterPre).append(',');
+    filter.append("showwavespic=split_channels=").append(waveformSplitChannels ? 1 : 0).append(":s=").append(width)
+            .append('x').append(height).append(":scale=").append(waveformScale).append(":colors=").append(color);
+    if (waveformFilterPost != null)
+      filter.append(',').append(waveformFilterPost);
+    return filter.toString();
+  }
+
+  /**
+   * Creates the filter tiling the timeline preview images into a single image.
+   */
+  private String createTimelinePreviewsFilter(Track track, Map<String, String> properties) {
+    int imageCount = getImageCount(properties);
+    double duration = track.getDuration() / 1000.0;
+    double seconds = duration / imageCount;
+    seconds = seconds <= 0.0 ? 1.0 : seconds;
+    int tiles = (int) Math.ceil(Math.sqrt(imageCount));
+    return "trim=end=" + (duration - seconds / 2.0) + ",fps=1/" + seconds + ",scale=" + timelinePreviewsResolutionX
+            + ":" + timelinePreviewsResolutionY + ",tile=" + tiles + "x" + tiles;
+  }
+
+  /**
+   * Runs the FFmpeg process and collects the output of the silence and scene change detection.
+   */
+  private void run(List<String> command, List<String> silenceOutput, SceneScores sceneScores)
+          throws MediaAnalysisException {
+    ProcessBuilder pb = new ProcessBuilder(command);
+    pb.redirectErrorStream(true);
+    Process process = null;
+    BufferedReader reader = null;
+    int exitCode = 1;
+    try {
+      process = pb.start();
+      reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
+      String line = reader.readLine();
+      while (line != null) {
+        if (line.startsWith(SILENCEDETECT_PREFIX)) {
+          silenceOutput.add(line);
+        } else {
+          sceneScores.parse(line);
+        }
+        line = reader.readLine();
+      }
+      exitCode = process.waitFor();
+    } catch (IOException e) {
+      throw new MediaAnalysisException("Start ffmpeg process failed", e);
+    } catch (InterruptedException e) {
+      throw new MediaAnalysisException("Waiting for ffmpeg process exited was interrupted unexpectedly", e);
+    } catch (NumberFormatException e) {
+      throw new MediaAnalysisException("Unable to parse FFmpeg output, likely FFmpeg version mismatch", e);
+    } finally {
+      IoSupport.closeQuietly(process);
+      IoSupport.closeQuietly(reader);
+    }
+    if (exitCode != 0)
+      throw new MediaAnalysisException(String.format("The ffmpeg process exited abnormally with exit code %s "
+              + "using command\n%s", exitCode, StringUtils.join(command, " ")));
+  }
+
+  /**
+   * Puts the given image into the workspace and creates its attachment.
+   */
+  private Attachment createAttachment(Track track, File file, String analysis) throws IOException {
+    URI uri;
+    try (InputStream in = new FileInputStream(file)) {
+      uri = workspace.putInCollection(COLLECTION_ID, file.getName(), in);
+    }
+    MediaPackageElementBuilder builder = MediaPackageElementBuilderFactory.newInstance().newElementBuilder();
+    Attachment attachment = (Attachment) builder.elementFromURI(uri, MediaPackageElement.Type.Attachment,
+            getFlavor(track, analysis));
+    attachment.setIdentifier(IdBuilderFactory.newInstance().newIdBuilder().createNew().compact());
+    return attachment;
+  }
+
+  /**
+   * Puts the given catalog into the workspace and creates its element.
+   */
+  private Catalog createCatalog(Track track, InputStream in, String fileName, String analysis) throws IOException {
+    URI uri;
+    try {
+      uri = workspace.putInCollection(COLLECTION_ID, fileName, in);
+    } finally {
+      IoSupport.closeQuietly(in);
+    }
+    MediaPackageElementBuilder builder = MediaPackageElementBuilderFactory.newInstance().newElementBuilder();
+    Catalog catalog = (Catalog) builder.elementFromURI(uri, MediaPackageElement.Type.Catalog,
+            getFlavor(track, analysis));
+    catalog.setIdentifier(IdBuilderFactory.newInstance().newIdBuilder().createNew().compact());
+    catalog.setReference(new MediaPackageReferenceImpl(track));
+    return catalog;
+  }
+
+  /**
+   * The flavor of an element tells which analysis created it.
+   */
+  private static MediaPackageElementFlavor getFlavor(Track track, String analysis) {
+    String type = track.getFlavor() != null ? track.getFlavor().getType() : "*";
+    return new MediaPackageElementFlavor(type, analysis);
+  }
+
+  private static int getImageCount(Map<String, String> properties) {
+    return Math.max(1, getInt(properties, TIMELINE_PREVIEWS_IMAGE_COUNT, DEFAULT_TIMELINEPREVIEWS_IMAGE_COUNT));
+  }
+
+  private static int getInt(Map<String, String> properties, String key, int defaultValue) {
+    return NumberUtils.toInt(StringUtils.trimToNull(properties.get(key)), defaultValue);
+  }
+
+  private static Map<String, String> parseProperties(String serializedProperties) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream in = IOUtils.toInputStream(serializedProperties, "UTF-8")) {
+      properties.load(in);
+      Map<String, String> map = new HashMap<>();
+      for (Entry<Object, Object> e : properties.entrySet()) {
+        map.put((String) e.getKey(), (String) e.getValue());
+      }
+      return map;
+    }
+  }
+
+  private static String getPropertiesAsString(Map<String, String> props) {
+    StringBuilder sb = new StringBuilder();
+    if (props != null) {
+      for (Entry<String, String> entry : props.entrySet()) {
+        sb.append(entry.getKey());
+        sb.append("=");
+        sb.append(entry.getValue());
+        sb.append("\n");
+      }
+    }
+    return sb.toString();
+  }
+
+  /** The analyses requested for and applicable to a track */
+  static final class Analyses {
+
+    private final boolean waveform;
+    private final boolean timelinePreviews;
+    private final boolean silence;
+    private final boolean segments;
+
+    Analyses(Track track, Map<String, String> properties) {
+      waveform = track.hasAudio() && BooleanUtils.toBoolean(properties.get(WAVEFORM));
+      silence = track.hasAudio() && BooleanUtils.toBoolean(properties.get(SILENCE));
+      timelinePreviews = track.hasVideo() && BooleanUtils.toBoolean(properties.get(TIMELINE_PREVIEWS));
+      segments = track.hasVideo() && BooleanUtils.toBoolean(properties.get(SEGMENTS));
+    }
+
+    boolean isEmpty() {
+      return !waveform && !timelinePreviews && !silence && !segments;
+    }
+
+    @Override
+    public String toString() {
+      List<String> names = new ArrayList<>();
+      if (waveform)
+        names.add(WAVEFORM);
+      if (timelinePreviews)
+        names.add(TIMELINE_PREVIEWS);
+      if (silence)
+        names.add(SILENCE);
+      if (segments)
+        names.add(SEGMENTS);
+      return StringUtils.join(names, ", ");
+    }
+
+  }
+
+  @Override
+  protected ServiceRegistry getServiceRegistry() {
+    return serviceRegistry;
+  }
+
+  @Override
+  protected SecurityService getSecurityService() {
+    return securityService;
+  }
+
+  @Override
+  protected UserDirectoryService getUserDirectoryService() {
+    return userDirectoryService;
+  }
+
+  @Override
+  protected OrganizationDirectoryService getOrganizationDirectoryService() {
+    return organizationDirectoryService;
+  }
+
+  public void setServiceRegistry(ServiceRegistry serviceRegistry) {
+    this.serviceRegistry = serviceRegistry;
+  }
+
+  public void setSecurityService(SecurityService securityService) {
+    this.securityService = securityService;
+  }
+
+  public void setUserDirectoryService(UserDirectoryService userDirectoryService) {
+    this.userDirectoryService = userDirectoryService;
+  }
+
+  public void setOrganizationDirectoryService(OrganizationDirectoryService organizationDirectoryService) {
+    this.organizationDirectoryService = organizationDirectoryService;
+  }
+
+  public void setWorkspace(Workspace workspace) {
+    this.workspace = workspace;
+  }
+
+  public void setMpeg7CatalogService(Mpeg7CatalogService mpeg7CatalogService) {
+    this.mpeg7CatalogService = mpeg7CatalogService;
+  }
+
+  /**
+   * Sets the video segmenter. The component configuration makes sure this is the local implementation.
+   *
+   * @param videoSegmenter
+   *          the local video segmenter
+   */
+  public void setVideoSegmenter(VideoSegmenterService videoSegmenter) {
+    this.videoSegmenter = (VideoSegmenterServiceImpl) videoSegmenter;
+  }
+
+  /**
+   * Sets the silence detection service. The component configuration makes sure this is the local implementation.
+   *
+   * @param silenceDetection
+   *          the local silence detection service
+   */
+  public void setSilenceDetection(SilenceDetectionService silenceDetection) {
+    this.silenceDetection = (SilenceDetectionServiceImpl) silenceDetection;
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.mediaanalysis.ffmpeg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobImpl;
+import org.opencastproject.mediaanalysis.api.MediaAnalysisService;
+import org.opencastproject.mediapackage.MediaPackageElementParser;
+import org.opencastproject.mediapackage.Track;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.videosegmenter.ffmpeg.SceneScores;
+
+import org.apache.commons.io.IOUtils;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test class for MediaAnalysisServiceImpl.
+ */
+public class MediaAnalysisServiceImplTest {
+
+  private static final String SILENCE_FILTER = "silencedetect=noise=-40dB:d=5.0";
+
+  private Track avTrack = null;
+  private Track audioTrack = null;
+  private MediaAnalysisServiceImpl instance = null;
+
+  @Before
+  public void setUp() throws Exception {
+    avTrack = readTrackFromResource("/av-track.xml");
+    audioTrack = readTrackFromResource("/audio-track.xml");
+    instance = new MediaAnalysisServiceImpl();
+  }
+
+  private static Track readTrackFromResource(String resourceName) throws Exception {
+    String xml = IOUtils.toString(MediaAnalysisServiceImplTest.class.getResource(resourceName), "UTF-8");
+    return (Track) MediaPackageElementParser.getFromXml(xml);
+  }
+
+  private static Map<String, String> analyses(String... names) {
+    Map<String, String> properties = new HashMap<>();
+    for (String name : names) {
+      properties.put(name, "true");
+    }
+    return properties;
+  }
+
+  private List<String> createCommand(Track track, Map<String, String> properties) {
+    return instance.createCommand(new File("/tmp/media.mp4"), track,
+            new MediaAnalysisServiceImpl.Analyses(track, properties), properties, SILENCE_FILTER,
+            new File("/tmp/waveform.png"), new File("/tmp/timeline.png"));
+  }
+
+  private static String getFilterGraph(List<String> command) {
+    return command.get(command.indexOf("-filter_complex") + 1);
+  }
+
+  @Test
+  public void testAnalyze() throws Exception {
+    Job expectedJob = new JobImpl(1);
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.createJob(EasyMock.eq(MediaAnalysisService.JOB_TYPE),
+            EasyMock.eq(MediaAnalysisServiceImpl.Operation.Analyze.toString()),
+            (List<String>) EasyMock.anyObject(), EasyMock.anyFloat())).andReturn(expectedJob);
+    EasyMock.replay(serviceRegistry);
+
+    instance.setServiceRegistry(serviceRegistry);
+    assertEquals(expectedJob, instance.analyze(avTrack, analyses(MediaAnalysisService.WAVEFORM)));
+  }
+
+  @Test
+  public void testAllAnalysesShareOneDecode() throws Exception {
+    List<String> command = createCommand(avTrack, analyses(MediaAnalysisService.WAVEFORM,
+            MediaAnalysisService.TIMELINE_PREVIEWS, MediaAnalysisService.SILENCE, MediaAnalysisService.SEGMENTS));
+
+    // A single input which is split between the analyses
+    assertEquals(1, command.stream().filter("-i"::equals).count());
+    String graph = getFilterGraph(command);
+    assertTrue(graph.contains("[0:a:0]asplit=2[waveformin][silencein]"));
+    assertTrue(graph.contains("[0:v:0]split=2[timelinepreviewsin][scenesin]"));
+    assertTrue(graph.contains("[waveformin]showwavespic=split_channels=0:s=5000x500:scale=lin:colors=black[waveform]"));
+    assertTrue(graph.contains("[silencein]" + SILENCE_FILTER + "[silence]"));
+    assertTrue(graph.contains("[timelinepreviewsin]trim=end=114.0,fps=1/12.0,scale=160:-1,tile=4x4[timelinepreviews]"));
+    assertTrue(graph.contains("[scenesin]" + SceneScores.getFilter() + "[scenes]"));
+    assertFalse(graph.endsWith(";"));
+
+    assertEquals(4, command.stream().filter("-map"::equals).count());
+    assertTrue(command.contains("/tmp/waveform.png"));
+    assertTrue(command.contains("/tmp/timeline.png"));
+  }
+
+  @Test
+  public void testSingleAnalysisDoesNotSplit() throws Exception {
+    Map<String, String> properties = analyses(MediaAnalysisService.WAVEFORM);
+    properties.put(MediaAnalysisService.WAVEFORM_PIXELS_PER_MINUTE, "3000");
+    properties.put(MediaAnalysisService.WAVEFORM_COLOR, "blue");
+    String graph = getFilterGraph(createCommand(avTrack, properties));
+    assertEquals("[0:a:0]showwavespic=split_channels=0:s=6000x500:scale=lin:colors=blue[waveform]", graph);
+  }
+
+  @Test
+  public void testWaveformFilterConfiguration() throws Exception {
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.replay(serviceRegistry);
+    instance.setServiceRegistry(serviceRegistry);
+
+    Hashtable<String, String> config = new Hashtable<>();
+    config.put(MediaAnalysisServiceImpl.WAVEFORM_COLOR_CONFIG_KEY, "black yellow");
+    config.put(MediaAnalysisServiceImpl.WAVEFORM_FILTER_PRE_CONFIG_KEY, "compand=gain=-6");
+    config.put(MediaAnalysisServiceImpl.WAVEFORM_FILTER_POST_CONFIG_KEY, "negate");
+    instance.updated(config);
+
+    Map<String, String> properties = analyses(MediaAnalysisService.WAVEFORM);
+    assertEquals("[0:a:0]compand=gain=-6,showwavespic=split_channels=0:s=5000x500:scale=lin:colors=black|yellow,"
+            + "negate[waveform]", getFilterGraph(createCommand(avTrack, properties)));
+
+    // Colors of the operation take precedence over the configured ones
+    properties.put(MediaAnalysisService.WAVEFORM_COLOR, "blue|red");
+    assertEquals("[0:a:0]compand=gain=-6,showwavespic=split_channels=0:s=5000x500:scale=lin:colors=blue|red,"
+            + "negate[waveform]", getFilterGraph(createCommand(avTrack, properties)));
+  }
+
+  @Test
+  public void testVideoAnalysesAreSkippedForAudioOnlyTracks() throws Exception {
+    MediaAnalysisServiceImpl.Analyses analyses = new MediaAnalysisServiceImpl.Analyses(audioTrack,
+            analyses(MediaAnalysisService.TIMELINE_PREVIEWS, MediaAnalysisService.SEGMENTS));
+    assertTrue(analyses.isEmpty());
+
+    String graph = getFilterGraph(createCommand(audioTrack,
+            analyses(MediaAnalysisService.SILENCE, MediaAnalysisService.SEGMENTS)));
+    assertEquals("[0:a:0]" + SILENCE_FILTER + "[silence]", graph);
+  }
+
+}
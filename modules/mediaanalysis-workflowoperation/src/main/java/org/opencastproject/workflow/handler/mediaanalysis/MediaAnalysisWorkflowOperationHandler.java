@@ -0,0 +1,279 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workflow.handler.mediaanalysis;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobContext;
+import org.opencastproject.mediaanalysis.api.MediaAnalysisException;
+import org.opencastproject.mediaanalysis.api.MediaAnalysisService;
+import org.opencastproject.mediapackage.Catalog;
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.mediapackage.MediaPackageElementFlavor;
+import org.opencastproject.mediapackage.MediaPackageElementParser;
+import org.opencastproject.mediapackage.MediaPackageException;
+import org.opencastproject.mediapackage.Track;
+import org.opencastproject.mediapackage.selector.TrackSelector;
+import org.opencastproject.util.NotFoundException;
+import org.opencastproject.workflow.api.AbstractWorkflowOperationHandler;
+import org.opencastproject.workflow.api.WorkflowInstance;
+import org.opencastproject.workflow.api.WorkflowOperationException;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.api.WorkflowOperationResult;
+import org.opencastproject.workspace.api.Workspace;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workflow operation for the media analysis service, running the waveform extraction, the timeline previews
+ * generation, the silence detection and the video segmentation of a track while decoding it only once.
+ */
+public class MediaAnalysisWorkflowOperationHandler extends AbstractWorkflowOperationHandler {
+  private static final Logger logger = LoggerFactory.getLogger(MediaAnalysisWorkflowOperationHandler.class);
+
+  /** Source flavor configuration property name. */
+  private static final String SOURCE_FLAVOR_PROPERTY = "source-flavor";
+
+  /** Source tags configuration property name. */
+  private static final String SOURCE_TAGS_PROPERTY = "source-tags";
+
+  /** Waveform target flavor configuration property name. */
+  private static final String WAVEFORM_TARGET_FLAVOR_PROPERTY = "waveform-target-flavor";
+
+  /** Timeline previews target flavor configuration property name. */
+  private static final String TIMELINE_PREVIEWS_TARGET_FLAVOR_PROPERTY = "timelinepreviews-target-flavor";
+
+  /** Silence detection target flavor configuration property name. */
+  private static final String SILENCE_TARGET_FLAVOR_PROPERTY = "silence-target-flavor";
+
+  /** Segments target flavor configuration property name. */
+  private static final String SEGMENTS_TARGET_FLAVOR_PROPERTY = "segments-target-flavor";
+
+  /** Target tags configuration property name. */
+  private static final String TARGET_TAGS_PROPERTY = "target-tags";
+
+  /** Analysis parameters which are passed on to the media analysis service, by configuration property name. */
+  private static final Map<String, String> PARAMETER_PROPERTIES = new LinkedHashMap<>();
+
+  /** File names of the analysis results in the media package, by analysis. */
+  private static final Map<String, String> FILE_NAMES = new HashMap<>();
+
+  static {
+    PARAMETER_PROPERTIES.put("pixels-per-minute", MediaAnalysisService.WAVEFORM_PIXELS_PER_MINUTE);
+    PARAMETER_PROPERTIES.put("min-width", MediaAnalysisService.WAVEFORM_MIN_WIDTH);
+    PARAMETER_PROPERTIES.put("max-width", MediaAnalysisService.WAVEFORM_MAX_WIDTH);
+    PARAMETER_PROPERTIES.put("height", MediaAnalysisService.WAVEFORM_HEIGHT);
+    PARAMETER_PROPERTIES.put("color", MediaAnalysisService.WAVEFORM_COLOR);
+    PARAMETER_PROPERTIES.put("image-count", MediaAnalysisService.TIMELINE_PREVIEWS_IMAGE_COUNT);
+
+    FILE_NAMES.put(MediaAnalysisService.WAVEFORM, "waveform.png");
+    FILE_NAMES.put(MediaAnalysisService.SILENCE, "smil.smil");
+    FILE_NAMES.put(MediaAnalysisService.SEGMENTS, "segments.xml");
+  }
+
+  /** The media analysis service. */
+  private MediaAnalysisService mediaAnalysisService = null;
+
+  /** The workspace service. */
+  private Workspace workspace = null;
+
+  @Override
+  public void activate(ComponentContext cc) {
+    super.activate(cc);
+    logger.info("Registering media analysis workflow operation handler");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see
+   * org.opencastproject.workflow.api.WorkflowOperationHandler#start(org.opencastproject.workflow.api.WorkflowInstance,
+   * org.opencastproject.job.api.JobContext)
+   */
+  @Override
+  public WorkflowOperationResult start(WorkflowInstance workflowInstance, JobContext context)
+          throws WorkflowOperationException {
+
+    MediaPackage mediaPackage = workflowInstance.getMediaPackage();
+    WorkflowOperationInstance operation = workflowInstance.getCurrentOperation();
+    logger.info("Start media analysis workflow operation for mediapackage {}", mediaPackage);
+
+    String sourceFlavorProperty = StringUtils.trimToNull(operation.getConfiguration(SOURCE_FLAVOR_PROPERTY));
+    String sourceTagsProperty = StringUtils.trimToNull(operation.getConfiguration(SOURCE_TAGS_PROPERTY));
+    if (StringUtils.isEmpty(sourceFlavorProperty) && StringUtils.isEmpty(sourceTagsProperty)) {
+      throw new WorkflowOperationException(
+              String.format("Required property %s or %s not set", SOURCE_FLAVOR_PROPERTY, SOURCE_TAGS_PROPERTY));
+    }
+
+    // Every configured target flavor enables the respective analysis
+    Map<String, String> targetFlavors = new HashMap<>();
+    putIfConfigured(targetFlavors, MediaAnalysisService.WAVEFORM, operation, WAVEFORM_TARGET_FLAVOR_PROPERTY);
+    putIfConfigured(targetFlavors, MediaAnalysisService.TIMELINE_PREVIEWS, operation,
+            TIMELINE_PREVIEWS_TARGET_FLAVOR_PROPERTY);
+    putIfConfigured(targetFlavors, MediaAnalysisService.SILENCE, operation, SILENCE_TARGET_FLAVOR_PROPERTY);
+    putIfConfigured(targetFlavors, MediaAnalysisService.SEGMENTS, operation, SEGMENTS_TARGET_FLAVOR_PROPERTY);
+    if (targetFlavors.isEmpty()) {
+      throw new WorkflowOperationException(String.format("At least one of the properties %s, %s, %s or %s must be set",
+              WAVEFORM_TARGET_FLAVOR_PROPERTY, TIMELINE_PREVIEWS_TARGET_FLAVOR_PROPERTY, SILENCE_TARGET_FLAVOR_PROPERTY,
+              SEGMENTS_TARGET_FLAVOR_PROPERTY));
+    }
+
+    String targetTagsProperty = StringUtils.trimToNull(operation.getConfiguration(TARGET_TAGS_PROPERTY));
+
+    Map<String, String> properties = new HashMap<>();
+    for (String analysis : targetFlavors.keySet()) {
+      properties.put(analysis, Boolean.TRUE.toString());
+    }
+    for (Map.Entry<String, String> parameter : PARAMETER_PROPERTIES.entrySet()) {
+      String value = StringUtils.trimToNull(operation.getConfiguration(parameter.getKey()));
+      if (value != null)
+        properties.put(parameter.getValue(), value);
+    }
+
+    try {
+      TrackSelector trackSelector = new TrackSelector();
+      for (String flavor : asList(sourceFlavorProperty)) {
+        trackSelector.addFlavor(flavor);
+      }
+      for (String tag : asList(sourceTagsProperty)) {
+        trackSelector.addTag(tag);
+      }
+      Collection<Track> sourceTracks = trackSelector.select(mediaPackage, false);
+      if (sourceTracks.isEmpty()) {
+        logger.info("No tracks found in mediapackage {} with specified {} = {}", mediaPackage, SOURCE_FLAVOR_PROPERTY,
+                sourceFlavorProperty);
+        return createResult(mediaPackage, WorkflowOperationResult.Action.SKIP);
+      }
+
+      Map<Job, Track> analysisJobs = new LinkedHashMap<>();
+      for (Track sourceTrack : sourceTracks) {
+        try {
+          logger.info("Creating media analysis job for track '{}' in mediapackage '{}'", sourceTrack.getIdentifier(),
+                  mediaPackage);
+          analysisJobs.put(mediaAnalysisService.analyze(sourceTrack, properties), sourceTrack);
+        } catch (MediaPackageException | MediaAnalysisException e) {
+          throw new WorkflowOperationException(String.format(
+                  "Creating media analysis job for track '%s' in media package '%s' failed",
+                  sourceTrack.getIdentifier(), mediaPackage), e);
+        }
+      }
+
+      logger.debug("Waiting for media analysis jobs for media package {}", mediaPackage);
+      if (!waitForStatus(analysisJobs.keySet().toArray(new Job[analysisJobs.size()])).isSuccess()) {
+        throw new WorkflowOperationException(String.format(
+                "Media analysis jobs for media package '%s' have not completed successfully",
+                mediaPackage.getIdentifier()));
+      }
+
+      // move the analysis results into the media package
+      for (Map.Entry<Job, Track> analysisJob : analysisJobs.entrySet()) {
+        Job job = analysisJob.getKey();
+        Track sourceTrack = analysisJob.getValue();
+        String jobPayload = job.getPayload();
+        if (StringUtils.isEmpty(jobPayload)) {
+          continue;
+        }
+        List<? extends MediaPackageElement> elements;
+        try {
+          elements = MediaPackageElementParser.getArrayFromXml(jobPayload);
+        } catch (MediaPackageException ex) {
+          // unexpected job payload
+          throw new WorkflowOperationException("Can't parse media analysis results from job " + job.getId());
+        }
+        for (MediaPackageElement element : elements) {
+          String analysis = element.getFlavor().getSubtype();
+          if (!targetFlavors.containsKey(analysis)) {
+            logger.warn("Ignoring unexpected media analysis result {} of job {}", element, job.getId());
+            continue;
+          }
+          String fileName = FILE_NAMES.get(analysis);
+          if (fileName == null)
+            fileName = FilenameUtils.getName(element.getURI().getPath());
+          try {
+            URI newURI = workspace.moveTo(element.getURI(), mediaPackage.getIdentifier().toString(),
+                    element.getIdentifier(), fileName);
+            element.setURI(newURI);
+          } catch (NotFoundException ex) {
+            throw new WorkflowOperationException("Media analysis result '" + element.getURI() + "' not found", ex);
+          } catch (IOException ex) {
+            throw new WorkflowOperationException("Can't move media analysis result '" + element.getURI()
+                    + "' in the workspace", ex);
+          }
+
+          // set the target flavor and add the element to the media package
+          MediaPackageElementFlavor targetFlavor = MediaPackageElementFlavor.parseFlavor(targetFlavors.get(analysis));
+          if ("*".equals(targetFlavor.getType())) {
+            targetFlavor = new MediaPackageElementFlavor(element.getFlavor().getType(), targetFlavor.getSubtype());
+          }
+          if ("*".equals(targetFlavor.getSubtype())) {
+            targetFlavor = new MediaPackageElementFlavor(targetFlavor.getType(), element.getFlavor().getSubtype());
+          }
+          element.setFlavor(targetFlavor);
+          if (element instanceof Catalog) {
+            element.referTo(sourceTrack);
+          }
+          for (String tag : asList(targetTagsProperty)) {
+            element.addTag(tag);
+          }
+          mediaPackage.add(element);
+        }
+      }
+
+      logger.info("Media analysis workflow operation for mediapackage {} completed", mediaPackage);
+      return createResult(mediaPackage, WorkflowOperationResult.Action.CONTINUE);
+
+    } finally {
+      try {
+        workspace.cleanup(mediaPackage.getIdentifier(), true);
+      } catch (IOException e) {
+        throw new WorkflowOperationException(e);
+      }
+    }
+  }
+
+  private static void putIfConfigured(Map<String, String> targetFlavors, String analysis,
+          WorkflowOperationInstance operation, String property) {
+    String targetFlavor = StringUtils.trimToNull(operation.getConfiguration(property));
+    if (targetFlavor != null)
+      targetFlavors.put(analysis, targetFlavor);
+  }
+
+  public void setMediaAnalysisService(MediaAnalysisService mediaAnalysisService) {
+    this.mediaAnalysisService = mediaAnalysisService;
+  }
+
+  public void setWorkspace(Workspace workspace) {
+    this.workspace = workspace;
+  }
+}
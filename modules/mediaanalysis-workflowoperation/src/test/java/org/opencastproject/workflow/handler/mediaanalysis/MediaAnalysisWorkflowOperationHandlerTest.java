@@ -0,0 +1,174 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workflow.handler.mediaanalysis;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobBarrier;
+import org.opencastproject.job.api.JobImpl;
+import org.opencastproject.mediaanalysis.api.MediaAnalysisService;
+import org.opencastproject.mediapackage.Attachment;
+import org.opencastproject.mediapackage.Catalog;
+import org.opencastproject.mediapackage.CatalogImpl;
+import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageBuilder;
+import org.opencastproject.mediapackage.MediaPackageBuilderImpl;
+import org.opencastproject.mediapackage.MediaPackageElementFlavor;
+import org.opencastproject.mediapackage.MediaPackageElementParser;
+import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.mediapackage.identifier.IdImpl;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+import org.opencastproject.workflow.api.WorkflowOperationException;
+import org.opencastproject.workflow.api.WorkflowOperationInstance;
+import org.opencastproject.workflow.api.WorkflowOperationInstanceImpl;
+import org.opencastproject.workspace.api.Workspace;
+
+import org.easymock.Capture;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Map;
+
+public class MediaAnalysisWorkflowOperationHandlerTest {
+
+  private TrackImpl track;
+  private MediaPackage mediaPackage;
+  private MediaAnalysisWorkflowOperationHandler handler;
+  private WorkflowInstanceImpl workflow;
+  private WorkflowOperationInstance instance;
+  private Capture<Map<String, String>> properties;
+
+  @Before
+  public void setUp() throws Exception {
+
+    handler = new MediaAnalysisWorkflowOperationHandler() {
+      @Override
+      protected JobBarrier.Result waitForStatus(Job... jobs) throws IllegalStateException, IllegalArgumentException {
+        JobBarrier.Result result = EasyMock.createNiceMock(JobBarrier.Result.class);
+        EasyMock.expect(result.isSuccess()).andReturn(true).anyTimes();
+        EasyMock.replay(result);
+        return result;
+      }
+    };
+
+    track = new TrackImpl();
+    track.setIdentifier("track");
+    track.setFlavor(MediaPackageElementFlavor.parseFlavor("xy/source"));
+    track.setAudio(Arrays.asList(null, null));
+
+    MediaPackageBuilder builder = new MediaPackageBuilderImpl();
+    mediaPackage = builder.createNew();
+    mediaPackage.setIdentifier(new IdImpl("123-456"));
+    mediaPackage.add(track);
+
+    instance = EasyMock.createNiceMock(WorkflowOperationInstanceImpl.class);
+    EasyMock.expect(instance.getConfiguration("target-tags")).andReturn("a,b").anyTimes();
+    EasyMock.expect(instance.getConfiguration("pixels-per-minute")).andReturn("100").anyTimes();
+
+    workflow = EasyMock.createNiceMock(WorkflowInstanceImpl.class);
+    EasyMock.expect(workflow.getMediaPackage()).andReturn(mediaPackage).anyTimes();
+    EasyMock.expect(workflow.getCurrentOperation()).andReturn(instance).anyTimes();
+
+    Attachment waveform = new AttachmentImpl();
+    waveform.setIdentifier("waveform");
+    waveform.setURI(new URI("waveform.png"));
+    waveform.setFlavor(new MediaPackageElementFlavor("xy", MediaAnalysisService.WAVEFORM));
+    Catalog silence = CatalogImpl.newInstance();
+    silence.setIdentifier("silence");
+    silence.setURI(new URI("silence.smil"));
+    silence.setFlavor(new MediaPackageElementFlavor("xy", MediaAnalysisService.SILENCE));
+    Job job = new JobImpl(0);
+    job.setPayload(MediaPackageElementParser.getArrayAsXml(Arrays.asList(waveform, silence)));
+
+    properties = Capture.newInstance();
+    MediaAnalysisService mediaAnalysisService = EasyMock.createNiceMock(MediaAnalysisService.class);
+    EasyMock.expect(mediaAnalysisService.analyze(EasyMock.anyObject(), EasyMock.capture(properties))).andReturn(job);
+
+    Workspace workspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(workspace.moveTo(EasyMock.anyObject(), EasyMock.anyString(), EasyMock.anyString(),
+            EasyMock.anyString())).andReturn(new URI("moved")).anyTimes();
+
+    EasyMock.replay(mediaAnalysisService, workspace, workflow);
+
+    handler.setMediaAnalysisService(mediaAnalysisService);
+    handler.setWorkspace(workspace);
+  }
+
+  @Test
+  public void testStart() throws Exception {
+    EasyMock.expect(instance.getConfiguration("source-flavor")).andReturn("*/source").anyTimes();
+    EasyMock.expect(instance.getConfiguration("waveform-target-flavor")).andReturn("*/waveform").anyTimes();
+    EasyMock.expect(instance.getConfiguration("silence-target-flavor")).andReturn("*/smil").anyTimes();
+    EasyMock.replay(instance);
+    Assert.assertTrue(handler.start(workflow, null).allowsContinue());
+
+    // only the configured analyses are requested
+    Assert.assertEquals("true", properties.getValue().get(MediaAnalysisService.WAVEFORM));
+    Assert.assertEquals("true", properties.getValue().get(MediaAnalysisService.SILENCE));
+    Assert.assertNull(properties.getValue().get(MediaAnalysisService.SEGMENTS));
+    Assert.assertEquals("100", properties.getValue().get(MediaAnalysisService.WAVEFORM_PIXELS_PER_MINUTE));
+
+    Attachment[] waveforms = mediaPackage.getAttachments(MediaPackageElementFlavor.parseFlavor("xy/waveform"));
+    Assert.assertEquals(1, waveforms.length);
+    Assert.assertTrue(waveforms[0].containsTag("a"));
+    Catalog[] smils = mediaPackage.getCatalogs(MediaPackageElementFlavor.parseFlavor("xy/smil"));
+    Assert.assertEquals(1, smils.length);
+    Assert.assertEquals("track", smils[0].getReference().getIdentifier());
+  }
+
+  @Test
+  public void testNoTracks() throws Exception {
+    EasyMock.expect(instance.getConfiguration("source-flavor")).andReturn("*/nothing").anyTimes();
+    EasyMock.expect(instance.getConfiguration("waveform-target-flavor")).andReturn("*/waveform").anyTimes();
+    EasyMock.replay(instance);
+    Assert.assertTrue(handler.start(workflow, null).allowsContinue());
+  }
+
+  @Test
+  public void testMissingSource() throws Exception {
+    EasyMock.expect(instance.getConfiguration("waveform-target-flavor")).andReturn("*/waveform").anyTimes();
+    EasyMock.replay(instance);
+    try {
+      handler.start(workflow, null);
+      Assert.fail();
+    } catch (WorkflowOperationException e) {
+      Assert.assertTrue(e.getMessage().startsWith("Required property "));
+    }
+  }
+
+  @Test
+  public void testMissingTargetFlavor() throws Exception {
+    EasyMock.expect(instance.getConfiguration("source-flavor")).andReturn("*/source").anyTimes();
+    EasyMock.replay(instance);
+    try {
+      handler.start(workflow, null);
+      Assert.fail();
+    } catch (WorkflowOperationException e) {
+      Assert.assertTrue(e.getMessage().startsWith("At least one of the properties "));
+    }
+  }
+
+}
@@ -39,11 +39,13 @@ public class BaseMessage implements Serializable {
   private final String organization;
   private final String user;
   private final Serializable object;
+  private final long creationTime;
 
   public BaseMessage(Organization organization, User user, Serializable object) {
     this.organization = OrganizationParser.toXml(JaxbOrganization.fromOrganization(organization));
     this.user = UserParser.toXml(JaxbUser.fromUser(user));
     this.object = object;
+    this.creationTime = System.currentTimeMillis();
   }
 
   public Opt<String> getId() {
@@ -65,4 +67,13 @@ public class BaseMessage implements Serializable {
     return object;
   }
 
+  /**
+   * Returns the time at which the message has been created, or 0 if the sender did not record it.
+   *
+   * @return the creation time in milliseconds since the epoch
+   */
+  public long getCreationTime() {
+    return creationTime;
+  }
+
 }
@@ -60,7 +60,7 @@ public class WorkflowItem implements MessageItem, Serializable {
   private final Type type;
 
   public enum Type {
-    DeleteInstance, UpdateInstance
+    DeleteInstance, UpdateInstance, UpdateInstanceState
   };
 
   /**
@@ -75,6 +75,33 @@ public class WorkflowItem implements MessageItem, Serializable {
     return new WorkflowItem(workflowInstance, dublincoreXml, accessControlList);
   }
 
+  /**
+   * @param workflowInstance
+   *          The workflow instance to update.
+   * @param mediaPackageXml
+   *          The serialized media package of the workflow instance
+   * @param dublincoreXml
+   *          The episode dublincore catalog used for metadata updates
+   * @return Builds {@link WorkflowItem} for updating a workflow instance.
+   */
+  public static WorkflowItem updateInstance(WorkflowInstance workflowInstance, String mediaPackageXml,
+          String dublincoreXml, AccessControlList accessControlList) {
+    return new WorkflowItem(workflowInstance, mediaPackageXml, dublincoreXml, accessControlList);
+  }
+
+  /**
+   * Builds a {@link WorkflowItem} that only updates the state of a workflow instance. Use this instead of
+   * {@link #updateInstance(WorkflowInstance, String, AccessControlList)} if neither the media package, nor the
+   * metadata, nor the access control list have changed since the last update.
+   *
+   * @param workflowInstance
+   *          The workflow instance to update.
+   * @return Builds {@link WorkflowItem} for updating the state of a workflow instance.
+   */
+  public static WorkflowItem updateInstanceState(WorkflowInstance workflowInstance) {
+    return new WorkflowItem(workflowInstance);
+  }
+
   /**
    * @param workflowInstanceId
    *          The unique id of the workflow instance to delete.
@@ -93,16 +120,48 @@ public class WorkflowItem implements MessageItem, Serializable {
    *          The workflow instance to update.
    */
   public WorkflowItem(WorkflowInstance workflowInstance, String dublincoreXml, AccessControlList accessControlList) {
+    this(workflowInstance, MediaPackageParser.getAsXml(workflowInstance.getMediaPackage()), dublincoreXml,
+            accessControlList);
+  }
+
+  /**
+   * Constructor to build an update workflow instance {@link WorkflowItem} from an already serialized media package.
+   *
+   * @param workflowInstance
+   *          The workflow instance to update.
+   * @param mediaPackageXml
+   *          The serialized media package of the workflow instance
+   */
+  public WorkflowItem(WorkflowInstance workflowInstance, String mediaPackageXml, String dublincoreXml,
+          AccessControlList accessControlList) {
     this.id = workflowInstance.getMediaPackage().getIdentifier().compact();
     this.workflowDefinitionId = workflowInstance.getTemplate();
     this.workflowInstanceId = workflowInstance.getId();
     this.episodeDublincoreCatalog = dublincoreXml;
-    this.mediaPackage = MediaPackageParser.getAsXml(workflowInstance.getMediaPackage());
+    this.mediaPackage = mediaPackageXml;
     this.state = workflowInstance.getState().toString();
     this.accessControlListJSON = AccessControlParser.toJsonSilent(accessControlList);
     this.type = Type.UpdateInstance;
   }
 
+  /**
+   * Constructor to build an update workflow instance state {@link WorkflowItem}.
+   *
+   * @param workflowInstance
+   *          The workflow instance to update.
+   */
+  private WorkflowItem(WorkflowInstance workflowInstance) {
+    // Media package, metadata and access control list are unchanged and left out to keep the message small
+    this.id = workflowInstance.getMediaPackage().getIdentifier().compact();
+    this.workflowDefinitionId = workflowInstance.getTemplate();
+    this.workflowInstanceId = workflowInstance.getId();
+    this.episodeDublincoreCatalog = null;
+    this.mediaPackage = null;
+    this.state = workflowInstance.getState().toString();
+    this.accessControlListJSON = null;
+    this.type = Type.UpdateInstanceState;
+  }
+
   /**
    * Constructor to build a delete workflow {@link WorkflowItem}.
    *
@@ -0,0 +1,361 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.message.broker.impl;
+
+import org.opencastproject.message.broker.api.BaseMessage;
+import org.opencastproject.message.broker.api.acl.AclItem;
+import org.opencastproject.message.broker.api.assetmanager.AssetManagerItem;
+import org.opencastproject.message.broker.api.comments.CommentItem;
+import org.opencastproject.message.broker.api.group.GroupItem;
+import org.opencastproject.message.broker.api.index.IndexRecreateObject;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItem;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItemList;
+import org.opencastproject.message.broker.api.series.SeriesItem;
+import org.opencastproject.message.broker.api.theme.SerializableTheme;
+import org.opencastproject.message.broker.api.theme.ThemeItem;
+import org.opencastproject.message.broker.api.workflow.WorkflowItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+/**
+ * Sends objects as JMS bytes messages in a compact binary format.
+ * <p>
+ * The message types sent by Opencast are known to both sides, so instead of describing their classes and fields in
+ * every message like Java serialization does, they are referred to by a single byte. Which classes these identifiers
+ * refer to and what fields the classes have makes up the schema of the format, of which every message carries a
+ * checksum. Messages encoded with a different schema are rejected instead of being misread. Other objects in the
+ * {@link #TRUSTED_PACKAGE} or in <code>java.lang</code> are still encoded with full class descriptions. Messages above
+ * a certain size are compressed, as they mostly consist of XML.
+ * <p>
+ * The format is:
+ *
+ * <pre>
+ * byte   format version
+ * int    schema checksum
+ * byte   flags, 1 if the object data is compressed
+ * bytes  the object data, a Java serialization stream using class identifiers, optionally deflated
+ * </pre>
+ */
+public class CompactMessageCodec implements MessageCodec {
+
+  /** The name of this codec */
+  public static final String NAME = "compact";
+
+  /** The version of the message layout */
+  static final int FORMAT_VERSION = 1;
+
+  /** Only classes in this package can be decoded in addition to the known message types and basic Java classes */
+  static final String TRUSTED_PACKAGE = "org.opencastproject.message.broker.api.";
+
+  /** Object data of this size in bytes or larger is compressed */
+  private static final int COMPRESSION_THRESHOLD = 1024;
+
+  /** Flag indicating compressed object data */
+  private static final int FLAG_DEFLATED = 1;
+
+  /** Class identifier announcing a full class description */
+  private static final int UNKNOWN_CLASS = 0;
+
+  /**
+   * The known message types and the classes they consist of. The position in this list determines the identifier of a
+   * class, so new classes must only ever be appended.
+   */
+  private static final List<Class<?>> CLASSES = Collections.unmodifiableList(Arrays.<Class<?>> asList(
+          BaseMessage.class,
+          Enum.class,
+          AclItem.class,
+          AclItem.Type.class,
+          AssetManagerItem.class,
+          AssetManagerItem.TakeSnapshot.class,
+          AssetManagerItem.DeleteSnapshot.class,
+          AssetManagerItem.DeleteEpisode.class,
+          CommentItem.class,
+          CommentItem.Type.class,
+          GroupItem.class,
+          GroupItem.Type.class,
+          IndexRecreateObject.class,
+          IndexRecreateObject.Service.class,
+          IndexRecreateObject.Status.class,
+          SchedulerItem.class,
+          SchedulerItem[].class,
+          SchedulerItem.Type.class,
+          SchedulerItemList.class,
+          SeriesItem.class,
+          SeriesItem.Type.class,
+          SerializableTheme.class,
+          ThemeItem.class,
+          ThemeItem.Type.class,
+          WorkflowItem.class,
+          WorkflowItem.Type.class));
+
+  private final List<Class<?>> classes;
+
+  private final Map<Class<?>, Integer> classIds = new HashMap<>();
+
+  private final Map<String, Class<?>> classesByName = new HashMap<>();
+
+  /** Checksum of the classes, their identifiers and their serializable fields */
+  private final int schema;
+
+  public CompactMessageCodec() {
+    this(CLASSES);
+  }
+
+  CompactMessageCodec(List<Class<?>> classes) {
+    if (classes.size() > 0xff)
+      throw new IllegalArgumentException("Too many classes for single byte identifiers");
+    this.classes = classes;
+    CRC32 checksum = new CRC32();
+    for (int i = 0; i < classes.size(); i++) {
+      Class<?> c = classes.get(i);
+      classIds.put(c, i + 1);
+      classesByName.put(c.getName(), c);
+      checksum.update(describe(c).getBytes(StandardCharsets.UTF_8));
+    }
+    schema = (int) checksum.getValue();
+  }
+
+  /**
+   * Describes the serialized form of a class.
+   */
+  private static String describe(Class<?> c) {
+    ObjectStreamClass descriptor = ObjectStreamClass.lookup(c);
+    if (descriptor == null)
+      throw new IllegalArgumentException(c + " is not serializable");
+    StringBuilder description = new StringBuilder(c.getName()).append(':')
+            .append(descriptor.getSerialVersionUID());
+    for (ObjectStreamField field : descriptor.getFields()) {
+      description.append(':').append(field.getName()).append(' ')
+              .append(field.getTypeString() == null ? String.valueOf(field.getTypeCode()) : field.getTypeString());
+    }
+    return description.append(';').toString();
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public Message encode(Session session, Serializable object) throws JMSException {
+    byte[] data;
+    try {
+      data = encode(object);
+    } catch (IOException e) {
+      throw toJmsException("Unable to encode " + object.getClass().getName(), e);
+    }
+    BytesMessage message = session.createBytesMessage();
+    message.setStringProperty(CODEC_PROPERTY, NAME);
+    message.writeBytes(data);
+    return message;
+  }
+
+  @Override
+  public Serializable decode(Message message) throws JMSException {
+    BytesMessage bytesMessage = (BytesMessage) message;
+    byte[] data = new byte[(int) bytesMessage.getBodyLength()];
+    bytesMessage.readBytes(data);
+    try {
+      return decode(data);
+    } catch (IOException | ClassNotFoundException e) {
+      throw toJmsException("Unable to decode message " + message.getJMSMessageID(), e);
+    }
+  }
+
+  /**
+   * Encodes an object.
+   *
+   * @param object
+   *          the object
+   * @return the encoded object
+   * @throws IOException
+   *           if the object cannot be serialized
+   */
+  public byte[] encode(Serializable object) throws IOException {
+    ByteArrayOutputStream objectData = new ByteArrayOutputStream(COMPRESSION_THRESHOLD);
+    try (ObjectOutputStream out = new CompactObjectOutputStream(objectData)) {
+      out.writeObject(object);
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(objectData.size(), 64 * 1024) + 6);
+    DataOutputStream header = new DataOutputStream(bytes);
+    header.writeByte(FORMAT_VERSION);
+    header.writeInt(schema);
+    if (objectData.size() < COMPRESSION_THRESHOLD) {
+      header.writeByte(0);
+      objectData.writeTo(bytes);
+    } else {
+      header.writeByte(FLAG_DEFLATED);
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try (OutputStream out = new DeflaterOutputStream(bytes, deflater, 8192)) {
+        objectData.writeTo(out);
+      } finally {
+        deflater.end();
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Decodes an object.
+   *
+   * @param data
+   *          the encoded object
+   * @return the object
+   * @throws IOException
+   *           if the data is not a valid message of the current schema
+   * @throws ClassNotFoundException
+   *           if the class of an encoded object is not available
+   */
+  public Serializable decode(byte[] data) throws IOException, ClassNotFoundException {
+    DataInputStream header = new DataInputStream(new ByteArrayInputStream(data));
+    int version = header.readUnsignedByte();
+    if (version != FORMAT_VERSION)
+      throw new IOException("Unsupported message format version " + version);
+    int messageSchema = header.readInt();
+    if (messageSchema != schema)
+      throw new IOException(String.format("Message schema %08x does not match local schema %08x. Make sure all nodes "
+              + "run the same version or use the '%s' codec during upgrades.", messageSchema, schema,
+              ObjectMessageCodec.NAME));
+    int flags = header.readUnsignedByte();
+    InputStream objectData = header;
+    if ((flags & FLAG_DEFLATED) != 0)
+      objectData = new InflaterInputStream(header);
+    try (ObjectInputStream in = new CompactObjectInputStream(objectData)) {
+      return (Serializable) in.readObject();
+    }
+  }
+
+  private static JMSException toJmsException(String reason, Exception e) {
+    JMSException jmsException = new JMSException(reason + ": " + e.getMessage());
+    jmsException.setLinkedException(e);
+    jmsException.initCause(e);
+    return jmsException;
+  }
+
+  /**
+   * Checks whether objects of the given class may be decoded.
+   */
+  private static boolean isTrusted(String className) {
+    String name = className;
+    // Arrays are trusted if their component type is
+    while (name.startsWith("["))
+      name = name.substring(1);
+    if (name.startsWith("L") && name.endsWith(";"))
+      name = name.substring(1, name.length() - 1);
+    else if (name.length() == 1)
+      return true;
+    return name.startsWith(TRUSTED_PACKAGE) || name.startsWith("java.lang.");
+  }
+
+  /** Object stream writing identifiers instead of descriptions for the known classes */
+  private final class CompactObjectOutputStream extends ObjectOutputStream {
+
+    CompactObjectOutputStream(OutputStream out) throws IOException {
+      super(out);
+    }
+
+    @Override
+    protected void writeStreamHeader() throws IOException {
+      // The message header identifies the stream
+    }
+
+    @Override
+    protected void writeClassDescriptor(ObjectStreamClass descriptor) throws IOException {
+      Integer id = classIds.get(descriptor.forClass());
+      if (id != null) {
+        writeByte(id);
+      } else {
+        writeByte(UNKNOWN_CLASS);
+        super.writeClassDescriptor(descriptor);
+      }
+    }
+
+  }
+
+  /** Object stream reading identifiers instead of descriptions for the known classes */
+  private final class CompactObjectInputStream extends ObjectInputStream {
+
+    CompactObjectInputStream(InputStream in) throws IOException {
+      super(in);
+    }
+
+    @Override
+    protected void readStreamHeader() throws IOException {
+      // The message header identifies the stream
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+      int id = readUnsignedByte();
+      if (id == UNKNOWN_CLASS)
+        return super.readClassDescriptor();
+      if (id > classes.size())
+        throw new InvalidClassException("Unknown class identifier " + id);
+      return ObjectStreamClass.lookup(classes.get(id - 1));
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass descriptor) throws IOException, ClassNotFoundException {
+      Class<?> c = classesByName.get(descriptor.getName());
+      if (c != null)
+        return c;
+      if (!isTrusted(descriptor.getName()))
+        throw new InvalidClassException(descriptor.getName(), "Class is not trusted to be decoded from a message");
+      return super.resolveClass(descriptor);
+    }
+
+    @Override
+    protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+      throw new InvalidClassException("Proxy classes are not trusted to be decoded from a message");
+    }
+
+  }
+
+}
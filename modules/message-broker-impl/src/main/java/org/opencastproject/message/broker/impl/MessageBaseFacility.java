@@ -30,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.jms.Connection;
@@ -59,6 +61,15 @@ public class MessageBaseFacility {
   /** The logging facility */
   private static final Logger logger = LoggerFactory.getLogger(MessageBaseFacility.class);
 
+  /** The codecs messages may be encoded with, by name */
+  private static final Map<String, MessageCodec> codecs = new HashMap<>();
+
+  static {
+    for (MessageCodec codec : new MessageCodec[] { new ObjectMessageCodec(), new CompactMessageCodec() }) {
+      codecs.put(codec.getName(), codec);
+    }
+  }
+
   /** The connection to the ActiveMQ broker */
   private Connection connection = null;
 
@@ -206,6 +217,13 @@ public class MessageBaseFacility {
     enable(false);
   }
 
+  /**
+   * Returns the codec with the given name or {@code null} if there is no such codec.
+   */
+  protected static MessageCodec getCodec(String name) {
+    return codecs.get(name);
+  }
+
   /**
    * Returns an open session or {@code null} if the facility is not yet connected.
    */
@@ -0,0 +1,67 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.message.broker.impl;
+
+import java.io.Serializable;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+/**
+ * Converts the objects sent through the message broker to JMS messages and back.
+ */
+public interface MessageCodec {
+
+  /** The JMS message property naming the codec a message has been encoded with */
+  String CODEC_PROPERTY = "opencastCodec";
+
+  /**
+   * @return the name of the codec, used in configuration and in the {@link #CODEC_PROPERTY} of encoded messages
+   */
+  String getName();
+
+  /**
+   * Creates a JMS message containing the given object.
+   *
+   * @param session
+   *          the session to create the message with
+   * @param object
+   *          the object to send
+   * @return the message
+   * @throws JMSException
+   *           if the message cannot be created or the object cannot be encoded
+   */
+  Message encode(Session session, Serializable object) throws JMSException;
+
+  /**
+   * Extracts the object from a JMS message created by this codec.
+   *
+   * @param message
+   *          the message
+   * @return the object
+   * @throws JMSException
+   *           if the message cannot be read or the object cannot be decoded
+   */
+  Serializable decode(Message message) throws JMSException;
+
+}
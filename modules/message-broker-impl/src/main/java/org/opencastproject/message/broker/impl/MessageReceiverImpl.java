@@ -31,6 +31,7 @@ import java.io.Serializable;
 import java.util.concurrent.Callable;
 import java.util.concurrent.FutureTask;
 
+import javax.jms.BytesMessage;
 import javax.jms.Destination;
 import javax.jms.JMSException;
 import javax.jms.Message;
@@ -121,9 +122,13 @@ public class MessageReceiverImpl extends MessageBaseFacility implements MessageR
     while (true) {
       // Wait for a message
       Message message = waitForMessage(destinationId, type);
-      if (message != null && message instanceof ObjectMessage) {
-        ObjectMessage objectMessage = (ObjectMessage) message;
-        return objectMessage.getObject();
+      if (message instanceof ObjectMessage) {
+        return getCodec(ObjectMessageCodec.NAME).decode(message);
+      } else if (message instanceof BytesMessage) {
+        // Messages in other formats name their codec
+        MessageCodec codec = getCodec(message.getStringProperty(MessageCodec.CODEC_PROPERTY));
+        if (codec != null)
+          return codec.decode(message);
       }
 
       logger.debug("Skipping invalid message: {}", message);
@@ -25,6 +25,8 @@ import org.opencastproject.message.broker.api.BaseMessage;
 import org.opencastproject.message.broker.api.MessageSender;
 import org.opencastproject.security.api.SecurityService;
 
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,9 +48,30 @@ public class MessageSenderImpl extends MessageBaseFacility implements MessageSen
   /** The OSGi service PID */
   private static final String SERVICE_PID = "org.opencastproject.message.broker.impl.MessageSenderImpl";
 
+  /** The key to find the name of the codec to encode messages with */
+  protected static final String MESSAGE_CODEC_KEY = "activemq.message.codec";
+
   /** The security service */
   private SecurityService securityService;
 
+  /** The codec to encode messages with */
+  private MessageCodec codec = getCodec(ObjectMessageCodec.NAME);
+
+  /** OSGi component activate callback */
+  @Override
+  public void activate(BundleContext bc) throws Exception {
+    String codecName = StringUtils.trimToNull(bc.getProperty(MESSAGE_CODEC_KEY));
+    if (codecName != null) {
+      if (getCodec(codecName) != null) {
+        codec = getCodec(codecName);
+      } else {
+        logger.warn("Unknown message codec '{}', using '{}' instead", codecName, codec.getName());
+      }
+    }
+    logger.info("Encoding messages with the '{}' codec", codec.getName());
+    super.activate(bc);
+  }
+
   @Override
   public void sendObjectMessage(String destinationId, DestinationType type, Serializable object) {
     if (!isConnected()) {
@@ -63,7 +86,7 @@ public class MessageSenderImpl extends MessageBaseFacility implements MessageSen
         if (session == null)
           return;
         // Create a message or use the provided one.
-        Message message = session.createObjectMessage(
+        Message message = codec.encode(session,
                 new BaseMessage(securityService.getOrganization(), securityService.getUser(), object));
 
         Destination destination;
@@ -0,0 +1,54 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.message.broker.impl;
+
+import java.io.Serializable;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.ObjectMessage;
+import javax.jms.Session;
+
+/**
+ * Sends objects as JMS object messages using Java serialization. This is the format understood by all versions.
+ */
+public class ObjectMessageCodec implements MessageCodec {
+
+  /** The name of this codec */
+  public static final String NAME = "java";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public Message encode(Session session, Serializable object) throws JMSException {
+    return session.createObjectMessage(object);
+  }
+
+  @Override
+  public Serializable decode(Message message) throws JMSException {
+    return ((ObjectMessage) message).getObject();
+  }
+
+}
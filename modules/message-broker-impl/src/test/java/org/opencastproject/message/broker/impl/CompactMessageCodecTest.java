@@ -0,0 +1,118 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.message.broker.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.opencastproject.message.broker.api.BaseMessage;
+import org.opencastproject.message.broker.api.comments.CommentItem;
+import org.opencastproject.message.broker.api.index.IndexRecreateObject;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItem;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItemList;
+import org.opencastproject.security.api.DefaultOrganization;
+import org.opencastproject.security.api.JaxbUser;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+public class CompactMessageCodecTest {
+
+  private final CompactMessageCodec codec = new CompactMessageCodec();
+
+  private BaseMessage message(Serializable object) {
+    return new BaseMessage(new DefaultOrganization(), new JaxbUser(), object);
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    BaseMessage comment = (BaseMessage) codec.decode(codec.encode(message(CommentItem.update("event", true, false,
+            true))));
+    CommentItem commentItem = (CommentItem) comment.getObject();
+    assertEquals("event", commentItem.getEventId());
+    assertEquals("event", comment.getId().get());
+    assertTrue(commentItem.hasComments());
+    assertTrue(commentItem.needsCutting());
+    assertEquals(CommentItem.Type.Update, commentItem.getType());
+    assertEquals(DefaultOrganization.DEFAULT_ORGANIZATION_ID, comment.getOrganization().getId());
+    assertTrue(comment.getCreationTime() > 0);
+
+    Date start = new Date(1500000000000L);
+    BaseMessage scheduler = (BaseMessage) codec.decode(codec.encode(message(new SchedulerItemList("event",
+            SchedulerItem.updateAgent("agent"), SchedulerItem.updateStart(start)))));
+    SchedulerItem[] items = ((SchedulerItemList) scheduler.getObject()).getItems();
+    assertEquals(2, items.length);
+    assertEquals("agent", items[0].getAgentId());
+    assertEquals(start, items[1].getStart());
+
+    IndexRecreateObject recreate = (IndexRecreateObject) codec.decode(codec.encode(
+            IndexRecreateObject.error("index", IndexRecreateObject.Service.Series, 10, 5, "message")));
+    assertEquals(IndexRecreateObject.Status.Error, recreate.getStatus());
+    assertEquals(IndexRecreateObject.Service.Series, recreate.getService());
+    assertEquals("message", recreate.getMessage());
+    assertEquals(5, recreate.getCurrent());
+  }
+
+  @Test
+  public void testSize() throws Exception {
+    // Large messages mostly consist of XML and are compressed
+    for (String text : Arrays.asList("small", StringUtils.repeat("<element attribute=\"value\">text</element>", 500))) {
+      BaseMessage message = message(IndexRecreateObject.error("index", IndexRecreateObject.Service.Series, 1, 1,
+              text));
+      ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+        out.writeObject(message);
+      }
+      byte[] encoded = codec.encode(message);
+      assertTrue(encoded.length + " >= " + serialized.size(), encoded.length < serialized.size());
+    }
+  }
+
+  @Test(expected = InvalidClassException.class)
+  public void testUntrustedClass() throws Exception {
+    codec.decode(codec.encode(new ArrayList<String>()));
+  }
+
+  @Test
+  public void testSchemaMismatch() throws Exception {
+    byte[] encoded = codec.encode(CommentItem.update("event", false, false, false));
+    CompactMessageCodec other = new CompactMessageCodec(Arrays.<Class<?>> asList(CommentItem.class,
+            CommentItem.Type.class, Enum.class));
+    try {
+      other.decode(encoded);
+      fail("Messages encoded with a different schema must be rejected");
+    } catch (IOException e) {
+      assertTrue(e.getMessage().contains("schema"));
+    }
+  }
+
+}
@@ -28,6 +28,8 @@ import org.opencastproject.util.data.Option;
 import org.opencastproject.workspace.api.Workspace;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -82,6 +84,13 @@ public class UnitTestWorkspace implements Workspace {
     return new FileInputStream(get(uri));
   }
 
+  @Override
+  public InputStream read(URI uri, long offset, long length) throws NotFoundException, IOException {
+    InputStream in = read(uri);
+    IOUtils.skip(in, offset);
+    return new BoundedInputStream(in, length);
+  }
+
   @Override
   public URI getBaseUri() {
     return baseDir.toURI();
@@ -28,6 +28,8 @@ import org.opencastproject.matterhorn.search.SearchIndex;
 import org.opencastproject.matterhorn.search.SearchIndexException;
 import org.opencastproject.matterhorn.search.SearchQuery;
 import org.opencastproject.matterhorn.search.SearchQuery.Order;
+import org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatistics;
+import org.opencastproject.util.jmx.JmxUtil;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -36,6 +38,8 @@ import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFact
 import org.elasticsearch.ElasticsearchException;
 import org.elasticsearch.ResourceAlreadyExistsException;
 import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
 import org.elasticsearch.action.admin.indices.create.CreateIndexRequest;
 import org.elasticsearch.action.admin.indices.create.CreateIndexResponse;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
@@ -55,6 +59,8 @@ import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.action.support.master.AcknowledgedResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.metadata.AliasMetaData;
+import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.loader.JsonSettingsLoader;
 import org.elasticsearch.common.transport.InetSocketTransportAddress;
@@ -75,9 +81,17 @@ import java.net.InetAddress;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.management.ObjectInstance;
 
 /**
  * A search index implementation based on ElasticSearch.
@@ -96,15 +110,39 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
   /** Configuration key defining the port of an external Elasticsearch server */
   public static final String ELASTICSEARCH_SERVER_PORT_KEY = "org.opencastproject.elasticsearch.server.port";
 
+  /**
+   * Configuration key defining how long in milliseconds document updates may be queued to be written in bulk. Updates
+   * are written right away if this is not set.
+   */
+  public static final String ELASTICSEARCH_WRITE_DELAY_KEY = "org.opencastproject.elasticsearch.write.delay";
+
+  /** Configuration key defining the maximum number of queued documents written in a single bulk request */
+  public static final String ELASTICSEARCH_WRITE_BATCH_SIZE_KEY = "org.opencastproject.elasticsearch.write.batch.size";
+
+  /** The default maximum number of queued documents written in a single bulk request */
+  public static final int DEFAULT_WRITE_BATCH_SIZE = 500;
+
   /** Identifier of the root entry */
   private static final String ROOT_ID = "root";
 
   /** Type of the document containing the index version information */
   private static final String VERSION_TYPE = "version";
 
+  /** Type of the document recording the progress of an index rebuild */
+  private static final String REBUILD_TYPE = "rebuild";
+
+  /** Field of the rebuild document listing the completed rebuild steps */
+  private static final String REBUILD_COMPLETED = "completed";
+
   /** The index identifier */
   private String index = null;
 
+  /** The shadow index that is currently being rebuilt, or <code>null</code> if there is no rebuild in progress */
+  private volatile String shadowIndex = null;
+
+  /** Guards write operations against the shadow index being swapped in */
+  private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
   /** The local elastic search node */
   private static Node elasticSearch = null;
 
@@ -132,6 +170,18 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
   /** Port of an external Elasticsearch server to connect to */
   private int externalServerPort = 9300;
 
+  /** Time in milliseconds document updates may be queued, or 0 to write them right away */
+  private long writeDelay = 0;
+
+  /** Maximum number of queued documents written in a single bulk request */
+  private int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+
+  /** The queue collecting document updates, or <code>null</code> if updates are written right away */
+  private WriteBehindQueue writeQueue = null;
+
+  /** The registered statistics of the write queue */
+  private ObjectInstance writeStatisticsBean = null;
+
   /**
    * Returns an array of document types for the index. For every one of these, the corresponding document type
    * definition will be loaded.
@@ -161,6 +211,12 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
     // Silently fall back to port 9300
     externalServerPort = Integer.parseInt(StringUtils.defaultIfBlank(
             ctx.getBundleContext().getProperty(ELASTICSEARCH_SERVER_PORT_KEY), "9300"));
+
+    writeDelay = Long.parseLong(StringUtils.defaultIfBlank(
+            ctx.getBundleContext().getProperty(ELASTICSEARCH_WRITE_DELAY_KEY), "0"));
+    writeBatchSize = Integer.parseInt(StringUtils.defaultIfBlank(
+            ctx.getBundleContext().getProperty(ELASTICSEARCH_WRITE_BATCH_SIZE_KEY),
+            Integer.toString(DEFAULT_WRITE_BATCH_SIZE)));
   }
 
   /**
@@ -185,18 +241,22 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
    */
   @Override
   public void clear() throws IOException {
+    if (writeQueue != null)
+      writeQueue.flush();
+    swapLock.writeLock().lock();
     try {
-      IndicesExistsResponse indicesExistsResponse = nodeClient.admin().indices()
-              .exists(new IndicesExistsRequest(getIndexName())).actionGet();
-      if (indicesExistsResponse.isExists()) {
-        AcknowledgedResponse delete = nodeClient.admin().indices().delete(new DeleteIndexRequest(getIndexName()))
+      // The index name may be an alias for an index created by a previous rebuild
+      List<String> liveIndices = getLiveIndices();
+      if (liveIndices.isEmpty())
+        logger.error("Cannot clear non-existing index '{}'", getIndexName());
+      for (String liveIndex : liveIndices) {
+        AcknowledgedResponse delete = nodeClient.admin().indices().delete(new DeleteIndexRequest(liveIndex))
                 .actionGet();
         if (!delete.isAcknowledged())
-          logger.error("Index '{}' could not be deleted", getIndexName());
-      } else {
-        logger.error("Cannot clear non-existing index '{}'", getIndexName());
+          logger.error("Index '{}' could not be deleted", liveIndex);
       }
     } catch (Throwable t) {
+      swapLock.writeLock().unlock();
       throw new IOException("Cannot clear index", t);
     }
 
@@ -206,6 +266,8 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
       createIndex(index);
     } catch (SearchIndexException e) {
       logger.error("Unable to re-create the index after a clear", e);
+    } finally {
+      swapLock.writeLock().unlock();
     }
   }
 
@@ -232,12 +294,30 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
 
     logger.debug("Removing element with id '{}' from searching index", uid);
 
-    DeleteRequestBuilder deleteRequest = nodeClient.prepareDelete(index, type, uid);
-    deleteRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
-    DeleteResponse delete = deleteRequest.execute().actionGet();
-    if (delete.getResult().equals(DocWriteResponse.Result.NOT_FOUND)) {
-      logger.trace("Document {} to delete was not found", uid);
-      return false;
+    // A queued update must not bring the document back
+    try {
+      awaitWrite(type, uid);
+    } catch (SearchIndexException e) {
+      logger.debug("Queued update of document {} to delete has failed", uid);
+    }
+
+    swapLock.readLock().lock();
+    try {
+      String shadow = shadowIndex;
+      if (shadow != null) {
+        nodeClient.prepareDelete(shadow, type, uid).setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE).execute()
+                .actionGet();
+      }
+
+      DeleteRequestBuilder deleteRequest = nodeClient.prepareDelete(index, type, uid);
+      deleteRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+      DeleteResponse delete = deleteRequest.execute().actionGet();
+      if (delete.getResult().equals(DocWriteResponse.Result.NOT_FOUND)) {
+        logger.trace("Document {} to delete was not found", uid);
+        return false;
+      }
+    } finally {
+      swapLock.readLock().unlock();
     }
 
     return true;
@@ -253,16 +333,89 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
    *           if posting to the index fails
    */
   protected BulkResponse update(ElasticsearchDocument... documents) throws SearchIndexException {
+    swapLock.readLock().lock();
+    try {
+      // Make sure the operations are searchable immediately
+      return bulkUpdate(shadowIndex, WriteRequest.RefreshPolicy.IMMEDIATE, documents);
+    } finally {
+      swapLock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Writes the input documents to the search index. If {@link #ELASTICSEARCH_WRITE_DELAY_KEY} is configured, the
+   * documents are queued and written in bulk shortly after, and become visible to searches with the next refresh of
+   * the index. Otherwise, this is the same as {@link #update(ElasticsearchDocument...)}.
+   *
+   * @param documents
+   *          the input documents
+   * @throws SearchIndexException
+   *           if posting to the index fails
+   * @see #awaitWrite(String, String)
+   */
+  protected void write(ElasticsearchDocument... documents) throws SearchIndexException {
+    if (writeQueue == null)
+      update(documents);
+    else
+      writeQueue.add(documents);
+  }
+
+  /**
+   * Waits until the latest version of the given document passed to {@link #write(ElasticsearchDocument...)} is visible
+   * to searches.
+   *
+   * @param type
+   *          the document type
+   * @param uid
+   *          the document identifier
+   * @throws SearchIndexException
+   *           if writing the document failed
+   */
+  protected void awaitWrite(String type, String uid) throws SearchIndexException {
+    if (writeQueue != null)
+      writeQueue.await(type, uid);
+  }
+
+  /**
+   * Waits until the latest versions of all documents of the given type passed to
+   * {@link #write(ElasticsearchDocument...)} so far are visible to searches.
+   *
+   * @param type
+   *          the document type
+   * @throws SearchIndexException
+   *           if writing any of the documents failed
+   */
+  protected void awaitWrites(String type) throws SearchIndexException {
+    if (writeQueue != null)
+      writeQueue.await(type);
+  }
+
+  /**
+   * Posts the input document to the search index and, if a rebuild is in progress, to the shadow index.
+   *
+   * @param shadow
+   *          the shadow index or <code>null</code>
+   * @param refreshPolicy
+   *          when to make the documents visible to searches
+   * @param documents
+   *          the input documents
+   * @return the query response
+   * @throws SearchIndexException
+   *           if posting to the index fails
+   */
+  private BulkResponse bulkUpdate(String shadow, WriteRequest.RefreshPolicy refreshPolicy,
+          ElasticsearchDocument... documents) throws SearchIndexException {
 
     BulkRequestBuilder bulkRequest = nodeClient.prepareBulk();
     for (ElasticsearchDocument doc : documents) {
       String type = doc.getType();
       String uid = doc.getUID();
       bulkRequest.add(nodeClient.prepareIndex(index, type, uid).setSource(doc));
+      if (shadow != null)
+        bulkRequest.add(nodeClient.prepareIndex(shadow, type, uid).setSource(doc));
     }
 
-    // Make sure the operations are searchable immediately
-    bulkRequest.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+    bulkRequest.setRefreshPolicy(refreshPolicy);
 
     try {
       BulkResponse bulkResponse = bulkRequest.execute().actionGet();
@@ -341,6 +494,239 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
 
     // Create the index
     createIndex(index);
+
+    if (writeDelay > 0) {
+      logger.info("Writing updates of index '{}' in batches of up to {} documents every {}ms", index, writeBatchSize,
+              writeDelay);
+      IndexWriteStatistics writeStatistics = new IndexWriteStatistics();
+      writeQueue = new WriteBehindQueue(new WriteBehindQueue.Writer() {
+        @Override
+        public void write(List<ElasticsearchDocument> documents, boolean forceRefresh) throws SearchIndexException {
+          swapLock.readLock().lock();
+          try {
+            bulkUpdate(shadowIndex,
+                    forceRefresh ? WriteRequest.RefreshPolicy.IMMEDIATE : WriteRequest.RefreshPolicy.WAIT_UNTIL,
+                    documents.toArray(new ElasticsearchDocument[documents.size()]));
+          } finally {
+            swapLock.readLock().unlock();
+          }
+        }
+
+        @Override
+        public void refresh() {
+          refreshIndices();
+        }
+      }, writeDelay, writeBatchSize, writeStatistics);
+      writeStatisticsBean = JmxUtil.registerMXBean(writeStatistics, "IndexWriteStatistics-" + index);
+    }
+
+    // Keep an unfinished rebuild up to date so that it can be resumed
+    List<String> shadowIndices = getShadowIndices();
+    if (!shadowIndices.isEmpty()) {
+      createIndex(shadowIndices.get(0));
+      shadowIndex = shadowIndices.get(0);
+      logger.warn("Found unfinished rebuild of index '{}' in '{}', resume or restart the rebuild to finish it", index,
+              shadowIndex);
+    }
+  }
+
+  /**
+   * Starts rebuilding the index into a shadow index. Until {@link #finishRebuild()} is called, the current index keeps
+   * serving all requests while every update and deletion is applied to both indices.
+   * <p>
+   * If <code>resume</code> is set and an earlier rebuild did not finish, that shadow index is reused and the steps
+   * it recorded using {@link #completeRebuildStep(String)} are returned. Otherwise, leftovers of earlier rebuilds are
+   * removed and the rebuild starts from an empty index.
+   *
+   * @param resume
+   *          whether to continue an unfinished rebuild
+   * @return the steps that have already been completed
+   * @throws SearchIndexException
+   *           if the shadow index cannot be created
+   * @throws IOException
+   *           if loading of the type definitions fails
+   */
+  protected Set<String> startRebuild(boolean resume) throws SearchIndexException, IOException {
+    swapLock.writeLock().lock();
+    try {
+      Set<String> completed = new LinkedHashSet<>();
+      String shadow = null;
+      for (String candidate : getShadowIndices()) {
+        if (resume && shadow == null) {
+          shadow = candidate;
+          completed.addAll(getCompletedRebuildSteps(candidate));
+          logger.info("Resuming rebuild of index '{}' in '{}' after {}", index, shadow, completed);
+        } else {
+          logger.info("Removing abandoned rebuild '{}' of index '{}'", candidate, index);
+          deleteIndex(candidate);
+        }
+      }
+      if (shadow == null) {
+        shadow = index + "_" + System.currentTimeMillis();
+        logger.info("Rebuilding index '{}' in '{}'", index, shadow);
+      }
+      createIndex(shadow);
+      shadowIndex = shadow;
+      return completed;
+    } finally {
+      swapLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Records that a step of the current rebuild has been completed.
+   *
+   * @param step
+   *          the step name
+   * @throws SearchIndexException
+   *           if there is no rebuild in progress or the progress cannot be stored
+   */
+  protected void completeRebuildStep(String step) throws SearchIndexException {
+    String shadow = shadowIndex;
+    if (shadow == null)
+      throw new SearchIndexException("No rebuild of index '" + index + "' in progress");
+    Set<String> completed = getCompletedRebuildSteps(shadow);
+    completed.add(step);
+    try {
+      nodeClient.prepareIndex(shadow, REBUILD_TYPE, ROOT_ID)
+              .setSource(Collections.singletonMap(REBUILD_COMPLETED, new ArrayList<>(completed))).execute().actionGet();
+    } catch (ElasticsearchException e) {
+      throw new SearchIndexException("Cannot record progress of rebuild '" + shadow + "'", e);
+    }
+  }
+
+  /**
+   * Replaces the index with the shadow index created by {@link #startRebuild(boolean)}. From now on, the index name
+   * is an alias for the shadow index, and the index it replaces is deleted.
+   *
+   * @throws SearchIndexException
+   *           if there is no rebuild in progress or the indices cannot be swapped
+   */
+  protected void finishRebuild() throws SearchIndexException {
+    if (writeQueue != null)
+      writeQueue.flush();
+    swapLock.writeLock().lock();
+    try {
+      String shadow = shadowIndex;
+      if (shadow == null)
+        throw new SearchIndexException("No rebuild of index '" + index + "' in progress");
+
+      nodeClient.prepareDelete(shadow, REBUILD_TYPE, ROOT_ID).execute().actionGet();
+
+      // All changes are applied atomically, so the index is left untouched if the swap fails
+      List<String> liveIndices = getLiveIndices();
+      IndicesAliasesRequestBuilder aliases = nodeClient.admin().indices().prepareAliases();
+      for (String liveIndex : liveIndices) {
+        // An index created before the first rebuild carries the name that the alias is going to take
+        if (liveIndex.equals(index))
+          aliases.addAliasAction(AliasActions.removeIndex().index(liveIndex));
+        else
+          aliases.removeAlias(liveIndex, index);
+      }
+      aliases.addAlias(shadow, index);
+      if (!aliases.execute().actionGet().isAcknowledged())
+        throw new SearchIndexException("Unable to point index '" + index + "' to '" + shadow + "'");
+      shadowIndex = null;
+
+      for (String liveIndex : liveIndices) {
+        if (!liveIndex.equals(index))
+          deleteIndex(liveIndex);
+      }
+      logger.info("Index '{}' has been replaced by its rebuild '{}'", index, shadow);
+    } catch (ElasticsearchException e) {
+      throw new SearchIndexException("Cannot swap in the rebuild of index '" + index + "'", e);
+    } finally {
+      swapLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Refreshes the index and the shadow index of a rebuild in progress, making all written documents visible to
+   * searches.
+   */
+  private void refreshIndices() {
+    String shadow = shadowIndex;
+    try {
+      if (shadow == null)
+        nodeClient.admin().indices().prepareRefresh(index).execute().actionGet();
+      else
+        nodeClient.admin().indices().prepareRefresh(index, shadow).execute().actionGet();
+    } catch (ElasticsearchException e) {
+      logger.warn("Unable to refresh index '{}'", index, e);
+    }
+  }
+
+  /**
+   * Returns the concrete indices behind the index name. This is the index itself, unless it has been replaced by a
+   * rebuild before and the name has become an alias.
+   *
+   * @return the concrete indices
+   */
+  private List<String> getLiveIndices() {
+    List<String> liveIndices = new ArrayList<>();
+    ImmutableOpenMap<String, List<AliasMetaData>> aliases = nodeClient.admin().indices().prepareGetAliases(index)
+            .execute().actionGet().getAliases();
+    for (Iterator<String> i = aliases.keysIt(); i.hasNext();) {
+      String aliasedIndex = i.next();
+      if (!aliases.get(aliasedIndex).isEmpty())
+        liveIndices.add(aliasedIndex);
+    }
+    if (liveIndices.isEmpty()
+            && nodeClient.admin().indices().exists(new IndicesExistsRequest(index)).actionGet().isExists())
+      liveIndices.add(index);
+    return liveIndices;
+  }
+
+  /**
+   * Returns the shadow indices of unfinished rebuilds, newest first.
+   *
+   * @return the shadow indices
+   */
+  private List<String> getShadowIndices() {
+    List<String> live = getLiveIndices();
+    List<String> shadowIndices = new ArrayList<>();
+    for (String candidate : nodeClient.admin().indices().prepareGetIndex().setIndices(index + "_*").execute()
+            .actionGet().getIndices()) {
+      String suffix = StringUtils.removeStart(candidate, index + "_");
+      if (!suffix.equals(candidate) && StringUtils.isNumeric(suffix) && !live.contains(candidate))
+        shadowIndices.add(candidate);
+    }
+    Collections.sort(shadowIndices, Collections.reverseOrder());
+    return shadowIndices;
+  }
+
+  /**
+   * Returns the steps of the rebuild in the given shadow index that have been completed.
+   *
+   * @param shadow
+   *          the shadow index
+   * @return the completed steps
+   */
+  private Set<String> getCompletedRebuildSteps(String shadow) {
+    Set<String> completed = new LinkedHashSet<>();
+    GetResponse response = nodeClient.prepareGet(shadow, REBUILD_TYPE, ROOT_ID).execute().actionGet();
+    if (response.isExists()) {
+      Object steps = response.getSourceAsMap().get(REBUILD_COMPLETED);
+      if (steps instanceof List) {
+        for (Object step : (List<?>) steps) {
+          completed.add(step.toString());
+        }
+      }
+    }
+    return completed;
+  }
+
+  /**
+   * Deletes the given concrete index.
+   *
+   * @param idx
+   *          the index name
+   */
+  private void deleteIndex(String idx) {
+    AcknowledgedResponse delete = nodeClient.admin().indices().delete(new DeleteIndexRequest(idx)).actionGet();
+    if (!delete.isAcknowledged())
+      logger.error("Index '{}' could not be deleted", idx);
+    preparedIndices.remove(idx);
   }
 
   /**
@@ -350,6 +736,14 @@ public abstract class AbstractElasticsearchIndex implements SearchIndex {
    *           if stopping the Elasticsearch node fails
    */
   protected void close() throws IOException {
+    if (writeQueue != null) {
+      writeQueue.shutdown();
+      writeQueue = null;
+    }
+    if (writeStatisticsBean != null) {
+      JmxUtil.unregisterMXBean(writeStatisticsBean);
+      writeStatisticsBean = null;
+    }
     try {
       if (nodeClient != null) {
         nodeClient.close();
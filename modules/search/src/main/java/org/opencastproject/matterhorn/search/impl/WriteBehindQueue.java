@@ -0,0 +1,377 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.matterhorn.search.impl;
+
+import org.opencastproject.matterhorn.search.SearchIndexException;
+import org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatistics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue collecting document updates for a short time before they are written to the index in bulk.
+ * <p>
+ * Updates of a document that is still waiting in the queue replace the queued version, so only the latest version is
+ * written. Bulk requests wait for the next regular refresh of the index instead of forcing one. Callers that need to
+ * read their own writes use {@link #await(String, String)}, which writes the document right away and forces a refresh
+ * only if the document is not yet visible to searches. Queries that may return any document of a type use
+ * {@link #await(String)} instead.
+ */
+class WriteBehindQueue {
+
+  /** Logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+  /** Target of the queued writes */
+  interface Writer {
+
+    /**
+     * Writes the documents to the index.
+     *
+     * @param documents
+     *          the documents
+     * @param forceRefresh
+     *          whether to refresh the index right away or to wait for the next regular refresh
+     * @throws SearchIndexException
+     *           if writing the documents fails
+     */
+    void write(List<ElasticsearchDocument> documents, boolean forceRefresh) throws SearchIndexException;
+
+    /**
+     * Refreshes the index, making all written documents visible to searches.
+     */
+    void refresh();
+
+  }
+
+  /** The target of the writes */
+  private final Writer writer;
+
+  /** Time in milliseconds an update may wait in the queue */
+  private final long delay;
+
+  /** Maximum number of documents per bulk request */
+  private final int batchSize;
+
+  /** The write statistics */
+  private final IndexWriteStatistics statistics;
+
+  /** Runs the delayed writes */
+  private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+
+  /** Makes sure bulk requests are sent one after the other, so that updates of a document are not reordered */
+  private final ReentrantLock writeLock = new ReentrantLock();
+
+  /** The updates waiting to be written, in the order in which they have been queued */
+  private final LinkedHashMap<String, Entry> queue = new LinkedHashMap<>();
+
+  /** The updates that are not yet visible to searches, including the ones waiting in the queue */
+  private final Map<String, Entry> pending = new HashMap<>();
+
+  /** The next scheduled write */
+  private ScheduledFuture<?> scheduledWrite = null;
+
+  /**
+   * Creates a new queue.
+   *
+   * @param writer
+   *          the target of the writes
+   * @param delay
+   *          time in milliseconds an update may wait in the queue
+   * @param batchSize
+   *          the maximum number of documents per bulk request
+   * @param statistics
+   *          the statistics to update
+   */
+  WriteBehindQueue(Writer writer, long delay, int batchSize, IndexWriteStatistics statistics) {
+    this.writer = writer;
+    this.delay = delay;
+    this.batchSize = Math.max(1, batchSize);
+    this.statistics = statistics;
+    // Queued updates are written by shutdown() right away
+    scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+  }
+
+  /**
+   * Adds the documents to the queue.
+   *
+   * @param documents
+   *          the documents
+   */
+  synchronized void add(ElasticsearchDocument... documents) {
+    for (ElasticsearchDocument document : documents) {
+      String key = key(document.getType(), document.getUID());
+      Entry entry = queue.get(key);
+      if (entry != null) {
+        entry.document = document;
+        statistics.coalesced();
+      } else {
+        entry = new Entry(key, document);
+        queue.put(key, entry);
+        pending.put(key, entry);
+      }
+    }
+    statistics.setQueued(queue.size());
+    scheduleWrite(queue.size() >= batchSize ? 0 : delay);
+  }
+
+  /**
+   * Waits until the latest update of the given document is visible to searches. If the update is still waiting in the
+   * queue, it is written right away.
+   *
+   * @param type
+   *          the document type
+   * @param uid
+   *          the document identifier
+   * @throws SearchIndexException
+   *           if writing the update failed
+   */
+  void await(String type, String uid) throws SearchIndexException {
+    Entry entry;
+    synchronized (this) {
+      entry = pending.get(key(type, uid));
+    }
+    if (entry != null)
+      await(Collections.singletonList(entry));
+  }
+
+  /**
+   * Waits until the latest updates of all documents of the given type that have been added so far are visible to
+   * searches. Updates still waiting in the queue are written right away.
+   *
+   * @param type
+   *          the document type
+   * @throws SearchIndexException
+   *           if writing any of the updates failed
+   */
+  void await(String type) throws SearchIndexException {
+    String prefix = key(type, "");
+    List<Entry> entries = new ArrayList<>();
+    synchronized (this) {
+      for (Entry entry : pending.values()) {
+        if (entry.key.startsWith(prefix))
+          entries.add(entry);
+      }
+    }
+    await(entries);
+  }
+
+  /**
+   * Waits until the given updates are visible to searches, writing them first if they are still queued.
+   *
+   * @param entries
+   *          the updates
+   * @throws SearchIndexException
+   *           if writing any of the updates failed
+   */
+  private void await(List<Entry> entries) throws SearchIndexException {
+    if (entries.isEmpty())
+      return;
+
+    boolean refresh = false;
+    for (Entry entry : entries) {
+      while (!entry.sent) {
+        write(true);
+      }
+      // The update may be waiting for the next refresh
+      refresh |= entry.written.getCount() > 0;
+    }
+    if (refresh) {
+      statistics.forcedRefresh();
+      writer.refresh();
+    }
+
+    Entry failed = null;
+    for (Entry entry : entries) {
+      try {
+        entry.written.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new SearchIndexException("Interrupted while waiting for document " + entry.key + " to be written", e);
+      }
+      if (entry.failure != null)
+        failed = entry;
+    }
+    if (failed != null)
+      throw new SearchIndexException("Unable to write document " + failed.key, failed.failure);
+  }
+
+  /**
+   * Writes all queued updates and waits until they are visible to searches.
+   */
+  void flush() {
+    while (write(true)) {
+      continue;
+    }
+  }
+
+  /**
+   * Writes all queued updates and stops the queue.
+   */
+  void shutdown() {
+    scheduler.shutdown();
+    try {
+      scheduler.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flush();
+  }
+
+  /**
+   * Schedules writing the queue if it has not been scheduled to happen earlier.
+   *
+   * @param wait
+   *          the time to wait in milliseconds
+   */
+  private void scheduleWrite(long wait) {
+    if (scheduledWrite != null) {
+      if (wait > 0 || scheduledWrite.getDelay(TimeUnit.MILLISECONDS) <= 0)
+        return;
+      scheduledWrite.cancel(false);
+    }
+    if (!scheduler.isShutdown())
+      scheduledWrite = scheduler.schedule(this::writeQueue, wait, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Writes the queue on the scheduler thread.
+   */
+  private void writeQueue() {
+    synchronized (this) {
+      scheduledWrite = null;
+    }
+    try {
+      while (write(false)) {
+        continue;
+      }
+    } catch (Throwable t) {
+      logger.error("Unable to write queued documents to the index", t);
+    }
+  }
+
+  /**
+   * Sends the next batch of queued updates to the index.
+   *
+   * @param forceRefresh
+   *          whether to refresh the index right away
+   * @return <code>true</code> if there was anything to write
+   */
+  private boolean write(boolean forceRefresh) {
+    if (!writeLock.tryLock()) {
+      // Let a running bulk request that waits for the next refresh return right away
+      if (forceRefresh)
+        writer.refresh();
+      writeLock.lock();
+    }
+    try {
+      List<Entry> batch = new ArrayList<>();
+      synchronized (this) {
+        Iterator<Entry> entries = queue.values().iterator();
+        while (entries.hasNext() && batch.size() < batchSize) {
+          Entry entry = entries.next();
+          entries.remove();
+          entry.sent = true;
+          batch.add(entry);
+        }
+        statistics.setQueued(queue.size());
+      }
+      if (batch.isEmpty())
+        return false;
+
+      List<ElasticsearchDocument> documents = new ArrayList<>(batch.size());
+      long oldest = Long.MAX_VALUE;
+      for (Entry entry : batch) {
+        documents.add(entry.document);
+        oldest = Math.min(oldest, entry.queued);
+      }
+
+      Exception failure = null;
+      try {
+        writer.write(documents, forceRefresh);
+      } catch (Exception e) {
+        logger.warn("Unable to write {} queued documents to the index", documents.size(), e);
+        failure = e;
+      }
+      if (forceRefresh)
+        statistics.forcedRefresh();
+      statistics.written(documents.size(), System.currentTimeMillis() - oldest, failure == null);
+
+      synchronized (this) {
+        for (Entry entry : batch) {
+          pending.remove(entry.key, entry);
+          entry.failure = failure;
+          entry.written.countDown();
+        }
+      }
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static String key(String type, String uid) {
+    return type + "/" + uid;
+  }
+
+  /** A queued update */
+  private static final class Entry {
+
+    /** The document type and identifier */
+    private final String key;
+
+    /** The time at which the document has been queued */
+    private final long queued = System.currentTimeMillis();
+
+    /** Released once the update is visible to searches or has failed */
+    private final CountDownLatch written = new CountDownLatch(1);
+
+    /** The latest version of the document */
+    private ElasticsearchDocument document;
+
+    /** Whether the update has been taken from the queue */
+    private volatile boolean sent = false;
+
+    /** The reason why writing the update failed */
+    private volatile Exception failure = null;
+
+    Entry(String key, ElasticsearchDocument document) {
+      this.key = key;
+      this.document = document;
+    }
+
+  }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.matterhorn.search.impl.jmx;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IndexWriteStatistics implements IndexWriteStatisticsMXBean {
+
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final AtomicLong bulkRequests = new AtomicLong();
+  private final AtomicLong failedBulkRequests = new AtomicLong();
+  private final AtomicLong writtenDocuments = new AtomicLong();
+  private final AtomicLong totalLag = new AtomicLong();
+  private final AtomicLong maxLag = new AtomicLong();
+  private final AtomicLong forcedRefreshes = new AtomicLong();
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getQueuedDocuments()
+   */
+  @Override
+  public int getQueuedDocuments() {
+    return queued.get();
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getCoalescedUpdates()
+   */
+  @Override
+  public long getCoalescedUpdates() {
+    return coalesced.get();
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getBulkRequests()
+   */
+  @Override
+  public long getBulkRequests() {
+    return bulkRequests.get();
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getFailedBulkRequests()
+   */
+  @Override
+  public long getFailedBulkRequests() {
+    return failedBulkRequests.get();
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getWrittenDocuments()
+   */
+  @Override
+  public long getWrittenDocuments() {
+    return writtenDocuments.get();
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getAverageBatchSize()
+   */
+  @Override
+  public double getAverageBatchSize() {
+    long requests = bulkRequests.get();
+    return requests == 0 ? 0.0 : (double) writtenDocuments.get() / requests;
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getAverageLag()
+   */
+  @Override
+  public long getAverageLag() {
+    long requests = bulkRequests.get();
+    return requests == 0 ? 0L : totalLag.get() / requests;
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getMaxLag()
+   */
+  @Override
+  public long getMaxLag() {
+    return maxLag.get();
+  }
+
+  /**
+   * @see org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatisticsMXBean#getForcedRefreshes()
+   */
+  @Override
+  public long getForcedRefreshes() {
+    return forcedRefreshes.get();
+  }
+
+  public void setQueued(int documents) {
+    queued.set(documents);
+  }
+
+  public void coalesced() {
+    coalesced.incrementAndGet();
+  }
+
+  public void written(int documents, long lag, boolean successful) {
+    bulkRequests.incrementAndGet();
+    if (successful)
+      writtenDocuments.addAndGet(documents);
+    else
+      failedBulkRequests.incrementAndGet();
+    totalLag.addAndGet(lag);
+    maxLag.accumulateAndGet(lag, Math::max);
+  }
+
+  public void forcedRefresh() {
+    forcedRefreshes.incrementAndGet();
+  }
+
+}
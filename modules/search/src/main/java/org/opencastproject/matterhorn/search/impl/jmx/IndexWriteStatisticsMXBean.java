@@ -0,0 +1,93 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.matterhorn.search.impl.jmx;
+
+/**
+ * JMX Bean interface exposing statistics about the queued writes to a search index.
+ */
+public interface IndexWriteStatisticsMXBean {
+
+  /**
+   * Gets the number of documents currently waiting to be written
+   *
+   * @return the number of documents
+   */
+  int getQueuedDocuments();
+
+  /**
+   * Gets the number of updates that replaced an update of the same document that was still waiting to be written
+   *
+   * @return the number of updates
+   */
+  long getCoalescedUpdates();
+
+  /**
+   * Gets the number of bulk requests sent to the index
+   *
+   * @return the number of bulk requests
+   */
+  long getBulkRequests();
+
+  /**
+   * Gets the number of bulk requests that failed
+   *
+   * @return the number of bulk requests
+   */
+  long getFailedBulkRequests();
+
+  /**
+   * Gets the number of documents written to the index
+   *
+   * @return the number of documents
+   */
+  long getWrittenDocuments();
+
+  /**
+   * Gets the average number of documents per bulk request
+   *
+   * @return the average batch size
+   */
+  double getAverageBatchSize();
+
+  /**
+   * Gets the average time in milliseconds between queuing the oldest document of a bulk request and the request
+   * completing
+   *
+   * @return the average lag
+   */
+  long getAverageLag();
+
+  /**
+   * Gets the longest time in milliseconds between queuing a document and writing it
+   *
+   * @return the maximum lag
+   */
+  long getMaxLag();
+
+  /**
+   * Gets the number of refreshes that have been forced to make queued documents visible to searches
+   *
+   * @return the number of refreshes
+   */
+  long getForcedRefreshes();
+
+}
@@ -23,11 +23,16 @@
 package org.opencastproject.matterhorn.search.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.opencastproject.matterhorn.search.impl.SearchIndexImplStub.CONTENT_TYPE;
 
+import org.opencastproject.matterhorn.search.SearchIndexException;
 import org.opencastproject.matterhorn.search.SearchMetadata;
 
+import org.elasticsearch.cluster.metadata.IndexMetaData;
+import org.elasticsearch.common.settings.Settings;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -38,6 +43,7 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -108,6 +114,66 @@ public class SearchIndexTest {
     assertEquals(indexVersion, idx.getIndexVersion());
   }
 
+  /**
+   * Test method for {@link AbstractElasticsearchIndex#startRebuild(boolean)} and
+   * {@link AbstractElasticsearchIndex#finishRebuild()}.
+   */
+  @Test
+  public void testRebuild() throws Exception {
+    populateIndex();
+    assertEquals(Collections.emptySet(), idx.startRebuild(false));
+
+    List<SearchMetadata<?>> metadata = new ArrayList<SearchMetadata<?>>();
+    idx.update(new ElasticsearchDocument("rebuilt", CONTENT_TYPE, metadata));
+    idx.completeRebuildStep("content");
+    assertTrue(exists("0"));
+    assertTrue(exists("rebuilt"));
+
+    // Resuming picks up the recorded progress
+    assertEquals(Collections.singleton("content"), idx.startRebuild(true));
+
+    idx.finishRebuild();
+    assertFalse(exists("0"));
+    assertTrue(exists("rebuilt"));
+    assertEquals(indexVersion, idx.getIndexVersion());
+  }
+
+  /**
+   * Test method for {@link AbstractElasticsearchIndex#finishRebuild()} when the index cannot be replaced.
+   */
+  @Test
+  public void testFailedRebuildSwap() throws Exception {
+    populateIndex();
+    idx.startRebuild(false);
+    idx.update(new ElasticsearchDocument("rebuilt", CONTENT_TYPE, new ArrayList<SearchMetadata<?>>()));
+
+    // Aliases cannot be changed while the metadata of the rebuild is blocked
+    setRebuildMetadataBlocked(true);
+    try {
+      idx.finishRebuild();
+      fail("Replacing the index with a blocked rebuild did not fail");
+    } catch (SearchIndexException e) {
+      // expected
+    } finally {
+      setRebuildMetadataBlocked(false);
+    }
+    assertTrue(exists("0"));
+    assertTrue(exists("rebuilt"));
+
+    idx.finishRebuild();
+    assertFalse(exists("0"));
+    assertTrue(exists("rebuilt"));
+  }
+
+  private void setRebuildMetadataBlocked(boolean blocked) {
+    idx.getSearchClient().admin().indices().prepareUpdateSettings(indexName + "_*")
+            .setSettings(Settings.builder().put(IndexMetaData.SETTING_BLOCKS_METADATA, blocked)).execute().actionGet();
+  }
+
+  private boolean exists(String id) {
+    return idx.getSearchClient().prepareGet(indexName, CONTENT_TYPE, id).execute().actionGet().isExists();
+  }
+
   /**
    * Adds sample pages to the search index and returns the number of documents added.
    *
@@ -0,0 +1,188 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.matterhorn.search.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.opencastproject.matterhorn.search.SearchIndexException;
+import org.opencastproject.matterhorn.search.SearchMetadata;
+import org.opencastproject.matterhorn.search.impl.jmx.IndexWriteStatistics;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test case for {@link WriteBehindQueue}.
+ */
+public class WriteBehindQueueTest {
+
+  private final RecordingWriter writer = new RecordingWriter();
+
+  private final IndexWriteStatistics statistics = new IndexWriteStatistics();
+
+  private WriteBehindQueue queue = null;
+
+  @After
+  public void tearDown() {
+    if (queue != null)
+      queue.shutdown();
+  }
+
+  @Test
+  public void testCoalescing() throws Exception {
+    queue = new WriteBehindQueue(writer, 60000, 10, statistics);
+    queue.add(document("a", "1"));
+    queue.add(document("b", "1"));
+    queue.add(document("a", "2"));
+    assertEquals(2, statistics.getQueuedDocuments());
+    assertEquals(1, statistics.getCoalescedUpdates());
+    assertTrue(writer.batches.isEmpty());
+
+    queue.flush();
+    assertEquals(1, writer.batches.size());
+    assertEquals(2, writer.batches.get(0).size());
+    assertEquals("2", writer.batches.get(0).get(0).get("title"));
+    assertEquals(0, statistics.getQueuedDocuments());
+    assertEquals(2, statistics.getWrittenDocuments());
+  }
+
+  @Test
+  public void testDelayedWrite() throws Exception {
+    queue = new WriteBehindQueue(writer, 10, 10, statistics);
+    queue.add(document("a", "1"));
+    long timeout = System.currentTimeMillis() + 5000;
+    while (statistics.getBulkRequests() == 0 && System.currentTimeMillis() < timeout) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, writer.batches.size());
+    assertEquals(Collections.singletonList(false), writer.forcedRefreshes);
+  }
+
+  @Test
+  public void testBatchSize() throws Exception {
+    queue = new WriteBehindQueue(writer, 60000, 2, statistics);
+    for (int i = 0; i < 5; i++) {
+      queue.add(document(Integer.toString(i), "1"));
+    }
+    queue.flush();
+    assertEquals(3, statistics.getBulkRequests());
+    assertEquals(5, statistics.getWrittenDocuments());
+    for (List<ElasticsearchDocument> batch : writer.batches) {
+      assertTrue(batch.size() <= 2);
+    }
+  }
+
+  @Test
+  public void testAwait() throws Exception {
+    queue = new WriteBehindQueue(writer, 60000, 10, statistics);
+    queue.add(document("a", "1"));
+    queue.add(document("b", "1"));
+
+    // Documents that have not been queued do not need to be written
+    queue.await("content", "c");
+    assertTrue(writer.batches.isEmpty());
+
+    queue.await("content", "b");
+    assertEquals(1, writer.batches.size());
+    assertEquals(2, writer.batches.get(0).size());
+    assertEquals(Collections.singletonList(true), writer.forcedRefreshes);
+    assertEquals(1, statistics.getForcedRefreshes());
+  }
+
+  @Test
+  public void testAwaitType() throws Exception {
+    queue = new WriteBehindQueue(writer, 60000, 10, statistics);
+    queue.add(document("a", "1"));
+    queue.add(document("b", "1"));
+
+    // Documents of other types do not need to be written
+    queue.await("other");
+    assertTrue(writer.batches.isEmpty());
+
+    // A query without identifiers sees all queued updates of the type
+    queue.await("content");
+    assertEquals(1, writer.batches.size());
+    assertEquals(2, writer.batches.get(0).size());
+    assertEquals(Collections.singletonList(true), writer.forcedRefreshes);
+
+    // Nothing is pending anymore
+    queue.await("content");
+    assertEquals(1, writer.batches.size());
+  }
+
+  @Test
+  public void testFailedWrite() throws Exception {
+    writer.fail = true;
+    queue = new WriteBehindQueue(writer, 60000, 10, statistics);
+    queue.add(document("a", "1"));
+    try {
+      queue.await("content", "a");
+      fail("Failure to write the document was not reported");
+    } catch (SearchIndexException e) {
+      // expected
+    }
+    assertEquals(1, statistics.getFailedBulkRequests());
+    assertEquals(0, statistics.getWrittenDocuments());
+
+    // The failure is reported only once
+    queue.await("content", "a");
+  }
+
+  private static ElasticsearchDocument document(String id, String title) {
+    List<SearchMetadata<?>> metadata = new ArrayList<>();
+    SearchMetadata<String> titleMetadata = new SearchMetadataImpl<>("title");
+    titleMetadata.addValue(title);
+    metadata.add(titleMetadata);
+    ElasticsearchDocument document = new ElasticsearchDocument(id, "content", metadata);
+    document.put("title", title);
+    return document;
+  }
+
+  private static final class RecordingWriter implements WriteBehindQueue.Writer {
+
+    private final List<List<ElasticsearchDocument>> batches = Collections.synchronizedList(new ArrayList<>());
+
+    private final List<Boolean> forcedRefreshes = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean fail = false;
+
+    @Override
+    public void write(List<ElasticsearchDocument> documents, boolean forceRefresh) throws SearchIndexException {
+      if (fail)
+        throw new SearchIndexException("Writing failed");
+      batches.add(new ArrayList<>(documents));
+      forcedRefreshes.add(forceRefresh);
+    }
+
+    @Override
+    public void refresh() {
+    }
+
+  }
+
+}
@@ -0,0 +1,95 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import java.util.List;
+
+/**
+ * Decides in which order the service registry tries to dispatch the jobs waiting in its dispatch queue.
+ * <p>
+ * The policy in use is selected by name with the <code>dispatch.policy</code> option of the service registry. Besides
+ * the built-in policies, additional policies can be registered as OSGi services implementing this interface.
+ * <p>
+ * Policies are only ever called from the dispatcher thread.
+ */
+public interface DispatchPolicy {
+
+  /**
+   * @return the name by which the policy is selected
+   */
+  String getName();
+
+  /**
+   * Orders the jobs waiting for dispatch. The jobs are passed in the default dispatch order, i. e. restarted jobs
+   * first, then by creation date. Jobs of type workflow are always dispatched after all other jobs, regardless of the
+   * order returned by the policy.
+   *
+   * @param jobs
+   *          the queued jobs in default dispatch order
+   * @return the jobs in the order in which they should be dispatched
+   */
+  List<QueuedJob> order(List<QueuedJob> jobs);
+
+  /**
+   * Notifies the policy that a job has been dispatched successfully.
+   *
+   * @param job
+   *          the dispatched job
+   */
+  void jobDispatched(QueuedJob job);
+
+  /** A job waiting to be dispatched */
+  interface QueuedJob {
+
+    /**
+     * @return the job identifier
+     */
+    long getId();
+
+    /**
+     * @return the job type
+     */
+    String getJobType();
+
+    /**
+     * @return the identifier of the organization the job has been created in
+     */
+    String getOrganization();
+
+    /**
+     * @return whether the job has been restarted
+     */
+    boolean isRestart();
+
+    /**
+     * @return the creation time of the job in milliseconds
+     */
+    long getCreated();
+
+    /**
+     * @return the time at which the job entered the queue in milliseconds
+     */
+    long getEnqueued();
+
+  }
+
+}
@@ -0,0 +1,330 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import static org.opencastproject.serviceregistry.impl.ServiceRegistryJpaImpl.TYPE_WORKFLOW;
+
+import org.opencastproject.job.api.Job.Status;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory view of the jobs that are waiting to be dispatched, grouped by job type.
+ * <p>
+ * The database remains the persistent source of truth. This queue is fed by job creation and job state transitions in
+ * the service registry and is periodically reconciled against the database, so the dispatcher does not have to page
+ * through all queued jobs on every pass.
+ */
+class DispatchQueue {
+
+  /** The entries waiting for dispatch, by job type */
+  private final ConcurrentMap<String, ConcurrentSkipListSet<Entry>> queues = new ConcurrentHashMap<>();
+
+  /** The entries waiting for dispatch, by job identifier */
+  private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * Returns <code>true</code> if a job with the given status is waiting to be dispatched.
+   *
+   * @param status
+   *          the job status
+   * @return whether the job is dispatchable in this status
+   */
+  static boolean isQueued(Status status) {
+    return Status.QUEUED.equals(status) || Status.RESTART.equals(status);
+  }
+
+  /**
+   * Adds a job to the queue or updates its queue position if it is already known. Jobs that are not waiting for
+   * dispatch are removed from the queue instead.
+   *
+   * @param id
+   *          the job identifier
+   * @param jobType
+   *          the job type
+   * @param organization
+   *          the organization the job has been created in
+   * @param status
+   *          the job status
+   * @param dateCreated
+   *          the creation date of the job, may be <code>null</code>
+   * @param dispatchable
+   *          whether the job is dispatchable at all
+   */
+  void update(long id, String jobType, String organization, Status status, Date dateCreated, boolean dispatchable) {
+    if (!dispatchable || jobType == null || !isQueued(status)) {
+      remove(id);
+      return;
+    }
+    Entry existing = entries.get(id);
+    long now = System.currentTimeMillis();
+    long created = dateCreated != null ? dateCreated.getTime() : now;
+    long enqueued = now;
+    if (existing != null) {
+      // Keep the time at which the job originally entered the queue
+      if (existing.restart == Status.RESTART.equals(status) && existing.jobType.equals(jobType))
+        return;
+      enqueued = existing.enqueued;
+      remove(id);
+    }
+    Entry entry = new Entry(id, jobType, organization, Status.RESTART.equals(status), created, enqueued);
+    entries.put(id, entry);
+    getQueue(jobType).add(entry);
+  }
+
+  /**
+   * Removes the job from the queue.
+   *
+   * @param id
+   *          the job identifier
+   * @return the removed entry or <code>null</code> if the job was not queued
+   */
+  Entry remove(long id) {
+    Entry entry = entries.remove(id);
+    if (entry != null) {
+      ConcurrentSkipListSet<Entry> queue = queues.get(entry.jobType);
+      if (queue != null)
+        queue.remove(entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Returns the queue entry of the given job.
+   *
+   * @param id
+   *          the job identifier
+   * @return the entry or <code>null</code> if the job is not queued
+   */
+  Entry get(long id) {
+    return entries.get(id);
+  }
+
+  /**
+   * Replaces the contents of the queue with the jobs found in the database. Entries that are still queued keep their
+   * original enqueue time.
+   *
+   * @param rows
+   *          projections of the dispatchable jobs as
+   *          <code>[id, status ordinal, date created, job type, organization]</code>
+   */
+  void reconcile(List<Object[]> rows) {
+    Map<Long, Entry> known = new HashMap<>(entries);
+    long now = System.currentTimeMillis();
+    List<Long> found = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      long id = ((Number) row[0]).longValue();
+      Status status = Status.values()[((Number) row[1]).intValue()];
+      Date created = (Date) row[2];
+      String jobType = (String) row[3];
+      String organization = (String) row[4];
+      found.add(id);
+      Entry existing = known.get(id);
+      if (existing == null) {
+        // Jobs we learn about through the database have been waiting since they were created
+        long createdTime = created != null ? created.getTime() : now;
+        Entry entry = new Entry(id, jobType, organization, Status.RESTART.equals(status), createdTime, createdTime);
+        entries.put(id, entry);
+        getQueue(jobType).add(entry);
+      } else {
+        update(id, jobType, organization, status, created, true);
+      }
+    }
+    known.keySet().removeAll(found);
+    for (Long id : known.keySet()) {
+      remove(id);
+    }
+  }
+
+  /**
+   * Returns the identifiers of all queued jobs in dispatch order. Restarted jobs come first, jobs of type workflow come
+   * after all other job types, and within these groups the oldest job comes first.
+   *
+   * @return the ordered job identifiers
+   */
+  List<Long> getJobIds() {
+    List<Entry> all = new ArrayList<>(entries.values());
+    Collections.sort(all, DISPATCH_ORDER);
+    List<Long> ids = new ArrayList<>(all.size());
+    for (Entry entry : all) {
+      ids.add(entry.id);
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the identifiers of all queued jobs in the order determined by the given dispatch policy.
+   *
+   * @param policy
+   *          the dispatch policy
+   * @return the ordered job identifiers
+   */
+  List<Long> getJobIds(DispatchPolicy policy) {
+    List<DispatchPolicy.QueuedJob> all = new ArrayList<>(entries.values());
+    Collections.sort(all, DISPATCH_ORDER);
+    List<DispatchPolicy.QueuedJob> ordered = policy.order(all);
+    List<Long> ids = new ArrayList<>(ordered.size());
+    for (DispatchPolicy.QueuedJob job : ordered) {
+      ids.add(job.getId());
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the number of queued jobs per job type.
+   *
+   * @return the queue depths
+   */
+  Map<String, Integer> getQueueDepths() {
+    Map<String, Integer> depths = new HashMap<>();
+    for (Map.Entry<String, ConcurrentSkipListSet<Entry>> queue : queues.entrySet()) {
+      int size = queue.getValue().size();
+      if (size > 0)
+        depths.put(queue.getKey(), size);
+    }
+    return depths;
+  }
+
+  /**
+   * Returns the number of queued jobs per organization.
+   *
+   * @return the queue depths
+   */
+  Map<String, Integer> getQueueDepthsByOrganization() {
+    Map<String, Integer> depths = new HashMap<>();
+    for (Entry entry : entries.values()) {
+      if (entry.organization != null)
+        depths.merge(entry.organization, 1, Integer::sum);
+    }
+    return depths;
+  }
+
+  /**
+   * @return the total number of queued jobs
+   */
+  int size() {
+    return entries.size();
+  }
+
+  /** Removes all entries from the queue. */
+  void clear() {
+    entries.clear();
+    queues.clear();
+  }
+
+  private ConcurrentSkipListSet<Entry> getQueue(String jobType) {
+    ConcurrentSkipListSet<Entry> queue = queues.get(jobType);
+    if (queue == null) {
+      queues.putIfAbsent(jobType, new ConcurrentSkipListSet<>(DISPATCH_ORDER));
+      queue = queues.get(jobType);
+    }
+    return queue;
+  }
+
+  /** Orders queue entries the same way {@link ServiceRegistryJpaImpl.DispatchableComparator} orders jobs */
+  static final Comparator<DispatchPolicy.QueuedJob> DISPATCH_ORDER = new Comparator<DispatchPolicy.QueuedJob>() {
+    @Override
+    public int compare(DispatchPolicy.QueuedJob a, DispatchPolicy.QueuedJob b) {
+      if (a.isRestart() != b.isRestart())
+        return a.isRestart() ? -1 : 1;
+      boolean workflowA = TYPE_WORKFLOW.equals(a.getJobType());
+      boolean workflowB = TYPE_WORKFLOW.equals(b.getJobType());
+      if (workflowA != workflowB)
+        return workflowA ? 1 : -1;
+      if (a.getCreated() != b.getCreated())
+        return a.getCreated() < b.getCreated() ? -1 : 1;
+      return Long.compare(a.getId(), b.getId());
+    }
+  };
+
+  /** A job waiting to be dispatched */
+  static final class Entry implements DispatchPolicy.QueuedJob {
+
+    /** The job identifier */
+    private final long id;
+
+    /** The job type */
+    private final String jobType;
+
+    /** The organization the job has been created in */
+    private final String organization;
+
+    /** Whether the job has been restarted */
+    private final boolean restart;
+
+    /** The creation time of the job */
+    private final long created;
+
+    /** The time at which the job entered the queue */
+    private final long enqueued;
+
+    Entry(long id, String jobType, String organization, boolean restart, long created, long enqueued) {
+      this.id = id;
+      this.jobType = jobType;
+      this.organization = organization;
+      this.restart = restart;
+      this.created = created;
+      this.enqueued = enqueued;
+    }
+
+    @Override
+    public long getId() {
+      return id;
+    }
+
+    @Override
+    public String getJobType() {
+      return jobType;
+    }
+
+    @Override
+    public String getOrganization() {
+      return organization;
+    }
+
+    @Override
+    public boolean isRestart() {
+      return restart;
+    }
+
+    @Override
+    public long getCreated() {
+      return created;
+    }
+
+    @Override
+    public long getEnqueued() {
+      return enqueued;
+    }
+
+  }
+
+}
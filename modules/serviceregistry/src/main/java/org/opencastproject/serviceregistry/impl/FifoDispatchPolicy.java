@@ -0,0 +1,49 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import java.util.List;
+
+/**
+ * Dispatches restarted jobs first and all other jobs in the order they have been created in. This is the default
+ * policy.
+ */
+public class FifoDispatchPolicy implements DispatchPolicy {
+
+  /** The name of this policy */
+  public static final String NAME = "fifo";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<QueuedJob> order(List<QueuedJob> jobs) {
+    return jobs;
+  }
+
+  @Override
+  public void jobDispatched(QueuedJob job) {
+  }
+
+}
@@ -0,0 +1,266 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.serviceregistry.api.HostRegistration;
+import org.opencastproject.serviceregistry.api.SystemLoad;
+import org.opencastproject.serviceregistry.api.SystemLoad.NodeLoad;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Incrementally maintained model of the load on each host.
+ * <p>
+ * The model is updated whenever a job changes its state in this service registry and is reconciled with the database
+ * periodically, which takes care of state changes made by other nodes. This allows the dispatcher to take load based
+ * decisions without querying the database for every job.
+ * <p>
+ * Jobs that have been dispatched to a host but are not running yet add to the load of the host, so that the dispatcher
+ * does not overload it. They are not part of the load of the jobs the host has accepted, though, since a host asked to
+ * accept such a job adds its load itself.
+ * <p>
+ * All modifications are synchronized, so that the loads always match the recorded jobs. Reads are not.
+ */
+class HostLoadModel {
+
+  /** Threshold below which differences in load are considered rounding errors */
+  private static final float TOLERANCE = 0.01f;
+
+  /** The jobs that currently contribute to the load of a host */
+  private final ConcurrentMap<Long, JobLoad> jobs = new ConcurrentHashMap<>();
+
+  /** Current load by host */
+  private final ConcurrentMap<String, Float> loads = new ConcurrentHashMap<>();
+
+  /** Load of the jobs which have been dispatched but are not running yet by host */
+  private final ConcurrentMap<String, Float> dispatchingLoads = new ConcurrentHashMap<>();
+
+  /** Maximum load by host */
+  private final ConcurrentMap<String, Float> maxLoads = new ConcurrentHashMap<>();
+
+  /**
+   * Adds a host to the model or updates its maximum load.
+   *
+   * @param host
+   *          the host's base URL
+   * @param maxLoad
+   *          the maximum load of the host
+   */
+  synchronized void updateHost(String host, float maxLoad) {
+    maxLoads.put(host, maxLoad);
+  }
+
+  /**
+   * Records the state of a job.
+   *
+   * @param jobId
+   *          the job identifier
+   * @param host
+   *          the host processing the job, may be <code>null</code>
+   * @param load
+   *          the job load
+   * @param influencesLoad
+   *          whether the job in its current state adds to the load of the processing host
+   */
+  synchronized void updateJob(long jobId, String host, float load, boolean influencesLoad) {
+    if (!influencesLoad || host == null) {
+      removeJob(jobId);
+      return;
+    }
+    putJob(jobId, new JobLoad(host, load, false));
+  }
+
+  /**
+   * Records a job which has been dispatched to a host but is not running yet.
+   *
+   * @param jobId
+   *          the job identifier
+   * @param host
+   *          the host the job has been dispatched to
+   * @param load
+   *          the job load
+   */
+  synchronized void jobDispatched(long jobId, String host, float load) {
+    putJob(jobId, new JobLoad(host, load, true));
+  }
+
+  /**
+   * Removes a job from the model, e. g. because it is no longer running or because it has been deleted.
+   *
+   * @param jobId
+   *          the job identifier
+   */
+  synchronized void removeJob(long jobId) {
+    JobLoad previous = jobs.remove(jobId);
+    if (previous != null)
+      addLoad(previous, -1);
+  }
+
+  /**
+   * Returns the current load of the given host.
+   *
+   * @param host
+   *          the host's base URL
+   * @return the load
+   */
+  float getLoad(String host) {
+    return get(loads, host);
+  }
+
+  /**
+   * Returns the load of the jobs running on the given host, leaving out jobs which have been dispatched to it but are
+   * not running yet.
+   *
+   * @param host
+   *          the host's base URL
+   * @return the load
+   */
+  float getRunningLoad(String host) {
+    float load = getLoad(host) - get(dispatchingLoads, host);
+    return Math.abs(load) < TOLERANCE ? 0.0f : load;
+  }
+
+  /**
+   * @return the number of jobs contributing to the host loads
+   */
+  int getJobCount() {
+    return jobs.size();
+  }
+
+  /**
+   * Creates a snapshot of the current host loads. Modifications to the snapshot do not affect the model.
+   *
+   * @return the current system load
+   */
+  SystemLoad getSystemLoad() {
+    SystemLoad systemLoad = new SystemLoad();
+    for (Map.Entry<String, Float> host : maxLoads.entrySet()) {
+      systemLoad.addNodeLoad(new NodeLoad(host.getKey(), getLoad(host.getKey()), host.getValue()));
+    }
+    return systemLoad;
+  }
+
+  /**
+   * Replaces the contents of the model with the state found in the database.
+   *
+   * @param runningJobs
+   *          the jobs adding to the host loads as <code>[id, host, load]</code> or <code>[id, host, load, status]</code>,
+   *          where the status is the ordinal of the job status
+   * @param hosts
+   *          the registered hosts
+   * @return the difference between the load in the model and the load in the database by host, for every host where
+   *         the two did not match
+   */
+  synchronized Map<String, Float> reconcile(List<Object[]> runningJobs, List<HostRegistration> hosts) {
+    Map<String, Float> databaseLoads = new HashMap<>();
+    Map<String, Float> databaseDispatchingLoads = new HashMap<>();
+    Map<Long, JobLoad> databaseJobs = new HashMap<>();
+    for (Object[] row : runningJobs) {
+      long id = ((Number) row[0]).longValue();
+      String host = (String) row[1];
+      float load = row[2] == null ? 0.0f : ((Number) row[2]).floatValue();
+      boolean dispatching = row.length > 3 && row[3] != null
+              && ((Number) row[3]).intValue() == Status.DISPATCHING.ordinal();
+      databaseJobs.put(id, new JobLoad(host, load, dispatching));
+      databaseLoads.merge(host, load, Float::sum);
+      if (dispatching)
+        databaseDispatchingLoads.merge(host, load, Float::sum);
+    }
+
+    Map<String, Float> deviations = new HashMap<>();
+    for (String host : loads.keySet()) {
+      if (!databaseLoads.containsKey(host))
+        databaseLoads.put(host, 0.0f);
+    }
+    for (Map.Entry<String, Float> host : databaseLoads.entrySet()) {
+      float deviation = getLoad(host.getKey()) - host.getValue();
+      if (Math.abs(deviation) > TOLERANCE)
+        deviations.put(host.getKey(), deviation);
+    }
+
+    jobs.clear();
+    jobs.putAll(databaseJobs);
+    loads.clear();
+    loads.putAll(databaseLoads);
+    dispatchingLoads.clear();
+    dispatchingLoads.putAll(databaseDispatchingLoads);
+
+    maxLoads.clear();
+    for (HostRegistration host : hosts) {
+      maxLoads.put(host.getBaseUrl(), host.getMaxLoad());
+    }
+    return deviations;
+  }
+
+  private void putJob(long jobId, JobLoad job) {
+    JobLoad previous = jobs.put(jobId, job);
+    if (previous != null) {
+      if (previous.host.equals(job.host) && previous.load == job.load && previous.dispatching == job.dispatching)
+        return;
+      addLoad(previous, -1);
+    }
+    addLoad(job, 1);
+  }
+
+  private void addLoad(JobLoad job, int sign) {
+    addLoad(loads, job.host, sign * job.load);
+    if (job.dispatching)
+      addLoad(dispatchingLoads, job.host, sign * job.load);
+  }
+
+  private static void addLoad(ConcurrentMap<String, Float> loads, String host, float load) {
+    loads.merge(host, load, (a, b) -> {
+      float sum = a + b;
+      // Avoid accumulating rounding errors around zero
+      return Math.abs(sum) < TOLERANCE ? 0.0f : sum;
+    });
+  }
+
+  private static float get(Map<String, Float> loads, String host) {
+    Float load = loads.get(host);
+    return load == null ? 0.0f : load;
+  }
+
+  /** The load a job adds to a host */
+  private static final class JobLoad {
+
+    private final String host;
+
+    private final float load;
+
+    /** Whether the job has been dispatched to the host but is not running yet */
+    private final boolean dispatching;
+
+    JobLoad(String host, float load, boolean dispatching) {
+      this.host = host;
+      this.load = load;
+      this.dispatching = dispatching;
+    }
+
+  }
+
+}
@@ -39,7 +39,11 @@ import static org.opencastproject.util.OsgiUtil.getOptContextProperty;
 
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.job.api.JobImpl;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.job.jpa.JpaJob;
+import org.opencastproject.job.jpa.JpaJobPayload;
+import org.opencastproject.job.jpa.JpaJobProgress;
 import org.opencastproject.rest.RestConstants;
 import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.OrganizationDirectoryService;
@@ -52,6 +56,8 @@ import org.opencastproject.serviceregistry.api.HostRegistration;
 import org.opencastproject.serviceregistry.api.IncidentService;
 import org.opencastproject.serviceregistry.api.Incidents;
 import org.opencastproject.serviceregistry.api.JaxbServiceStatistics;
+import org.opencastproject.serviceregistry.api.JobCompletionSubscriptions;
+import org.opencastproject.serviceregistry.api.JobLoadStatistics;
 import org.opencastproject.serviceregistry.api.ServiceRegistration;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
@@ -100,15 +106,21 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
 import java.util.Dictionary;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.management.ObjectInstance;
 import javax.persistence.EntityManager;
@@ -181,6 +193,12 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** Configuration key for the retrieval of service statistics: Do not consider jobs older than max_job_age (in days) */
   protected static final String OPT_SERVICE_STATISTICS_MAX_JOB_AGE = "org.opencastproject.statistics.services.max_job_age";
 
+  /** Configuration key for the name of the policy deciding on the order in which queued jobs are dispatched */
+  protected static final String OPT_DISPATCH_POLICY = "dispatch.policy";
+
+  /** Configuration key prefix for the weight or priority of an organization in the dispatch policy */
+  protected static final String OPT_DISPATCH_POLICY_ORGANIZATION_PREFIX = "dispatch.policy.organization.";
+
   /** The http client to use when connecting to remote servers */
   protected TrustedHttpClient client = null;
 
@@ -215,6 +233,15 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** Default delay between checking if hosts are still alive in seconds * */
   static final long DEFAULT_HEART_BEAT = 60;
 
+  /** The maximum number of job identifiers passed to a single query */
+  static final int MAX_JOB_IDS_PER_QUERY = 1000;
+
+  /** Default delay between checking the database for the completion of jobs with subscribers, in milliseconds */
+  static final long DEFAULT_JOB_COMPLETION_CHECK_INTERVAL = 1000;
+
+  /** Default delay between reconciling the host loads with the database on nodes not dispatching jobs, in seconds */
+  static final long DEFAULT_LOAD_RECONCILE_INTERVAL = 60;
+
   /** Default job load when not passed by service creating the job * */
   static final float DEFAULT_JOB_LOAD = 0.1f;
 
@@ -256,8 +283,6 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** A static list of statuses that influence how load balancing is calculated */
   protected static final List<Status> JOB_STATUSES_INFLUENCING_LOAD_BALANCING;
 
-  protected static HashMap<Long, Float> jobCache = new HashMap<Long, Float>();
-
   static {
     JOB_STATUSES_INFLUENCING_LOAD_BALANCING = new ArrayList<Status>();
     JOB_STATUSES_INFLUENCING_LOAD_BALANCING.add(Status.RUNNING);
@@ -266,11 +291,58 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /** The dispatcher priority list */
   protected final Map<Long, String> dispatchPriorityList = new HashMap<>();
 
+  /** The jobs waiting to be dispatched */
+  protected final DispatchQueue dispatchQueue = new DispatchQueue();
+
+  /** The dispatch policies registered as OSGi services, by name */
+  private final Map<String, DispatchPolicy> registeredDispatchPolicies = new ConcurrentHashMap<>();
+
+  /** The name of the configured dispatch policy */
+  private volatile String dispatchPolicyName = FifoDispatchPolicy.NAME;
+
+  /** The configured policy if it is a built-in one */
+  private volatile DispatchPolicy builtInDispatchPolicy = new FifoDispatchPolicy();
+
+  /** The policy deciding on the order in which queued jobs are dispatched */
+  protected volatile DispatchPolicy dispatchPolicy = builtInDispatchPolicy;
+
+  /** The job dispatcher, which runs periodically as well as on demand */
+  protected final JobDispatcher jobDispatcher = new JobDispatcher();
+
+  /** Runs a dispatching pass on demand, without reconciling the dispatch queue with the database */
+  private final Runnable signalledDispatch = new Runnable() {
+    @Override
+    public void run() {
+      jobDispatcher.dispatchQueuedJobs();
+    }
+  };
+
+  /** Whether a dispatching pass has been requested that has not been started yet */
+  private final AtomicBoolean dispatchRequested = new AtomicBoolean(false);
+
+  /** Whether the next dispatching pass should reconcile the dispatch queue with the database */
+  private final AtomicBoolean reconcileRequested = new AtomicBoolean(true);
+
+  /** Makes sure that only one dispatching pass is running at a time */
+  private final ReentrantLock dispatchLock = new ReentrantLock();
+
+  /** The delay between two periodic dispatching passes in milliseconds, 0 if dispatching is disabled */
+  protected volatile long dispatchInterval = 0;
+
+  /** Time before which dispatch requests are ignored, giving services a chance to register after startup */
+  private volatile long dispatchStart = Long.MAX_VALUE;
+
   /** Whether to accept a job whose load exceeds the host’s max load */
   protected Boolean acceptJobLoadsExeedingMaxLoad = true;
 
-  // Current system load
-  protected float localSystemLoad = 0.0f;
+  /** The current load of the hosts in the cluster */
+  protected final HostLoadModel hostLoads = new HostLoadModel();
+
+  /** The resources consumed by the jobs processed on this node */
+  protected final JobLoadStatistics jobLoadStatistics = new JobLoadStatistics();
+
+  /** The parties waiting for jobs to complete */
+  protected final JobCompletionSubscriptions jobSubscriptions = new JobCompletionSubscriptions();
 
   /** OSGi DI */
   void setEntityManagerFactory(EntityManagerFactory emf) {
@@ -303,6 +375,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       hostsStatistics = new HostsStatistics(serviceStatistics);
       servicesStatistics = new ServicesStatistics(hostName, serviceStatistics);
       jobsStatistics = new JobsStatistics(hostName);
+      jobsStatistics.updateDispatchPolicy(dispatchPolicy.getName());
       jmxBeans.add(JmxUtil.registerMXBean(hostsStatistics, JMX_HOSTS_STATISTICS_TYPE));
       jmxBeans.add(JmxUtil.registerMXBean(servicesStatistics, JMX_SERVICES_STATISTICS_TYPE));
       jmxBeans.add(JmxUtil.registerMXBean(jobsStatistics, JMX_JOBS_STATISTICS_TYPE));
@@ -364,13 +437,25 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
               .getOrElse(DEFAULT_ACCEPT_JOB_LOADS_EXCEEDING);
     }
 
-    localSystemLoad = 0;
+    // Initialize the host loads
+    EntityManager em = null;
+    try {
+      em = emf.createEntityManager();
+      reconcileHostLoads(em);
+    } catch (ServiceRegistryException e) {
+      logger.warn("Unable to load the current host loads", e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+
     logger.info("Activated");
   }
 
   @Override
   public float getOwnLoad() {
-    return localSystemLoad;
+    // Jobs dispatched to this host are still being accepted, and the accepting service adds their load itself
+    return hostLoads.getRunningLoad(hostName);
   }
 
   @Override
@@ -394,6 +479,9 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       }
     }
 
+    dispatchQueue.clear();
+    jobSubscriptions.failAll("Service registry on " + hostName + " has been deactivated");
+
     for (ObjectInstance mbean : jmxBeans) {
       JmxUtil.unregisterMXBean(mbean);
     }
@@ -578,7 +666,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
         } catch (NotFoundException e) {
           logger.error("{} not found in the persistence context", parentJob);
           // We don't want to leave the deleted job in the cache if there
-          removeFromLoadCache(parentJob.getId());
+          hostLoads.removeJob(parentJob.getId());
           throw new ServiceRegistryException(e);
         }
 
@@ -592,7 +680,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           } catch (NotFoundException e) {
             logger.error("job with id {} not found in the persistence context", parentJob.getRootJobId());
             // We don't want to leave the deleted job in the cache if there
-            removeFromLoadCache(parentJob.getId());
+            hostLoads.removeJob(parentJob.getId());
             throw new ServiceRegistryException(e);
           }
         }
@@ -609,10 +697,18 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       }
 
       em.persist(jpaJob);
+      // The payload references the job, so the job needs to be written first
+      em.flush();
+      em.persist(jpaJob.toContent());
       tx.commit();
 
       setJobUri(jpaJob);
       Job job = jpaJob.toJob();
+      if (dispatchable) {
+        dispatchQueue.update(job.getId(), serviceType, job.getOrganization(), job.getStatus(), job.getDateCreated(),
+                true);
+        signalDispatcher();
+      }
       return job;
     } catch (RollbackException e) {
       if (tx != null && tx.isActive()) {
@@ -647,16 +743,21 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
         if (job == null) {
           logger.error("Job with Id {} cannot be deleted: Not found.", jobId);
           tx.rollback();
-          removeFromLoadCache(jobId);
+          hostLoads.removeJob(jobId);
           throw new NotFoundException("Job with ID '" + jobId + "' not found");
         }
         deleteChildJobs(em, tx, jobId);
+        removeContent(em, jobId);
         em.remove(job);
-        removeFromLoadCache(jobId);
+        hostLoads.removeJob(jobId);
+        dispatchQueue.remove(jobId);
       }
 
       tx.commit();
       logger.info("Jobs with IDs '{}' deleted", jobIds);
+      for (long jobId : jobIds) {
+        jobSubscriptions.jobRemoved(jobId);
+      }
     } finally {
       if (em != null)
         em.close();
@@ -664,7 +765,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   }
 
   private void deleteChildJobs(EntityManager em, EntityTransaction tx, long jobId) throws ServiceRegistryException {
-    List<Job> childJobs = getChildJobs(jobId);
+    List<Job> childJobs = getChildJobs(jobId, false);
     if (childJobs.isEmpty()) {
       logger.trace("No child jobs of job '{}' found to delete.", jobId);
       return;
@@ -676,8 +777,11 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       for (int i = childJobs.size() - 1; i >= 0; i--) {
         Job job = childJobs.get(i);
         JpaJob jobToDelete = em.find(JpaJob.class, job.getId());
+        removeContent(em, job.getId());
         em.remove(jobToDelete);
-        removeFromLoadCache(job.getId());
+        hostLoads.removeJob(job.getId());
+        dispatchQueue.remove(job.getId());
+        jobSubscriptions.jobRemoved(job.getId());
         logger.debug("{} deleted", job);
       }
       logger.debug("Deleted all child jobs of job '{}'", jobId);
@@ -820,6 +924,8 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       }
     }
 
+    configureDispatchPolicy(properties);
+
     long dispatchDelay = DEFAULT_DISPATCH_START_DELAY;
 
     // Stop the current scheduled executors so we can configure new ones
@@ -830,6 +936,11 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
 
     scheduledExecutor = Executors.newScheduledThreadPool(2);
 
+    // Jobs are usually processed and updated by the service registries on other nodes, so subscribers to the
+    // completion of a job are notified once the new state has been found in the database
+    scheduledExecutor.scheduleWithFixedDelay(new JobCompletionWatcher(), DEFAULT_JOB_COMPLETION_CHECK_INTERVAL,
+            DEFAULT_JOB_COMPLETION_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+
     // Schedule the service heartbeat if the interval is > 0
     if (heartbeatInterval > 0) {
       logger.debug("Starting service heartbeat at a custom interval of {}s", heartbeatInterval);
@@ -837,14 +948,53 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
               TimeUnit.SECONDS);
     }
 
-    // Schedule the job dispatching.
+    // Schedule the job dispatching. The scheduled runs reconcile the dispatch queue with the database, which picks up
+    // jobs queued by other nodes. In between, job creation and job completion on this node trigger additional
+    // dispatching passes through signalDispatcher().
+    this.dispatchInterval = dispatchInterval;
+    this.dispatchStart = System.currentTimeMillis() + dispatchDelay;
     if (dispatchInterval > 0) {
       logger.debug("Starting job dispatching at a custom interval of {}s", dispatchInterval / 1000);
-      scheduledExecutor.scheduleWithFixedDelay(new JobDispatcher(), dispatchDelay, dispatchInterval,
+      scheduledExecutor.scheduleWithFixedDelay(jobDispatcher, dispatchDelay, dispatchInterval,
               TimeUnit.MILLISECONDS);
+    } else {
+      // The dispatcher takes care of this otherwise
+      scheduledExecutor.scheduleWithFixedDelay(new HostLoadReconciler(), DEFAULT_LOAD_RECONCILE_INTERVAL,
+              DEFAULT_LOAD_RECONCILE_INTERVAL, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Requests an immediate dispatching pass, e.g. because a job has been queued or because processing capacity has been
+   * released. Requests are coalesced while a dispatching pass is pending or running.
+   */
+  protected void signalDispatcher() {
+    ScheduledExecutorService executor = scheduledExecutor;
+    if (executor == null || dispatchInterval <= 0 || System.currentTimeMillis() < dispatchStart)
+      return;
+    if (dispatchRequested.compareAndSet(false, true))
+      submitDispatch(executor);
+  }
+
+  private void submitDispatch(ScheduledExecutorService executor) {
+    try {
+      executor.execute(signalledDispatch);
+    } catch (RejectedExecutionException e) {
+      logger.debug("Job dispatcher is shutting down, ignoring dispatch request");
     }
   }
 
+  /**
+   * Returns <code>true</code> if a job transitioning into the given status may allow waiting jobs to be dispatched.
+   *
+   * @param status
+   *          the new job status
+   * @return whether to signal the dispatcher
+   */
+  private static boolean releasesCapacity(Status status) {
+    return status.isTerminated() || Status.WAITING.equals(status) || Status.RESTART.equals(status);
+  }
+
   /**
    * OSGI callback when the configuration is updated. This method is only here to prevent the
    * configuration admin service from calling the service deactivate and activate methods
@@ -882,7 +1032,204 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
 
   @Override
   public Job getJob(long id) throws NotFoundException, ServiceRegistryException {
-    return getJpaJob(id).toJob();
+    JpaJob job = getJpaJob(id);
+    EntityManager em = null;
+    try {
+      em = emf.createEntityManager();
+      loadContent(em, Collections.singletonList(job));
+      return job.toJob();
+    } catch (Exception e) {
+      throw new ServiceRegistryException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  /**
+   * Loads the payloads and arguments of the given jobs.
+   *
+   * @param em
+   *          the entity manager
+   * @param jobs
+   *          the jobs
+   */
+  private void loadContent(EntityManager em, List<JpaJob> jobs) {
+    Map<Long, JpaJob> jobsById = new HashMap<>();
+    for (JpaJob job : jobs) {
+      if (!job.isContentLoaded())
+        jobsById.put(job.getId(), job);
+    }
+    List<Long> ids = new ArrayList<>(jobsById.keySet());
+    for (int i = 0; i < ids.size(); i += MAX_JOB_IDS_PER_QUERY) {
+      TypedQuery<JpaJobPayload> query = em.createNamedQuery("JobPayload.ids", JpaJobPayload.class);
+      query.setParameter("jobids", ids.subList(i, Math.min(i + MAX_JOB_IDS_PER_QUERY, ids.size())));
+      for (JpaJobPayload content : query.getResultList()) {
+        jobsById.remove(content.getId()).setContent(content);
+      }
+    }
+    // Jobs without any stored payload or arguments
+    for (JpaJob job : jobsById.values()) {
+      job.setContent(null);
+    }
+  }
+
+  /**
+   * Returns the signature of a job, which is based on its arguments. These are loaded first if the job has been read
+   * without them.
+   *
+   * @param em
+   *          the entity manager
+   * @param job
+   *          the job
+   * @return the job signature
+   */
+  private int getSignature(EntityManager em, JpaJob job) {
+    if (!job.isContentLoaded())
+      loadContent(em, Collections.singletonList(job));
+    return job.toJob().getSignature();
+  }
+
+  /**
+   * Removes the payload, the arguments and the reported progress of a job.
+   *
+   * @param em
+   *          the entity manager
+   * @param jobId
+   *          the job identifier
+   */
+  private void removeContent(EntityManager em, long jobId) {
+    JpaJobPayload content = em.find(JpaJobPayload.class, jobId);
+    if (content != null)
+      em.remove(content);
+    JpaJobProgress progress = em.find(JpaJobProgress.class, jobId);
+    if (progress != null)
+      em.remove(progress);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#updateJobProgress(long, float, Date)
+   */
+  @Override
+  public void updateJobProgress(long id, float progress, Date expectedCompletion) throws ServiceRegistryException {
+    EntityManager em = null;
+    EntityTransaction tx = null;
+    try {
+      em = emf.createEntityManager();
+      tx = em.getTransaction();
+      tx.begin();
+      em.merge(new JpaJobProgress(new JobProgress(id, progress, expectedCompletion, new Date())));
+      tx.commit();
+    } catch (Exception e) {
+      if (tx != null && tx.isActive())
+        tx.rollback();
+      throw new ServiceRegistryException("Unable to update the progress of job " + id, e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#recordJobLoad(Job, String, long, long, long)
+   */
+  @Override
+  public void recordJobLoad(Job job, String profile, long inputDuration, long wallTime, long cpuTime) {
+    float load = job.getJobLoad() != null ? job.getJobLoad() : 0.0f;
+    jobLoadStatistics.record(job.getJobType(), job.getOperation(), profile, inputDuration, load, wallTime, cpuTime);
+    if (wallTime > 0)
+      logger.debug("Job {} ({} {} {}) was created with load {} and caused a load of {}", job.getId(), job.getJobType(),
+              job.getOperation(), StringUtils.defaultString(profile), load, (float) cpuTime / wallTime);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobLoadStatistics()
+   */
+  @Override
+  public JobLoadStatistics getJobLoadStatistics() {
+    return jobLoadStatistics;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobProgress(long)
+   */
+  @Override
+  public JobProgress getJobProgress(long id) throws NotFoundException, ServiceRegistryException {
+    EntityManager em = null;
+    try {
+      em = emf.createEntityManager();
+      JpaJobProgress progress = em.find(JpaJobProgress.class, id);
+      if (progress == null)
+        throw new NotFoundException("No progress has been reported for job " + id);
+      return progress.toJobProgress();
+    } catch (NotFoundException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new ServiceRegistryException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#subscribeToJobCompletion(long)
+   */
+  @Override
+  public CompletableFuture<Job> subscribeToJobCompletion(long id) throws ServiceRegistryException {
+    CompletableFuture<Job> completion = jobSubscriptions.subscribe(id);
+    // The job may have been completed or removed before we subscribed
+    try {
+      jobSubscriptions.jobUpdated(getJob(id));
+    } catch (NotFoundException e) {
+      jobSubscriptions.jobRemoved(id);
+    }
+    return completion;
+  }
+
+  /**
+   * Notifies the subscribers of all jobs that have been completed or removed according to the database.
+   *
+   * @param em
+   *          the entity manager
+   */
+  @SuppressWarnings("unchecked")
+  void checkJobCompletions(EntityManager em) {
+    List<Long> jobIds = jobSubscriptions.getSubscribedJobIds();
+    for (int i = 0; i < jobIds.size(); i += DEFAULT_DISPATCH_JOBS_LIMIT) {
+      List<Long> chunk = jobIds.subList(i, Math.min(i + DEFAULT_DISPATCH_JOBS_LIMIT, jobIds.size()));
+      Query query = em.createNamedQuery("Job.status.ids");
+      query.setParameter("jobids", chunk);
+      Set<Long> found = new HashSet<>();
+      for (Object[] row : (List<Object[]>) query.getResultList()) {
+        long jobId = ((Number) row[0]).longValue();
+        found.add(jobId);
+        Status status = Status.values()[((Number) row[1]).intValue()];
+        if (!JobCompletionSubscriptions.isTerminal(status))
+          continue;
+        try {
+          jobSubscriptions.jobUpdated(getJob(jobId));
+        } catch (NotFoundException e) {
+          jobSubscriptions.jobRemoved(jobId);
+        } catch (ServiceRegistryException e) {
+          logger.warn("Unable to load completed job {}", jobId, e);
+        }
+      }
+      for (Long jobId : chunk) {
+        if (!found.contains(jobId))
+          jobSubscriptions.jobRemoved(jobId);
+      }
+    }
   }
 
   /**
@@ -909,12 +1256,15 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
     EntityManager em = null;
     try {
       em = emf.createEntityManager();
-      Job oldJob = getJob(job.getId());
+      JpaJob oldJob = getJpaJob(job.getId());
       JpaJob jpaJob = updateInternal(em, job);
-      if (!TYPE_WORKFLOW.equals(job.getJobType()) && job.getJobLoad() > 0.0f
-              && job.getProcessorServiceRegistration() != null
-              && job.getProcessorServiceRegistration().getHost().equals(getRegistryHostname())) {
-        processCachedLoadChange(job);
+      // Workflow jobs are load balanced by the workflow service directly
+      if (!TYPE_WORKFLOW.equals(job.getJobType())) {
+        String processingHost = job.getProcessorServiceRegistration() != null
+                ? job.getProcessorServiceRegistration().getHost() : null;
+        float jobLoad = job.getJobLoad() != null ? job.getJobLoad() : 0.0f;
+        hostLoads.updateJob(job.getId(), processingHost, jobLoad,
+                JOB_STATUSES_INFLUENCING_LOAD_BALANCING.contains(job.getStatus()));
       }
 
       // All WorkflowService Jobs will be ignored
@@ -922,12 +1272,21 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
         updateServiceForFailover(em, job);
       }
 
+      dispatchQueue.update(job.getId(), job.getJobType(), job.getOrganization(), job.getStatus(), job.getDateCreated(),
+              job.isDispatchable());
+      if (oldJob.getStatus() != job.getStatus() && releasesCapacity(job.getStatus())) {
+        signalDispatcher();
+      }
+
+      if (jobSubscriptions.isSubscribed(job.getId()) && JobCompletionSubscriptions.isTerminal(job.getStatus()))
+        jobSubscriptions.jobUpdated(jpaJob.isContentLoaded() ? jpaJob.toJob() : getJob(job.getId()));
+
       return jpaJob;
     } catch (PersistenceException e) {
       throw new ServiceRegistryException(e);
     } catch (NotFoundException e) {
-      // Just in case, remove from cache if there
-      removeFromLoadCache(job.getId());
+      // Just in case, remove from the host loads if there
+      hostLoads.removeJob(job.getId());
       throw new ServiceRegistryException(e);
     } finally {
       if (em != null)
@@ -943,46 +1302,6 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
     return updateJob(jpaJob).toJob();
   }
 
-  /**
-   * Processes the job load changes for the *local* load cache
-   *
-   * @param job
-   *   The job to apply to the load cache
-   */
-  private synchronized void processCachedLoadChange(JpaJob job) {
-    if (JOB_STATUSES_INFLUENCING_LOAD_BALANCING.contains(job.getStatus()) && jobCache.get(job.getId()) == null) {
-      logger.debug("Adding to load cache: {}, type {}, load {}, status {}",
-              job, job.getJobType(), job.getJobLoad(), job.getStatus());
-      localSystemLoad += job.getJobLoad();
-      jobCache.put(job.getId(), job.getJobLoad());
-    } else if (jobCache.get(job.getId()) != null && Status.FINISHED.equals(job.getStatus())
-            || Status.FAILED.equals(job.getStatus()) || Status.WAITING.equals(job.getStatus())) {
-      logger.debug("Removing from load cache: {}, type {}, load {}, status {}",
-              job, job.getJobType(), job.getJobLoad(), job.getStatus());
-      localSystemLoad -= job.getJobLoad();
-      jobCache.remove(job.getId());
-    } else {
-      logger.debug("Ignoring for load cache: {}, type {}, status {}",
-              job, job.getJobType(), job.getStatus());
-    }
-    logger.debug("Current host load: {}, job load cache size: {}", format("%.1f", localSystemLoad), jobCache.size());
-
-    if (jobCache.isEmpty() && Math.abs(localSystemLoad) > 0.01f) {
-      logger.warn("No jobs in the job load cache, but load is {}: setting job load to 0",
-              format("%.2f", localSystemLoad));
-      localSystemLoad = 0;
-    }
-  }
-
-  private synchronized void removeFromLoadCache(Long jobId) {
-    if (jobCache.get(jobId) != null) {
-      float jobLoad = jobCache.get(jobId);
-      logger.debug("Removing deleted job from load cache: Job {}, load {}", jobId, jobLoad);
-      localSystemLoad -= jobLoad;
-      jobCache.remove(jobId);
-    }
-  }
-
   protected JpaJob setJobUri(JpaJob job) {
     try {
       job.setUri(new URI(jobHost + "/services/job/" + job.getId() + ".xml"));
@@ -1025,6 +1344,11 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       update(fromDb, job);
 
       em.merge(fromDb);
+      // Jobs loaded without their payload and arguments leave these untouched, unless one of them has been set since
+      if (!job.isContentLoaded() && job.isContentPartiallyLoaded())
+        job.setContent(em.find(JpaJobPayload.class, job.getId()));
+      if (job.isContentLoaded())
+        em.merge(job.toContent());
       tx.commit();
       job.setVersion(fromDb.toJob().getVersion());
       setJobUri(job);
@@ -1120,12 +1444,10 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
     final Status status = job.getStatus();
     final Status fromDbStatus = fromDb.getStatus();
 
-    fromDb.setPayload(job.getPayload());
     fromDb.setStatus(job.getStatus());
     fromDb.setDispatchable(job.isDispatchable());
     fromDb.setVersion(job.getVersion());
     fromDb.setOperation(job.getOperation());
-    fromDb.setArguments(job.getArguments());
 
     if (job.getDateCreated() == null) {
       jpaJob.setDateCreated(now);
@@ -1230,6 +1552,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       }
       logger.info("Registering {} with a maximum load of {}", host, maxLoad);
       tx.commit();
+      hostLoads.updateHost(host, maxLoad);
       hostsStatistics.updateHost(hostRegistration);
     } catch (Exception e) {
       if (tx != null && tx.isActive()) {
@@ -1545,6 +1868,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   private void cleanRunningJobs(String serviceType, String baseUrl) throws ServiceRegistryException {
     EntityManager em = null;
     EntityTransaction tx = null;
+    List<JpaJob> restartedJobs = new ArrayList<>();
     try {
       em = emf.createEntityManager();
       tx = em.getTransaction();
@@ -1575,6 +1899,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
             rootJob.setStatus(Status.RESTART);
             rootJob.setOperation(START_OPERATION);
             em.merge(rootJob);
+            restartedJobs.add(rootJob);
             continue;
           }
 
@@ -1583,6 +1908,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           logger.info("Rescheduling lost {}", job);
           job.setStatus(Status.RESTART);
           job.setProcessorServiceRegistration(null);
+          restartedJobs.add(job);
         } else {
           logger.info("Marking lost {} as failed", job);
           job.setStatus(Status.FAILED);
@@ -1599,6 +1925,14 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       if (em != null)
         em.close();
     }
+
+    if (!restartedJobs.isEmpty()) {
+      for (JpaJob job : restartedJobs) {
+        dispatchQueue.update(job.getId(), job.getJobType(), job.getOrganization(), job.getStatus(),
+                job.getDateCreated(), true);
+      }
+      signalDispatcher();
+    }
   }
 
   /**
@@ -1753,6 +2087,21 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
    */
   @Override
   public List<Job> getChildJobs(long id) throws ServiceRegistryException {
+    return getChildJobs(id, true);
+  }
+
+  /**
+   * Gets the child jobs of the given job.
+   *
+   * @param id
+   *          the parent job identifier
+   * @param withContent
+   *          whether to load the payloads and arguments of the jobs
+   * @return the child jobs, ordered by creation date
+   * @throws ServiceRegistryException
+   *           if there is a problem accessing the jobs database
+   */
+  private List<Job> getChildJobs(long id, boolean withContent) throws ServiceRegistryException {
     EntityManager em = null;
     try {
       em = emf.createEntityManager();
@@ -1762,6 +2111,8 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       if (jobs.size() == 0) {
         jobs = getChildren(em, id);
       }
+      if (withContent)
+        loadContent(em, jobs);
       return $(jobs).sort(new Comparator<JpaJob>() {
         @Override
         public int compare(JpaJob job1, JpaJob job2) {
@@ -1821,6 +2172,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       for (JpaJob job : jobs) {
         setJobUri(job);
       }
+      loadContent(em, jobs);
 
       return $(jobs).map(fnToJob()).toList();
     } catch (Exception e) {
@@ -1832,11 +2184,82 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
 
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.serviceregistry.api.ServiceRegistry#getJobs(java.util.List, boolean)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<Job> getJobs(List<Long> ids, boolean compact) throws ServiceRegistryException {
+    if (ids.isEmpty())
+      return new ArrayList<>();
+
+    final Map<Long, Job> jobs = new HashMap<>();
+    EntityManager em = null;
+    try {
+      em = emf.createEntityManager();
+      for (int i = 0; i < ids.size(); i += MAX_JOB_IDS_PER_QUERY) {
+        List<Long> chunk = ids.subList(i, Math.min(i + MAX_JOB_IDS_PER_QUERY, ids.size()));
+        if (compact) {
+          Query query = em.createNamedQuery("Job.compact.ids");
+          query.setParameter("jobids", chunk);
+          for (Object[] row : (List<Object[]>) query.getResultList()) {
+            Job job = toCompactJob(row);
+            jobs.put(job.getId(), job);
+          }
+        } else {
+          TypedQuery<JpaJob> query = em.createNamedQuery("Job.ids", JpaJob.class);
+          query.setParameter("jobids", chunk);
+          List<JpaJob> jpaJobs = query.getResultList();
+          loadContent(em, jpaJobs);
+          for (JpaJob job : jpaJobs) {
+            jobs.put(job.getId(), setJobUri(job).toJob());
+          }
+        }
+      }
+    } catch (Exception e) {
+      throw new ServiceRegistryException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+
+    List<Job> result = new ArrayList<>(jobs.size());
+    for (Long id : ids) {
+      Job job = jobs.remove(id);
+      if (job != null)
+        result.add(job);
+    }
+    return result;
+  }
+
+  /**
+   * Creates the compact representation of a job from the <code>Job.compact.ids</code> projection.
+   *
+   * @param row
+   *          the projected job
+   * @return the job
+   */
+  private Job toCompactJob(Object[] row) {
+    long id = ((Number) row[0]).longValue();
+    URI uri = null;
+    try {
+      uri = new URI(jobHost + "/services/job/" + id + ".xml");
+    } catch (URISyntaxException e) {
+      logger.warn("Can not set the job URI", e);
+    }
+    return new JobImpl(id, null, null, ((Number) row[1]).longValue(), (String) row[3], (String) row[4], null,
+            Status.values()[((Number) row[2]).intValue()], null, (String) row[5], (Date) row[6], (Date) row[7],
+            (Date) row[8], (Long) row[9], (Long) row[10], null, (Long) row[13], (Long) row[14], (Boolean) row[12], uri,
+            (Float) row[11]);
+  }
+
   @Override
   public List<String> getJobPayloads(String operation) throws ServiceRegistryException {
     EntityManager em = emf.createEntityManager();
     try {
-      TypedQuery<String> query = em.createNamedQuery("Job.payload", String.class);
+      TypedQuery<String> query = em.createNamedQuery("JobPayload.operation", String.class);
       query.setParameter("operation", operation);
       logger.debug("Requesting job payloads using query: {}", query);
       return query.getResultList();
@@ -1849,7 +2272,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   public List<String> getJobPayloads(String operation, int limit, int offset) throws ServiceRegistryException {
     EntityManager em = emf.createEntityManager();
     try {
-      TypedQuery<String> query = em.createNamedQuery("Job.payload", String.class);
+      TypedQuery<String> query = em.createNamedQuery("JobPayload.operation", String.class);
       query.setParameter("operation", operation);
       query.setMaxResults(limit);
       query.setFirstResult(offset);
@@ -1973,6 +2396,60 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
     }
   }
 
+  /**
+   * Gets the dispatchable jobs with the given identifiers that are still waiting for dispatch, in the order of the
+   * given identifiers.
+   *
+   * @param em the entity manager
+   * @param jobIds the job identifiers
+   * @return the jobs with status RESTART or QUEUED from the given identifiers
+   * @throws ServiceRegistryException if there is a problem communicating with the jobs database
+   */
+  protected List<JpaJob> getDispatchableJobsWithIds(EntityManager em, List<Long> jobIds)
+          throws ServiceRegistryException {
+    if (jobIds == null || jobIds.isEmpty())
+      return new ArrayList<>();
+
+    try {
+      TypedQuery<JpaJob> query = em.createNamedQuery("Job.dispatchable.status.ids", JpaJob.class);
+      query.setParameter("jobids", jobIds);
+      query.setParameter("statuses", Arrays.asList(Status.RESTART.ordinal(), Status.QUEUED.ordinal()));
+      final Map<Long, Integer> positions = new HashMap<>();
+      for (int i = 0; i < jobIds.size(); i++) {
+        positions.put(jobIds.get(i), i);
+      }
+      List<JpaJob> jobs = new ArrayList<>(query.getResultList());
+      Collections.sort(jobs, new Comparator<JpaJob>() {
+        @Override
+        public int compare(JpaJob jobA, JpaJob jobB) {
+          return Integer.compare(positions.get(jobA.getId()), positions.get(jobB.getId()));
+        }
+      });
+      return jobs;
+    } catch (Exception e) {
+      throw new ServiceRegistryException(e);
+    }
+  }
+
+  /**
+   * Gets a lightweight summary of all jobs waiting for dispatch, used to reconcile the in-memory dispatch queue with
+   * the database.
+   *
+   * @param em the entity manager
+   * @return the jobs as <code>[id, status ordinal, date created, job type]</code>
+   * @throws ServiceRegistryException if there is a problem communicating with the jobs database
+   */
+  @SuppressWarnings("unchecked")
+  protected List<Object[]> getDispatchableJobSummaries(EntityManager em) throws ServiceRegistryException {
+    try {
+      Query query = em.createNamedQuery("Job.dispatchable.status.summary");
+      query.setParameter("statuses", Arrays.asList(Status.RESTART.ordinal(), Status.QUEUED.ordinal()));
+      return query.getResultList();
+    } catch (Exception e) {
+      throw new ServiceRegistryException(e);
+    }
+  }
+
   /**
    * Return dispatchable job ids, where the job status is RESTART or QUEUED and the job id is listed in the given set.
    *
@@ -2267,17 +2744,10 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
    */
   @Override
   public List<ServiceRegistration> getServiceRegistrationsByLoad(String serviceType) throws ServiceRegistryException {
-    EntityManager em = null;
-    try {
-      em = emf.createEntityManager();
-      SystemLoad loadByHost = getHostLoads(em);
-      List<HostRegistration> hostRegistrations = getHostRegistrations();
-      List<ServiceRegistration> serviceRegistrations = getServiceRegistrationsByType(serviceType);
-      return getServiceRegistrationsByLoad(serviceType, serviceRegistrations, hostRegistrations, loadByHost);
-    } finally {
-      if (em != null)
-        em.close();
-    }
+    List<HostRegistration> hostRegistrations = getHostRegistrations();
+    SystemLoad loadByHost = getHostLoads(hostRegistrations);
+    List<ServiceRegistration> serviceRegistrations = getServiceRegistrationsByType(serviceType);
+    return getServiceRegistrationsByLoad(serviceType, serviceRegistrations, hostRegistrations, loadByHost);
   }
 
   /**
@@ -2287,18 +2757,64 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
    */
   @Override
   public SystemLoad getCurrentHostLoads() {
-    EntityManager em = null;
+    return hostLoads.getSystemLoad();
+  }
+
+  /**
+   * Gets a snapshot of the current host loads from the in-memory host load model, making sure that each of the given
+   * hosts is listed.
+   *
+   * @param hosts
+   *          the hosts that need to be part of the result
+   * @return the current host loads
+   */
+  SystemLoad getHostLoads(List<HostRegistration> hosts) {
+    SystemLoad systemLoad = hostLoads.getSystemLoad();
+    for (HostRegistration h : hosts) {
+      if (!systemLoad.containsHost(h.getBaseUrl())) {
+        systemLoad.addNodeLoad(new NodeLoad(h.getBaseUrl(), hostLoads.getLoad(h.getBaseUrl()), h.getMaxLoad()));
+      }
+    }
+    return systemLoad;
+  }
+
+  /**
+   * Replaces the state of the in-memory host load model with the state found in the database.
+   *
+   * @param em
+   *          the entity manager
+   * @throws ServiceRegistryException
+   *           if there is a problem communicating with the jobs database
+   */
+  @SuppressWarnings("unchecked")
+  void reconcileHostLoads(EntityManager em) throws ServiceRegistryException {
+    List<Integer> statuses = new ArrayList<>();
+    for (Status status : JOB_STATUSES_INFLUENCING_LOAD_BALANCING) {
+      statuses.add(status.ordinal());
+    }
+    // Jobs which have been handed over to a host but did not start yet will add to its load soon
+    statuses.add(Status.DISPATCHING.ordinal());
+
+    Map<String, Float> deviations;
     try {
-      em = emf.createEntityManager();
-      return getHostLoads(em);
-    } finally {
-      if (em != null)
-        em.close();
+      Query q = em.createNamedQuery("Job.load.running");
+      q.setParameter("statuses", statuses);
+      q.setParameter("workflow_type", TYPE_WORKFLOW);
+      deviations = hostLoads.reconcile(q.getResultList(), getHostRegistrations(em));
+    } catch (Exception e) {
+      throw new ServiceRegistryException(e);
     }
+
+    for (Map.Entry<String, Float> deviation : deviations.entrySet()) {
+      logger.debug("Corrected load of host {} by {}", deviation.getKey(), format("%.2f", -deviation.getValue()));
+    }
+    if (hostsStatistics != null)
+      hostsStatistics.updateLoads(hostLoads.getSystemLoad(), deviations);
   }
 
   /**
-   * Gets a map of hosts to the number of jobs currently loading that host
+   * Gets a map of hosts to the number of jobs currently loading that host, as found in the database. Use
+   * {@link #getCurrentHostLoads()} for the load as tracked in memory.
    *
    * @param em
    *          the entity manager
@@ -2518,6 +3034,85 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
     this.organizationDirectoryService = organizationDirectory;
   }
 
+  /**
+   * Configures the policy deciding on the order in which queued jobs are dispatched.
+   *
+   * @param properties
+   *          the service registry configuration
+   */
+  private void configureDispatchPolicy(Dictionary properties) {
+    String name = StringUtils.trimToNull((String) properties.get(OPT_DISPATCH_POLICY));
+    if (name == null)
+      name = FifoDispatchPolicy.NAME;
+
+    // Weights or priorities by organization
+    Map<String, Integer> organizationValues = new HashMap<>();
+    Enumeration keys = properties.keys();
+    while (keys.hasMoreElements()) {
+      String key = keys.nextElement().toString();
+      if (!key.startsWith(OPT_DISPATCH_POLICY_ORGANIZATION_PREFIX))
+        continue;
+      String organization = key.substring(OPT_DISPATCH_POLICY_ORGANIZATION_PREFIX.length());
+      String value = StringUtils.trimToNull((String) properties.get(key));
+      try {
+        organizationValues.put(organization, Integer.parseInt(value));
+      } catch (NumberFormatException e) {
+        logger.warn("Ignoring dispatch policy setting {}: '{}' is not an integer", key, value);
+      }
+    }
+
+    DispatchPolicy builtIn = null;
+    if (WeightedFairDispatchPolicy.NAME.equals(name)) {
+      try {
+        builtIn = new WeightedFairDispatchPolicy(organizationValues);
+      } catch (IllegalArgumentException e) {
+        logger.warn("Falling back to dispatch policy '{}': {}", FifoDispatchPolicy.NAME, e.getMessage());
+        name = FifoDispatchPolicy.NAME;
+      }
+    } else if (StrictPriorityDispatchPolicy.NAME.equals(name)) {
+      builtIn = new StrictPriorityDispatchPolicy(organizationValues);
+    }
+    if (FifoDispatchPolicy.NAME.equals(name))
+      builtIn = new FifoDispatchPolicy();
+
+    dispatchPolicyName = name;
+    builtInDispatchPolicy = builtIn;
+    selectDispatchPolicy();
+  }
+
+  /**
+   * Activates the configured dispatch policy. Policies provided as OSGi services fall back to the default policy until
+   * they become available.
+   */
+  private synchronized void selectDispatchPolicy() {
+    DispatchPolicy policy = builtInDispatchPolicy;
+    if (policy == null) {
+      policy = registeredDispatchPolicies.get(dispatchPolicyName);
+      if (policy == null) {
+        logger.warn("Dispatch policy '{}' is not available, using '{}' until it is", dispatchPolicyName,
+                FifoDispatchPolicy.NAME);
+        policy = new FifoDispatchPolicy();
+      }
+    }
+    logger.info("Dispatching queued jobs using policy '{}'", policy.getName());
+    dispatchPolicy = policy;
+    if (jobsStatistics != null)
+      jobsStatistics.updateDispatchPolicy(policy.getName());
+  }
+
+  /** OSGi DI. */
+  public void addDispatchPolicy(DispatchPolicy policy) {
+    registeredDispatchPolicies.put(policy.getName(), policy);
+    if (policy.getName().equals(dispatchPolicyName))
+      selectDispatchPolicy();
+  }
+
+  /** OSGi DI. */
+  public void removeDispatchPolicy(DispatchPolicy policy) {
+    if (registeredDispatchPolicies.remove(policy.getName(), policy) && policy.getName().equals(dispatchPolicyName))
+      selectDispatchPolicy();
+  }
+
   /** OSGi DI. */
   public void setIncidentService(IncidentService incidentService) {
     // Manually resolve the cyclic dependency between the incident service and the service registry
@@ -2568,7 +3163,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           if (relatedService.getServiceState() == WARNING) {
             logger.info("State reset to NORMAL for related service {} on host {}", relatedService.getServiceType(),
                     relatedService.getHost());
-            relatedService.setServiceState(NORMAL, job.toJob().getSignature());
+            relatedService.setServiceState(NORMAL, getSignature(em, job));
           }
 
           // Reset the ERROR job to WARNING
@@ -2590,7 +3185,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
         if (currentService.getServiceState() == NORMAL) {
           logger.info("State set to WARNING for current service {} on host {}", currentService.getServiceType(),
                   currentService.getHost());
-          currentService.setServiceState(WARNING, job.toJob().getSignature());
+          currentService.setServiceState(WARNING, getSignature(em, job));
           updateServiceState(em, currentService);
         }
 
@@ -2598,7 +3193,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
         else if (getHistorySize(currentService) >= maxAttemptsBeforeErrorState) {
           logger.info("State set to ERROR for current service {} on host {}", currentService.getServiceType(),
                   currentService.getHost());
-          currentService.setServiceState(ERROR, job.toJob().getSignature());
+          currentService.setServiceState(ERROR, getSignature(em, job));
           updateServiceState(em, currentService);
         }
       }
@@ -2702,16 +3297,17 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
       query.setParameter("serviceType", job.getJobType());
 
       List<ServiceRegistrationJpaImpl> jpaServices = new ArrayList<ServiceRegistrationJpaImpl>();
+      int signature = getSignature(em, job);
 
       @SuppressWarnings("unchecked")
       List<ServiceRegistrationJpaImpl> serviceResults = query.getResultList();
       for (ServiceRegistrationJpaImpl relatedService : serviceResults) {
         if (relatedService.getServiceState() == WARNING
-                && relatedService.getWarningStateTrigger() == job.toJob().getSignature()) {
+                && relatedService.getWarningStateTrigger() == signature) {
           jpaServices.add(relatedService);
         }
 
-        if (relatedService.getServiceState() == ERROR && relatedService.getErrorStateTrigger() == job.toJob().getSignature()) {
+        if (relatedService.getServiceState() == ERROR && relatedService.getErrorStateTrigger() == signature) {
           jpaServices.add(relatedService);
         }
       }
@@ -2925,12 +3521,19 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
   /**
    * This dispatcher implementation will check for jobs in the QUEUED {@link Status}. If
    * new jobs are found, the dispatcher will attempt to dispatch each job to the least loaded service.
+   * <p>
+   * The jobs to dispatch are taken from the in-memory {@link DispatchQueue}. The periodic runs reconcile that queue with
+   * the database using a lightweight projection query. Besides the periodic runs, the dispatcher is triggered whenever
+   * a job is queued or a job releases processing capacity on this node, in which case only the in-memory queue is used.
    */
   class JobDispatcher implements Runnable {
 
     /** A list with job types that cannot be dispatched in each interation */
     private List<String> undispatchableJobTypes = null;
 
+    /** The dispatch policy used in the current pass */
+    private DispatchPolicy policy = null;
+
     /**
      * {@inheritDoc}
      *
@@ -2938,19 +3541,58 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
      */
     @Override
     public void run() {
+      reconcileRequested.set(true);
+      dispatchRequested.set(true);
+      dispatchQueuedJobs();
+    }
+
+    /**
+     * Runs dispatching passes for as long as passes are being requested. If a pass is already running, it will pick up
+     * the request once it is done.
+     */
+    void dispatchQueuedJobs() {
+      if (!dispatchLock.tryLock())
+        return;
+
+      try {
+        while (dispatchRequested.getAndSet(false)) {
+          dispatch();
+        }
+      } finally {
+        dispatchLock.unlock();
+      }
+
+      // Pick up requests that came in after the last pass but before the lock was released
+      ScheduledExecutorService executor = scheduledExecutor;
+      if (dispatchRequested.get() && executor != null)
+        submitDispatch(executor);
+    }
+
+    /**
+     * Runs a single dispatching pass over the jobs in the dispatch queue.
+     */
+    private void dispatch() {
 
       logger.debug("Starting job dispatching");
 
       undispatchableJobTypes = new ArrayList<String>();
+      policy = dispatchPolicy;
       EntityManager em = null;
       try {
         em = emf.createEntityManager();
 
-        // FIXME: the stats are not currently used and the queries are very
-        // expense in database time.
-        if (collectJobstats) {
-          jobsStatistics.updateAvg(getAvgOperations(em));
-          jobsStatistics.updateJobCount(getCountPerHostService(em));
+        if (reconcileRequested.getAndSet(false)) {
+          // FIXME: the stats are not currently used and the queries are very
+          // expense in database time.
+          if (collectJobstats) {
+            jobsStatistics.updateAvg(getAvgOperations(em));
+            jobsStatistics.updateJobCount(getCountPerHostService(em));
+          }
+
+          dispatchQueue.reconcile(getDispatchableJobSummaries(em));
+          reconcileHostLoads(em);
+          logger.debug("Reconciled dispatch queue with the database, {} jobs waiting for dispatch",
+                  dispatchQueue.size());
         }
 
         if (!dispatchPriorityList.isEmpty()) {
@@ -2965,35 +3607,26 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           }
         }
 
-        int jobsOffset = 0;
-        List<JpaJob> dispatchableJobs = null;
-        List<JpaJob> workflowJobs = new ArrayList();
-        boolean jobsFound = false;
-        do {
-          // dispatch all dispatchable jobs with status restarted
-          dispatchableJobs = getDispatchableJobsWithStatus(em, jobsOffset, DEFAULT_DISPATCH_JOBS_LIMIT, Status.RESTART);
-          jobsOffset += DEFAULT_DISPATCH_JOBS_LIMIT;
-          jobsFound = !dispatchableJobs.isEmpty();
-
-          // skip all jobs of type workflow, we will handle them next
-          for (JpaJob job : dispatchableJobs) {
-            if (TYPE_WORKFLOW.equals(job.getJobType())) {
-              workflowJobs.add(job);
+        // Dispatch the queued jobs in chunks, in the order chosen by the dispatch policy. Jobs of type workflow are
+        // handled last.
+        List<Long> queuedJobIds = dispatchQueue.getJobIds(policy);
+        List<JpaJob> workflowJobs = new ArrayList<>();
+        for (int offset = 0; offset < queuedJobIds.size(); offset += DEFAULT_DISPATCH_JOBS_LIMIT) {
+          List<Long> chunk = queuedJobIds.subList(offset,
+                  Math.min(offset + DEFAULT_DISPATCH_JOBS_LIMIT, queuedJobIds.size()));
+          List<JpaJob> dispatchableJobs = getDispatchableJobsWithIds(em, chunk);
+
+          // Jobs that have been dispatched or removed in the meantime are no longer waiting
+          if (dispatchableJobs.size() < chunk.size()) {
+            Set<Long> stillQueued = new HashSet<>();
+            for (JpaJob job : dispatchableJobs) {
+              stillQueued.add(job.getId());
+            }
+            for (Long jobId : chunk) {
+              if (!stillQueued.contains(jobId))
+                dispatchQueue.remove(jobId);
             }
           }
-          if (dispatchableJobs.removeAll(workflowJobs) && dispatchableJobs.isEmpty())
-            continue;
-
-          dispatchDispatchableJobs(em, dispatchableJobs);
-        } while (jobsFound);
-
-        jobsOffset = 0;
-        jobsFound = false;
-        do {
-          // dispatch all dispatchable jobs with status queued
-          dispatchableJobs = getDispatchableJobsWithStatus(em, jobsOffset, DEFAULT_DISPATCH_JOBS_LIMIT, Status.QUEUED);
-          jobsOffset += DEFAULT_DISPATCH_JOBS_LIMIT;
-          jobsFound = !dispatchableJobs.isEmpty();
 
           // skip all jobs of type workflow, we will handle them next
           for (JpaJob job : dispatchableJobs) {
@@ -3001,19 +3634,24 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
               workflowJobs.add(job);
             }
           }
-          if (dispatchableJobs.removeAll(workflowJobs) && dispatchableJobs.isEmpty())
-            continue;
-
-          dispatchDispatchableJobs(em, dispatchableJobs);
-        } while (jobsFound);
+          dispatchableJobs.removeAll(workflowJobs);
+          if (!dispatchableJobs.isEmpty())
+            dispatchDispatchableJobs(em, dispatchableJobs);
+        }
 
         if (!workflowJobs.isEmpty())
           dispatchDispatchableJobs(em, workflowJobs);
 
+        if (jobsStatistics != null) {
+          jobsStatistics.updateDispatchQueue(dispatchQueue.getQueueDepths());
+          jobsStatistics.updateDispatchQueueByOrganization(dispatchQueue.getQueueDepthsByOrganization());
+        }
+
       } catch (Throwable t) {
         logger.warn("Error dispatching jobs", t);
       } finally {
         undispatchableJobTypes = null;
+        policy = null;
         if (em != null)
           em.close();
       }
@@ -3028,8 +3666,8 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
      * @param jobsToDispatch list with dispatchable jobs to dispatch
      */
     private void dispatchDispatchableJobs(EntityManager em, List<JpaJob> jobsToDispatch) {
-      //Get the current system load
-      SystemLoad systemLoad = getHostLoads(em);
+      // Get the current system load from the host load model. It is updated in memory while dispatching.
+      SystemLoad systemLoad = getHostLoads(getHostRegistrations(em));
 
       for (JpaJob job : jobsToDispatch) {
 
@@ -3079,7 +3717,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           Job parentJob = null;
           try {
             if (job.getParentJob() != null)
-              parentJob = getJob(job.getParentJob().getId());
+              parentJob = getJpaJob(job.getParentJob().getId()).toJob();
           } catch (NotFoundException e) {
             // That's ok
           }
@@ -3088,7 +3726,7 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
           // same time if there is processing capacity available.
           boolean parentHasRunningChildren = false;
           if (parentJob != null) {
-            for (Job child : getChildJobs(parentJob.getId())) {
+            for (Job child : getChildJobs(parentJob.getId(), false)) {
               if (Status.RUNNING.equals(child.getStatus())) {
                 parentHasRunningChildren = true;
                 break;
@@ -3116,8 +3754,17 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
             } catch (NotFoundException e) {
               logger.info("Host {} not found in load list, cannot dispatch {} to it", hostAcceptingJob, job);
             }
+            if (!TYPE_WORKFLOW.equals(jobType))
+              hostLoads.jobDispatched(job.getId(), hostAcceptingJob, job.getJobLoad());
 
             dispatchPriorityList.remove(job.getId());
+            DispatchQueue.Entry queued = dispatchQueue.remove(job.getId());
+            if (queued != null) {
+              policy.jobDispatched(queued);
+              if (jobsStatistics != null)
+                jobsStatistics.updateDispatchLatency(jobType, queued.getOrganization(),
+                        System.currentTimeMillis() - queued.getEnqueued());
+            }
           } catch (ServiceUnavailableException e) {
             logger.debug("Jobs of type {} currently cannot be dispatched", job.getOperation());
             // Don't mark workflow jobs as undispatchable to not impact worklfow operations
@@ -3314,6 +3961,46 @@ public class ServiceRegistryJpaImpl implements ServiceRegistry, ManagedService {
 
   }
 
+  /** Periodically checks the database for the completion of jobs that somebody is waiting for. */
+  class JobCompletionWatcher implements Runnable {
+
+    @Override
+    public void run() {
+      if (jobSubscriptions.size() == 0)
+        return;
+      EntityManager em = null;
+      try {
+        em = emf.createEntityManager();
+        checkJobCompletions(em);
+      } catch (Throwable t) {
+        logger.warn("Error checking for completed jobs", t);
+      } finally {
+        if (em != null)
+          em.close();
+      }
+    }
+
+  }
+
+  /** Periodically reconciles the host loads with the database on nodes that do not dispatch jobs. */
+  class HostLoadReconciler implements Runnable {
+
+    @Override
+    public void run() {
+      EntityManager em = null;
+      try {
+        em = emf.createEntityManager();
+        reconcileHostLoads(em);
+      } catch (Throwable t) {
+        logger.warn("Error reconciling host loads", t);
+      } finally {
+        if (em != null)
+          em.close();
+      }
+    }
+
+  }
+
   /** A periodic check on each service registration to ensure that it is still alive. */
   class JobProducerHeartbeat implements Runnable {
 
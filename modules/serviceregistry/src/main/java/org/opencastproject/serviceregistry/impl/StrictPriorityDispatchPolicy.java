@@ -0,0 +1,95 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches the jobs of organizations with a higher priority before the jobs of organizations with a lower priority.
+ * Jobs of the same priority are dispatched in the default order. Restarted jobs still come first.
+ * <p>
+ * Note that jobs of low priority organizations are only dispatched once there is no more work of higher priority that
+ * can be dispatched.
+ */
+public class StrictPriorityDispatchPolicy implements DispatchPolicy {
+
+  /** The name of this policy */
+  public static final String NAME = "strict-priority";
+
+  /** The priority of organizations without a configured priority */
+  public static final int DEFAULT_PRIORITY = 0;
+
+  /** The priorities by organization identifier */
+  private final Map<String, Integer> priorities;
+
+  /**
+   * Creates a strict priority policy.
+   *
+   * @param priorities
+   *          the priorities by organization identifier, higher values are dispatched first
+   */
+  public StrictPriorityDispatchPolicy(Map<String, Integer> priorities) {
+    this.priorities = new HashMap<>(priorities);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<QueuedJob> order(List<QueuedJob> jobs) {
+    List<QueuedJob> ordered = new ArrayList<>(jobs);
+    // The sort is stable, so jobs of the same priority keep their default order
+    Collections.sort(ordered, new Comparator<QueuedJob>() {
+      @Override
+      public int compare(QueuedJob a, QueuedJob b) {
+        if (a.isRestart() != b.isRestart())
+          return a.isRestart() ? -1 : 1;
+        return Integer.compare(getPriority(b.getOrganization()), getPriority(a.getOrganization()));
+      }
+    });
+    return ordered;
+  }
+
+  @Override
+  public void jobDispatched(QueuedJob job) {
+  }
+
+  /**
+   * Returns the priority of the given organization.
+   *
+   * @param organization
+   *          the organization identifier
+   * @return the priority
+   */
+  int getPriority(String organization) {
+    Integer priority = priorities.get(organization);
+    return priority == null ? DEFAULT_PRIORITY : priority;
+  }
+
+}
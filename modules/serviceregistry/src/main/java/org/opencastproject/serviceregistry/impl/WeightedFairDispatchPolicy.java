@@ -0,0 +1,183 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Shares the processing capacity between organizations according to their weights, so that an organization with many
+ * queued jobs cannot starve the other organizations.
+ * <p>
+ * Every organization is accounted a virtual time which advances by the inverse of its weight whenever one of its jobs
+ * is dispatched. Queued jobs are interleaved by the virtual time their organization would reach, meaning that an
+ * organization with weight 2 gets twice as many jobs dispatched as an organization with weight 1 while both have jobs
+ * waiting. Within an organization, jobs are dispatched in the default order. Restarted jobs still come first.
+ */
+public class WeightedFairDispatchPolicy implements DispatchPolicy {
+
+  /** The name of this policy */
+  public static final String NAME = "weighted-fair";
+
+  /** The weight of organizations without a configured weight */
+  public static final int DEFAULT_WEIGHT = 1;
+
+  /** The weights by organization identifier */
+  private final Map<String, Integer> weights;
+
+  /** The virtual time by organization identifier */
+  private final Map<String, Double> virtualTimes = new HashMap<>();
+
+  /**
+   * Creates a weighted fair queuing policy.
+   *
+   * @param weights
+   *          the weights by organization identifier, must be positive
+   */
+  public WeightedFairDispatchPolicy(Map<String, Integer> weights) {
+    for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+      if (weight.getValue() == null || weight.getValue() < 1)
+        throw new IllegalArgumentException("Weight of organization " + weight.getKey() + " must be positive");
+    }
+    this.weights = new HashMap<>(weights);
+  }
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public List<QueuedJob> order(List<QueuedJob> jobs) {
+    List<QueuedJob> ordered = new ArrayList<>(jobs.size());
+    Map<String, LinkedList<QueuedJob>> flows = new LinkedHashMap<>();
+    for (QueuedJob job : jobs) {
+      if (job.isRestart()) {
+        ordered.add(job);
+        continue;
+      }
+      LinkedList<QueuedJob> flow = flows.get(job.getOrganization());
+      if (flow == null) {
+        flow = new LinkedList<>();
+        flows.put(job.getOrganization(), flow);
+      }
+      flow.add(job);
+    }
+    if (flows.isEmpty())
+      return ordered;
+
+    // Organizations that have been idle must not catch up on the capacity they did not use in the meantime
+    double systemTime = Double.MAX_VALUE;
+    for (String organization : flows.keySet()) {
+      Double virtualTime = virtualTimes.get(organization);
+      if (virtualTime != null)
+        systemTime = Math.min(systemTime, virtualTime);
+    }
+    if (systemTime == Double.MAX_VALUE)
+      systemTime = 0.0;
+    for (String organization : flows.keySet()) {
+      Double virtualTime = virtualTimes.get(organization);
+      if (virtualTime == null || virtualTime < systemTime)
+        virtualTimes.put(organization, systemTime);
+    }
+
+    PriorityQueue<Flow> schedule = new PriorityQueue<>();
+    for (Map.Entry<String, LinkedList<QueuedJob>> flow : flows.entrySet()) {
+      schedule.add(new Flow(flow.getKey(), flow.getValue(), virtualTimes.get(flow.getKey())));
+    }
+    while (!schedule.isEmpty()) {
+      Flow flow = schedule.poll();
+      ordered.add(flow.jobs.removeFirst());
+      if (!flow.jobs.isEmpty()) {
+        flow.virtualTime += 1.0 / getWeight(flow.organization);
+        schedule.add(flow);
+      }
+    }
+    return ordered;
+  }
+
+  @Override
+  public void jobDispatched(QueuedJob job) {
+    Double virtualTime = virtualTimes.get(job.getOrganization());
+    virtualTimes.put(job.getOrganization(),
+            (virtualTime == null ? 0.0 : virtualTime) + 1.0 / getWeight(job.getOrganization()));
+  }
+
+  /**
+   * Returns the weight of the given organization.
+   *
+   * @param organization
+   *          the organization identifier
+   * @return the weight
+   */
+  int getWeight(String organization) {
+    Integer weight = weights.get(organization);
+    return weight == null ? DEFAULT_WEIGHT : weight;
+  }
+
+  /**
+   * Returns the virtual time of the given organization.
+   *
+   * @param organization
+   *          the organization identifier
+   * @return the virtual time or <code>null</code> if no job of the organization has been seen yet
+   */
+  Double getVirtualTime(String organization) {
+    return virtualTimes.get(organization);
+  }
+
+  /** The queued jobs of an organization while ordering */
+  private static final class Flow implements Comparable<Flow> {
+
+    private final String organization;
+
+    private final LinkedList<QueuedJob> jobs;
+
+    private double virtualTime;
+
+    Flow(String organization, LinkedList<QueuedJob> jobs, double virtualTime) {
+      this.organization = organization;
+      this.jobs = jobs;
+      this.virtualTime = virtualTime;
+    }
+
+    @Override
+    public int compareTo(Flow other) {
+      int result = Double.compare(virtualTime, other.virtualTime);
+      if (result != 0)
+        return result;
+      // Ties go to the organization with the oldest job
+      QueuedJob head = jobs.getFirst();
+      QueuedJob otherHead = other.jobs.getFirst();
+      if (head.getCreated() != otherHead.getCreated())
+        return Long.compare(head.getCreated(), otherHead.getCreated());
+      return Long.compare(head.getId(), otherHead.getId());
+    }
+
+  }
+
+}
@@ -34,6 +34,7 @@ import org.opencastproject.job.api.JaxbJob;
 import org.opencastproject.job.api.JaxbJobList;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.JobParser;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.rest.RestConstants;
 import org.opencastproject.serviceregistry.api.HostRegistration;
 import org.opencastproject.serviceregistry.api.JaxbHostRegistration;
@@ -42,6 +43,7 @@ import org.opencastproject.serviceregistry.api.JaxbServiceHealth;
 import org.opencastproject.serviceregistry.api.JaxbServiceRegistration;
 import org.opencastproject.serviceregistry.api.JaxbServiceRegistrationList;
 import org.opencastproject.serviceregistry.api.JaxbServiceStatisticsList;
+import org.opencastproject.serviceregistry.api.JobLoadStatistics;
 import org.opencastproject.serviceregistry.api.ServiceRegistration;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
@@ -49,6 +51,7 @@ import org.opencastproject.serviceregistry.api.ServiceState;
 import org.opencastproject.serviceregistry.api.SystemLoad;
 import org.opencastproject.serviceregistry.impl.ServiceRegistryJpaImpl;
 import org.opencastproject.systems.OpencastConstants;
+import org.opencastproject.util.DateTimeSupport;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.UrlSupport;
 import org.opencastproject.util.doc.rest.RestParameter;
@@ -59,6 +62,7 @@ import org.opencastproject.util.doc.rest.RestService;
 
 import org.apache.commons.lang3.StringUtils;
 import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
 import org.json.simple.JSONValue;
 import org.osgi.service.component.ComponentContext;
 
@@ -66,6 +70,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -91,6 +99,9 @@ import javax.ws.rs.core.Response.Status;
 @RestService(name = "serviceregistry", title = "Service Registry", notes = { "All paths above are relative to the REST endpoint base" }, abstractText = "Provides registration and management functions for servers and services in this Opencast instance or cluster.")
 public class ServiceRegistryEndpoint {
 
+  /** The maximum time a client may wait for the completion of a job in a single request, in milliseconds */
+  public static final long MAX_JOB_COMPLETION_TIMEOUT = 60000L;
+
   /** The remote service maanger */
   protected ServiceRegistry serviceRegistry = null;
 
@@ -128,6 +139,30 @@ public class ServiceRegistryEndpoint {
     }
   }
 
+  @GET
+  @Path("loadstatistics.json")
+  @Produces(MediaType.APPLICATION_JSON)
+  @RestQuery(name = "loadstatisticsasjson", description = "Lists the loads the jobs processed on this node have been created with and the loads they actually caused, grouped by job type, operation, encoding profile and input duration", returnDescription = "The job load statistics.", reponses = { @RestResponse(responseCode = SC_OK, description = "A JSON representation of the job load statistics") })
+  @SuppressWarnings("unchecked")
+  public String getLoadStatisticsAsJson() {
+    JSONArray json = new JSONArray();
+    for (JobLoadStatistics.Entry entry : serviceRegistry.getJobLoadStatistics().getEntries()) {
+      JSONObject item = new JSONObject();
+      item.put("jobType", entry.getJobType());
+      item.put("operation", entry.getOperation());
+      item.put("profile", entry.getProfile());
+      item.put("duration", entry.getDuration());
+      item.put("count", entry.getCount());
+      item.put("predictedLoad", entry.getPredictedLoad());
+      item.put("actualLoad", entry.getActualLoad());
+      item.put("loadError", entry.getLoadError());
+      item.put("wallTime", entry.getWallTime());
+      item.put("cpuTime", entry.getCpuTime());
+      json.add(item);
+    }
+    return json.toJSONString();
+  }
+
   @GET
   @Path("statistics.xml")
   @Produces(MediaType.TEXT_XML)
@@ -526,6 +561,62 @@ public class ServiceRegistryEndpoint {
     }
   }
 
+  @GET
+  @Path("job/{id}/completion.xml")
+  @Produces(MediaType.TEXT_XML)
+  @RestQuery(name = "jobcompletion", description = "Waits for a job to reach a terminal state (finished, failed, deleted or canceled) and returns it. Clients should repeat the request until they receive the job.", returnDescription = "The job as XML", pathParameters = { @RestParameter(name = "id", isRequired = true, type = Type.STRING, description = "The job identifier") }, restParameters = { @RestParameter(name = "timeout", isRequired = false, type = Type.INTEGER, defaultValue = "30000", description = "The maximum time to wait in milliseconds, at most 60000") }, reponses = {
+          @RestResponse(responseCode = SC_OK, description = "The job reached a terminal state."),
+          @RestResponse(responseCode = SC_NO_CONTENT, description = "The job did not reach a terminal state within the given time."),
+          @RestResponse(responseCode = SC_NOT_FOUND, description = "No job with that identifier exists.") })
+  public Response waitForJobCompletion(@PathParam("id") long id, @QueryParam("timeout") Long timeout)
+          throws NotFoundException {
+    long wait = MAX_JOB_COMPLETION_TIMEOUT / 2;
+    if (timeout != null)
+      wait = Math.max(0, Math.min(timeout, MAX_JOB_COMPLETION_TIMEOUT));
+    Future<Job> completion = null;
+    try {
+      completion = serviceRegistry.subscribeToJobCompletion(id);
+      return Response.ok(new JaxbJob(completion.get(wait, TimeUnit.MILLISECONDS))).build();
+    } catch (TimeoutException e) {
+      return Response.noContent().build();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return Response.noContent().build();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof NotFoundException)
+        throw (NotFoundException) e.getCause();
+      throw new WebApplicationException(e.getCause());
+    } catch (ServiceRegistryException e) {
+      throw new WebApplicationException(e);
+    } finally {
+      if (completion != null)
+        completion.cancel(false);
+    }
+  }
+
+  @GET
+  @Path("job/{id}/progress.json")
+  @Produces(MediaType.APPLICATION_JSON)
+  @RestQuery(name = "jobprogress", description = "Returns the progress last reported for a running job.", returnDescription = "The progress as a number between 0 and 1 and the expected completion date, if known", pathParameters = { @RestParameter(name = "id", isRequired = true, type = Type.STRING, description = "The job identifier") }, reponses = {
+          @RestResponse(responseCode = SC_OK, description = "Progress found."),
+          @RestResponse(responseCode = SC_NOT_FOUND, description = "No progress has been reported for this job.") })
+  @SuppressWarnings("unchecked")
+  public String getJobProgressAsJson(@PathParam("id") long id) throws NotFoundException {
+    try {
+      JobProgress progress = serviceRegistry.getJobProgress(id);
+      JSONObject json = new JSONObject();
+      json.put("id", progress.getJobId());
+      json.put("progress", progress.getProgress());
+      if (progress.getDateExpectedCompletion() != null)
+        json.put("expected", DateTimeSupport.toUTC(progress.getDateExpectedCompletion().getTime()));
+      if (progress.getDateUpdated() != null)
+        json.put("updated", DateTimeSupport.toUTC(progress.getDateUpdated().getTime()));
+      return json.toJSONString();
+    } catch (ServiceRegistryException e) {
+      throw new WebApplicationException(e);
+    }
+  }
+
   @GET
   @Path("job/{id}/children.xml")
   @Produces(MediaType.TEXT_XML)
@@ -558,6 +649,32 @@ public class ServiceRegistryEndpoint {
 
   }
 
+  @POST
+  @Path("jobs/batch.xml")
+  @Produces(MediaType.TEXT_XML)
+  @RestQuery(name = "jobsbatchasxml", description = "Returns the jobs with the given identifiers as XML. Unknown identifiers are ignored.", returnDescription = "The jobs as XML", restParameters = {
+          @RestParameter(name = "id", isRequired = true, type = Type.INTEGER, description = "The job identifiers, this parameter may be repeated"),
+          @RestParameter(name = "compact", isRequired = false, type = Type.BOOLEAN, defaultValue = "false", description = "Whether to return only the status, processing host, timestamps and load of the jobs, skipping creator, arguments and payload") }, reponses = { @RestResponse(responseCode = SC_OK, description = "The jobs.") })
+  public JaxbJobList getJobsBatchAsXml(@FormParam("id") List<Long> ids, @FormParam("compact") boolean compact) {
+    return getJobsBatchAsJson(ids, compact);
+  }
+
+  @POST
+  @Path("jobs/batch.json")
+  @Produces(MediaType.APPLICATION_JSON)
+  @RestQuery(name = "jobsbatchasjson", description = "Returns the jobs with the given identifiers as JSON. Unknown identifiers are ignored.", returnDescription = "The jobs as JSON", restParameters = {
+          @RestParameter(name = "id", isRequired = true, type = Type.INTEGER, description = "The job identifiers, this parameter may be repeated"),
+          @RestParameter(name = "compact", isRequired = false, type = Type.BOOLEAN, defaultValue = "false", description = "Whether to return only the status, processing host, timestamps and load of the jobs, skipping creator, arguments and payload") }, reponses = { @RestResponse(responseCode = SC_OK, description = "The jobs.") })
+  public JaxbJobList getJobsBatchAsJson(@FormParam("id") List<Long> ids, @FormParam("compact") boolean compact) {
+    if (ids == null || ids.isEmpty())
+      return new JaxbJobList();
+    try {
+      return new JaxbJobList(serviceRegistry.getJobs(ids, compact));
+    } catch (ServiceRegistryException e) {
+      throw new WebApplicationException(e);
+    }
+  }
+
   @GET
   @Path("activeJobs.xml")
   @Produces(MediaType.TEXT_XML)
@@ -23,6 +23,8 @@ package org.opencastproject.serviceregistry.impl.jmx;
 
 import org.opencastproject.serviceregistry.api.HostRegistration;
 import org.opencastproject.serviceregistry.api.ServiceStatistics;
+import org.opencastproject.serviceregistry.api.SystemLoad;
+import org.opencastproject.serviceregistry.api.SystemLoad.NodeLoad;
 import org.opencastproject.util.jmx.JmxUtil;
 
 import org.apache.commons.collections4.CollectionUtils;
@@ -47,9 +49,12 @@ public class HostsStatistics extends NotificationBroadcasterSupport implements H
   private static final int ONLINE = 0;
   private static final int MAINTENANCE = 1;
   private static final int OFFLINE = 2;
+  private static final String DELIMITER = ";";
   private long sequenceNumber = 1;
 
   private Map<String, Integer> hosts = new HashMap<String, Integer>();
+  private List<NodeLoad> loads = new ArrayList<NodeLoad>();
+  private Map<String, Float> loadDeviations = new HashMap<String, Float>();
 
   public HostsStatistics(List<ServiceStatistics> statistics) {
     for (ServiceStatistics stats : statistics) {
@@ -89,6 +94,21 @@ public class HostsStatistics extends NotificationBroadcasterSupport implements H
     sendNotification(JmxUtil.createUpdateNotification(this, sequenceNumber++, "Host updated"));
   }
 
+  /**
+   * Updates the host loads as well as the corrections that had to be applied to the in-memory host loads when they
+   * were last compared with the database.
+   *
+   * @param systemLoad
+   *          the current host loads
+   * @param deviations
+   *          the difference between the in-memory and the persisted load by host
+   */
+  public void updateLoads(SystemLoad systemLoad, Map<String, Float> deviations) {
+    loads = new ArrayList<NodeLoad>(systemLoad.getNodeLoads());
+    loadDeviations = new HashMap<String, Float>(deviations);
+    sendNotification(JmxUtil.createUpdateNotification(this, sequenceNumber++, "Host loads updated"));
+  }
+
   @Override
   public MBeanNotificationInfo[] getNotificationInfo() {
     String[] types = new String[] { JmxUtil.OPENCAST_UPDATE_NOTIFICATION };
@@ -178,4 +198,28 @@ public class HostsStatistics extends NotificationBroadcasterSupport implements H
     return maintenanceHosts.toArray(new String[maintenanceHosts.size()]);
   }
 
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.HostsStatisticsMXBean#getLoads()
+   */
+  @Override
+  public String[] getLoads() {
+    List<String> list = new ArrayList<String>();
+    for (NodeLoad load : loads) {
+      list.add(load.getHost() + DELIMITER + load.getCurrentLoad() + DELIMITER + load.getMaxLoad());
+    }
+    return list.toArray(new String[list.size()]);
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.HostsStatisticsMXBean#getLoadDeviations()
+   */
+  @Override
+  public String[] getLoadDeviations() {
+    List<String> list = new ArrayList<String>();
+    for (Entry<String, Float> entry : loadDeviations.entrySet()) {
+      list.add(entry.getKey() + DELIMITER + entry.getValue());
+    }
+    return list.toArray(new String[list.size()]);
+  }
+
 }
@@ -82,4 +82,18 @@ public interface HostsStatisticsMXBean {
    */
   int getInMaintenanceCount();
 
+  /**
+   * Gets the current and maximum load of each host as tracked by the service registry
+   *
+   * @return an array including the loads as <code>host;current load;maximum load</code>
+   */
+  String[] getLoads();
+
+  /**
+   * Gets the hosts whose in-memory load had to be corrected on the last comparison with the database
+   *
+   * @return an array including the deviations as <code>host;deviation</code>
+   */
+  String[] getLoadDeviations();
+
 }
@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.management.MBeanNotificationInfo;
 import javax.management.Notification;
@@ -42,6 +43,15 @@ public class JobsStatistics extends NotificationBroadcasterSupport implements Jo
   private Map<Tuple3<String, String, Status>, Long> jobCounts = new HashMap<Tuple3<String, String, Status>, Long>();
   private Map<String, Long> avgRunTimes = new HashMap<String, Long>();
   private Map<String, Long> avgQueueTimes = new HashMap<String, Long>();
+  private Map<String, Integer> dispatchQueueDepths = new HashMap<String, Integer>();
+
+  // Dispatch latency per job type: number of dispatched jobs, total and maximum latency in milliseconds
+  private final Map<String, long[]> dispatchLatencies = new ConcurrentHashMap<String, long[]>();
+
+  // Dispatch latency per organization since the current dispatch policy is in use
+  private final Map<String, long[]> organizationDispatchLatencies = new ConcurrentHashMap<String, long[]>();
+  private Map<String, Integer> organizationDispatchQueueDepths = new HashMap<String, Integer>();
+  private volatile String dispatchPolicy = null;
 
   // Job Table runTime, queueTime
   private long sequenceNumber = 1;
@@ -73,6 +83,39 @@ public class JobsStatistics extends NotificationBroadcasterSupport implements Jo
     sendNotification(JmxUtil.createUpdateNotification(this, sequenceNumber++, "Job updated"));
   }
 
+  public void updateDispatchQueue(Map<String, Integer> queueDepths) {
+    dispatchQueueDepths = new HashMap<String, Integer>(queueDepths);
+  }
+
+  public void updateDispatchQueueByOrganization(Map<String, Integer> queueDepths) {
+    organizationDispatchQueueDepths = new HashMap<String, Integer>(queueDepths);
+  }
+
+  public void updateDispatchLatency(String jobType, String organization, long latency) {
+    addLatency(dispatchLatencies, jobType, latency);
+    if (organization != null)
+      addLatency(organizationDispatchLatencies, organization, latency);
+  }
+
+  public void updateDispatchPolicy(String policy) {
+    if (!policy.equals(dispatchPolicy))
+      organizationDispatchLatencies.clear();
+    dispatchPolicy = policy;
+  }
+
+  private void addLatency(Map<String, long[]> latencyMap, String key, long latency) {
+    long[] latencies = latencyMap.get(key);
+    if (latencies == null) {
+      latencyMap.putIfAbsent(key, new long[3]);
+      latencies = latencyMap.get(key);
+    }
+    synchronized (latencies) {
+      latencies[0]++;
+      latencies[1] += latency;
+      latencies[2] = Math.max(latencies[2], latency);
+    }
+  }
+
   @Override
   public MBeanNotificationInfo[] getNotificationInfo() {
     String[] types = new String[] { JmxUtil.OPENCAST_UPDATE_NOTIFICATION };
@@ -187,6 +230,93 @@ public class JobsStatistics extends NotificationBroadcasterSupport implements Jo
     return avgJobList.toArray(new String[avgJobList.size()]);
   }
 
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getDispatchQueueDepths()
+   */
+  @Override
+  public String[] getDispatchQueueDepths() {
+    List<String> list = new ArrayList<String>();
+    for (Entry<String, Integer> entry : dispatchQueueDepths.entrySet()) {
+      list.add(entry.getKey() + DELIMITER + entry.getValue());
+    }
+    return list.toArray(new String[list.size()]);
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getAverageDispatchLatency()
+   */
+  @Override
+  public String[] getAverageDispatchLatency() {
+    return toAverageLatencyArray(dispatchLatencies);
+  }
+
+  private String[] toAverageLatencyArray(Map<String, long[]> latencyMap) {
+    List<String> list = new ArrayList<String>();
+    for (Entry<String, long[]> entry : latencyMap.entrySet()) {
+      long[] latencies = entry.getValue();
+      synchronized (latencies) {
+        if (latencies[0] > 0)
+          list.add(entry.getKey() + DELIMITER + latencies[1] / latencies[0]);
+      }
+    }
+    return list.toArray(new String[list.size()]);
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getMaxDispatchLatency()
+   */
+  @Override
+  public String[] getMaxDispatchLatency() {
+    return toMaxLatencyArray(dispatchLatencies);
+  }
+
+  private String[] toMaxLatencyArray(Map<String, long[]> latencyMap) {
+    List<String> list = new ArrayList<String>();
+    for (Entry<String, long[]> entry : latencyMap.entrySet()) {
+      long[] latencies = entry.getValue();
+      synchronized (latencies) {
+        list.add(entry.getKey() + DELIMITER + latencies[2]);
+      }
+    }
+    return list.toArray(new String[list.size()]);
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getDispatchPolicy()
+   */
+  @Override
+  public String getDispatchPolicy() {
+    return dispatchPolicy;
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getDispatchQueueDepthsByOrganization()
+   */
+  @Override
+  public String[] getDispatchQueueDepthsByOrganization() {
+    List<String> list = new ArrayList<String>();
+    for (Entry<String, Integer> entry : organizationDispatchQueueDepths.entrySet()) {
+      list.add(entry.getKey() + DELIMITER + entry.getValue());
+    }
+    return list.toArray(new String[list.size()]);
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getAverageDispatchLatencyByOrganization()
+   */
+  @Override
+  public String[] getAverageDispatchLatencyByOrganization() {
+    return toAverageLatencyArray(organizationDispatchLatencies);
+  }
+
+  /**
+   * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getMaxDispatchLatencyByOrganization()
+   */
+  @Override
+  public String[] getMaxDispatchLatencyByOrganization() {
+    return toMaxLatencyArray(organizationDispatchLatencies);
+  }
+
   /**
    * @see org.opencastproject.serviceregistry.impl.jmx.JobsStatisticsMXBean#getJobs()
    */
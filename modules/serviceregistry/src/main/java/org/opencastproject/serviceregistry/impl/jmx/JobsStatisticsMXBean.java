@@ -180,4 +180,55 @@ public interface JobsStatisticsMXBean {
    */
   String[] getAverageJobQueueTime();
 
+  /**
+   * Gets the number of jobs waiting for dispatch per job type
+   *
+   * @return an array including the dispatch queue depth per job type
+   */
+  String[] getDispatchQueueDepths();
+
+  /**
+   * Gets a list of average times in milliseconds between a job being queued and being dispatched, per job type
+   *
+   * @return an array including average dispatch latencies
+   */
+  String[] getAverageDispatchLatency();
+
+  /**
+   * Gets a list of maximum times in milliseconds between a job being queued and being dispatched, per job type
+   *
+   * @return an array including maximum dispatch latencies
+   */
+  String[] getMaxDispatchLatency();
+
+  /**
+   * Gets the name of the policy deciding on the order in which queued jobs are dispatched
+   *
+   * @return the dispatch policy
+   */
+  String getDispatchPolicy();
+
+  /**
+   * Gets the number of jobs waiting for dispatch per organization
+   *
+   * @return an array including the dispatch queue depth per organization
+   */
+  String[] getDispatchQueueDepthsByOrganization();
+
+  /**
+   * Gets a list of average times in milliseconds between a job being queued and being dispatched, per organization,
+   * since the current dispatch policy is in use
+   *
+   * @return an array including average dispatch latencies
+   */
+  String[] getAverageDispatchLatencyByOrganization();
+
+  /**
+   * Gets a list of maximum times in milliseconds between a job being queued and being dispatched, per organization,
+   * since the current dispatch policy is in use
+   *
+   * @return an array including maximum dispatch latencies
+   */
+  String[] getMaxDispatchLatencyByOrganization();
+
 }
@@ -0,0 +1,110 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.opencastproject.job.api.Job.Status;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DispatchPolicyTest {
+
+  private DispatchQueue queue;
+
+  @Before
+  public void setUp() {
+    queue = new DispatchQueue();
+    // A bulk ingest of organization a, followed by a single job of organization b
+    for (long id = 1; id <= 4; id++) {
+      queue.update(id, "compose", "a", Status.QUEUED, new Date(id * 1000), true);
+    }
+    queue.update(5L, "compose", "b", Status.QUEUED, new Date(5000), true);
+    queue.update(6L, "compose", "b", Status.QUEUED, new Date(6000), true);
+  }
+
+  @Test
+  public void testFifo() {
+    assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L, 6L), queue.getJobIds(new FifoDispatchPolicy()));
+  }
+
+  @Test
+  public void testStrictPriority() {
+    queue.update(7L, "inspect", "a", Status.RESTART, new Date(7000), true);
+    DispatchPolicy policy = new StrictPriorityDispatchPolicy(Collections.singletonMap("b", 10));
+    assertEquals(Arrays.asList(7L, 5L, 6L, 1L, 2L, 3L, 4L), queue.getJobIds(policy));
+  }
+
+  @Test
+  public void testWeightedFairInterleavesOrganizations() {
+    DispatchPolicy policy = new WeightedFairDispatchPolicy(Collections.<String, Integer> emptyMap());
+    assertEquals(Arrays.asList(1L, 5L, 2L, 6L, 3L, 4L), queue.getJobIds(policy));
+  }
+
+  @Test
+  public void testWeightedFairHonorsWeights() {
+    Map<String, Integer> weights = new HashMap<>();
+    weights.put("b", 2);
+    queue.update(7L, "compose", "b", Status.QUEUED, new Date(7000), true);
+    queue.update(8L, "compose", "b", Status.QUEUED, new Date(8000), true);
+    DispatchPolicy policy = new WeightedFairDispatchPolicy(weights);
+    assertEquals(Arrays.asList(1L, 5L, 6L, 2L, 7L, 8L, 3L, 4L), queue.getJobIds(policy));
+  }
+
+  @Test
+  public void testWeightedFairAccountsDispatchedJobs() {
+    WeightedFairDispatchPolicy policy = new WeightedFairDispatchPolicy(Collections.<String, Integer> emptyMap());
+    queue.getJobIds(policy);
+    // Organization a got three of its jobs dispatched, so b goes first
+    for (long id = 1; id <= 3; id++) {
+      policy.jobDispatched(queue.remove(id));
+    }
+    List<Long> ids = queue.getJobIds(policy);
+    assertEquals(Arrays.asList(5L, 6L, 4L), ids);
+  }
+
+  @Test
+  public void testWeightedFairIdleOrganizationsDoNotCatchUp() {
+    WeightedFairDispatchPolicy policy = new WeightedFairDispatchPolicy(Collections.<String, Integer> emptyMap());
+    queue.remove(5L);
+    queue.remove(6L);
+    queue.getJobIds(policy);
+    for (long id = 1; id <= 3; id++) {
+      policy.jobDispatched(queue.remove(id));
+    }
+    // Organization b has not been waiting while a was processed, so it does not get to run three jobs in a row now
+    for (long id = 10; id <= 12; id++) {
+      queue.update(id, "compose", "b", Status.QUEUED, new Date(id * 1000), true);
+    }
+    queue.update(13L, "compose", "a", Status.QUEUED, new Date(13000), true);
+    assertEquals(Arrays.asList(4L, 10L, 11L, 13L, 12L), queue.getJobIds(policy));
+  }
+
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.opencastproject.serviceregistry.impl.ServiceRegistryJpaImpl.TYPE_WORKFLOW;
+
+import org.opencastproject.job.api.Job.Status;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class DispatchQueueTest {
+
+  private DispatchQueue queue;
+
+  @Before
+  public void setUp() {
+    queue = new DispatchQueue();
+  }
+
+  @Test
+  public void testDispatchOrder() {
+    queue.update(1L, TYPE_WORKFLOW, "org", Status.QUEUED, new Date(1000), true);
+    queue.update(2L, "compose", "org", Status.QUEUED, new Date(3000), true);
+    queue.update(3L, "compose", "org", Status.QUEUED, new Date(2000), true);
+    queue.update(4L, "inspect", "org", Status.RESTART, new Date(4000), true);
+    assertEquals(Arrays.asList(4L, 3L, 2L, 1L), queue.getJobIds());
+  }
+
+  @Test
+  public void testNonQueuedJobsAreRemoved() {
+    queue.update(1L, "compose", "org", Status.QUEUED, new Date(), true);
+    queue.update(2L, "compose", "org", Status.QUEUED, new Date(), false);
+    assertEquals(1, queue.size());
+    queue.update(1L, "compose", "org", Status.RUNNING, new Date(), true);
+    assertEquals(0, queue.size());
+    assertNull(queue.get(1L));
+  }
+
+  @Test
+  public void testRequeueKeepsEnqueueTime() throws Exception {
+    queue.update(1L, "compose", "org", Status.QUEUED, null, true);
+    long enqueued = queue.get(1L).getEnqueued();
+    Thread.sleep(5);
+    queue.update(1L, "compose", "org", Status.QUEUED, null, true);
+    assertEquals(enqueued, queue.get(1L).getEnqueued());
+  }
+
+  @Test
+  public void testQueueDepths() {
+    queue.update(1L, "compose", "org", Status.QUEUED, new Date(), true);
+    queue.update(2L, "compose", "org", Status.RESTART, new Date(), true);
+    queue.update(3L, "inspect", "org", Status.QUEUED, new Date(), true);
+    assertEquals(2, queue.getQueueDepths().get("compose").intValue());
+    assertEquals(1, queue.getQueueDepths().get("inspect").intValue());
+    queue.remove(3L);
+    assertNull(queue.getQueueDepths().get("inspect"));
+  }
+
+  @Test
+  public void testReconcile() {
+    queue.update(1L, "compose", "org", Status.QUEUED, new Date(), true);
+    queue.update(2L, "compose", "org", Status.QUEUED, new Date(), true);
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[] { 2L, Status.QUEUED.ordinal(), new Date(), "compose", "org" });
+    rows.add(new Object[] { 3L, Status.RESTART.ordinal(), new Date(2000), "inspect", "org" });
+    queue.reconcile(rows);
+    assertEquals(Arrays.asList(3L, 2L), queue.getJobIds());
+    assertEquals(2000L, queue.get(3L).getEnqueued());
+  }
+
+}
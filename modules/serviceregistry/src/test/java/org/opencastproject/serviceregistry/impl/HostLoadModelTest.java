@@ -0,0 +1,150 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.serviceregistry.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.job.api.Job.Status;
+import org.opencastproject.serviceregistry.api.HostRegistration;
+import org.opencastproject.serviceregistry.api.SystemLoad;
+import org.opencastproject.serviceregistry.impl.jpa.HostRegistrationJpaImpl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class HostLoadModelTest {
+
+  private static final String HOST_1 = "http://host1";
+  private static final String HOST_2 = "http://host2";
+
+  private HostLoadModel model;
+
+  @Before
+  public void setUp() {
+    model = new HostLoadModel();
+    model.updateHost(HOST_1, 4.0f);
+    model.updateHost(HOST_2, 2.0f);
+  }
+
+  @Test
+  public void testJobLifecycle() {
+    model.updateJob(1L, HOST_1, 1.5f, true);
+    model.updateJob(2L, HOST_1, 0.5f, true);
+    assertEquals(2.0f, model.getLoad(HOST_1), 0.001f);
+    assertEquals(2, model.getJobCount());
+
+    // Updating a running job must not count it twice
+    model.updateJob(1L, HOST_1, 1.5f, true);
+    assertEquals(2.0f, model.getLoad(HOST_1), 0.001f);
+
+    // Finished jobs release their load
+    model.updateJob(1L, HOST_1, 1.5f, false);
+    assertEquals(0.5f, model.getLoad(HOST_1), 0.001f);
+
+    model.removeJob(2L);
+    assertEquals(0.0f, model.getLoad(HOST_1), 0.0f);
+    assertEquals(0, model.getJobCount());
+  }
+
+  @Test
+  public void testJobMovesToOtherHost() {
+    model.updateJob(1L, HOST_1, 1.0f, true);
+    model.updateJob(1L, HOST_2, 1.0f, true);
+    assertEquals(0.0f, model.getLoad(HOST_1), 0.0f);
+    assertEquals(1.0f, model.getLoad(HOST_2), 0.001f);
+  }
+
+  @Test
+  public void testSystemLoadSnapshot() throws Exception {
+    model.updateJob(1L, HOST_2, 1.0f, true);
+    SystemLoad systemLoad = model.getSystemLoad();
+    assertEquals(1.0f, systemLoad.get(HOST_2).getCurrentLoad(), 0.001f);
+    assertEquals(2.0f, systemLoad.get(HOST_2).getMaxLoad(), 0.001f);
+    assertEquals(0.0f, systemLoad.get(HOST_1).getCurrentLoad(), 0.0f);
+
+    systemLoad.updateNodeLoad(HOST_2, 1.0f);
+    assertEquals(1.0f, model.getLoad(HOST_2), 0.001f);
+  }
+
+  @Test
+  public void testDispatchedJobs() {
+    model.updateJob(1L, HOST_1, 1.0f, true);
+    model.jobDispatched(2L, HOST_1, 1.5f);
+    assertEquals(2.5f, model.getLoad(HOST_1), 0.001f);
+    // Dispatched jobs are not accepted yet
+    assertEquals(1.0f, model.getRunningLoad(HOST_1), 0.001f);
+
+    model.updateJob(2L, HOST_1, 1.5f, true);
+    assertEquals(2.5f, model.getLoad(HOST_1), 0.001f);
+    assertEquals(2.5f, model.getRunningLoad(HOST_1), 0.001f);
+
+    // Dispatched jobs found in the database
+    List<Object[]> running = new ArrayList<>();
+    running.add(new Object[] { 1L, HOST_1, 1.0f, Status.RUNNING.ordinal() });
+    running.add(new Object[] { 2L, HOST_1, 1.5f, Status.DISPATCHING.ordinal() });
+    model.reconcile(running, Collections.<HostRegistration> emptyList());
+    assertEquals(2.5f, model.getLoad(HOST_1), 0.001f);
+    assertEquals(1.0f, model.getRunningLoad(HOST_1), 0.001f);
+
+    model.removeJob(2L);
+    assertEquals(1.0f, model.getLoad(HOST_1), 0.001f);
+    assertEquals(1.0f, model.getRunningLoad(HOST_1), 0.001f);
+  }
+
+  @Test
+  public void testReconcile() {
+    model.updateJob(1L, HOST_1, 1.0f, true);
+    model.updateJob(2L, HOST_2, 1.0f, true);
+
+    // Job 1 finished on another node, job 3 was started on host 1 by another node
+    List<Object[]> running = new ArrayList<>();
+    running.add(new Object[] { 2L, HOST_2, 1.0f });
+    running.add(new Object[] { 3L, HOST_1, 2.0f });
+    List<HostRegistration> hosts = Arrays.<HostRegistration> asList(
+            new HostRegistrationJpaImpl(HOST_1, "127.0.0.1", null, 1024L, 4, 8.0f, true, false));
+
+    Map<String, Float> deviations = model.reconcile(running, hosts);
+    assertEquals(1, deviations.size());
+    assertEquals(-1.0f, deviations.get(HOST_1), 0.001f);
+    assertEquals(2.0f, model.getLoad(HOST_1), 0.001f);
+    assertEquals(1.0f, model.getLoad(HOST_2), 0.001f);
+    assertEquals(2, model.getJobCount());
+
+    SystemLoad systemLoad = model.getSystemLoad();
+    assertTrue(systemLoad.containsHost(HOST_1));
+    assertFalse(systemLoad.containsHost(HOST_2));
+    assertEquals(8.0f, systemLoad.get(HOST_1).getMaxLoad(), 0.001f);
+
+    // The reconciled state is the base for further updates
+    model.updateJob(3L, HOST_1, 2.0f, false);
+    assertEquals(0.0f, model.getLoad(HOST_1), 0.0f);
+  }
+
+}
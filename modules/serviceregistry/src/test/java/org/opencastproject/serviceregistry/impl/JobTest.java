@@ -36,6 +36,7 @@ import org.opencastproject.job.api.Job.FailureReason;
 import org.opencastproject.job.api.Job.Status;
 import org.opencastproject.job.api.JobImpl;
 import org.opencastproject.job.api.JobParser;
+import org.opencastproject.job.jpa.JpaJob;
 import org.opencastproject.mediapackage.MediaPackageElementBuilderFactory;
 import org.opencastproject.mediapackage.MediaPackageElementParser;
 import org.opencastproject.mediapackage.MediaPackageElements;
@@ -541,6 +542,88 @@ public class JobTest {
     assertEquals("Arguments not persisted in order", arg2, jobFromDb.getArguments().get(1));
   }
 
+  @Test
+  public void testUpdateWithoutContentKeepsPayload() throws Exception {
+    Job job = serviceRegistry.createJob(JOB_TYPE_1, "some_operation", Arrays.asList("arg1"), "payload");
+
+    // Jobs loaded by the dispatcher do not carry their payload and arguments
+    EntityManager em = serviceRegistry.emf.createEntityManager();
+    try {
+      JpaJob jpaJob = em.find(JpaJob.class, job.getId());
+      Assert.assertFalse(jpaJob.isContentLoaded());
+      jpaJob.setStatus(Status.DISPATCHING);
+      serviceRegistry.updateInternal(em, jpaJob);
+    } finally {
+      em.close();
+    }
+
+    Job jobFromDb = serviceRegistry.getJob(job.getId());
+    assertEquals(Status.DISPATCHING, jobFromDb.getStatus());
+    assertEquals("payload", jobFromDb.getPayload());
+    assertEquals(Arrays.asList("arg1"), jobFromDb.getArguments());
+  }
+
+  @Test
+  public void testUpdateJobReadWithoutContentKeepsPayload() throws Exception {
+    Job job = serviceRegistry.createJob(JOB_TYPE_1, "some_operation", Arrays.asList("arg1"), "payload");
+
+    Job jobWithoutContent;
+    EntityManager em = serviceRegistry.emf.createEntityManager();
+    try {
+      jobWithoutContent = em.find(JpaJob.class, job.getId()).toJob();
+    } finally {
+      em.close();
+    }
+    Assert.assertNull(jobWithoutContent.getPayload());
+
+    jobWithoutContent.setStatus(Status.RUNNING);
+    serviceRegistry.updateJob(jobWithoutContent);
+
+    Job jobFromDb = serviceRegistry.getJob(job.getId());
+    assertEquals(Status.RUNNING, jobFromDb.getStatus());
+    assertEquals("payload", jobFromDb.getPayload());
+    assertEquals(Arrays.asList("arg1"), jobFromDb.getArguments());
+  }
+
+  @Test
+  public void testUpdatePayloadOfActiveJob() throws Exception {
+    Job job = serviceRegistry.createJob(JOB_TYPE_1, "some_operation", Arrays.asList("arg1"), "payload");
+
+    Job activeJob = null;
+    for (Job candidate : serviceRegistry.getActiveJobs()) {
+      if (candidate.getId() == job.getId())
+        activeJob = candidate;
+    }
+    Assert.assertNotNull(activeJob);
+    activeJob.setPayload("changed");
+    serviceRegistry.updateJob(activeJob);
+
+    Job jobFromDb = serviceRegistry.getJob(job.getId());
+    assertEquals("changed", jobFromDb.getPayload());
+    assertEquals(Arrays.asList("arg1"), jobFromDb.getArguments());
+  }
+
+  @Test
+  public void testUpdateJobReadWithoutContentAfterSerialization() throws Exception {
+    Job job = serviceRegistry.createJob(JOB_TYPE_1, "some_operation", Arrays.asList("arg1"), "payload");
+
+    Job jobWithoutContent;
+    EntityManager em = serviceRegistry.emf.createEntityManager();
+    try {
+      jobWithoutContent = em.find(JpaJob.class, job.getId()).toJob();
+    } finally {
+      em.close();
+    }
+    Job deserialized = JobParser.parseJob(JobParser.toXml(new JaxbJob(jobWithoutContent)));
+    deserialized.setStatus(Status.RUNNING);
+    serviceRegistry.updateJob(deserialized);
+
+    Job jobFromDb = serviceRegistry.getJob(job.getId());
+    assertEquals(Status.RUNNING, jobFromDb.getStatus());
+    assertEquals("payload", jobFromDb.getPayload());
+    assertEquals(Arrays.asList("arg1"), jobFromDb.getArguments());
+  }
+
   @Test
   public void testVersionIncrements() throws Exception {
     Job job = serviceRegistry.createJob(JOB_TYPE_1, "some_operation", null, null, false);
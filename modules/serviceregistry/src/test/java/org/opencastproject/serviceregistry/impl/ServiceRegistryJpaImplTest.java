@@ -26,6 +26,7 @@ import static org.junit.Assert.assertEquals;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.Job.Status;
 import org.opencastproject.job.api.JobBarrier;
+import org.opencastproject.job.api.JobProgress;
 import org.opencastproject.security.api.DefaultOrganization;
 import org.opencastproject.security.api.JaxbOrganization;
 import org.opencastproject.security.api.JaxbRole;
@@ -67,12 +68,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.beans.PropertyVetoException;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Hashtable;
+import java.util.List;
 import java.util.concurrent.Executors;
 
 import javax.management.ObjectInstance;
+import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 
 public class ServiceRegistryJpaImplTest {
@@ -226,6 +230,37 @@ public class ServiceRegistryJpaImplTest {
     serviceRegistryJpaImpl.removeJobs(Collections.singletonList(1L));
   }
 
+  @Test
+  public void testJobProgress() throws Exception {
+    serviceRegistryJpaImpl.activate(null);
+    registerTestHostAndService();
+    Job job = serviceRegistryJpaImpl.createJob(TEST_HOST, TEST_SERVICE, TEST_OPERATION, null, null, true, null);
+    try {
+      serviceRegistryJpaImpl.getJobProgress(job.getId());
+      Assert.fail("No progress has been reported yet");
+    } catch (NotFoundException e) {
+      // expected
+    }
+
+    Date expected = new Date(System.currentTimeMillis() + 60000L);
+    serviceRegistryJpaImpl.updateJobProgress(job.getId(), 0.25f, expected);
+    serviceRegistryJpaImpl.updateJobProgress(job.getId(), 0.5f, expected);
+    JobProgress progress = serviceRegistryJpaImpl.getJobProgress(job.getId());
+    assertEquals(job.getId(), progress.getJobId());
+    assertEquals(0.5f, progress.getProgress(), 0.0001f);
+    assertEquals(expected.getTime() / 1000L, progress.getDateExpectedCompletion().getTime() / 1000L);
+    Assert.assertNotNull(progress.getDateUpdated());
+
+    // The progress is removed together with its job
+    serviceRegistryJpaImpl.removeJobs(Collections.singletonList(job.getId()));
+    try {
+      serviceRegistryJpaImpl.getJobProgress(job.getId());
+      Assert.fail("The progress should have been removed");
+    } catch (NotFoundException e) {
+      // expected
+    }
+  }
+
   @Test
   public void testCancelUndispatchablesOrphanedByActivatingNode() throws Exception {
     serviceRegistryJpaImpl.activate(null);
@@ -426,6 +461,39 @@ public class ServiceRegistryJpaImplTest {
     }
   }
 
+  @Test
+  public void testOwnLoadLeavesOutDispatchedJobs() throws Exception {
+    serviceRegistryJpaImpl.activate(null);
+    registerTestHostAndService();
+
+    Job running = serviceRegistryJpaImpl.createJob(TEST_HOST, TEST_SERVICE, TEST_OPERATION, null, null, false, null,
+            1.0f);
+    running.setProcessingHost(TEST_HOST);
+    running.setStatus(Status.RUNNING);
+    serviceRegistryJpaImpl.updateJob(running);
+
+    // The host is asked to accept this job, which adds its load on its own
+    Job dispatching = serviceRegistryJpaImpl.createJob(TEST_HOST, TEST_SERVICE, TEST_OPERATION, null, null, false,
+            null, 2.0f);
+    dispatching.setProcessingHost(TEST_HOST);
+    dispatching.setStatus(Status.DISPATCHING);
+    serviceRegistryJpaImpl.updateJob(dispatching);
+
+    EntityManager em = emf.createEntityManager();
+    try {
+      serviceRegistryJpaImpl.reconcileHostLoads(em);
+    } finally {
+      em.close();
+    }
+    assertEquals(3.0f, serviceRegistryJpaImpl.hostLoads.getLoad(TEST_HOST), 0.001f);
+    assertEquals(1.0f, serviceRegistryJpaImpl.getOwnLoad(), 0.001f);
+
+    // Once running, the job adds to the own load
+    dispatching.setStatus(Status.RUNNING);
+    serviceRegistryJpaImpl.updateJob(dispatching);
+    assertEquals(3.0f, serviceRegistryJpaImpl.getOwnLoad(), 0.001f);
+  }
+
   @Test
   public void testUpdateJobFailed() throws Exception {
     serviceRegistryJpaImpl.activate(null);
@@ -461,4 +529,34 @@ public class ServiceRegistryJpaImplTest {
     Assert.assertEquals(runTime, updatedJob.getRunTime());
   }
 
+  @Test
+  public void testGetJobsBatch() throws Exception {
+    serviceRegistryJpaImpl.activate(null);
+    registerTestHostAndService();
+    Job job1 = serviceRegistryJpaImpl.createJob(TEST_HOST, TEST_SERVICE, TEST_OPERATION, Arrays.asList("arg"),
+            "payload1", true, null, 1.0f);
+    Job job2 = serviceRegistryJpaImpl.createJob(TEST_HOST, TEST_SERVICE, TEST_OPERATION, null, "payload2", true,
+            job1, 1.0f);
+    job2.setStatus(Job.Status.FINISHED);
+    serviceRegistryJpaImpl.updateJob(job2);
+
+    // Results follow the order of the identifiers, unknown identifiers are ignored
+    List<Job> jobs = serviceRegistryJpaImpl.getJobs(Arrays.asList(job2.getId(), 12345L, job1.getId()), false);
+    assertEquals(2, jobs.size());
+    assertEquals(job2.getId(), jobs.get(0).getId());
+    assertEquals("payload2", jobs.get(0).getPayload());
+    assertEquals(Arrays.asList("arg"), jobs.get(1).getArguments());
+
+    List<Job> compactJobs = serviceRegistryJpaImpl.getJobs(Arrays.asList(job1.getId(), job2.getId()), true);
+    assertEquals(2, compactJobs.size());
+    Job compactJob = compactJobs.get(1);
+    assertEquals(job2.getId(), compactJob.getId());
+    assertEquals(Job.Status.FINISHED, compactJob.getStatus());
+    assertEquals(TEST_SERVICE, compactJob.getJobType());
+    assertEquals(job1.getId(), compactJob.getParentJobId().longValue());
+    Assert.assertNotNull(compactJob.getDateCompleted());
+    Assert.assertNull(compactJob.getPayload());
+    Assert.assertTrue(compactJob.getArguments().isEmpty());
+  }
+
 }
@@ -103,21 +103,11 @@ public class FFmpegSilenceDetector {
   public FFmpegSilenceDetector(Properties properties, Track track, Workspace workspace)
     throws SilenceDetectionFailedException, MediaPackageException, IOException {
 
-    long minSilenceLength;
-    long minVoiceLength;
-    long preSilenceLength;
-    String thresholdDB;
-
     //Ensure properties is not null, avoids null checks later
     if (null == properties) {
       properties = new Properties();
     }
 
-    minSilenceLength = parseLong(properties, SilenceDetectionProperties.SILENCE_MIN_LENGTH, DEFAULT_SILENCE_MIN_LENGTH);
-    minVoiceLength = parseLong(properties, SilenceDetectionProperties.VOICE_MIN_LENGTH, DEFAULT_VOICE_MIN_LENGTH);
-    preSilenceLength = parseLong(properties, SilenceDetectionProperties.SILENCE_PRE_LENGTH, DEFAULT_SILENCE_PRE_LENGTH);
-    thresholdDB = properties.getProperty(SilenceDetectionProperties.SILENCE_THRESHOLD_DB, DEFAULT_THRESHOLD_DB);
-
     trackId = track.getIdentifier();
 
     /* Make sure the element can be analyzed using this analysis implementation */
@@ -126,12 +116,7 @@ public class FFmpegSilenceDetector {
       throw new SilenceDetectionFailedException("Element has no audio stream");
     }
 
-    /* Make sure we are not allowed to move the beginning of a segment into the last segment */
-    if (preSilenceLength > minSilenceLength) {
-      logger.error("Pre silence length ({}) is configured to be greater than minimun silence length ({})",
-          preSilenceLength, minSilenceLength);
-      throw new SilenceDetectionFailedException("preSilenceLength > minSilenceLength");
-    }
+    String filter = getFilter(properties);
 
     try {
       File mediaFile = workspace.get(track.getURI());
@@ -149,9 +134,6 @@ public class FFmpegSilenceDetector {
 
     logger.info("Starting silence detection of {}", filePath);
     String mediaPath = filePath.replaceAll(" ", "\\ ");
-    DecimalFormat decimalFmt = new DecimalFormat("0.000", new DecimalFormatSymbols(Locale.US));
-    String minSilenceLengthInSeconds = decimalFmt.format((double) minSilenceLength / 1000.0);
-    String filter = "silencedetect=noise=" + thresholdDB + ":duration=" + minSilenceLengthInSeconds;
     String[] command = new String[] {binary, "-nostats", "-i", mediaPath, "-filter:a", filter, "-f", "null", "-"};
     String commandline = StringUtils.join(command, " ");
 
@@ -178,6 +160,54 @@ public class FFmpegSilenceDetector {
       reader.close();
     }
 
+    segments = getSegments(segmentsStrings, properties, track.getDuration());
+    logger.info("Segmentation of track {} yielded {} segments", trackId, segments.size());
+  }
+
+  /**
+   * Returns the FFmpeg audio filter detecting the silent sequences according to the given properties.
+   *
+   * @param properties
+   *          the silence detection properties, may be empty
+   * @return the filter
+   * @throws SilenceDetectionFailedException
+   *           if the properties are inconsistent
+   */
+  public static String getFilter(Properties properties) throws SilenceDetectionFailedException {
+    long minSilenceLength = parseLong(properties, SilenceDetectionProperties.SILENCE_MIN_LENGTH,
+            DEFAULT_SILENCE_MIN_LENGTH);
+    long preSilenceLength = parseLong(properties, SilenceDetectionProperties.SILENCE_PRE_LENGTH,
+            DEFAULT_SILENCE_PRE_LENGTH);
+    String thresholdDB = properties.getProperty(SilenceDetectionProperties.SILENCE_THRESHOLD_DB, DEFAULT_THRESHOLD_DB);
+
+    /* Make sure we are not allowed to move the beginning of a segment into the last segment */
+    if (preSilenceLength > minSilenceLength) {
+      logger.error("Pre silence length ({}) is configured to be greater than minimun silence length ({})",
+          preSilenceLength, minSilenceLength);
+      throw new SilenceDetectionFailedException("preSilenceLength > minSilenceLength");
+    }
+
+    DecimalFormat decimalFmt = new DecimalFormat("0.000", new DecimalFormatSymbols(Locale.US));
+    String minSilenceLengthInSeconds = decimalFmt.format((double) minSilenceLength / 1000.0);
+    return "silencedetect=noise=" + thresholdDB + ":duration=" + minSilenceLengthInSeconds;
+  }
+
+  /**
+   * Creates the non silent segments of a track from the output of the FFmpeg silence detection filter.
+   *
+   * @param segmentsStrings
+   *          the lines logged by the silence detection filter
+   * @param properties
+   *          the silence detection properties, may be empty
+   * @param duration
+   *          the duration of the track in milliseconds
+   * @return the non silent segments
+   */
+  public static List<MediaSegment> getSegments(List<String> segmentsStrings, Properties properties, long duration) {
+    long minVoiceLength = parseLong(properties, SilenceDetectionProperties.VOICE_MIN_LENGTH, DEFAULT_VOICE_MIN_LENGTH);
+    long preSilenceLength = parseLong(properties, SilenceDetectionProperties.SILENCE_PRE_LENGTH,
+            DEFAULT_SILENCE_PRE_LENGTH);
+
     /**
      * Example output:
      * [silencedetect @ 0x2968e40] silence_start: 466.486
@@ -188,7 +218,7 @@ public class FFmpegSilenceDetector {
     if (segmentsStrings.size() == 0) {
       /* No silence found -> Add one segment for the whole track */
       logger.info("No silence found. Adding one large segment.");
-      segmentsTmp.add(new MediaSegment(0, track.getDuration()));
+      segmentsTmp.add(new MediaSegment(0, duration));
     } else {
       long lastSilenceEnd = 0;
       long lastSilenceStart = 0;
@@ -228,19 +258,17 @@ public class FFmpegSilenceDetector {
         }
       }
       /* Add last segment if it is no silence and the segment is long enough */
-      if (lastSilenceStart < lastSilenceEnd && track.getDuration() - lastSilenceEnd > minVoiceLength) {
+      if (lastSilenceStart < lastSilenceEnd && duration - lastSilenceEnd > minVoiceLength) {
         long segmentStart = java.lang.Math.max(0, lastSilenceEnd - preSilenceLength);
-        logger.info("Adding final segment from {} to {}", segmentStart, track.getDuration());
-        segmentsTmp.add(new MediaSegment(segmentStart, track.getDuration()));
+        logger.info("Adding final segment from {} to {}", segmentStart, duration);
+        segmentsTmp.add(new MediaSegment(segmentStart, duration));
       }
     }
 
-    logger.info("Segmentation of track {} yielded {} segments", trackId, segmentsTmp.size());
-    segments = segmentsTmp;
-
+    return segmentsTmp;
   }
 
-  private Long parseLong(Properties properties, String key, Long defaultValue) {
+  private static Long parseLong(Properties properties, String key, Long defaultValue) {
     try {
       return Long.parseLong(properties.getProperty(key, defaultValue.toString()));
     } catch (NumberFormatException e) {
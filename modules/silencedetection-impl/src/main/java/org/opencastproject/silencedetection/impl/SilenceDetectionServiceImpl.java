@@ -205,6 +205,34 @@ public class SilenceDetectionServiceImpl extends AbstractJobProducer implements
     }
   }
 
+  /**
+   * Returns the FFmpeg audio filter detecting silence using the configuration of this service. This allows other
+   * services to run the silence detection as part of their own FFmpeg process.
+   *
+   * @return the filter
+   * @throws SilenceDetectionFailedException if the configuration is inconsistent
+   */
+  public String getSilenceDetectionFilter() throws SilenceDetectionFailedException {
+    return FFmpegSilenceDetector.getFilter(properties != null ? properties : new Properties());
+  }
+
+  /**
+   * Creates the smil listing the non silent segments of a track from the lines logged by the filter returned by
+   * {@link #getSilenceDetectionFilter()}.
+   *
+   * @param track the analyzed track, also used as media segment source
+   * @param filterOutput the lines logged by the silence detection filter
+   * @return the generated smil
+   * @throws SmilException if smil creation failed
+   */
+  public Smil generateSmil(Track track, List<String> filterOutput) throws SmilException {
+    List<MediaSegment> segments = FFmpegSilenceDetector.getSegments(filterOutput,
+            properties != null ? properties : new Properties(), track.getDuration());
+    logger.info("Silence detection of track {} yielded {} segments", track.getIdentifier(), segments.size());
+    return generateSmil(new MediaSegments(track.getIdentifier(), track.getURI().toString(), segments),
+            Arrays.asList(track));
+  }
+
   /**
    * Create a smil from given parameters.
    *
@@ -0,0 +1,141 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.videosegmenter.ffmpeg;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The scene change scores of all frames of a video, as detected by the FFmpeg <code>select</code> filter.
+ * <p>
+ * The scores are recorded in a single decoding pass. Selecting the scene changes for any changes threshold can then be
+ * done in memory, which allows the segmentation to try several thresholds without decoding the video again.
+ */
+public class SceneScores {
+
+  /** Prefix of the log lines written by the FFmpeg metadata filter */
+  static final String METADATA_PREFIX = "[Parsed_metadata";
+
+  /** Pattern matching the presentation time of a frame */
+  private static final Pattern PTS_TIME = Pattern.compile("pts_time:(-?\\d+(\\.\\d+)?)");
+
+  /** Pattern matching the scene change score of a frame */
+  private static final Pattern SCENE_SCORE = Pattern.compile("lavfi\\.scene_score=(\\d+(\\.\\d+)?)");
+
+  /** Presentation times of the recorded frames in milliseconds */
+  private long[] times = new long[1024];
+
+  /** Scene change scores of the recorded frames */
+  private float[] scores = new float[1024];
+
+  /** Number of recorded frames */
+  private int size = 0;
+
+  /** Presentation time of the frame whose score is expected next, or -1 if there is none */
+  private long pendingTime = -1;
+
+  /**
+   * Returns the FFmpeg video filter recording the scene change score of every frame.
+   *
+   * @return the filter graph
+   */
+  public static String getFilter() {
+    return "select=gte(scene\\,0),metadata=print:key=lavfi.scene_score";
+  }
+
+  /**
+   * Parses a log line of the FFmpeg metadata filter. The filter logs the presentation time of a frame on one line,
+   * followed by its scene change score on the next:
+   *
+   * <pre>
+   * [Parsed_metadata_1 @ 0x7f8c1c] frame:12   pts:12      pts_time:12
+   * [Parsed_metadata_1 @ 0x7f8c1c] lavfi.scene_score=0.051923
+   * </pre>
+   *
+   * @param line
+   *          the log line
+   * @throws NumberFormatException
+   *           if the line cannot be parsed
+   */
+  public void parse(String line) {
+    if (!line.startsWith(METADATA_PREFIX))
+      return;
+    Matcher matcher = PTS_TIME.matcher(line);
+    if (matcher.find()) {
+      pendingTime = Math.round(Double.parseDouble(matcher.group(1)) * 1000);
+      return;
+    }
+    matcher = SCENE_SCORE.matcher(line);
+    if (matcher.find() && pendingTime >= 0) {
+      add(pendingTime, Float.parseFloat(matcher.group(1)));
+      pendingTime = -1;
+    }
+  }
+
+  /**
+   * Records the scene change score of a frame.
+   *
+   * @param time
+   *          the presentation time of the frame in milliseconds
+   * @param score
+   *          the scene change score
+   */
+  public void add(long time, float score) {
+    // Frames without any change are never selected, no matter the threshold
+    if (score <= 0)
+      return;
+    if (size == times.length) {
+      times = Arrays.copyOf(times, size * 2);
+      scores = Arrays.copyOf(scores, size * 2);
+    }
+    times[size] = time;
+    scores[size] = score;
+    size++;
+  }
+
+  /**
+   * Returns the presentation times of all frames whose scene change score is above the given threshold. This matches
+   * the frames FFmpeg would select using <code>select=gt(scene\,threshold)</code>.
+   *
+   * @param changesThreshold
+   *          the changes threshold
+   * @return the presentation times in milliseconds, in ascending order
+   */
+  public long[] getSceneChanges(float changesThreshold) {
+    long[] changes = new long[size];
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (scores[i] > changesThreshold)
+        changes[count++] = times[i];
+    }
+    return Arrays.copyOf(changes, count);
+  }
+
+  /**
+   * @return the number of frames with a scene change score above zero
+   */
+  public int size() {
+    return size;
+  }
+
+}
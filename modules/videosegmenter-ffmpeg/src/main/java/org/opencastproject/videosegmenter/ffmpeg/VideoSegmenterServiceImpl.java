@@ -67,8 +67,6 @@ import java.util.Collections;
 import java.util.Dictionary;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Media analysis plugin that takes a video stream and extracts video segments
@@ -77,8 +75,11 @@ import java.util.regex.Pattern;
  * This plugin runs
  *
  * <pre>
- * ffmpeg -nostats -i in.mp4 -filter:v 'select=gt(scene\,0.04),showinfo' -f null - 2&gt;&amp;1 | grep Parsed_showinfo_1
+ * ffmpeg -nostats -i in.mp4 -filter:v 'select=gte(scene\,0),metadata=print:key=lavfi.scene_score' -f null - 2&gt;&amp;1
  * </pre>
+ *
+ * once to record the scene change score of every frame. The optimization of the changes threshold then selects the
+ * scene changes from these scores without decoding the video again.
  */
 public class VideoSegmenterServiceImpl extends AbstractJobProducer implements
 VideoSegmenterService, ManagedService {
@@ -349,8 +350,6 @@ VideoSegmenterService, ManagedService {
     }
 
     try {
-      Mpeg7Catalog mpeg7;
-
       File mediaFile = null;
       URL mediaUrl = null;
       try {
@@ -370,295 +369,324 @@ VideoSegmenterService, ManagedService {
       logger.info("Track {} loaded, duration is {} s", mediaUrl,
           track.getDuration() / 1000);
 
-      MediaTime contentTime = new MediaRelTimeImpl(0,
-          track.getDuration());
-      MediaLocator contentLocator = new MediaLocatorImpl(track.getURI());
-
-      Video videoContent;
-
-      logger.debug("changesThreshold: {}, stabilityThreshold: {}", changesThreshold, stabilityThreshold);
-      logger.debug("prefNumber: {}, maxCycles: {}", prefNumber, maxCycles);
-
-      boolean endOptimization = false;
-      int cycleCount = 0;
-      LinkedList<Segment> segments;
-      LinkedList<OptimizationStep> optimizationList = new LinkedList<OptimizationStep>();
-      LinkedList<OptimizationStep> unusedResultsList = new LinkedList<OptimizationStep>();
-      OptimizationStep stepBest = new OptimizationStep();
-
-      // local copy of changesThreshold, that can safely be changed over optimization iterations
-      float changesThresholdLocal = changesThreshold;
-
-      // local copies of prefNumber, absoluteMin and absoluteMax, to make a dependency on track length possible
-      int prefNumberLocal = prefNumber;
-      int absoluteMaxLocal = absoluteMax;
-      int absoluteMinLocal = absoluteMin;
-
-      // if the number of segments should depend on the duration of the track, calculate new values for prefNumber,
-      // absoluteMax and absoluteMin with the duration of the track
-      if (durationDependent) {
-        double trackDurationInHours = track.getDuration() / 3600000.0;
-        prefNumberLocal = (int) Math.round(trackDurationInHours * prefNumberLocal);
-        absoluteMaxLocal = (int) Math.round(trackDurationInHours * absoluteMax);
-        absoluteMinLocal = (int) Math.round(trackDurationInHours * absoluteMin);
-
-        //make sure prefNumberLocal will never be 0 or negative
-        if (prefNumberLocal <= 0) {
-          prefNumberLocal = 1;
-        }
+      // decode the video only once, all optimization cycles work on the recorded scene change scores
+      SceneScores sceneScores = detectSceneScores(mediaFile);
+      Mpeg7Catalog mpeg7 = segment(track, sceneScores);
+
+      Catalog mpeg7Catalog = (Catalog) MediaPackageElementBuilderFactory
+        .newInstance().newElementBuilder()
+        .newElement(Catalog.TYPE, MediaPackageElements.SEGMENTS);
+      URI uri;
+      try {
+        uri = workspace.putInCollection(COLLECTION_ID, job.getId()
+            + ".xml", mpeg7CatalogService.serialize(mpeg7));
+      } catch (IOException e) {
+        throw new VideoSegmenterException(
+            "Unable to put the mpeg7 catalog into the workspace", e);
+      }
+      mpeg7Catalog.setURI(uri);
+
+      logger.info("Finished video segmentation of {}", mediaUrl);
+      return mpeg7Catalog;
+    } catch (Exception e) {
+      logger.warn("Error segmenting " + track, e);
+      if (e instanceof VideoSegmenterException) {
+        throw (VideoSegmenterException) e;
+      } else {
+        throw new VideoSegmenterException(e);
+      }
+    }
+  }
+
+  /**
+   * Segments the given track based on its scene change scores. The changes threshold and the stability threshold are
+   * optimized to get close to the preferred number of segments.
+   *
+   * @param track
+   *            the track to segment
+   * @param sceneScores
+   *            the scene change scores of the track
+   * @return the mpeg-7 catalog containing the segments
+   */
+  public Mpeg7Catalog segment(Track track, SceneScores sceneScores) {
+    Mpeg7Catalog mpeg7;
+
+    MediaTime contentTime = new MediaRelTimeImpl(0,
+        track.getDuration());
+    MediaLocator contentLocator = new MediaLocatorImpl(track.getURI());
 
-        logger.info("Numbers of segments are set to be relative to track duration. Therefore for {} the preferred "
-                + "number of segments is {}", mediaUrl, prefNumberLocal);
+    Video videoContent;
+
+    logger.debug("changesThreshold: {}, stabilityThreshold: {}", changesThreshold, stabilityThreshold);
+    logger.debug("prefNumber: {}, maxCycles: {}", prefNumber, maxCycles);
+
+    boolean endOptimization = false;
+    int cycleCount = 0;
+    LinkedList<Segment> segments;
+    LinkedList<OptimizationStep> optimizationList = new LinkedList<OptimizationStep>();
+    LinkedList<OptimizationStep> unusedResultsList = new LinkedList<OptimizationStep>();
+    OptimizationStep stepBest = new OptimizationStep();
+
+    // local copy of changesThreshold, that can safely be changed over optimization iterations
+    float changesThresholdLocal = changesThreshold;
+
+    // local copies of prefNumber, absoluteMin and absoluteMax, to make a dependency on track length possible
+    int prefNumberLocal = prefNumber;
+    int absoluteMaxLocal = absoluteMax;
+    int absoluteMinLocal = absoluteMin;
+
+    // if the number of segments should depend on the duration of the track, calculate new values for prefNumber,
+    // absoluteMax and absoluteMin with the duration of the track
+    if (durationDependent) {
+      double trackDurationInHours = track.getDuration() / 3600000.0;
+      prefNumberLocal = (int) Math.round(trackDurationInHours * prefNumberLocal);
+      absoluteMaxLocal = (int) Math.round(trackDurationInHours * absoluteMax);
+      absoluteMinLocal = (int) Math.round(trackDurationInHours * absoluteMin);
+
+      //make sure prefNumberLocal will never be 0 or negative
+      if (prefNumberLocal <= 0) {
+        prefNumberLocal = 1;
       }
 
-      logger.info("Starting video segmentation of {}", mediaUrl);
+      logger.info("Numbers of segments are set to be relative to track duration. Therefore for {} the preferred "
+              + "number of segments is {}", track.getURI(), prefNumberLocal);
+    }
 
+    logger.info("Starting video segmentation of {}", track.getURI());
 
-      // optimization loop to get a segmentation with a number of segments close
-      // to the desired number of segments
-      while (!endOptimization) {
 
-        mpeg7 = mpeg7CatalogService.newInstance();
-        videoContent = mpeg7.addVideoContent("videosegment",
-            contentTime, contentLocator);
+    // optimization loop to get a segmentation with a number of segments close
+    // to the desired number of segments
+    while (!endOptimization) {
 
+      mpeg7 = mpeg7CatalogService.newInstance();
+      videoContent = mpeg7.addVideoContent("videosegment",
+          contentTime, contentLocator);
 
-        // run the segmentation with FFmpeg
-        segments = runSegmentationFFmpeg(track, videoContent, mediaFile, changesThresholdLocal);
 
+      // select the scene changes for the current changes threshold
+      segments = createSegments(track, videoContent, sceneScores, changesThresholdLocal);
 
-        // calculate errors for "normal" and filtered segmentation
-        // and compare them to find better optimization.
-        // "normal"
-        OptimizationStep currentStep = new OptimizationStep(changesThresholdLocal, segments.size(), prefNumberLocal,
-            mpeg7, segments);
-        // filtered
-        LinkedList<Segment> segmentsNew = new LinkedList<Segment>();
-        OptimizationStep currentStepFiltered = new OptimizationStep(
-                changesThresholdLocal, 0,
-                prefNumberLocal, filterSegmentation(segments, track, segmentsNew, stabilityThreshold * 1000), segments);
-        currentStepFiltered.setSegmentNumAndRecalcErrors(segmentsNew.size());
 
-        logger.info("Segmentation yields {} segments after filtering", segmentsNew.size());
+      // calculate errors for "normal" and filtered segmentation
+      // and compare them to find better optimization.
+      // "normal"
+      OptimizationStep currentStep = new OptimizationStep(changesThresholdLocal, segments.size(), prefNumberLocal,
+          mpeg7, segments);
+      // filtered
+      LinkedList<Segment> segmentsNew = new LinkedList<Segment>();
+      OptimizationStep currentStepFiltered = new OptimizationStep(
+              changesThresholdLocal, 0,
+              prefNumberLocal, filterSegmentation(segments, track, segmentsNew, stabilityThreshold * 1000), segments);
+      currentStepFiltered.setSegmentNumAndRecalcErrors(segmentsNew.size());
 
-        OptimizationStep currentStepBest;
+      logger.info("Segmentation yields {} segments after filtering", segmentsNew.size());
 
-        // save better optimization in optimizationList
-        //
-        // the unfiltered segmentation is better if
-        // - the error is smaller than the error of the filtered segmentation
-        // OR - the filtered number of segments is smaller than the preferred number
-        //    - and the unfiltered number of segments is bigger than a value that should roughly estimate how many
-        //          segments with the length of the stability threshold could maximally be in a video
-        //          (this is to make sure that if there are e.g. 1000 segments and the filtering would yield
-        //           smaller and smaller results, the stability threshold won't be optimized in the wrong direction)
-        //    - and the filtered segmentation is not already better than the maximum error
-        if (currentStep.getErrorAbs() <= currentStepFiltered.getErrorAbs() || (segmentsNew.size() < prefNumberLocal
-                && currentStep.getSegmentNum() > (track.getDuration() / 1000.0f) / (stabilityThreshold / 2)
-                && !(currentStepFiltered.getErrorAbs() <= maxError))) {
+      OptimizationStep currentStepBest;
 
-          optimizationList.add(currentStep);
-          Collections.sort(optimizationList);
-          currentStepBest = currentStep;
-          unusedResultsList.add(currentStepFiltered);
-        } else {
-          optimizationList.add(currentStepFiltered);
-          Collections.sort(optimizationList);
-          currentStepBest = currentStepFiltered;
-        }
+      // save better optimization in optimizationList
+      //
+      // the unfiltered segmentation is better if
+      // - the error is smaller than the error of the filtered segmentation
+      // OR - the filtered number of segments is smaller than the preferred number
+      //    - and the unfiltered number of segments is bigger than a value that should roughly estimate how many
+      //          segments with the length of the stability threshold could maximally be in a video
+      //          (this is to make sure that if there are e.g. 1000 segments and the filtering would yield
+      //           smaller and smaller results, the stability threshold won't be optimized in the wrong direction)
+      //    - and the filtered segmentation is not already better than the maximum error
+      if (currentStep.getErrorAbs() <= currentStepFiltered.getErrorAbs() || (segmentsNew.size() < prefNumberLocal
+              && currentStep.getSegmentNum() > (track.getDuration() / 1000.0f) / (stabilityThreshold / 2)
+              && !(currentStepFiltered.getErrorAbs() <= maxError))) {
 
-        cycleCount++;
+        optimizationList.add(currentStep);
+        Collections.sort(optimizationList);
+        currentStepBest = currentStep;
+        unusedResultsList.add(currentStepFiltered);
+      } else {
+        optimizationList.add(currentStepFiltered);
+        Collections.sort(optimizationList);
+        currentStepBest = currentStepFiltered;
+      }
 
-        logger.debug("errorAbs = {}, error = {}", currentStep.getErrorAbs(), currentStep.getError());
-        logger.debug("changesThreshold = {}", changesThresholdLocal);
-        logger.debug("cycleCount = {}", cycleCount);
+      cycleCount++;
 
-        // end optimization if maximum number of cycles is reached or if the segmentation is good enough
-        if (cycleCount >= maxCycles || currentStepBest.getErrorAbs() <= maxError) {
-          endOptimization = true;
-          if (optimizationList.size() > 0) {
-            if (optimizationList.getFirst().getErrorAbs() <= optimizationList.getLast().getErrorAbs()
-                && optimizationList.getFirst().getError() >= 0) {
-              stepBest = optimizationList.getFirst();
-            } else {
-              stepBest = optimizationList.getLast();
-            }
+      logger.debug("errorAbs = {}, error = {}", currentStep.getErrorAbs(), currentStep.getError());
+      logger.debug("changesThreshold = {}", changesThresholdLocal);
+      logger.debug("cycleCount = {}", cycleCount);
+
+      // end optimization if maximum number of cycles is reached or if the segmentation is good enough
+      if (cycleCount >= maxCycles || currentStepBest.getErrorAbs() <= maxError) {
+        endOptimization = true;
+        if (optimizationList.size() > 0) {
+          if (optimizationList.getFirst().getErrorAbs() <= optimizationList.getLast().getErrorAbs()
+              && optimizationList.getFirst().getError() >= 0) {
+            stepBest = optimizationList.getFirst();
+          } else {
+            stepBest = optimizationList.getLast();
           }
+        }
 
-          // just to be sure, check if one of the unused results was better
-          for (OptimizationStep currentUnusedStep : unusedResultsList) {
-            if (currentUnusedStep.getErrorAbs() < stepBest.getErrorAbs()) {
-              stepBest = unusedResultsList.getFirst();
-            }
+        // just to be sure, check if one of the unused results was better
+        for (OptimizationStep currentUnusedStep : unusedResultsList) {
+          if (currentUnusedStep.getErrorAbs() < stepBest.getErrorAbs()) {
+            stepBest = unusedResultsList.getFirst();
           }
+        }
 
 
-        // continue optimization, calculate new changes threshold for next iteration of optimization
-        } else {
-          OptimizationStep first = optimizationList.getFirst();
-          OptimizationStep last = optimizationList.getLast();
-          // if this was the first iteration or there are only positive or negative errors,
-          // estimate a new changesThreshold based on the one yielding the smallest error
-          if (optimizationList.size() == 1 || first.getError() < 0 || last.getError() > 0) {
-            if (currentStepBest.getError() >= 0) {
-              // if the error is smaller or equal to 1, increase changes threshold weighted with the error
-              if (currentStepBest.getError() <= 1) {
-                changesThresholdLocal += changesThresholdLocal * currentStepBest.getError();
+      // continue optimization, calculate new changes threshold for next iteration of optimization
+      } else {
+        OptimizationStep first = optimizationList.getFirst();
+        OptimizationStep last = optimizationList.getLast();
+        // if this was the first iteration or there are only positive or negative errors,
+        // estimate a new changesThreshold based on the one yielding the smallest error
+        if (optimizationList.size() == 1 || first.getError() < 0 || last.getError() > 0) {
+          if (currentStepBest.getError() >= 0) {
+            // if the error is smaller or equal to 1, increase changes threshold weighted with the error
+            if (currentStepBest.getError() <= 1) {
+              changesThresholdLocal += changesThresholdLocal * currentStepBest.getError();
+            } else {
+                // if there are more than 2000 segments in the first iteration, set changes threshold to 0.2
+                // to faster reach reasonable segment numbers
+              if (cycleCount <= 1 && currentStep.getSegmentNum() > 2000) {
+                changesThresholdLocal = 0.2f;
+              // if the error is bigger than one, double the changes threshold, because multiplying
+              // with a large error can yield a much too high changes threshold
               } else {
-                  // if there are more than 2000 segments in the first iteration, set changes threshold to 0.2
-                  // to faster reach reasonable segment numbers
-                if (cycleCount <= 1 && currentStep.getSegmentNum() > 2000) {
-                  changesThresholdLocal = 0.2f;
-                // if the error is bigger than one, double the changes threshold, because multiplying
-                // with a large error can yield a much too high changes threshold
-                } else {
-                changesThresholdLocal *= 2;
-                }
+              changesThresholdLocal *= 2;
               }
-            } else {
-                changesThresholdLocal /= 2;
             }
-
-            logger.debug("onesided optimization yields new changesThreshold = {}", changesThresholdLocal);
-          // if there are already iterations with positive and negative errors, choose a changesThreshold between those
           } else {
-            // for simplicity a linear relationship between the changesThreshold
-            // and the number of generated segments is assumed and based on that
-            // the expected correct changesThreshold is calculated
-
-            // the new changesThreshold is calculated by averaging the the mean and the mean weighted with errors
-            // because this seemed to yield better results in several cases
-
-            float x = (first.getSegmentNum() - prefNumberLocal) / (float)(first.getSegmentNum() - last.getSegmentNum());
-            float newX = ((x + 0.5f) * 0.5f);
-            changesThresholdLocal = first.getChangesThreshold() * (1 - newX) + last.getChangesThreshold() * newX;
-            logger.debug("doublesided optimization yields new changesThreshold = {}", changesThresholdLocal);
+              changesThresholdLocal /= 2;
           }
-        }
-      }
 
+          logger.debug("onesided optimization yields new changesThreshold = {}", changesThresholdLocal);
+        // if there are already iterations with positive and negative errors, choose a changesThreshold between those
+        } else {
+          // for simplicity a linear relationship between the changesThreshold
+          // and the number of generated segments is assumed and based on that
+          // the expected correct changesThreshold is calculated
 
-      // after optimization of the changes threshold, the minimum duration for a segment
-      // (stability threshold) is optimized if the result is still not good enough
-      int threshLow = stabilityThreshold * 1000;
-      int threshHigh = threshLow + (threshLow / 2);
-
-      LinkedList<Segment> tmpSegments;
-      float smallestError = Float.MAX_VALUE;
-      int bestI = threshLow;
-      segments = stepBest.getSegments();
+          // the new changesThreshold is calculated by averaging the the mean and the mean weighted with errors
+          // because this seemed to yield better results in several cases
 
-      // if the error is negative (which means there are already too few segments) or if the error
-      // is smaller than the maximum error, the stability threshold will not be optimized
-      if (stepBest.getError() <= maxError) {
-        threshHigh = stabilityThreshold * 1000;
-      }
-      for (int i = threshLow; i <= threshHigh; i = i + 1000) {
-        tmpSegments = new LinkedList<Segment>();
-        filterSegmentation(segments, track, tmpSegments, i);
-        float newError = OptimizationStep.calculateErrorAbs(tmpSegments.size(), prefNumberLocal);
-        if (newError < smallestError) {
-          smallestError = newError;
-          bestI = i;
+          float x = (first.getSegmentNum() - prefNumberLocal) / (float)(first.getSegmentNum() - last.getSegmentNum());
+          float newX = ((x + 0.5f) * 0.5f);
+          changesThresholdLocal = first.getChangesThreshold() * (1 - newX) + last.getChangesThreshold() * newX;
+          logger.debug("doublesided optimization yields new changesThreshold = {}", changesThresholdLocal);
         }
       }
-      tmpSegments = new LinkedList<Segment>();
-      mpeg7 = filterSegmentation(segments, track, tmpSegments, bestI);
-
-      // for debugging: output of final segmentation after optimization
-      logger.debug("result segments:");
-      for (int i = 0; i < tmpSegments.size(); i++) {
-        int[] tmpLog2 = new int[7];
-        tmpLog2[0] = tmpSegments.get(i).getMediaTime().getMediaTimePoint().getHour();
-        tmpLog2[1] = tmpSegments.get(i).getMediaTime().getMediaTimePoint().getMinutes();
-        tmpLog2[2] = tmpSegments.get(i).getMediaTime().getMediaTimePoint().getSeconds();
-        tmpLog2[3] = tmpSegments.get(i).getMediaTime().getMediaDuration().getHours();
-        tmpLog2[4] = tmpSegments.get(i).getMediaTime().getMediaDuration().getMinutes();
-        tmpLog2[5] = tmpSegments.get(i).getMediaTime().getMediaDuration().getSeconds();
-        Object[] tmpLog1 = {tmpLog2[0], tmpLog2[1], tmpLog2[2], tmpLog2[3], tmpLog2[4], tmpLog2[5], tmpLog2[6]};
-        tmpLog1[6] = tmpSegments.get(i).getIdentifier();
-        logger.debug("s:{}:{}:{}, d:{}:{}:{}, {}", tmpLog1);
-      }
-
-      logger.info("Optimized Segmentation yields (after {} iteration" + (cycleCount == 1 ? "" : "s") + ") {} segments",
-          cycleCount, tmpSegments.size());
+    }
 
-      // if no reasonable segmentation could be found, instead return a uniform segmentation
-      if (tmpSegments.size() < absoluteMinLocal || tmpSegments.size() > absoluteMaxLocal) {
-        mpeg7 = uniformSegmentation(track, tmpSegments, prefNumberLocal);
-        logger.info("Since no reasonable segmentation could be found, a uniform segmentation was created");
-      }
 
+    // after optimization of the changes threshold, the minimum duration for a segment
+    // (stability threshold) is optimized if the result is still not good enough
+    int threshLow = stabilityThreshold * 1000;
+    int threshHigh = threshLow + (threshLow / 2);
 
+    LinkedList<Segment> tmpSegments;
+    float smallestError = Float.MAX_VALUE;
+    int bestI = threshLow;
+    segments = stepBest.getSegments();
 
-      Catalog mpeg7Catalog = (Catalog) MediaPackageElementBuilderFactory
-        .newInstance().newElementBuilder()
-        .newElement(Catalog.TYPE, MediaPackageElements.SEGMENTS);
-      URI uri;
-      try {
-        uri = workspace.putInCollection(COLLECTION_ID, job.getId()
-            + ".xml", mpeg7CatalogService.serialize(mpeg7));
-      } catch (IOException e) {
-        throw new VideoSegmenterException(
-            "Unable to put the mpeg7 catalog into the workspace", e);
+    // if the error is negative (which means there are already too few segments) or if the error
+    // is smaller than the maximum error, the stability threshold will not be optimized
+    if (stepBest.getError() <= maxError) {
+      threshHigh = stabilityThreshold * 1000;
+    }
+    for (int i = threshLow; i <= threshHigh; i = i + 1000) {
+      tmpSegments = new LinkedList<Segment>();
+      filterSegmentation(segments, track, tmpSegments, i);
+      float newError = OptimizationStep.calculateErrorAbs(tmpSegments.size(), prefNumberLocal);
+      if (newError < smallestError) {
+        smallestError = newError;
+        bestI = i;
       }
-      mpeg7Catalog.setURI(uri);
+    }
+    tmpSegments = new LinkedList<Segment>();
+    mpeg7 = filterSegmentation(segments, track, tmpSegments, bestI);
+
+    // for debugging: output of final segmentation after optimization
+    logger.debug("result segments:");
+    for (int i = 0; i < tmpSegments.size(); i++) {
+      int[] tmpLog2 = new int[7];
+      tmpLog2[0] = tmpSegments.get(i).getMediaTime().getMediaTimePoint().getHour();
+      tmpLog2[1] = tmpSegments.get(i).getMediaTime().getMediaTimePoint().getMinutes();
+      tmpLog2[2] = tmpSegments.get(i).getMediaTime().getMediaTimePoint().getSeconds();
+      tmpLog2[3] = tmpSegments.get(i).getMediaTime().getMediaDuration().getHours();
+      tmpLog2[4] = tmpSegments.get(i).getMediaTime().getMediaDuration().getMinutes();
+      tmpLog2[5] = tmpSegments.get(i).getMediaTime().getMediaDuration().getSeconds();
+      Object[] tmpLog1 = {tmpLog2[0], tmpLog2[1], tmpLog2[2], tmpLog2[3], tmpLog2[4], tmpLog2[5], tmpLog2[6]};
+      tmpLog1[6] = tmpSegments.get(i).getIdentifier();
+      logger.debug("s:{}:{}:{}, d:{}:{}:{}, {}", tmpLog1);
+    }
 
-      logger.info("Finished video segmentation of {}", mediaUrl);
-      return mpeg7Catalog;
-    } catch (Exception e) {
-      logger.warn("Error segmenting " + track, e);
-      if (e instanceof VideoSegmenterException) {
-        throw (VideoSegmenterException) e;
-      } else {
-        throw new VideoSegmenterException(e);
-      }
+    logger.info("Optimized Segmentation yields (after {} iteration" + (cycleCount == 1 ? "" : "s") + ") {} segments",
+        cycleCount, tmpSegments.size());
+
+    // if no reasonable segmentation could be found, instead return a uniform segmentation
+    if (tmpSegments.size() < absoluteMinLocal || tmpSegments.size() > absoluteMaxLocal) {
+      mpeg7 = uniformSegmentation(track, tmpSegments, prefNumberLocal);
+      logger.info("Since no reasonable segmentation could be found, a uniform segmentation was created");
     }
+
+    return mpeg7;
   }
 
   /**
-   * Does the actual segmentation with an FFmpeg call, adds the segments to the given videoContent of a catalog and
-   * returns a list with the resulting segments
+   * Runs FFmpeg on the given file and records the scene change score of every frame.
    *
-   * @param track the element to analyze
-   * @param videoContent the videoContent of the Mpeg7Catalog that the segments should be added to
    * @param mediaFile the file of the track to analyze
-   * @param changesThreshold the changesThreshold that is used as option for the FFmpeg call
-   * @return a list of the resulting segments
+   * @return the scene change scores
    * @throws IOException
    * @throws VideoSegmenterException
    */
-  private LinkedList<Segment> runSegmentationFFmpeg(Track track, Video videoContent, File mediaFile,
-          float changesThreshold) throws IOException, VideoSegmenterException {
+  private SceneScores detectSceneScores(File mediaFile) throws IOException, VideoSegmenterException {
 
     String[] command = new String[] { binary, "-nostats", "-nostdin", "-i", mediaFile.getAbsolutePath(),
-      "-filter:v", "select=gt(scene\\," + changesThreshold + "),showinfo", "-f", "null", "-"};
+      "-filter:v", SceneScores.getFilter(), "-f", "null", "-"};
 
-    logger.info("Detecting video segments using command: {}", (Object) command);
+    logger.info("Detecting scene change scores using command: {}", (Object) command);
 
     ProcessBuilder pbuilder = new ProcessBuilder(command);
-    List<String> segmentsStrings = new LinkedList<>();
+    SceneScores sceneScores = new SceneScores();
     Process process = pbuilder.start();
     try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
       String line = reader.readLine();
       while (null != line) {
-        if (line.startsWith("[Parsed_showinfo")) {
-          segmentsStrings.add(line);
-        }
+        sceneScores.parse(line);
         line = reader.readLine();
       }
+    } catch (NumberFormatException e) {
+      logger.error("Unable to parse FFmpeg output, likely FFmpeg version mismatch!", e);
+      throw new VideoSegmenterException(e);
     } catch (IOException e) {
       logger.error("Error executing ffmpeg: {}", e.getMessage());
     }
 
-    // [Parsed_showinfo_1 @ 0x157fb40] n:0 pts:12 pts_time:12 pos:227495
-    // fmt:rgb24 sar:0/1 s:320x240 i:P iskey:1 type:I checksum:8DF39EA9
-    // plane_checksum:[8DF39EA9]
+    logger.info("Recorded {} frames with scene changes in {}", sceneScores.size(), mediaFile.toURI().toURL());
+    return sceneScores;
+  }
+
+  /**
+   * Creates the segments for the given changes threshold, adds them to the given videoContent of a catalog and returns
+   * a list with the resulting segments
+   *
+   * @param track the element to analyze
+   * @param videoContent the videoContent of the Mpeg7Catalog that the segments should be added to
+   * @param sceneScores the scene change scores of the track
+   * @param changesThreshold the changesThreshold a frame needs to exceed to start a new segment
+   * @return a list of the resulting segments
+   */
+  private LinkedList<Segment> createSegments(Track track, Video videoContent, SceneScores sceneScores,
+          float changesThreshold) {
+
+    long[] sceneChanges = sceneScores.getSceneChanges(changesThreshold);
 
     int segmentcount = 1;
     LinkedList<Segment> segments = new LinkedList<>();
 
-    if (segmentsStrings.size() == 0) {
+    if (sceneChanges.length == 0) {
       Segment s = videoContent.getTemporalDecomposition()
           .createSegment("segment-" + segmentcount);
       s.setMediaTime(new MediaRelTimeImpl(0, track.getDuration()));
@@ -666,24 +694,8 @@ VideoSegmenterService, ManagedService {
     } else {
       long starttime = 0;
       long endtime = 0;
-      Pattern pattern = Pattern.compile("pts_time\\:\\d+(\\.\\d+)?");
-      for (String seginfo : segmentsStrings) {
-        Matcher matcher = pattern.matcher(seginfo);
-        String time = "";
-        while (matcher.find()) {
-          time = matcher.group().substring(9);
-        }
-        if ("".equals(time)) {
-          // continue if the showinfo does not contain any time information. This may happen since the FFmpeg showinfo
-          // filter is used for multiple purposes.
-          continue;
-        }
-        try {
-          endtime = Math.round(Float.parseFloat(time) * 1000);
-        } catch (NumberFormatException e) {
-          logger.error("Unable to parse FFmpeg output, likely FFmpeg version mismatch!", e);
-          throw new VideoSegmenterException(e);
-        }
+      for (long sceneChange : sceneChanges) {
+        endtime = sceneChange;
         long segmentLength = endtime - starttime;
         if (1000 * stabilityThresholdPrefilter < segmentLength) {
           Segment segment = videoContent.getTemporalDecomposition()
@@ -705,8 +717,8 @@ VideoSegmenterService, ManagedService {
       segments.add(s);
     }
 
-   logger.info("Segmentation of {} yields {} segments",
-           mediaFile.toURI().toURL(), segments.size());
+    logger.info("Segmentation of {} with changes threshold {} yields {} segments", track.getURI(), changesThreshold,
+            segments.size());
 
     return segments;
   }
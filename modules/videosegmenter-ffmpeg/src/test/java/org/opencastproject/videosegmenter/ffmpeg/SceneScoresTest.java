@@ -0,0 +1,63 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.videosegmenter.ffmpeg;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Test class for {@link SceneScores}.
+ */
+public class SceneScoresTest {
+
+  @Test
+  public void testParse() {
+    SceneScores scores = new SceneScores();
+    scores.parse("[Parsed_metadata_1 @ 0x7f8c1c] frame:0    pts:0       pts_time:0");
+    scores.parse("[Parsed_metadata_1 @ 0x7f8c1c] lavfi.scene_score=0.000000");
+    scores.parse("[Parsed_metadata_1 @ 0x7f8c1c] frame:1    pts:1       pts_time:1.5");
+    scores.parse("[Parsed_metadata_1 @ 0x7f8c1c] lavfi.scene_score=0.250000");
+    scores.parse("frame=    2 fps=0.0 q=-0.0 size=N/A time=00:00:02.00 bitrate=N/A speed=N/A");
+    scores.parse("[Parsed_metadata_1 @ 0x7f8c1c] frame:2    pts:2       pts_time:2.04");
+    scores.parse("[Parsed_metadata_1 @ 0x7f8c1c] lavfi.scene_score=0.030000");
+
+    // frames without any change are not recorded
+    assertEquals(2, scores.size());
+    assertArrayEquals(new long[] { 1500, 2040 }, scores.getSceneChanges(0.025f));
+    assertArrayEquals(new long[] { 1500 }, scores.getSceneChanges(0.03f));
+    assertArrayEquals(new long[] {}, scores.getSceneChanges(0.25f));
+  }
+
+  @Test
+  public void testGrow() {
+    SceneScores scores = new SceneScores();
+    for (int i = 0; i < 5000; i++) {
+      scores.add(i * 40, (i % 10) / 10.0f);
+    }
+    assertEquals(4500, scores.size());
+    assertEquals(500, scores.getSceneChanges(0.85f).length);
+    assertEquals(360, scores.getSceneChanges(0.85f)[0]);
+  }
+
+}
@@ -25,12 +25,19 @@ import org.opencastproject.util.IoSupport;
 
 import org.apache.commons.io.IOUtils;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -43,6 +50,12 @@ import javax.xml.transform.stream.StreamSource;
  */
 public final class WorkflowParser {
 
+  /**
+   * Prefix of compressed workflow instances. Since xml documents cannot start with this prefix, compressed and plain
+   * workflow instances can be told apart reliably.
+   */
+  public static final String COMPRESSED_PREFIX = "gzip:";
+
   private static final JAXBContext jaxbContext;
 
   static {
@@ -144,7 +157,8 @@ public final class WorkflowParser {
   }
 
   /**
-   * Loads a workflow instance from the xml stream.
+   * Loads a workflow instance from the xml stream. The workflow instance may have been compressed using
+   * {@link #compress(String)}.
    *
    * @param in
    *          xml stream of the workflow instance
@@ -154,7 +168,13 @@ public final class WorkflowParser {
    */
   public static WorkflowInstanceImpl parseWorkflowInstance(String in) throws WorkflowParsingException {
     try {
+      if (in.startsWith(COMPRESSED_PREFIX)) {
+        byte[] compressed = Base64.getDecoder().decode(in.substring(COMPRESSED_PREFIX.length()));
+        return parseWorkflowInstance(new GZIPInputStream(new ByteArrayInputStream(compressed)));
+      }
       return parseWorkflowInstance(IOUtils.toInputStream(in, "UTF8"));
+    } catch (IllegalArgumentException e) {
+      throw new WorkflowParsingException(e);
     } catch (IOException e) {
       throw new WorkflowParsingException(e);
     }
@@ -246,6 +266,27 @@ public final class WorkflowParser {
 
   }
 
+  /**
+   * Compresses a serialized workflow instance. Workflow instances carry the full media package and the configuration
+   * of every operation, so they compress very well, which reduces the amount of data written on every workflow
+   * update. {@link #parseWorkflowInstance(String)} accepts both the compressed and the plain representation.
+   *
+   * @param xml
+   *          the xml serialized workflow instance
+   * @return the compressed workflow instance
+   * @throws WorkflowParsingException
+   *           if compressing the workflow instance fails
+   */
+  public static String compress(String xml) throws WorkflowParsingException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(xml.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new WorkflowParsingException(e);
+    }
+    return COMPRESSED_PREFIX + Base64.getEncoder().encodeToString(bytes.toByteArray());
+  }
+
   public static String toXml(WorkflowDefinition workflowDefinition) throws WorkflowParsingException {
     try {
       Marshaller marshaller = jaxbContext.createMarshaller();
@@ -54,6 +54,7 @@ import org.opencastproject.metadata.api.MediaPackageMetadataService;
 import org.opencastproject.metadata.api.MetadataService;
 import org.opencastproject.metadata.api.util.MediaPackageMetadataSupport;
 import org.opencastproject.security.api.AccessControlList;
+import org.opencastproject.security.api.AccessControlParser;
 import org.opencastproject.security.api.AccessControlUtil;
 import org.opencastproject.security.api.AclScope;
 import org.opencastproject.security.api.AuthorizationService;
@@ -108,6 +109,7 @@ import org.opencastproject.workflow.impl.jmx.WorkflowsStatistics;
 import org.opencastproject.workspace.api.Workspace;
 
 import com.entwinemedia.fn.data.Opt;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.Striped;
 
 import org.apache.commons.io.IOUtils;
@@ -139,6 +141,7 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -174,6 +177,12 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
   /** The default value for {@link #workflowStatsCollect} */
   public static final Boolean DEFAULT_STATS_COLLECT_CONFIG = false;
 
+  /** The configuration key for setting {@link #compressPayload} */
+  public static final String COMPRESS_PAYLOAD_CONFIG_KEY = "payload.compress";
+
+  /** The default value for {@link #compressPayload} */
+  public static final Boolean DEFAULT_COMPRESS_PAYLOAD_CONFIG = false;
+
   /** Constant value indicating a <code>null</code> parent id */
   private static final String NULL_PARENT_ID = "-";
 
@@ -200,6 +209,9 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
   /** Flag whether to collect JMX statistics */
   protected boolean workflowStatsCollect = DEFAULT_STATS_COLLECT_CONFIG;
 
+  /** Flag whether to store workflow instances compressed in the job payload */
+  protected boolean compressPayload = DEFAULT_COMPRESS_PAYLOAD_CONFIG;
+
   /** The metadata services */
   private SortedSet<MediaPackageMetadataService> metadataServices;
 
@@ -253,6 +265,13 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
   private final Striped<Lock> updateLock = Striped.lazyWeakLock(1024);
   private final Striped<Lock> mediaPackageLocks = Striped.lazyWeakLock(1024);
 
+  /**
+   * Checksums of the media package, metadata and access control list last sent to the index for each active workflow
+   * instance, used to send only the workflow state if nothing else has changed. They are forgotten when the index is
+   * repopulated or sending an update fails.
+   */
+  private final Map<Long, String> indexedSnapshots = new ConcurrentHashMap<>();
+
   /**
    * Constructs a new workflow service impl, with a priority-sorted map of metadata services
    */
@@ -605,7 +624,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         }
 
         Job job = serviceRegistry.createJob(JOB_TYPE, Operation.START_WORKFLOW.toString(), arguments,
-                workflowInstanceXml, false, null, WORKFLOW_JOB_LOAD);
+                toPayload(workflowInstanceXml), false, null, WORKFLOW_JOB_LOAD);
 
         // Have the workflow take on the job's identity
         workflowInstance.setId(job.getId());
@@ -1002,6 +1021,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         // Third, remove workflow instance job itself
         try {
           serviceRegistry.removeJobs(Collections.singletonList(workflowInstanceId));
+          indexedSnapshots.remove(workflowInstanceId);
           messageSender.sendObjectMessage(WorkflowItem.WORKFLOW_QUEUE, MessageSender.DestinationType.Queue,
                                           WorkflowItem.deleteInstance(workflowInstanceId, instance));
         } catch (ServiceRegistryException e) {
@@ -1133,7 +1153,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
     try {
       workflowJob = serviceRegistry.getJob(workflowInstanceId);
       workflowJob.setStatus(Status.RUNNING);
-      workflowJob.setPayload(WorkflowParser.toXml(workflowInstance));
+      workflowJob.setPayload(toPayload(WorkflowParser.toXml(workflowInstance)));
       serviceRegistry.updateJob(workflowJob);
 
       Job operationJob = serviceRegistry.getJob(operationJobId);
@@ -1195,6 +1215,59 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
     }
   }
 
+  /**
+   * Sends the update of the workflow instance to the index. If sending fails, the checksum of the data is forgotten so
+   * that the next update is complete again.
+   *
+   * @param workflowInstance
+   *          the workflow instance
+   * @param dcXml
+   *          the episode metadata
+   * @param accessControlList
+   *          the active access control list of the media package
+   */
+  void sendIndexUpdate(WorkflowInstance workflowInstance, String dcXml, AccessControlList accessControlList) {
+    try {
+      messageSender.sendObjectMessage(WorkflowItem.WORKFLOW_QUEUE, MessageSender.DestinationType.Queue,
+              getIndexUpdate(workflowInstance, dcXml, accessControlList));
+    } catch (RuntimeException e) {
+      indexedSnapshots.remove(workflowInstance.getId());
+      throw e;
+    }
+  }
+
+  /**
+   * Creates the message updating the workflow instance in the index. The full media package, metadata and access
+   * control list are only sent if they have changed since the last update of this workflow instance. The last update
+   * of a workflow instance is always complete, so that an event missing from a cleared index is restored.
+   *
+   * @param workflowInstance
+   *          the workflow instance
+   * @param dcXml
+   *          the episode metadata
+   * @param accessControlList
+   *          the active access control list of the media package
+   * @return the index update message
+   */
+  WorkflowItem getIndexUpdate(WorkflowInstance workflowInstance, String dcXml,
+          AccessControlList accessControlList) {
+    String mediaPackageXml = MediaPackageParser.getAsXml(workflowInstance.getMediaPackage());
+    String checksum = Hashing.murmur3_128().newHasher()
+            .putUnencodedChars(mediaPackageXml)
+            .putUnencodedChars(StringUtils.defaultString(dcXml))
+            .putUnencodedChars(AccessControlParser.toJsonSilent(accessControlList))
+            .hash().toString();
+
+    WorkflowState state = workflowInstance.getState();
+    boolean active = state != WorkflowState.SUCCEEDED && state != WorkflowState.FAILED
+            && state != WorkflowState.STOPPED;
+    String previous = active ? indexedSnapshots.put(workflowInstance.getId(), checksum)
+            : indexedSnapshots.remove(workflowInstance.getId());
+    if (active && checksum.equals(previous))
+      return WorkflowItem.updateInstanceState(workflowInstance);
+    return WorkflowItem.updateInstance(workflowInstance, mediaPackageXml, dcXml, accessControlList);
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -1244,8 +1317,10 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
       // Synchronize the job status with the workflow
       WorkflowState workflowState = workflowInstance.getState();
       String xml;
+      String payload;
       try {
         xml = WorkflowParser.toXml(workflowInstance);
+        payload = toPayload(xml);
       } catch (Exception e) {
         // Can't happen, since we are converting from an in-memory object
         throw new IllegalStateException("In-memory workflow instance could not be serialized", e);
@@ -1254,7 +1329,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
       Job job;
       try {
         job = serviceRegistry.getJob(workflowInstance.getId());
-        job.setPayload(xml);
+        job.setPayload(payload);
 
         // Synchronize workflow and job state
         switch (workflowState) {
@@ -1303,8 +1378,7 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         // updates for running operations since we updated the metadata right before these operations and will do so
         // again right after those operations.
         if (op == null || op.getState() != OperationState.RUNNING) {
-          messageSender.sendObjectMessage(WorkflowItem.WORKFLOW_QUEUE, MessageSender.DestinationType.Queue,
-                  WorkflowItem.updateInstance(workflowInstance, dcXml, accessControlList));
+          sendIndexUpdate(workflowInstance, dcXml, accessControlList);
         }
         index(workflowInstance);
       } catch (ServiceRegistryException e) {
@@ -1327,11 +1401,12 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
       }
 
       try {
-        WorkflowInstance clone = WorkflowParser.parseWorkflowInstance(WorkflowParser.toXml(workflowInstance));
+        // The instance has not changed since it has been serialized for the job
+        WorkflowInstance clone = WorkflowParser.parseWorkflowInstance(xml);
         fireListeners(originalWorkflowInstance, clone);
       } catch (Exception e) {
         // Can't happen, since we are converting from an in-memory object
-        throw new IllegalStateException("In-memory workflow instance could not be serialized", e);
+        throw new IllegalStateException("In-memory workflow instance could not be deserialized", e);
       }
     } finally {
       lock.unlock();
@@ -2132,6 +2207,24 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
         workflowStatsCollect = DEFAULT_STATS_COLLECT_CONFIG;
       }
     }
+
+    String compressPayloadConfiguration = StringUtils.trimToNull((String) properties.get(COMPRESS_PAYLOAD_CONFIG_KEY));
+    compressPayload = compressPayloadConfiguration != null ? Boolean.parseBoolean(compressPayloadConfiguration)
+            : DEFAULT_COMPRESS_PAYLOAD_CONFIG;
+    logger.info("Compression of workflow job payloads is set to {}", compressPayload);
+  }
+
+  /**
+   * Returns the representation of a workflow instance that is stored as the payload of its job.
+   *
+   * @param xml
+   *          the xml serialized workflow instance
+   * @return the job payload
+   * @throws WorkflowParsingException
+   *           if the workflow instance cannot be compressed
+   */
+  private String toPayload(String xml) throws WorkflowParsingException {
+    return compressPayload ? WorkflowParser.compress(xml) : xml;
   }
 
   /**
@@ -2291,6 +2384,8 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
 
     final String destinationId = WorkflowItem.WORKFLOW_QUEUE_PREFIX + indexName.substring(0, 1).toUpperCase()
             + indexName.substring(1);
+    // The recreated index only contains what is sent from now on
+    indexedSnapshots.clear();
     if (total > 0) {
       logger.info("Populating index '{}' with {} workflows", indexName, total);
       final int responseInterval = (total < 100) ? 1 : (total / 100);
@@ -2350,6 +2445,8 @@ public class WorkflowServiceImpl extends AbstractIndexProducer implements Workfl
       } while (current < total);
     }
     logger.info("Finished populating {} index with workflows", indexName);
+    // Updates sent while populating the index may be missing from it
+    indexedSnapshots.clear();
     Organization organization = new DefaultOrganization();
     SecurityUtil.runAs(securityService, organization, SecurityUtil.createSystemUser(componentContext, organization),
             () -> {
@@ -0,0 +1,124 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workflow.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.opencastproject.mediapackage.MediaPackageBuilderFactory;
+import org.opencastproject.message.broker.api.MessageSender;
+import org.opencastproject.message.broker.api.workflow.WorkflowItem;
+import org.opencastproject.message.broker.api.workflow.WorkflowItem.Type;
+import org.opencastproject.security.api.AccessControlList;
+import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.security.util.SecurityUtil;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.workflow.api.WorkflowInstance.WorkflowState;
+import org.opencastproject.workflow.api.WorkflowInstanceImpl;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+
+import java.io.Serializable;
+
+public class WorkflowIndexUpdateTest {
+
+  private static final String DC_XML = "<dublincore/>";
+
+  private WorkflowServiceImpl service;
+  private WorkflowInstanceImpl instance;
+  private AccessControlList acl;
+
+  @Before
+  public void setUp() throws Exception {
+    service = new WorkflowServiceImpl();
+    instance = new WorkflowInstanceImpl();
+    instance.setId(1L);
+    instance.setTemplate("fast");
+    instance.setState(WorkflowState.RUNNING);
+    instance.setMediaPackage(MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().createNew());
+    acl = new AccessControlList();
+  }
+
+  @Test
+  public void testOnlyStateIsSentIfNothingElseChanged() throws Exception {
+    assertEquals(Type.UpdateInstance, service.getIndexUpdate(instance, DC_XML, acl).getType());
+    assertEquals(Type.UpdateInstanceState, service.getIndexUpdate(instance, DC_XML, acl).getType());
+
+    instance.getMediaPackage().setTitle("Changed");
+    assertEquals(Type.UpdateInstance, service.getIndexUpdate(instance, DC_XML, acl).getType());
+    assertEquals(Type.UpdateInstance, service.getIndexUpdate(instance, "<dublincore>changed</dublincore>", acl)
+            .getType());
+    assertEquals(Type.UpdateInstanceState,
+            service.getIndexUpdate(instance, "<dublincore>changed</dublincore>", acl).getType());
+  }
+
+  @Test
+  public void testLastUpdateIsComplete() throws Exception {
+    assertEquals(Type.UpdateInstance, service.getIndexUpdate(instance, DC_XML, acl).getType());
+    instance.setState(WorkflowState.SUCCEEDED);
+    assertEquals(Type.UpdateInstance, service.getIndexUpdate(instance, DC_XML, acl).getType());
+  }
+
+  @Test
+  public void testCompleteUpdateAfterRepopulating() throws Exception {
+    BundleContext bundleContext = EasyMock.createNiceMock(BundleContext.class);
+    EasyMock.expect(bundleContext.getProperty(SecurityUtil.PROPERTY_KEY_SYS_USER)).andReturn("system").anyTimes();
+    ComponentContext cc = EasyMock.createNiceMock(ComponentContext.class);
+    EasyMock.expect(cc.getBundleContext()).andReturn(bundleContext).anyTimes();
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    SecurityService securityService = EasyMock.createNiceMock(SecurityService.class);
+    MessageSender messageSender = EasyMock.createNiceMock(MessageSender.class);
+    EasyMock.replay(bundleContext, cc, serviceRegistry, securityService, messageSender);
+    service.componentContext = cc;
+    service.setServiceRegistry(serviceRegistry);
+    service.setSecurityService(securityService);
+    service.setMessageSender(messageSender);
+
+    assertEquals(Type.UpdateInstance, service.getIndexUpdate(instance, DC_XML, acl).getType());
+    service.repopulate("adminui");
+    assertEquals(Type.UpdateInstance, service.getIndexUpdate(instance, DC_XML, acl).getType());
+  }
+
+  @Test
+  public void testCompleteUpdateAfterSendingFailed() throws Exception {
+    MessageSender messageSender = EasyMock.createMock(MessageSender.class);
+    messageSender.sendObjectMessage(EasyMock.anyString(), EasyMock.anyObject(MessageSender.DestinationType.class),
+            EasyMock.anyObject(Serializable.class));
+    EasyMock.expectLastCall().andThrow(new IllegalStateException("Broker unavailable"));
+    EasyMock.replay(messageSender);
+    service.setMessageSender(messageSender);
+
+    try {
+      service.sendIndexUpdate(instance, DC_XML, acl);
+      fail("Sending the update should have failed");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    WorkflowItem update = service.getIndexUpdate(instance, DC_XML, acl);
+    assertEquals(Type.UpdateInstance, update.getType());
+  }
+
+}
@@ -127,4 +127,23 @@ public class WorkflowInstanceTest {
     Assert.assertEquals(workflow.getMediaPackage().getTracks()[0].getFlavor(),
             instance3.getMediaPackage().getTracks()[0].getFlavor());
   }
+
+  @Test
+  public void testCompressedSerialization() throws Exception {
+    InputStream in = getClass().getResourceAsStream("/workflow-definition-1.xml");
+    WorkflowDefinition def = WorkflowParser.parseWorkflowDefinition(in);
+    IOUtils.closeQuietly(in);
+    MediaPackage mp = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().createNew();
+    mp.add(TrackImpl.fromURI(new URI("http://testing")));
+    WorkflowInstance workflow = new WorkflowInstanceImpl(def, mp, null, null, null, null);
+
+    String xml = WorkflowParser.toXml(workflow);
+    String compressed = WorkflowParser.compress(xml);
+    Assert.assertTrue(compressed.startsWith(WorkflowParser.COMPRESSED_PREFIX));
+    Assert.assertTrue(compressed.length() < xml.length());
+
+    // Compressed and plain workflow instances are read the same way
+    Assert.assertEquals(xml, WorkflowParser.toXml(WorkflowParser.parseWorkflowInstance(compressed)));
+    Assert.assertEquals(xml, WorkflowParser.toXml(WorkflowParser.parseWorkflowInstance(xml)));
+  }
 }
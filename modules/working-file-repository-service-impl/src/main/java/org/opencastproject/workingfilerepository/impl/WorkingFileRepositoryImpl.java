@@ -669,7 +669,12 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     try {
       destFile = new File(destDir, PathSupport.toSafeName(toFileName));
       FileSupport.link(source, destFile);
-      createMd5(destFile);
+      // Linked or copied, the content is the same, so there is no need to hash it again
+      File sourceMd5 = getMd5File(source);
+      if (sourceMd5.isFile())
+        FileUtils.copyFile(sourceMd5, getMd5File(destFile));
+      else
+        createMd5(destFile);
     } catch (Exception e) {
       FileUtils.deleteDirectory(destDir);
     }
@@ -25,6 +25,7 @@ import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
 import static javax.servlet.http.HttpServletResponse.SC_NO_CONTENT;
 import static javax.servlet.http.HttpServletResponse.SC_OK;
+import static javax.servlet.http.HttpServletResponse.SC_PARTIAL_CONTENT;
 import static org.opencastproject.util.MimeTypes.getMimeType;
 import static org.opencastproject.util.RestUtil.R.ok;
 import static org.opencastproject.util.RestUtil.fileResponse;
@@ -225,11 +226,13 @@ public class WorkingFileRepositoryRestEndpoint extends WorkingFileRepositoryImpl
           @RestParameter(name = "mediaPackageID", description = "the mediapackage identifier", isRequired = true, type = STRING),
           @RestParameter(name = "mediaPackageElementID", description = "the mediapackage element identifier", isRequired = true, type = STRING) }, reponses = {
           @RestResponse(responseCode = SC_OK, description = "File returned"),
+          @RestResponse(responseCode = SC_PARTIAL_CONTENT, description = "Requested range of the file returned"),
           @RestResponse(responseCode = SC_NOT_MODIFIED, description = "If file not modified"),
           @RestResponse(responseCode = SC_NOT_FOUND, description = "Not found") })
   public Response restGet(@PathParam("mediaPackageID") final String mediaPackageID,
           @PathParam("mediaPackageElementID") final String mediaPackageElementID,
-          @HeaderParam("If-None-Match") String ifNoneMatch) throws NotFoundException {
+          @HeaderParam("If-None-Match") String ifNoneMatch, @HeaderParam("Range") String range,
+          @HeaderParam("If-Range") String ifRange) throws NotFoundException {
     // Check the If-None-Match header first
     String md5 = null;
     try {
@@ -249,6 +252,10 @@ public class WorkingFileRepositoryRestEndpoint extends WorkingFileRepositoryImpl
         contentType = "application/octet-stream";
       }
       try {
+        if (isRangeRequest(range, ifRange, md5)) {
+          logger.debug("trying to retrieve range: {}", range);
+          return partialFileResponse(file, contentType, none(""), range).tag(md5).build();
+        }
         return ok(get(mediaPackageID, mediaPackageElementID), contentType, some(file.length()), none(""));
       } catch (IOException e) {
         throw new NotFoundException();
@@ -267,11 +274,12 @@ public class WorkingFileRepositoryRestEndpoint extends WorkingFileRepositoryImpl
           @RestParameter(name = "mediaPackageElementID", description = "the mediapackage element identifier", isRequired = true, type = STRING),
           @RestParameter(name = "fileName", description = "the file name", isRequired = true, type = STRING) }, reponses = {
           @RestResponse(responseCode = SC_OK, description = "File returned"),
+          @RestResponse(responseCode = SC_PARTIAL_CONTENT, description = "Requested range of the file returned"),
           @RestResponse(responseCode = SC_NOT_FOUND, description = "Not found") })
   public Response restGet(@PathParam("mediaPackageID") String mediaPackageID,
           @PathParam("mediaPackageElementID") String mediaPackageElementID, @PathParam("fileName") String fileName,
-          @HeaderParam("If-None-Match") String ifNoneMatch, @HeaderParam("Range") String range)
-          throws NotFoundException {
+          @HeaderParam("If-None-Match") String ifNoneMatch, @HeaderParam("Range") String range,
+          @HeaderParam("If-Range") String ifRange) throws NotFoundException {
     String md5 = null;
     // Check the If-None-Match header first
     try {
@@ -285,7 +293,7 @@ public class WorkingFileRepositoryRestEndpoint extends WorkingFileRepositoryImpl
     }
 
     try {
-      if (StringUtils.isNotBlank(range)) {
+      if (isRangeRequest(range, ifRange, md5)) {
         logger.debug("trying to retrieve range: {}", range);
         return partialFileResponse(getFile(mediaPackageID, mediaPackageElementID), getMimeType(fileName),
                 some(fileName), range).tag(md5).build();
@@ -308,11 +316,34 @@ public class WorkingFileRepositoryRestEndpoint extends WorkingFileRepositoryImpl
           @RestParameter(name = "collectionId", description = "the collection identifier", isRequired = true, type = STRING),
           @RestParameter(name = "fileName", description = "the file name", isRequired = true, type = STRING) }, reponses = {
           @RestResponse(responseCode = SC_OK, description = "File returned"),
+          @RestResponse(responseCode = SC_PARTIAL_CONTENT, description = "Requested range of the file returned"),
           @RestResponse(responseCode = SC_NOT_FOUND, description = "Not found") })
   public Response restGetFromCollection(@PathParam("collectionId") String collectionId,
-          @PathParam("fileName") String fileName) throws NotFoundException {
-    return fileResponse(getFileFromCollection(collectionId, fileName), getMimeType(fileName), some(fileName))
-            .build();
+          @PathParam("fileName") String fileName, @HeaderParam("Range") String range,
+          @HeaderParam("If-Range") String ifRange) throws NotFoundException {
+    File file = getFileFromCollection(collectionId, fileName);
+    if (StringUtils.isNotBlank(range)) {
+      try {
+        String md5 = getCollectionElementDigest(collectionId, fileName);
+        if (isRangeRequest(range, ifRange, md5))
+          return partialFileResponse(file, getMimeType(fileName), some(fileName), range).tag(md5).build();
+      } catch (IOException e) {
+        logger.warn("Error reading digest of {}/{}", collectionId, fileName);
+      }
+    }
+    return fileResponse(file, getMimeType(fileName), some(fileName)).build();
+  }
+
+  /**
+   * Returns whether a range of the file has been requested. A range request conditional on an <code>If-Range</code>
+   * header only applies if the file has not changed since.
+   */
+  private static boolean isRangeRequest(String range, String ifRange, String md5) {
+    if (StringUtils.isBlank(range))
+      return false;
+    if (StringUtils.isBlank(ifRange))
+      return true;
+    return md5 != null && md5.equals(StringUtils.strip(StringUtils.removeStart(ifRange.trim(), "W/"), "\""));
   }
 
   @GET
@@ -36,6 +36,7 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -43,6 +44,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 public class WorkingFileRepositoryRestEndpointTest {
 
@@ -89,7 +91,7 @@ public class WorkingFileRepositoryRestEndpointTest {
     }
 
     // execute gets, and ensure that the content types are correct
-    Response response = endpoint.restGet(mediaPackageId, image, null);
+    Response response = endpoint.restGet(mediaPackageId, image, null, null, null);
 
     Assert.assertEquals("Gif content type", "image/gif", response.getMetadata().getFirst("Content-Type"));
 
@@ -120,7 +122,7 @@ public class WorkingFileRepositoryRestEndpointTest {
     }
 
     // execute gets, and ensure that the content types are correct
-    Response response = endpoint.restGetFromCollection("collection-2", "opencast_header.gif");
+    Response response = endpoint.restGetFromCollection("collection-2", "opencast_header.gif", null, null);
 
     Assert.assertEquals("Gif content type", "image/gif", response.getMetadata().getFirst("Content-Type"));
   }
@@ -135,7 +137,7 @@ public class WorkingFileRepositoryRestEndpointTest {
     }
 
     // execute gets, and ensure that the content types are correct
-    Response response = endpoint.restGet(mediaPackageId, dc, null);
+    Response response = endpoint.restGet(mediaPackageId, dc, null, null, null);
 
     Assert.assertEquals("DC content type", "text/xml", response.getMetadata().getFirst("Content-Type"));
 
@@ -149,6 +151,44 @@ public class WorkingFileRepositoryRestEndpointTest {
     }
   }
 
+  @Test
+  public void testRange() throws Exception {
+    String mediaPackageId = "mp";
+    String dc = "element1";
+    byte[] content;
+    try (InputStream in = getClass().getResourceAsStream("/dublincore.xml")) {
+      content = IOUtils.toByteArray(in);
+    }
+    try (InputStream in = getClass().getResourceAsStream("/dublincore.xml")) {
+      endpoint.put(mediaPackageId, dc, "dublincore.xml", in);
+    }
+    String md5 = DigestUtils.md5Hex(content);
+
+    Response response = endpoint.restGet(mediaPackageId, dc, null, "bytes=10-19", null);
+    Assert.assertEquals(206, response.getStatus());
+    Assert.assertEquals("bytes 10-19/" + content.length, response.getMetadata().getFirst("Content-Range"));
+    Assert.assertArrayEquals(Arrays.copyOfRange(content, 10, 20), write(response));
+
+    // the last bytes of the file
+    response = endpoint.restGet(mediaPackageId, dc, null, "bytes=-5", "\"" + md5 + "\"");
+    Assert.assertEquals(206, response.getStatus());
+    Assert.assertArrayEquals(Arrays.copyOfRange(content, content.length - 5, content.length), write(response));
+
+    // the file has changed since the client started downloading it
+    response = endpoint.restGet(mediaPackageId, dc, null, "bytes=10-", "\"foo\"");
+    Assert.assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
+
+    // beyond the end of the file
+    response = endpoint.restGet(mediaPackageId, dc, null, "bytes=" + content.length + "-", null);
+    Assert.assertEquals(416, response.getStatus());
+  }
+
+  private static byte[] write(Response response) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ((StreamingOutput) response.getEntity()).write(out);
+    return out.toByteArray();
+  }
+
   public void testEtag() throws Exception {
     String mediaPackageId = "mp";
     String dc = "element1";
@@ -164,11 +204,11 @@ public class WorkingFileRepositoryRestEndpointTest {
     try {
       in = getClass().getResourceAsStream("/dublincore.xml");
       String md5 = DigestUtils.md5Hex(in);
-      Response response = endpoint.restGet(mediaPackageId, dc, md5);
+      Response response = endpoint.restGet(mediaPackageId, dc, md5, null, null);
       Assert.assertEquals(Response.Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
       responseIn = (InputStream) response.getEntity();
       Assert.assertNull(responseIn);
-      response = endpoint.restGet(mediaPackageId, dc, "foo");
+      response = endpoint.restGet(mediaPackageId, dc, "foo", null, null);
       Assert.assertEquals(Response.Status.OK.getStatusCode(), response.getStatus());
       responseIn = (InputStream) response.getEntity();
       Assert.assertNotNull(responseIn);
@@ -81,6 +81,26 @@ public interface Workspace extends StorageUsage {
    */
   InputStream read(URI uri) throws NotFoundException, IOException;
 
+  /**
+   * Read a part of the resource identified by the given URI without downloading the whole resource. The part is read
+   * directly from the local storage if possible and requested using an HTTP range request otherwise.
+   *
+   * @param uri
+   *          URI identifying the resource to load
+   * @param offset
+   *          the position of the first byte to read
+   * @param length
+   *          the maximum number of bytes to read. Less bytes are returned if the resource ends before.
+   * @return the content of the requested part
+   * @throws NotFoundException
+   *           if the file does not exist
+   * @throws IOException
+   *           if reading the file fails
+   * @throws IllegalArgumentException
+   *           if <code>offset</code> or <code>length</code> is negative
+   */
+  InputStream read(URI uri, long offset, long length) throws NotFoundException, IOException;
+
 
   /**
    * Gets the base URI for files stored using this service.
@@ -0,0 +1,251 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transfers files between local storage areas such as the working file repository and the workspace without going
+ * through the network.
+ * <p>
+ * Files are hard linked if the two storage areas live on the same volume. Otherwise, they are copied using
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which lets the operating system
+ * move the data without copying it into the JVM. Copies are verified against the md5 checksum the working file
+ * repository stores next to its files.
+ */
+public class LocalTransfer {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(LocalTransfer.class);
+
+  /** The extension of the checksum files written by the working file repository */
+  static final String MD5_EXTENSION = ".md5";
+
+  /** The way a file has been transferred */
+  public enum Method {
+    /** The destination is a hard link to the source */
+    HARD_LINK,
+    /** The content has been copied within the kernel */
+    CHANNEL_COPY
+  }
+
+  /** Whether source and destination live on the same volume and support hard links */
+  private final boolean linking;
+
+  /** Whether copies are verified against the checksum of the source */
+  private final boolean verify;
+
+  /** Number of files transferred as hard links */
+  private final AtomicLong links = new AtomicLong();
+
+  /** Number of files transferred as copies */
+  private final AtomicLong copies = new AtomicLong();
+
+  /** Number of bytes copied */
+  private final AtomicLong bytesCopied = new AtomicLong();
+
+  /** Number of copies rejected because their checksum did not match */
+  private final AtomicLong checksumFailures = new AtomicLong();
+
+  /**
+   * Creates a new local transfer.
+   *
+   * @param linking
+   *          whether files may be hard linked
+   * @param verify
+   *          whether copies are verified against the checksum of their source
+   */
+  public LocalTransfer(boolean linking, boolean verify) {
+    this.linking = linking;
+    this.verify = verify;
+  }
+
+  /**
+   * Makes the content of <code>src</code> available at <code>dst</code>, verifying copies against the checksum stored
+   * next to <code>src</code> if there is one.
+   *
+   * @param src
+   *          the source file
+   * @param dst
+   *          the destination file, which is replaced if it exists
+   * @return the way the file has been transferred
+   * @throws IOException
+   *           if the transfer failed or the copy did not match the checksum of the source
+   */
+  public Method transfer(File src, File dst) throws IOException {
+    return transfer(src, dst, readChecksum(src));
+  }
+
+  /**
+   * Makes the content of <code>src</code> available at <code>dst</code>.
+   *
+   * @param src
+   *          the source file
+   * @param dst
+   *          the destination file, which is replaced if it exists
+   * @param checksum
+   *          the md5 checksum of the source used to verify copies, may be <code>null</code>
+   * @return the way the file has been transferred
+   * @throws IOException
+   *           if the transfer failed or the copy did not match the checksum
+   */
+  public Method transfer(File src, File dst, String checksum) throws IOException {
+    final File target = dst.getAbsoluteFile();
+    FileUtils.forceMkdir(target.getParentFile());
+    if (linking) {
+      try {
+        Files.deleteIfExists(target.toPath());
+        Files.createLink(target.toPath(), src.toPath());
+        links.incrementAndGet();
+        logger.debug("Hard linked {} to {}", src, target);
+        return Method.HARD_LINK;
+      } catch (UnsupportedOperationException | IOException e) {
+        logger.debug("Unable to hard link {} to {}, copying instead: {}", src, target, e.getMessage());
+      }
+    }
+
+    // Copy to a temporary file first so nobody ever sees a partial or corrupt copy at the destination
+    final File tmp = new File(target.getParentFile(), "." + target.getName() + "." + UUID.randomUUID() + ".tmp");
+    try {
+      final long size = copy(src, tmp);
+      if (verify && checksum != null) {
+        final String actual = md5(tmp);
+        if (!checksum.equalsIgnoreCase(actual)) {
+          checksumFailures.incrementAndGet();
+          throw new IOException("Checksum of " + target + " (" + actual + ") does not match checksum of " + src + " ("
+                  + checksum + ")");
+        }
+      }
+      try {
+        Files.move(tmp.toPath(), target.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp.toPath(), target.toPath(), REPLACE_EXISTING);
+      }
+      copies.incrementAndGet();
+      bytesCopied.addAndGet(size);
+      logger.debug("Copied {} bytes from {} to {}", size, src, target);
+      return Method.CHANNEL_COPY;
+    } finally {
+      FileUtils.deleteQuietly(tmp);
+    }
+  }
+
+  /**
+   * Returns the md5 checksum the working file repository stores next to the given file.
+   *
+   * @param file
+   *          the file in the working file repository
+   * @return the checksum or <code>null</code> if there is none
+   */
+  public static String readChecksum(File file) {
+    final File md5File = new File(file.getAbsolutePath() + MD5_EXTENSION);
+    if (!md5File.isFile())
+      return null;
+    try {
+      return StringUtils.trimToNull(FileUtils.readFileToString(md5File, StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      logger.debug("Unable to read checksum of {}: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  /** Copy <code>src</code> to the new file <code>dst</code> within the kernel and return the number of bytes copied. */
+  private static long copy(File src, File dst) throws IOException {
+    try (FileChannel in = FileChannel.open(src.toPath(), READ);
+            FileChannel out = FileChannel.open(dst.toPath(), CREATE_NEW, WRITE)) {
+      final long size = in.size();
+      long position = 0;
+      while (position < size) {
+        final long transferred = in.transferTo(position, size - position, out);
+        if (transferred <= 0)
+          break;
+        position += transferred;
+      }
+      if (position != size)
+        throw new IOException("Copied " + position + " of " + size + " bytes from " + src);
+      return size;
+    }
+  }
+
+  private static String md5(File file) throws IOException {
+    try (InputStream in = new FileInputStream(file)) {
+      return DigestUtils.md5Hex(in);
+    }
+  }
+
+  /**
+   * @return whether files may be hard linked
+   */
+  public boolean isLinking() {
+    return linking;
+  }
+
+  /**
+   * @return the number of files transferred as hard links
+   */
+  public long getLinks() {
+    return links.get();
+  }
+
+  /**
+   * @return the number of files transferred as copies
+   */
+  public long getCopies() {
+    return copies.get();
+  }
+
+  /**
+   * @return the number of bytes copied
+   */
+  public long getBytesCopied() {
+    return bytesCopied.get();
+  }
+
+  /**
+   * @return the number of copies rejected because their checksum did not match
+   */
+  public long getChecksumFailures() {
+    return checksumFailures.get();
+  }
+
+}
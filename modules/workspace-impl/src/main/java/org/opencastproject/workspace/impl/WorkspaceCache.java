@@ -0,0 +1,329 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Size bounded, content addressed store for files downloaded by the workspace.
+ * <p>
+ * Files are stored by their md5 checksum, so content that is referenced by different URIs, e. g. a track that has been
+ * copied to another media package, is only downloaded once per node. Entries are evicted in least recently used order
+ * once the configured size is exceeded. Entries that are pinned, i. e. that are being copied into the workspace, are
+ * never evicted. The cache survives restarts since the checksum of each entry is its file name.
+ */
+public class WorkspaceCache {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(WorkspaceCache.class);
+
+  /** File names of cache entries */
+  private static final Pattern CHECKSUM = Pattern.compile("[0-9a-f]{32}");
+
+  /** Prefix of files that are being downloaded into the cache */
+  private static final String TEMP_PREFIX = "download-";
+
+  /** The cache directory */
+  private final File directory;
+
+  /** The maximum size of the cache in bytes */
+  private final long maxSize;
+
+  /** The cache entries by checksum, in access order */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** The checksum of the latest version of a URI seen by this cache */
+  private final ConcurrentMap<String, String> checksums = new ConcurrentHashMap<>();
+
+  /** Downloads in progress by URI */
+  private final ConcurrentMap<String, CompletableFuture<String>> downloads = new ConcurrentHashMap<>();
+
+  /** The current size of the cache in bytes */
+  private long size = 0L;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong bytesSaved = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /**
+   * Creates a cache in the given directory, picking up the entries of previous runs.
+   *
+   * @param directory
+   *          the cache directory
+   * @param maxSize
+   *          the maximum size of the cache in bytes
+   * @throws IOException
+   *           if the cache directory cannot be created
+   */
+  WorkspaceCache(File directory, long maxSize) throws IOException {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    FileUtils.forceMkdir(directory);
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        if (file.isFile() && CHECKSUM.matcher(file.getName()).matches()) {
+          entries.put(file.getName(), new Entry(file));
+          size += file.length();
+        } else {
+          // Leftovers of interrupted downloads
+          FileUtils.deleteQuietly(file);
+        }
+      }
+    }
+    logger.info("Workspace cache at {} contains {} files with {} bytes", directory, entries.size(), size);
+    synchronized (this) {
+      evict();
+    }
+  }
+
+  /**
+   * Returns the checksum of the content last seen for the given URI.
+   *
+   * @param uri
+   *          the URI
+   * @return the checksum or <code>null</code> if unknown
+   */
+  String getChecksum(String uri) {
+    return checksums.get(uri);
+  }
+
+  /**
+   * Pins the entry with the given checksum, so that it is not evicted until {@link #unpin(String)} is called.
+   *
+   * @param checksum
+   *          the checksum
+   * @return the cached file or <code>null</code> if there is no such entry
+   */
+  synchronized File pin(String checksum) {
+    if (checksum == null)
+      return null;
+    Entry entry = entries.get(checksum);
+    if (entry == null)
+      return null;
+    if (!entry.file.isFile()) {
+      // Removed by someone else, e. g. the workspace cleaner
+      entries.remove(checksum);
+      size -= entry.size;
+      return null;
+    }
+    entry.pins++;
+    // Keep the workspace cleaner from removing files that are in use
+    entry.file.setLastModified(System.currentTimeMillis());
+    return entry.file;
+  }
+
+  /**
+   * Releases a pin acquired with {@link #pin(String)}.
+   *
+   * @param checksum
+   *          the checksum
+   */
+  synchronized void unpin(String checksum) {
+    Entry entry = entries.get(checksum);
+    if (entry != null && entry.pins > 0) {
+      entry.pins--;
+      evict();
+    }
+  }
+
+  /**
+   * Creates a file to download content to before it is added to the cache.
+   *
+   * @return the temporary file
+   * @throws IOException
+   *           if the file cannot be created
+   */
+  File createTempFile() throws IOException {
+    return File.createTempFile(TEMP_PREFIX, ".tmp", directory);
+  }
+
+  /**
+   * Adds a downloaded file to the cache. The file is moved into the cache. The new entry is pinned.
+   *
+   * @param uri
+   *          the URI the file has been downloaded from
+   * @param file
+   *          the downloaded file
+   * @param checksum
+   *          the md5 checksum of the file
+   * @return the cached file
+   * @throws IOException
+   *           if the file cannot be moved into the cache
+   */
+  synchronized File add(String uri, File file, String checksum) throws IOException {
+    checksums.put(uri, checksum);
+    File cached = pin(checksum);
+    if (cached != null) {
+      FileUtils.deleteQuietly(file);
+      return cached;
+    }
+    cached = new File(directory, checksum);
+    Files.move(file.toPath(), cached.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    Entry entry = new Entry(cached);
+    entry.pins++;
+    entries.put(checksum, entry);
+    size += entry.size;
+    evict();
+    return cached;
+  }
+
+  /**
+   * Records that the content of a URI has been found in the cache.
+   *
+   * @param uri
+   *          the URI
+   * @param checksum
+   *          the checksum of the content
+   * @param length
+   *          the size of the content in bytes
+   */
+  void hit(String uri, String checksum, long length) {
+    checksums.put(uri, checksum);
+    hits.incrementAndGet();
+    bytesSaved.addAndGet(length);
+  }
+
+  /**
+   * Records that the content of a URI had to be downloaded.
+   */
+  void miss() {
+    misses.incrementAndGet();
+  }
+
+  /**
+   * Runs the download of the given URI, unless a download of the same URI is already in progress. In this case, the
+   * result of the running download is returned instead.
+   *
+   * @param uri
+   *          the URI
+   * @param download
+   *          the download, returning the checksum of the downloaded content
+   * @return the checksum of the content
+   * @throws Exception
+   *           if the download failed
+   */
+  String download(String uri, Callable<String> download) throws Exception {
+    CompletableFuture<String> result = new CompletableFuture<>();
+    CompletableFuture<String> running = downloads.putIfAbsent(uri, result);
+    if (running != null) {
+      logger.debug("Waiting for running download of {}", uri);
+      try {
+        return running.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof Exception)
+          throw (Exception) e.getCause();
+        throw e;
+      }
+    }
+    try {
+      String checksum = download.call();
+      result.complete(checksum);
+      return checksum;
+    } catch (Exception e) {
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      downloads.remove(uri, result);
+    }
+  }
+
+  /** Removes the least recently used entries that are not pinned until the cache fits its maximum size. */
+  private void evict() {
+    Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+    while (size > maxSize && iterator.hasNext()) {
+      Entry entry = iterator.next().getValue();
+      if (entry.pins > 0)
+        continue;
+      iterator.remove();
+      size -= entry.size;
+      evictions.incrementAndGet();
+      logger.debug("Evicting {} from the workspace cache", entry.file);
+      FileUtils.deleteQuietly(entry.file);
+    }
+  }
+
+  /** @return the number of requests served from the cache */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /** @return the number of requests that needed a download */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /** @return the number of bytes served from the cache instead of being downloaded */
+  public long getBytesSaved() {
+    return bytesSaved.get();
+  }
+
+  /** @return the number of evicted entries */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /** @return the size of the cache in bytes */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /** @return the number of cached files */
+  public synchronized int getEntryCount() {
+    return entries.size();
+  }
+
+  /** A cached file */
+  private static final class Entry {
+
+    private final File file;
+
+    private final long size;
+
+    private int pins = 0;
+
+    Entry(File file) {
+      this.file = file;
+      this.size = file.length();
+    }
+
+  }
+
+}
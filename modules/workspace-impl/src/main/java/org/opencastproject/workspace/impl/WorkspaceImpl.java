@@ -58,12 +58,16 @@ import org.opencastproject.workingfilerepository.api.WorkingFileRepository;
 import org.opencastproject.workspace.api.Workspace;
 import org.opencastproject.workspace.impl.jmx.WorkspaceBean;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.ProxyInputStream;
 import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.utils.URIBuilder;
@@ -71,6 +75,7 @@ import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -80,11 +85,20 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.management.ObjectInstance;
 import javax.servlet.http.HttpServletResponse;
@@ -111,6 +125,22 @@ public final class WorkspaceImpl implements Workspace {
   public static final String WORKSPACE_CLEANUP_PERIOD_KEY = "org.opencastproject.workspace.cleanup.period";
   /** Configuration key for garbage collection max age. */
   public static final String WORKSPACE_CLEANUP_MAX_AGE_KEY = "org.opencastproject.workspace.cleanup.max.age";
+  /** Configuration key for the maximum size of the download cache in megabytes. */
+  public static final String WORKSPACE_CACHE_SIZE_KEY = "org.opencastproject.workspace.cache.size";
+  /** Configuration key for verifying local copies from the working file repository against their checksum. */
+  public static final String WORKSPACE_TRANSFER_VERIFY_KEY = "org.opencastproject.workspace.transfer.verify";
+
+  /** Name of the download cache directory within the workspace */
+  static final String CACHE_DIRECTORY = ".cache";
+
+  /** Number of times an interrupted download is resumed before giving up */
+  private static final int MAX_RESUME_ATTEMPTS = 3;
+
+  /** Base delay in milliseconds before resuming an interrupted download */
+  private static final long RESUME_INTERVAL = 1000L;
+
+  /** Maximum number of confirmed checksums of files of other nodes kept in memory */
+  private static final int MAX_CONFIRMED_CHECKSUMS = 10000;
 
   /** Workspace JMX type */
   private static final String JMX_WORKSPACE_TYPE = "Workspace";
@@ -119,7 +149,7 @@ public final class WorkspaceImpl implements Workspace {
   private static final String UNKNOWN_FILENAME = "unknown";
 
   /** The JMX workspace bean */
-  private WorkspaceBean workspaceBean = new WorkspaceBean(this);
+  private WorkspaceBean workspaceBean = null;
 
   /** The JMX bean object instance */
   private ObjectInstance registeredMXBean;
@@ -132,6 +162,9 @@ public final class WorkspaceImpl implements Workspace {
   /** If true, hardlinking can be done between working file repository and workspace */
   private boolean linkingEnabled = false;
 
+  /** Transfers files from the working file repository to the workspace if both are locally available */
+  private LocalTransfer localTransfer = new LocalTransfer(false, true);
+
   private TrustedHttpClient trustedHttpClient;
 
   private SecurityService securityService = null;
@@ -144,6 +177,18 @@ public final class WorkspaceImpl implements Workspace {
 
   private CopyOnWriteArraySet<String> staticCollections = new CopyOnWriteArraySet<String>();
 
+  /**
+   * Checksums of files of other nodes which the other node confirmed to match the local copy in the shared working file
+   * repository storage, by URI. The least recently used ones are dropped.
+   */
+  private final Map<String, String> confirmedChecksums = Collections.synchronizedMap(
+          new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+              return size() > MAX_CONFIRMED_CHECKSUMS;
+            }
+          });
+
   private boolean waitForResourceFlag = false;
 
   /** the asset manager directory if locally available */
@@ -156,6 +201,9 @@ public final class WorkspaceImpl implements Workspace {
   /** The workspce cleaner */
   private WorkspaceCleaner workspaceCleaner = null;
 
+  /** The cache for downloaded files, <code>null</code> if disabled */
+  private WorkspaceCache cache = null;
+
   public WorkspaceImpl() {
   }
 
@@ -247,9 +295,21 @@ public final class WorkspaceImpl implements Workspace {
       else {
         logger.warn("Hard links between the working file repository and the workspace are not possible");
         logger.warn("This will increase the overall amount of disk space used");
+        try {
+          if (Files.getFileStore(srcFile.toPath()).equals(Files.getFileStore(new File(wsRoot).toPath())))
+            logger.info("The working file repository and the workspace share a volume, files will be copied locally");
+        } catch (IOException e) {
+          logger.debug("Unable to determine the volumes of the working file repository and the workspace", e);
+        }
       }
     }
 
+    boolean verifyTransfers = true;
+    if (ensureContextProp(cc, WORKSPACE_TRANSFER_VERIFY_KEY)) {
+      verifyTransfers = Boolean.parseBoolean(cc.getBundleContext().getProperty(WORKSPACE_TRANSFER_VERIFY_KEY));
+    }
+    localTransfer = new LocalTransfer(linkingEnabled, verifyTransfers);
+
     // Set up the garbage collection timer
     int garbageCollectionPeriodInSeconds = -1;
     if (ensureContextProp(cc, WORKSPACE_CLEANUP_PERIOD_KEY)) {
@@ -276,6 +336,27 @@ public final class WorkspaceImpl implements Workspace {
       }
     }
 
+    // Set up the download cache
+    long cacheSizeInMegabytes = 0;
+    if (ensureContextProp(cc, WORKSPACE_CACHE_SIZE_KEY)) {
+      String cacheSize = cc.getBundleContext().getProperty(WORKSPACE_CACHE_SIZE_KEY);
+      try {
+        cacheSizeInMegabytes = Long.parseLong(cacheSize);
+      } catch (NumberFormatException e) {
+        logger.warn("Invalid configuration for workspace cache size ({}={})", WORKSPACE_CACHE_SIZE_KEY, cacheSize);
+      }
+    }
+    if (cacheSizeInMegabytes > 0) {
+      try {
+        cache = new WorkspaceCache(new File(wsRoot, CACHE_DIRECTORY), cacheSizeInMegabytes * 1024L * 1024L);
+      } catch (IOException e) {
+        throw new IllegalStateException("Could not create workspace cache directory.", e);
+      }
+    } else {
+      FileUtils.deleteQuietly(new File(wsRoot, CACHE_DIRECTORY));
+    }
+
+    workspaceBean = new WorkspaceBean(this, cache, localTransfer);
     registeredMXBean = JmxUtil.registerMXBean(workspaceBean, JMX_WORKSPACE_TYPE);
 
     // Start cleanup scheduler if we have sensible cleanup values:
@@ -333,12 +414,15 @@ public final class WorkspaceImpl implements Workspace {
 
     if (pathMappable != null && StringUtils.isNotBlank(pathMappable.getPathPrefix())
             && StringUtils.isNotBlank(pathMappable.getUrlPrefix())) {
-      if (uri.toString().startsWith(pathMappable.getUrlPrefix())) {
-        final String localPath = uri.toString().substring(pathMappable.getUrlPrefix().length());
+      final boolean local = uri.toString().startsWith(pathMappable.getUrlPrefix());
+      // Files of other nodes may still be found locally if the working file repository storage is shared
+      final String localPath = local ? uri.toString().substring(pathMappable.getUrlPrefix().length())
+              : getSharedPath(uri);
+      if (localPath != null) {
         final File wfrCopy = workingFileRepositoryFile(localPath);
         // does the file exist and is it up to date?
         logger.trace("Looking up {} at {}", uri.toString(), wfrCopy.getAbsolutePath());
-        if (wfrCopy.isFile()) {
+        if (wfrCopy.isFile() && (local || isSameContent(uri, wfrCopy))) {
           final Long workspaceFileLastModified = inWs.isFile() ? inWs.lastModified() : 0L;
           // if the file exists in the workspace, but is older than the wfr copy, replace it
           if (workspaceFileLastModified < wfrCopy.lastModified()) {
@@ -349,7 +433,7 @@ public final class WorkspaceImpl implements Workspace {
           }
           logger.debug("Getting {} directly from working file repository root at {}", uri, inWs);
           return new File(inWs.getAbsolutePath());
-        } else {
+        } else if (local) {
           logger.warn("The working file repository and workspace paths don't match. Looking up {} at {} failed",
                   uri.toString(), wfrCopy.getAbsolutePath());
         }
@@ -365,12 +449,85 @@ public final class WorkspaceImpl implements Workspace {
     }
 
     // do HTTP transfer
+    if (cache != null)
+      return locked(inWs, downloadCached(uri));
     return locked(inWs, downloadIfNecessary(uri));
   }
 
   @Override
   public InputStream read(final URI uri) throws NotFoundException, IOException {
+    final File local = getLocalFile(uri);
+    if (local != null)
+      return new FileInputStream(local);
+
+    // fall back to get() which should download the file into local workspace if necessary
+    return new DeleteOnCloseFileInputStream(get(uri, true));
+  }
+
+  @Override
+  public InputStream read(final URI uri, final long offset, final long length) throws NotFoundException, IOException {
+    if (offset < 0 || length < 0)
+      throw new IllegalArgumentException("Offset and length must not be negative");
+
+    final File local = getLocalFile(uri);
+    if (local != null) {
+      final FileChannel channel = FileChannel.open(local.toPath(), StandardOpenOption.READ);
+      channel.position(offset);
+      return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+    if (length == 0)
+      return new ByteArrayInputStream(new byte[0]);
+
+    // Ask for the requested part only
+    final HttpGet get = new HttpGet(uri);
+    get.setHeader("Range", "bytes=" + offset + "-" + (offset + length - 1));
+    final HttpResponse response = trustedHttpClient.execute(get);
+    boolean streaming = false;
+    try {
+      final int status = response.getStatusLine().getStatusCode();
+      switch (status) {
+        case HttpServletResponse.SC_PARTIAL_CONTENT:
+        case HttpServletResponse.SC_OK:
+          final InputStream content = new ProxyInputStream(response.getEntity().getContent()) {
+            @Override
+            public void close() throws IOException {
+              try {
+                super.close();
+              } finally {
+                get.abort();
+                trustedHttpClient.close(response);
+              }
+            }
+          };
+          // The server does not support ranges and sends the whole file
+          if (status == HttpServletResponse.SC_OK)
+            IOUtils.skip(content, offset);
+          streaming = true;
+          return new BoundedInputStream(content, length);
+        case HttpServletResponse.SC_NOT_FOUND:
+          throw new NotFoundException(uri.toString());
+        case HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE:
+          logger.debug("{} ends before {}", uri, offset);
+          return new ByteArrayInputStream(new byte[0]);
+        default:
+          logger.debug("Received status {} for range request to {}, downloading the whole file", status, uri);
+      }
+    } finally {
+      if (!streaming)
+        trustedHttpClient.close(response);
+    }
+    final InputStream in = new DeleteOnCloseFileInputStream(get(uri, true));
+    IOUtils.skip(in, offset);
+    return new BoundedInputStream(in, length);
+  }
 
+  /**
+   * Returns the file behind <code>uri</code> if it is available locally in the working file repository, the asset
+   * manager or the distribution download directory.
+   *
+   * @return the local file or <code>null</code> if the file needs to be downloaded
+   */
+  private File getLocalFile(final URI uri) {
     // Check if we can get the file from the working file repository directly
     if (pathMappable != null) {
       if (uri.toString().startsWith(pathMappable.getUrlPrefix())) {
@@ -380,7 +537,7 @@ public final class WorkspaceImpl implements Workspace {
         logger.trace("Looking up {} at {} for read", uri, wfrCopy);
         if (wfrCopy.isFile()) {
           logger.debug("Getting {} directly from working file repository root at {} for read", uri, wfrCopy);
-          return new FileInputStream(wfrCopy);
+          return wfrCopy;
         }
         logger.warn("The working file repository URI and paths don't match. Looking up {} at {} failed", uri, wfrCopy);
       }
@@ -389,26 +546,65 @@ public final class WorkspaceImpl implements Workspace {
     // Check if we can get the files directly from the asset manager
     final File asset = AssetPathUtils.getLocalFile(assetManagerPath, securityService.getOrganization().getId(), uri);
     if (asset != null) {
-      return new FileInputStream(asset);
+      return asset;
     }
 
     // Check if we can get the files directly from the distribution download directory
-    final File publishedFile = DistributionPathUtils.getLocalFile(downloadPath, downloadUrl, securityService.getOrganization().getId(), uri);
-    if (publishedFile != null) {
-      return new FileInputStream(publishedFile);
-    }
-
-    // fall back to get() which should download the file into local workspace if necessary
-    return new DeleteOnCloseFileInputStream(get(uri, true));
+    return DistributionPathUtils.getLocalFile(downloadPath, downloadUrl, securityService.getOrganization().getId(), uri);
   }
 
   /** Copy or link <code>src</code> to <code>dst</code>. */
   private void copyOrLink(final File src, final File dst) throws IOException {
-    if (linkingEnabled) {
-      FileUtils.deleteQuietly(dst);
-      FileSupport.link(src, dst);
-    } else {
-      FileSupport.copy(src, dst);
+    final LocalTransfer.Method method = localTransfer.transfer(src, dst);
+    logger.debug("Transferred {} to {} using {}", src, dst, method);
+  }
+
+  /**
+   * Returns the path of a working file repository URI of another node relative to the working file repository root.
+   *
+   * @return the path or <code>null</code> if the URI does not point into a working file repository
+   */
+  private String getSharedPath(final URI uri) {
+    final String basePath = StringUtils.removeEnd(URI.create(pathMappable.getUrlPrefix()).getRawPath(), "/");
+    final String path = uri.getRawPath();
+    if (uri.getRawQuery() != null || StringUtils.isEmpty(basePath) || path == null
+            || !path.startsWith(basePath + "/"))
+      return null;
+    return path.substring(basePath.length());
+  }
+
+  /**
+   * Asks the node serving <code>uri</code> whether its content matches the checksum of a local file, which is the
+   * case if the working file repository storage is shared between the nodes. The node is not asked again as long as
+   * the local checksum matches the one it confirmed last, since changes to the shared file change its checksum, too.
+   */
+  private boolean isSameContent(final URI uri, final File file) {
+    final String checksum = LocalTransfer.readChecksum(file);
+    if (checksum == null)
+      return false;
+    if (checksum.equals(confirmedChecksums.get(uri.toString()))) {
+      logger.debug("{} has already been confirmed to match the local copy at {}", uri, file);
+      return true;
+    }
+    final HttpGet get = new HttpGet(uri);
+    get.setHeader("If-None-Match", checksum);
+    HttpResponse response = null;
+    try {
+      response = trustedHttpClient.execute(get);
+      final boolean same = response.getStatusLine().getStatusCode() == HttpServletResponse.SC_NOT_MODIFIED;
+      logger.debug("{} {} the local copy at {}", uri, same ? "matches" : "does not match", file);
+      if (same)
+        confirmedChecksums.put(uri.toString(), checksum);
+      else
+        confirmedChecksums.remove(uri.toString());
+      return same;
+    } catch (Exception e) {
+      logger.debug("Unable to compare {} with the local copy at {}: {}", uri, file, e.getMessage());
+      return false;
+    } finally {
+      get.abort();
+      if (response != null)
+        trustedHttpClient.close(response);
     }
   }
 
@@ -444,7 +640,7 @@ public final class WorkspaceImpl implements Workspace {
         return left(response.getHeaders("token")[0].getValue());
       case HttpServletResponse.SC_OK:
         logger.debug("Downloading {} to {}", url, dst.getAbsolutePath());
-        return right(some(downloadTo(response, dst)));
+        return right(some(downloadTo(response, src, dst)));
       default:
         logger.warn("Received unexpected response status {} while trying to download from {}", status, url);
         FileUtils.deleteQuietly(dst);
@@ -535,20 +731,291 @@ public final class WorkspaceImpl implements Workspace {
     };
   }
 
+  /**
+   * Provide the content of <code>src</code> at <code>dst</code> using the download cache. Concurrent requests for the
+   * same URI share a single download.
+   *
+   * @return the file
+   */
+  private File downloadCached(final URI src, final File dst) throws IOException, NotFoundException {
+    final String key = src.toString();
+    final AtomicBoolean downloaded = new AtomicBoolean(false);
+    final String checksum;
+    try {
+      checksum = cache.download(key, () -> {
+        String result = downloadToCache(src, dst);
+        downloaded.set(true);
+        return result;
+      });
+    } catch (IOException | NotFoundException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    }
+    if (downloaded.get())
+      return dst;
+
+    // Another download of the same URI has just finished
+    final File cached = cache.pin(checksum);
+    if (cached == null) {
+      logger.debug("{} has been evicted from the workspace cache in the meantime", src);
+      downloadToCache(src, dst);
+      return dst;
+    }
+    try {
+      copyFromCache(cached, dst);
+      cache.hit(key, checksum, cached.length());
+    } finally {
+      cache.unpin(checksum);
+    }
+    return dst;
+  }
+
+  /**
+   * {@link #downloadCached(java.net.URI, java.io.File)} as a function.
+   * <code>src_uri -&gt; dst_file -&gt; dst_file</code>
+   */
+  private Function<File, File> downloadCached(final URI src) {
+    return new Function.X<File, File>() {
+      @Override
+      public File xapply(final File dst) throws Exception {
+        return downloadCached(src, dst);
+      }
+    };
+  }
+
+  /**
+   * Download content of <code>src</code> into the download cache unless the cache already holds it, and copy it to
+   * <code>dst</code>.
+   *
+   * @return the md5 checksum of the content
+   */
+  private String downloadToCache(final URI src, final File dst) throws IOException, NotFoundException {
+    final String key = src.toString();
+    // Keep the cached version from being evicted while asking whether it is still up to date
+    final String known = cache.getChecksum(key);
+    final File knownFile = cache.pin(known);
+    final String current = knownFile != null ? known : null;
+    try {
+      HttpGet get = createCacheRequest(src, current);
+      while (true) {
+        final Either<Exception, Either<String, String>> result = trustedHttpClient
+                .<Either<String, String>> runner(get).run(handleCacheResponse(get, src, current, knownFile, dst));
+        // right: either a token to try again later or the checksum of the content
+        for (Either<String, String> a : result.right()) {
+          for (String checksum : a.right()) {
+            return checksum;
+          }
+          for (String token : a.left()) {
+            get = createCacheRequest(src, current, tuple("token", token));
+            sleep(60000);
+          }
+        }
+        // left: the content could not be downloaded
+        for (Exception e : result.left()) {
+          FileUtils.deleteQuietly(dst);
+          if (e instanceof NotFoundException)
+            throw (NotFoundException) e;
+          logger.warn(format("Could not copy %s to %s: %s", key, dst.getAbsolutePath(), e.getMessage()));
+          throw new NotFoundException(e);
+        }
+      }
+    } finally {
+      if (knownFile != null)
+        cache.unpin(known);
+    }
+  }
+
+  /** Create a get request to the given URI, asking for a different version than the cached one. */
+  private HttpGet createCacheRequest(final URI src, final String checksum, Tuple<String, String>... params)
+          throws IOException {
+    try {
+      URIBuilder builder = new URIBuilder(src.toString());
+      for (final Tuple<String, String> a : params) {
+        builder.setParameter(a.getA(), a.getB());
+      }
+      final HttpGet get = new HttpGet(builder.build());
+      if (checksum != null) {
+        get.setHeader("If-None-Match", checksum);
+      }
+      return get;
+    } catch (URISyntaxException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Handle the HTTP response of a download through the cache.
+   *
+   * @return either a token to initiate a follow-up request or the checksum of the content
+   */
+  private Function<HttpResponse, Either<String, String>> handleCacheResponse(final HttpGet request, final URI src,
+          final String current, final File currentFile, final File dst) {
+    return new Function.X<HttpResponse, Either<String, String>>() {
+      @Override
+      public Either<String, String> xapply(HttpResponse response) throws Exception {
+        final String key = src.toString();
+        final int status = response.getStatusLine().getStatusCode();
+        switch (status) {
+          case HttpServletResponse.SC_NOT_FOUND:
+            throw new NotFoundException(key);
+          case HttpServletResponse.SC_NOT_MODIFIED:
+            logger.debug("{} has not been modified, using cached version", key);
+            copyFromCache(currentFile, dst);
+            cache.hit(key, current, currentFile.length());
+            return right(current);
+          case HttpServletResponse.SC_ACCEPTED:
+            logger.debug("{} is not ready, try again later.", key);
+            return left(response.getHeaders("token")[0].getValue());
+          case HttpServletResponse.SC_OK:
+            // The same content may have been downloaded from a different URI before
+            final String etag = getETag(response);
+            final File cached = cache.pin(etag);
+            if (cached != null) {
+              logger.debug("Found content of {} in the workspace cache", key);
+              try {
+                request.abort();
+                copyFromCache(cached, dst);
+                cache.hit(key, etag, cached.length());
+              } finally {
+                cache.unpin(etag);
+              }
+              return right(etag);
+            }
+            logger.debug("Downloading {} to the workspace cache", key);
+            cache.miss();
+            final File download = cache.createTempFile();
+            final String checksum;
+            try {
+              checksum = downloadTo(response, src, download, DigestUtils.getMd5Digest());
+            } catch (IOException e) {
+              FileUtils.deleteQuietly(download);
+              throw e;
+            }
+            final File added = cache.add(key, download, checksum);
+            try {
+              copyFromCache(added, dst);
+            } finally {
+              cache.unpin(checksum);
+            }
+            return right(checksum);
+          default:
+            logger.warn("Received unexpected response status {} while trying to download from {}", status, key);
+            throw new NotFoundException(key);
+        }
+      }
+    };
+  }
+
+  /**
+   * Returns the md5 checksum sent by the working file repository as entity tag.
+   *
+   * @return the checksum or <code>null</code> if there is none
+   */
+  private static String getETag(final HttpResponse response) {
+    final Header header = response.getFirstHeader("ETag");
+    if (header == null)
+      return null;
+    return StringUtils.trimToNull(StringUtils.strip(StringUtils.removeStart(header.getValue(), "W/"), "\""));
+  }
+
+  /**
+   * Copy a cached file to <code>dst</code>. The file is not hard linked, since workspace files may be modified in
+   * place, which would alter the cached content as well. An existing file at <code>dst</code>, possibly a link to the
+   * cache, is replaced.
+   */
+  private static void copyFromCache(final File cached, final File dst) throws IOException {
+    FileSupport.copy(cached, dst, true);
+  }
+
+  /**
+   * Download content of an HTTP response to a file, computing a digest of the content along the way.
+   *
+   * @return the hex encoded digest
+   */
+  private String downloadTo(final HttpResponse response, final URI src, final File dst, final MessageDigest digest)
+          throws IOException {
+    downloadResumable(response, src, dst, digest);
+    return Hex.encodeHexString(digest.digest());
+  }
+
   /**
    * Download content of an HTTP response to a file.
    *
    * @return the destination file
    */
-  private static File downloadTo(final HttpResponse response, final File dst) throws IOException {
-    // ignore return value
-    dst.createNewFile();
-    try (InputStream in = response.getEntity().getContent()) {
-      try (OutputStream out = new FileOutputStream(dst)) {
-        IOUtils.copyLarge(in, out);
+  private File downloadTo(final HttpResponse response, final URI src, final File dst) throws IOException {
+    downloadResumable(response, src, dst, null);
+    return dst;
+  }
+
+  /**
+   * Download content of an HTTP response to a file. If the transfer breaks off, it is resumed from where it stopped
+   * using a range request, provided the server identified the content by an entity tag.
+   *
+   * @param digest
+   *          the digest to compute of the content, may be <code>null</code>
+   */
+  private void downloadResumable(final HttpResponse response, final URI src, final File dst,
+          final MessageDigest digest) throws IOException {
+    final String etag = getETag(response);
+    HttpResponse current = response;
+    boolean append = false;
+    int attempt = 0;
+    try {
+      while (true) {
+        try (InputStream in = current.getEntity().getContent()) {
+          // Digest what has been written, so a resumed download continues with the right state
+          final OutputStream file = new FileOutputStream(dst, append);
+          try (OutputStream out = digest != null ? new DigestOutputStream(file, digest) : file) {
+            IOUtils.copyLarge(in, out);
+          }
+          return;
+        } catch (IOException e) {
+          if (etag == null || ++attempt > MAX_RESUME_ATTEMPTS)
+            throw e;
+          logger.info("Download of {} broke off after {} bytes, resuming: {}", src, dst.length(), e.getMessage());
+          sleep(RESUME_INTERVAL * attempt);
+          final HttpResponse next = resume(src, dst.length(), etag, e);
+          if (current != response)
+            trustedHttpClient.close(current);
+          current = next;
+          append = current.getStatusLine().getStatusCode() == HttpServletResponse.SC_PARTIAL_CONTENT;
+          if (!append && digest != null)
+            digest.reset();
+        }
       }
+    } finally {
+      if (current != response)
+        trustedHttpClient.close(current);
     }
-    return dst;
+  }
+
+  /**
+   * Ask for the rest of a partially downloaded file. The server sends the whole file instead if it has changed in the
+   * meantime.
+   *
+   * @throws IOException
+   *           <code>cause</code>, if the server answered with neither of the two
+   */
+  private HttpResponse resume(final URI src, final long offset, final String etag, final IOException cause)
+          throws IOException {
+    final HttpGet get = new HttpGet(src);
+    get.setHeader("Range", "bytes=" + offset + "-");
+    get.setHeader("If-Range", "\"" + etag + "\"");
+    final HttpResponse response;
+    try {
+      response = trustedHttpClient.execute(get);
+    } catch (Exception e) {
+      cause.addSuppressed(e);
+      throw cause;
+    }
+    final int status = response.getStatusLine().getStatusCode();
+    if (status != HttpServletResponse.SC_PARTIAL_CONTENT && status != HttpServletResponse.SC_OK) {
+      trustedHttpClient.close(response);
+      throw cause;
+    }
+    return response;
   }
 
   /**
@@ -656,7 +1123,7 @@ public final class WorkspaceImpl implements Workspace {
       File workingFileRepoDirectory = workingFileRepositoryFile(WorkingFileRepository.MEDIAPACKAGE_PATH_PREFIX,
               mediaPackageID, mediaPackageElementID);
       File workingFileRepoCopy = new File(workingFileRepoDirectory, safeFileName);
-      FileSupport.link(workingFileRepoCopy, workspaceFile, true);
+      localTransfer.transfer(workingFileRepoCopy, workspaceFile);
     } else {
       try (FileOutputStream out = new FileOutputStream(workspaceFile)) {
         try (InputStream tee = new TeeInputStream(in, out, true)) {
@@ -693,7 +1160,7 @@ public final class WorkspaceImpl implements Workspace {
         File workingFileRepoDirectory = workingFileRepositoryFile(WorkingFileRepository.COLLECTION_PATH_PREFIX,
                 collectionId);
         File workingFileRepoCopy = new File(workingFileRepoDirectory, safeFileName);
-        FileSupport.link(workingFileRepoCopy, tempFile, true);
+        localTransfer.transfer(workingFileRepoCopy, tempFile);
       } else {
         tee = new TeeInputStream(in, out, true);
         wfr.putInCollection(collectionId, fileName, tee);
@@ -743,7 +1210,7 @@ public final class WorkspaceImpl implements Workspace {
     // Tell working file repository
     final URI wfrUri = wfr.copyTo(collection, filename, toMediaPackage, toMediaPackageElement, toFileName);
     // wait for WFR
-    waitForResource(wfrUri, SC_OK, "File %s does not appear in WFR");
+    waitForRepositoryFile(wfrUri);
     return wfrUri;
   }
 
@@ -768,7 +1235,7 @@ public final class WorkspaceImpl implements Workspace {
     // move in WFR
     final URI wfrUri = wfr.moveTo(collection, filename, toMediaPackage, toMediaPackageElement, toFileName);
     // wait for WFR
-    waitForResource(wfrUri, SC_OK, "File %s does not appear in WFR");
+    waitForRepositoryFile(wfrUri);
     return wfrUri;
   }
 
@@ -909,6 +1376,23 @@ public final class WorkspaceImpl implements Workspace {
   private static final long TIMEOUT = 2L * 60L * 1000L;
   private static final long INTERVAL = 1000L;
 
+  /**
+   * Waits for a file to appear in the working file repository. Files of the working file repository of this node are
+   * looked up in its storage instead of asking it via HTTP.
+   */
+  private void waitForRepositoryFile(final URI uri) throws IOException {
+    if (pathMappable != null && StringUtils.isNotBlank(pathMappable.getPathPrefix())
+            && StringUtils.isNotBlank(pathMappable.getUrlPrefix())
+            && uri.toString().startsWith(pathMappable.getUrlPrefix())) {
+      final File wfrCopy = workingFileRepositoryFile(uri.toString().substring(pathMappable.getUrlPrefix().length()));
+      if (wfrCopy.isFile()) {
+        logger.debug("{} is available in the working file repository at {}", uri, wfrCopy);
+        return;
+      }
+    }
+    waitForResource(uri, SC_OK, "File %s does not appear in WFR");
+  }
+
   private void waitForResource(final URI uri, final int expectedStatus, final String errorMsg) throws IOException {
     if (waitForResourceFlag) {
       HttpUtil.waitForResource(trustedHttpClient, uri, expectedStatus, TIMEOUT, INTERVAL)
@@ -23,13 +23,23 @@ package org.opencastproject.workspace.impl.jmx;
 
 import org.opencastproject.util.data.Option.Match;
 import org.opencastproject.workspace.api.Workspace;
+import org.opencastproject.workspace.impl.LocalTransfer;
+import org.opencastproject.workspace.impl.WorkspaceCache;
 
 public class WorkspaceBean implements WorkspaceMXBean {
 
   private final Workspace workspace;
 
-  public WorkspaceBean(Workspace workspace) {
+  /** The download cache, may be <code>null</code> */
+  private final WorkspaceCache cache;
+
+  /** The transfers from the working file repository */
+  private final LocalTransfer localTransfer;
+
+  public WorkspaceBean(Workspace workspace, WorkspaceCache cache, LocalTransfer localTransfer) {
     this.workspace = workspace;
+    this.cache = cache;
+    this.localTransfer = localTransfer;
   }
 
   /**
@@ -86,4 +96,84 @@ public class WorkspaceBean implements WorkspaceMXBean {
     });
   }
 
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheHits()
+   */
+  @Override
+  public long getCacheHits() {
+    return cache == null ? 0L : cache.getHits();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheMisses()
+   */
+  @Override
+  public long getCacheMisses() {
+    return cache == null ? 0L : cache.getMisses();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheBytesSaved()
+   */
+  @Override
+  public long getCacheBytesSaved() {
+    return cache == null ? 0L : cache.getBytesSaved();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheEvictions()
+   */
+  @Override
+  public long getCacheEvictions() {
+    return cache == null ? 0L : cache.getEvictions();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheSize()
+   */
+  @Override
+  public long getCacheSize() {
+    return cache == null ? 0L : cache.getSize();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheEntries()
+   */
+  @Override
+  public int getCacheEntries() {
+    return cache == null ? 0 : cache.getEntryCount();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getLocalLinks()
+   */
+  @Override
+  public long getLocalLinks() {
+    return localTransfer.getLinks();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getLocalCopies()
+   */
+  @Override
+  public long getLocalCopies() {
+    return localTransfer.getCopies();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getLocalBytesCopied()
+   */
+  @Override
+  public long getLocalBytesCopied() {
+    return localTransfer.getBytesCopied();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getLocalChecksumFailures()
+   */
+  @Override
+  public long getLocalChecksumFailures() {
+    return localTransfer.getChecksumFailures();
+  }
+
 }
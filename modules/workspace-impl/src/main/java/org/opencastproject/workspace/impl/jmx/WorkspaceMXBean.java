@@ -47,4 +47,74 @@ public interface WorkspaceMXBean {
    */
   long getTotalSpace();
 
+  /**
+   * Gets the number of downloads served from the download cache
+   *
+   * @return number of cache hits
+   */
+  long getCacheHits();
+
+  /**
+   * Gets the number of downloads that could not be served from the download cache
+   *
+   * @return number of cache misses
+   */
+  long getCacheMisses();
+
+  /**
+   * Gets the number of bytes served from the download cache instead of being transferred over the network
+   *
+   * @return saved bytes
+   */
+  long getCacheBytesSaved();
+
+  /**
+   * Gets the number of files evicted from the download cache
+   *
+   * @return number of evictions
+   */
+  long getCacheEvictions();
+
+  /**
+   * Gets the size of the download cache in bytes
+   *
+   * @return cache size in bytes
+   */
+  long getCacheSize();
+
+  /**
+   * Gets the number of files in the download cache
+   *
+   * @return number of cached files
+   */
+  int getCacheEntries();
+
+  /**
+   * Gets the number of files hard linked from the working file repository
+   *
+   * @return number of hard links
+   */
+  long getLocalLinks();
+
+  /**
+   * Gets the number of files copied locally from the working file repository instead of being downloaded
+   *
+   * @return number of local copies
+   */
+  long getLocalCopies();
+
+  /**
+   * Gets the number of bytes copied locally from the working file repository
+   *
+   * @return copied bytes
+   */
+  long getLocalBytesCopied();
+
+  /**
+   * Gets the number of local copies rejected because their checksum did not match
+   *
+   * @return number of checksum failures
+   */
+  long getLocalChecksumFailures();
+
 }
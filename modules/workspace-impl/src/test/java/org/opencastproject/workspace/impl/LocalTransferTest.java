@@ -0,0 +1,110 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public class LocalTransferTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private File createSource(String content, String checksum) throws Exception {
+    File source = new File(testFolder.newFolder(), "source.txt");
+    FileUtils.write(source, content, StandardCharsets.UTF_8);
+    if (checksum != null)
+      FileUtils.write(new File(source.getAbsolutePath() + LocalTransfer.MD5_EXTENSION), checksum,
+              StandardCharsets.UTF_8);
+    return source;
+  }
+
+  @Test
+  public void testCopyIsVerified() throws Exception {
+    File source = createSource("content", DigestUtils.md5Hex("content"));
+    File target = new File(testFolder.getRoot(), "workspace/target.txt");
+    FileUtils.write(target, "outdated", StandardCharsets.UTF_8);
+
+    LocalTransfer transfer = new LocalTransfer(false, true);
+    assertEquals(LocalTransfer.Method.CHANNEL_COPY, transfer.transfer(source, target));
+    assertEquals("content", FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+    assertFalse(Files.isSameFile(source.toPath(), target.toPath()));
+    assertEquals(1L, transfer.getCopies());
+    assertEquals(7L, transfer.getBytesCopied());
+    assertEquals(0L, transfer.getLinks());
+    assertEquals(1, target.getParentFile().list().length);
+  }
+
+  @Test
+  public void testChecksumMismatchIsRejected() throws Exception {
+    File source = createSource("content", DigestUtils.md5Hex("other content"));
+    File target = new File(testFolder.getRoot(), "workspace/target.txt");
+
+    LocalTransfer transfer = new LocalTransfer(false, true);
+    try {
+      transfer.transfer(source, target);
+      fail("Copy with wrong checksum must fail");
+    } catch (IOException e) {
+      // expected
+    }
+    assertFalse(target.exists());
+    assertEquals(0, target.getParentFile().list().length);
+    assertEquals(1L, transfer.getChecksumFailures());
+    assertEquals(0L, transfer.getCopies());
+
+    // Without verification, the content is copied as is
+    transfer = new LocalTransfer(false, false);
+    assertEquals(LocalTransfer.Method.CHANNEL_COPY, transfer.transfer(source, target));
+    assertEquals("content", FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testHardLink() throws Exception {
+    File source = createSource("content", null);
+    File target = new File(testFolder.getRoot(), "workspace/target.txt");
+
+    LocalTransfer transfer = new LocalTransfer(true, true);
+    LocalTransfer.Method method = transfer.transfer(source, target);
+    assertEquals("content", FileUtils.readFileToString(target, StandardCharsets.UTF_8));
+    if (method == LocalTransfer.Method.HARD_LINK) {
+      assertTrue(Files.isSameFile(source.toPath(), target.toPath()));
+      assertEquals(1L, transfer.getLinks());
+    } else {
+      // The file system of the build does not support hard links
+      assertEquals(1L, transfer.getCopies());
+    }
+  }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class WorkspaceCacheTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private String add(WorkspaceCache cache, String uri, String content) throws Exception {
+    File file = cache.createTempFile();
+    FileUtils.write(file, content, StandardCharsets.UTF_8);
+    String checksum = DigestUtils.md5Hex(content);
+    cache.add(uri, file, checksum);
+    cache.unpin(checksum);
+    return checksum;
+  }
+
+  @Test
+  public void testAddAndPin() throws Exception {
+    WorkspaceCache cache = new WorkspaceCache(testFolder.newFolder(), 1024);
+    String checksum = add(cache, "http://localhost/a", "content");
+    assertEquals(checksum, cache.getChecksum("http://localhost/a"));
+    File cached = cache.pin(checksum);
+    assertNotNull(cached);
+    assertEquals("content", FileUtils.readFileToString(cached, StandardCharsets.UTF_8));
+    cache.unpin(checksum);
+    assertEquals(7L, cache.getSize());
+    assertNull(cache.pin("unknown"));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEviction() throws Exception {
+    WorkspaceCache cache = new WorkspaceCache(testFolder.newFolder(), 20);
+    String a = add(cache, "http://localhost/a", "aaaaaaaaaa");
+    String b = add(cache, "http://localhost/b", "bbbbbbbbbb");
+    // Use a, so that b is the least recently used entry
+    cache.pin(a);
+    cache.unpin(a);
+    add(cache, "http://localhost/c", "cccccccccc");
+    assertNotNull(cache.pin(a));
+    assertNull(cache.pin(b));
+    assertEquals(1L, cache.getEvictions());
+    assertEquals(20L, cache.getSize());
+  }
+
+  @Test
+  public void testPinnedEntriesAreNotEvicted() throws Exception {
+    WorkspaceCache cache = new WorkspaceCache(testFolder.newFolder(), 10);
+    String a = add(cache, "http://localhost/a", "aaaaaaaaaa");
+    File pinned = cache.pin(a);
+    String b = add(cache, "http://localhost/b", "bbbbbbbbbb");
+    assertTrue(pinned.isFile());
+    assertNull(cache.pin(b));
+    cache.unpin(a);
+    assertEquals(10L, cache.getSize());
+  }
+
+  @Test
+  public void testEntriesSurviveRestart() throws Exception {
+    File directory = testFolder.newFolder();
+    WorkspaceCache cache = new WorkspaceCache(directory, 1024);
+    String checksum = add(cache, "http://localhost/a", "content");
+    File leftover = cache.createTempFile();
+
+    cache = new WorkspaceCache(directory, 1024);
+    assertNotNull(cache.pin(checksum));
+    assertFalse(leftover.exists());
+    assertEquals(1, cache.getEntryCount());
+  }
+
+  @Test
+  public void testConcurrentDownloadsAreShared() throws Exception {
+    final WorkspaceCache cache = new WorkspaceCache(testFolder.newFolder(), 1024);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger downloads = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> first = executor.submit(() -> cache.download("http://localhost/a", () -> {
+        downloads.incrementAndGet();
+        started.countDown();
+        release.await();
+        return "checksum";
+      }));
+      started.await();
+      Future<String> second = executor.submit(() -> cache.download("http://localhost/a", () -> {
+        downloads.incrementAndGet();
+        return "other";
+      }));
+      // Give the second request a chance to attach to the running download
+      Thread.sleep(100);
+      release.countDown();
+      assertEquals("checksum", first.get(5, TimeUnit.SECONDS));
+      assertEquals("checksum", second.get(5, TimeUnit.SECONDS));
+      assertEquals(1, downloads.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -31,10 +31,12 @@ import org.opencastproject.util.PathSupport;
 import org.opencastproject.util.UrlSupport;
 import org.opencastproject.util.data.Either;
 import org.opencastproject.util.data.Option;
+import org.opencastproject.workingfilerepository.api.PathMappable;
 import org.opencastproject.workingfilerepository.api.WorkingFileRepository;
 
 import com.entwinemedia.fn.Prelude;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
@@ -296,4 +298,117 @@ public class WorkspaceImplTest {
     Assert.assertEquals(0L, workspace.getUsedSpace().get().longValue());
   }
 
+  // Files of other nodes found in the shared working file repository storage are confirmed only once per checksum
+  @Test
+  public void testGetSharedFileConfirmedOnce() throws Exception {
+    setMappableRepository();
+    File shared = new File(PathSupport.concat(new String[] { repoRoot, "mediapackage", "mp", "element", "file.txt" }));
+    FileUtils.write(shared, "content", StandardCharsets.UTF_8);
+    FileUtils.write(new File(shared.getAbsolutePath() + LocalTransfer.MD5_EXTENSION), DigestUtils.md5Hex("content"),
+            StandardCharsets.UTF_8);
+
+    StatusLine statusLine = EasyMock.createNiceMock(StatusLine.class);
+    EasyMock.expect(statusLine.getStatusCode()).andReturn(HttpServletResponse.SC_NOT_MODIFIED).anyTimes();
+    HttpResponse response = EasyMock.createNiceMock(HttpResponse.class);
+    EasyMock.expect(response.getStatusLine()).andReturn(statusLine).anyTimes();
+    TrustedHttpClient httpClient = EasyMock.createMock(TrustedHttpClient.class);
+    EasyMock.expect(httpClient.execute(EasyMock.anyObject(HttpUriRequest.class))).andReturn(response).times(2);
+    httpClient.close(response);
+    EasyMock.expectLastCall().times(2);
+    EasyMock.replay(statusLine, response, httpClient);
+    workspace.setTrustedHttpClient(httpClient);
+
+    URI uri = new URI("http://othernode:8080/files/mediapackage/mp/element/file.txt");
+    File file = workspace.get(uri);
+    Assert.assertEquals("content", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    workspace.get(uri);
+
+    // The content changed, so the other node has to confirm it again
+    FileUtils.write(shared, "changed", StandardCharsets.UTF_8);
+    FileUtils.write(new File(shared.getAbsolutePath() + LocalTransfer.MD5_EXTENSION), DigestUtils.md5Hex("changed"),
+            StandardCharsets.UTF_8);
+    shared.setLastModified(file.lastModified() + 2000L);
+    file = workspace.get(uri);
+    Assert.assertEquals("changed", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    EasyMock.verify(httpClient);
+  }
+
+  // Copies within the working file repository of this node are not awaited via HTTP
+  @Test
+  public void testCopyToLocalRepository() throws Exception {
+    WorkingFileRepository repo = setMappableRepository();
+    EasyMock.reset(repo);
+    expectMappableRepository(repo);
+    URI copyUri = new URI("http://localhost:8080/files/mediapackage/mp/element/copy.txt");
+    EasyMock.expect(repo.getURI("mp", "element", "file.txt")).andReturn(copyUri);
+    EasyMock.expect(repo.copyTo("composer", "file.txt", "mp", "element", "copy.txt")).andAnswer(() -> {
+      File copy = new File(PathSupport.concat(new String[] { repoRoot, "mediapackage", "mp", "element", "copy.txt" }));
+      FileUtils.write(copy, "content", StandardCharsets.UTF_8);
+      return copyUri;
+    });
+    EasyMock.replay(repo);
+
+    URI uri = new URI("http://localhost:8080/files/collection/composer/file.txt");
+    File original = workspace.toWorkspaceFile(uri);
+    FileUtils.write(original, "content", StandardCharsets.UTF_8);
+
+    Assert.assertEquals(copyUri, workspace.copyTo(uri, "mp", "element", "copy.txt"));
+    Assert.assertTrue(original.isFile());
+    Assert.assertTrue(workspace.toWorkspaceFile(copyUri).isFile());
+    EasyMock.verify(repo);
+  }
+
+  // Moves within the working file repository of this node are not awaited via HTTP
+  @Test
+  public void testMoveToLocalRepository() throws Exception {
+    WorkingFileRepository repo = setMappableRepository();
+    EasyMock.reset(repo);
+    expectMappableRepository(repo);
+    URI movedUri = new URI("http://localhost:8080/files/mediapackage/mp/element/moved.txt");
+    EasyMock.expect(repo.getURI("mp", "element", "moved.txt")).andReturn(movedUri);
+    EasyMock.expect(repo.moveTo("composer", "file.txt", "mp", "element", "moved.txt")).andAnswer(() -> {
+      File moved = new File(PathSupport.concat(new String[] { repoRoot, "mediapackage", "mp", "element", "moved.txt" }));
+      FileUtils.write(moved, "content", StandardCharsets.UTF_8);
+      return movedUri;
+    });
+    EasyMock.replay(repo);
+
+    URI uri = new URI("http://localhost:8080/files/collection/composer/file.txt");
+    File original = workspace.toWorkspaceFile(uri);
+    FileUtils.write(original, "content", StandardCharsets.UTF_8);
+
+    Assert.assertEquals(movedUri, workspace.moveTo(uri, "mp", "element", "moved.txt"));
+    Assert.assertFalse(original.exists());
+    Assert.assertTrue(workspace.toWorkspaceFile(movedUri).isFile());
+    EasyMock.verify(repo);
+  }
+
+  /**
+   * Uses a new workspace waiting for files in a working file repository, which is available on this node, and an HTTP
+   * client expecting no requests.
+   */
+  private WorkingFileRepository setMappableRepository() throws Exception {
+    workspace.deactivate();
+    workspace = new WorkspaceImpl(workspaceRoot, true);
+    workspace.activate(null);
+    WorkingFileRepository repo = EasyMock.createMock(MappableRepository.class);
+    expectMappableRepository(repo);
+    EasyMock.replay(repo);
+    workspace.setRepository(repo);
+    TrustedHttpClient httpClient = EasyMock.createMock(TrustedHttpClient.class);
+    EasyMock.replay(httpClient);
+    workspace.setTrustedHttpClient(httpClient);
+    return repo;
+  }
+
+  private void expectMappableRepository(WorkingFileRepository repo) throws Exception {
+    EasyMock.expect(repo.getBaseUri()).andReturn(new URI("http://localhost:8080/files")).anyTimes();
+    EasyMock.expect(((PathMappable) repo).getPathPrefix()).andReturn(repoRoot).anyTimes();
+    EasyMock.expect(((PathMappable) repo).getUrlPrefix()).andReturn("http://localhost:8080/files").anyTimes();
+  }
+
+  /** A working file repository on this node */
+  interface MappableRepository extends WorkingFileRepository, PathMappable {
+  }
+
 }